@@ -65,7 +65,9 @@ import net.sf.freecol.common.util.LogBuilder;
 import net.sf.freecol.common.util.OSUtils;
 import static net.sf.freecol.common.util.StringUtils.*;
 import net.sf.freecol.common.util.Utils;
+import net.sf.freecol.server.CommandReplay;
 import net.sf.freecol.server.FreeColServer;
+import net.sf.freecol.server.Simulation;
 import net.sf.freecol.server.control.Controller;
 
 import org.apache.commons.cli.CommandLine;
@@ -214,6 +216,27 @@ public final class FreeCol {
     private static int serverPort = -1;
     private static String serverName = null;
 
+    /** The map size to generate, non-positive dimensions for the default. */
+    private static Dimension mapSize = new Dimension(-1, -1);
+
+    /**
+     * The number of threads to run the server new turn in, zero for
+     * the classic serial new turn.
+     */
+    private static int newTurnThreads = 0;
+
+    /** The number of turns to simulate, non-positive for no simulation. */
+    private static int simulateTurns = -1;
+
+    /** The file to save a simulation to. */
+    private static String simulateSave = null;
+
+    /** The file to journal server commands to. */
+    private static File journalFile = null;
+
+    /** The journal file to replay. */
+    private static File replayFile = null;
+
     /** A stream to get the splash image from. */
     private static InputStream splashStream;
 
@@ -367,7 +390,11 @@ public final class FreeCol {
         logger.info(getConfiguration().toString());
 
         // Ready to specialize into client or server.
-        if (standAloneServer) {
+        if (replayFile != null) {
+            startReplay();
+        } else if (simulateTurns > 0) {
+            startSimulation();
+        } else if (standAloneServer) {
             startServer();
         } else {
             if (headless) {
@@ -604,22 +631,28 @@ public final class FreeCol {
         { "F", "full-screen", "cli.full-screen", null },
         { "g", "gui-scale", getGUIScaleDescription(), "!cli.arg.gui-scale" },
         { "H", "headless", "cli.headless", null },
+        { null,  "journal", "cli.journal", argFile },
         { "l", "load-savegame", "cli.load-savegame", argFile },
         { null,  "log-console", "cli.log-console", null },
         { null,  "log-file", "cli.log-file", "cli.arg.name" },
         { null,  "log-level", "cli.log-level", "cli.arg.loglevel" },
+        { null,  "map-size", "cli.map-size", "cli.arg.dimensions" },
         { "m", "meta-server", "cli.meta-server", "cli.arg.metaServer" },
         { "n", "name", "cli.name", "cli.arg.name" },
+        { null,  "new-turn-threads", "cli.new-turn-threads", "cli.arg.threads" },
         { null,  "no-intro", "cli.no-intro", null },
         { null,  "no-java-check", "cli.no-java-check", null },
         { null,  "no-memory-check", "cli.no-memory-check", null },
         { null,  "no-sound", "cli.no-sound", null },
         { null,  "no-splash", "cli.no-splash", null },
         { "p", "private", "cli.private", null },
+        { null,  "profile-turns", "cli.profile-turns", "!cli.arg.profile-turns" },
+        { null,  "replay", "cli.replay", argFile },
         { "Z", "seed", "cli.seed", "cli.arg.seed" },
         { null,  "server", "cli.server", null },
         { null,  "server-name", "cli.server-name", "cli.arg.name" },
         { null,  "server-port", "cli.server-port", "cli.arg.port" },
+        { null,  "simulate", "cli.simulate", "cli.arg.simulate" },
         { "s", "splash", "cli.splash", "!" + argFile },
         { "t", "tc", "cli.tc", "cli.arg.name" },
         { "T", "timeout", "cli.timeout", "cli.arg.timeout" },
@@ -764,6 +797,10 @@ public final class FreeCol {
                 headless = true;
             }
 
+            if (line.hasOption("journal")) {
+                journalFile = new File(line.getOptionValue("journal"));
+            }
+
             if (line.hasOption("load-savegame")) {
                 String arg = line.getOptionValue("load-savegame");
                 if (!FreeColDirectories.setSavegameFile(arg)) {
@@ -789,6 +826,14 @@ public final class FreeCol {
                 }
             }
 
+            if (line.hasOption("map-size")) {
+                String arg = line.getOptionValue("map-size");
+                if (!setMapSize(arg)) {
+                    fatal(StringTemplate.template("cli.error.map-size")
+                        .addName("%string%", arg));
+                }
+            }
+
             if (line.hasOption("meta-server")) {
                 String arg = line.getOptionValue("meta-server");
                 if (!setMetaServer(arg)) {
@@ -801,6 +846,14 @@ public final class FreeCol {
                 setName(line.getOptionValue("name"));
             }
 
+            if (line.hasOption("new-turn-threads")) {
+                String arg = line.getOptionValue("new-turn-threads");
+                if (!setNewTurnThreads(arg)) {
+                    fatal(StringTemplate.template("cli.error.newTurnThreads")
+                        .addName("%string%", arg));
+                }
+            }
+
             if (line.hasOption("no-intro")) {
                 introVideo = false;
             }
@@ -821,6 +874,19 @@ public final class FreeCol {
                 publicServer = false;
             }
 
+            if (line.hasOption("profile-turns")) {
+                FreeColDebugger.configureProfileTurns(line.getOptionValue("profile-turns"));
+            }
+
+            if (line.hasOption("replay")) {
+                String arg = line.getOptionValue("replay");
+                replayFile = new File(arg);
+                if (!replayFile.isFile()) {
+                    fatal(StringTemplate.template("cli.error.replay")
+                        .addName("%string%", arg));
+                }
+            }
+
             if (line.hasOption("server")) {
                 standAloneServer = true;
             }
@@ -835,6 +901,14 @@ public final class FreeCol {
                 }
             }
 
+            if (line.hasOption("simulate")) {
+                String arg = line.getOptionValue("simulate");
+                if (!setSimulate(arg)) {
+                    fatal(StringTemplate.template("cli.error.simulate")
+                        .addName("%string%", arg));
+                }
+            }
+
             boolean seeded = (line.hasOption("seed")
                 && FreeColSeed.setFreeColSeed(line.getOptionValue("seed")));
             if (!seeded) FreeColSeed.generateFreeColSeed();
@@ -1330,6 +1404,71 @@ public final class FreeCol {
         return true;
     }
 
+    /**
+     * Gets the number of threads to run the server new turn in.
+     *
+     * @return The number of threads, zero for the classic serial
+     *     new turn.
+     */
+    public static int getNewTurnThreads() {
+        return newTurnThreads;
+    }
+
+    /**
+     * Sets the number of threads to run the server new turn in.
+     *
+     * @param arg The number of threads.
+     * @return True if the number was set.
+     */
+    private static boolean setNewTurnThreads(String arg) {
+        if (arg == null) return false;
+        try {
+            newTurnThreads = Integer.parseInt(arg);
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        return newTurnThreads >= 0;
+    }
+
+    /**
+     * Sets the map size to generate.
+     *
+     * @param arg The map size specification, "WIDTHxHEIGHT".
+     * @return True if the map size was set.
+     */
+    private static boolean setMapSize(String arg) {
+        if (arg == null) return false;
+        String[] xy = arg.split("[^0-9]");
+        if (xy.length != 2) return false;
+        try {
+            mapSize = new Dimension(Integer.parseInt(xy[0]),
+                                    Integer.parseInt(xy[1]));
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        return mapSize.width > 0 && mapSize.height > 0;
+    }
+
+    /**
+     * Sets the simulation to run.
+     *
+     * @param arg The simulation specification, the number of turns,
+     *     optionally followed by a comma and the file to save to.
+     * @return True if the simulation was set.
+     */
+    private static boolean setSimulate(String arg) {
+        if (arg == null) return false;
+        int comma = arg.indexOf(',');
+        try {
+            simulateTurns = Integer.parseInt((comma < 0) ? arg
+                : arg.substring(0, comma));
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+        if (comma > 0) simulateSave = arg.substring(comma + 1);
+        return simulateTurns > 0;
+    }
+
     /**
      * Gets the current Total-Conversion.
      *
@@ -1615,6 +1754,8 @@ public final class FreeCol {
             }
         }
 
+        if (journalFile != null) freeColServer.setJournalFile(journalFile);
+
         String quit = FreeCol.SERVER_THREAD + "Quit Game";
         final Controller controller = freeColServer.getController();
         Runtime.getRuntime().addShutdownHook(new Thread(quit) {
@@ -1624,4 +1765,56 @@ public final class FreeCol {
                 }
             });
     }
+
+    /**
+     * Run a headless simulation with every nation played by the AI,
+     * then quit.
+     */
+    private static void startSimulation() {
+        logger.info("Starting simulation.");
+        final Specification spec = FreeCol.getTCSpecification();
+        Simulation.configureMap(spec, mapSize.width, mapSize.height);
+        final File save = (simulateSave != null) ? new File(simulateSave)
+            : new File(FreeColDirectories.getSaveDirectory(),
+                "simulation-" + FreeColSeed.getFreeColSeed()
+                + "." + FREECOL_SAVE_EXTENSION);
+        FreeColServer freeColServer;
+        try {
+            freeColServer = new FreeColServer(false, false, spec,
+                                              serverPort, serverName);
+        } catch (Exception e) {
+            fatal(Messages.message("server.initialize")
+                + ": " + e.getMessage());
+            return;
+        }
+
+        if (journalFile != null) freeColServer.setJournalFile(journalFile);
+
+        boolean ok = false;
+        try {
+            ok = new Simulation(simulateTurns).run(freeColServer, save,
+                1000L * getTimeout(false));
+        } catch (FreeColException | InterruptedException e) {
+            logger.log(Level.SEVERE, "Simulation failed", e);
+        }
+        freeColServer.getController().shutdown();
+        quit((ok) ? 0 : 1);
+    }
+
+    /**
+     * Replay a journal of server commands into a new server, report
+     * the handling times, then quit.
+     */
+    private static void startReplay() {
+        logger.info("Starting replay of " + replayFile.getPath());
+        LogBuilder lb = new LogBuilder(256);
+        boolean ok = false;
+        try {
+            ok = CommandReplay.replay(replayFile, lb);
+        } catch (FreeColException | IOException | XMLStreamException ex) {
+            logger.log(Level.SEVERE, "Replay failed", ex);
+        }
+        lb.log(logger, Level.INFO);
+        quit((ok) ? 0 : 1);
+    }
 }
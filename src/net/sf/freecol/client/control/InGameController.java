@@ -110,6 +110,7 @@ import net.sf.freecol.common.model.Unit.UnitState;
 import net.sf.freecol.common.model.UnitType;
 import net.sf.freecol.common.model.UnitWas;
 import net.sf.freecol.common.model.WorkLocation;
+import net.sf.freecol.common.model.pathfinding.PathPlan;
 import net.sf.freecol.common.option.BooleanOption;
 import net.sf.freecol.common.option.GameOptions;
 import static net.sf.freecol.common.util.CollectionUtils.*;
@@ -165,6 +166,9 @@ public final class InGameController extends FreeColClientHolder {
     /** The messages in the last turn report. */
     private final List<ModelMessage> turnReportMessages = new ArrayList<>();
 
+    /** The paths followed by units with goto orders, kept between turns. */
+    private final java.util.Map<Unit, PathPlan> gotoPlans = new HashMap<>();
+
 
     /**
      * The constructor to use.
@@ -788,6 +792,10 @@ public final class InGameController extends FreeColClientHolder {
         // Ensure the goto mode sticks.
         moveMode = moveMode.maximize(MoveMode.EXECUTE_GOTO_ORDERS);
 
+        // Drop the plans of units that no longer need them.
+        gotoPlans.keySet().removeIf(u -> u.isDisposed() || !player.owns(u)
+            || (u.getDestination() == null && u.getTradeRoute() == null));
+
         // Deal with the trade route units first.
         List<ModelMessage> messages = new ArrayList<>();
         final Predicate<Unit> tradePred = u ->
@@ -887,6 +895,19 @@ public final class InGameController extends FreeColClientHolder {
 
     // Movement support.
 
+    /**
+     * Get the path for a unit to follow towards its destination,
+     * repairing the path it followed last time where possible.
+     *
+     * @param unit The {@code Unit} to move.
+     * @param destination The destination {@code Location}.
+     * @return A path to the destination, or null if none found.
+     */
+    private PathNode getGotoPath(Unit unit, Location destination) {
+        return gotoPlans.computeIfAbsent(unit, PathPlan::new)
+            .getPath(destination);
+    }
+
     /**
      * Moves the given unit towards its destination/s if possible.
      *
@@ -910,7 +931,7 @@ public final class InGameController extends FreeColClientHolder {
             return true;
         } else if (!changeState(unit, UnitState.ACTIVE)) {
             return true;
-        } else if ((path = unit.findPath(destination)) == null) {
+        } else if ((path = getGotoPath(unit, destination)) == null) {
             StringTemplate src = unit.getLocation()
                 .getLocationLabelFor(player);
             StringTemplate dst = destination.getLocationLabelFor(player);
@@ -1904,7 +1925,7 @@ public final class InGameController extends FreeColClientHolder {
 
                 // Find a path to the stop, skip if none.
                 Location destination = stop.getLocation();
-                PathNode path = unit.findPath(destination);
+                PathNode path = getGotoPath(unit, destination);
                 if (path == null) {
                     lb.add("\n", Messages.message(stop
                             .getLabelFor("tradeRoute.pathStop", player)));
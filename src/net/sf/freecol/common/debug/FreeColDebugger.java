@@ -29,6 +29,7 @@ import java.nio.file.Paths;
 import static java.nio.file.StandardOpenOption.*;
 
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -97,6 +98,12 @@ public class FreeColDebugger {
     private static final AtomicReference<PrintStream> debugStream
         = new AtomicReference<PrintStream>(null);
 
+    /** The turn profiler, if turn profiling is enabled. */
+    private static volatile TurnProfiler turnProfiler = null;
+
+    /** The suffix of the turn profile dump, beside the log file. */
+    private static final String TURN_PROFILE_SUFFIX = "-turns";
+
 
     /**
      * Is a debug mode enabled in this game?
@@ -292,6 +299,78 @@ public class FreeColDebugger {
         if (debugRunTurns > 0) setDebugRunTurns(0);
     }
 
+    /**
+     * Configures turn profiling.
+     *
+     * @param option The command line option, the number of turns to
+     *     keep, or null for the default.
+     */
+    public static void configureProfileTurns(String option) {
+        int history = TurnProfiler.DEFAULT_HISTORY;
+        if (option != null) {
+            try {
+                history = Integer.parseInt(option);
+            } catch (NumberFormatException e) {
+                logger.warning("Bad turn profile history: " + option);
+            }
+        }
+        setProfileTurns(history);
+    }
+
+    /**
+     * Enable or disable turn profiling.
+     *
+     * @param history The number of turns to keep, non-positive to disable.
+     */
+    public static void setProfileTurns(int history) {
+        FreeColDebugger.turnProfiler = (history <= 0) ? null
+            : new TurnProfiler(history);
+    }
+
+    /**
+     * Get the turn profiler.
+     *
+     * @return The {@code TurnProfiler}, or null if profiling is disabled.
+     */
+    public static TurnProfiler getTurnProfiler() {
+        return FreeColDebugger.turnProfiler;
+    }
+
+    /**
+     * Start profiling a turn phase.  End the sample returned in a
+     * finally block.
+     *
+     * @param phase The phase name.
+     * @param key The key within the phase, such as a player.
+     * @return A {@code TurnProfiler.Sample} to end when the phase ends.
+     */
+    public static TurnProfiler.Sample profile(String phase, String key) {
+        final TurnProfiler tp = FreeColDebugger.turnProfiler;
+        return (tp == null) ? TurnProfiler.NO_SAMPLE : tp.start(phase, key);
+    }
+
+    /**
+     * Start profiling a new turn, and dump the completed turns beside
+     * the log file.
+     *
+     * @param turn The new turn number.
+     */
+    public static void profileNewTurn(int turn) {
+        final TurnProfiler tp = FreeColDebugger.turnProfiler;
+        if (tp == null) return;
+        tp.beginTurn(turn);
+        final String log = FreeColDirectories.getLogFilePath();
+        if (log == null) return;
+        String base = Paths.get(log).getFileName().toString();
+        int dot = base.lastIndexOf('.');
+        if (dot > 0) base = base.substring(0, dot);
+        try {
+            tp.write(Paths.get(log).resolveSibling(base + TURN_PROFILE_SUFFIX));
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, "Turn profile dump failed", ioe);
+        }
+    }
+
     /**
      * Should the map viewer display tile coordinates?
      *
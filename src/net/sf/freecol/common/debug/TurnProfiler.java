@@ -0,0 +1,409 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.debug;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Profiles the phases of the turns of a game.
+ *
+ * Each phase sample records the wall time, the CPU time and the bytes
+ * allocated by the sampling thread, as reported by the
+ * {@code ThreadMXBean} where the platform supports it.  Samples are
+ * accumulated per turn by phase and key, where the key is usually a
+ * player or an AI mission type.  Nested phases are inclusive of the
+ * phases inside them.  The profiles of the last few turns are kept,
+ * and can be written out as CSV or JSON.
+ */
+public final class TurnProfiler {
+
+    /** The default number of turns to keep. */
+    public static final int DEFAULT_HISTORY = 20;
+
+    /**
+     * A sample of a phase in progress.  Ending it records it.
+     */
+    public static final class Sample {
+
+        /** The profiler to record to, null for an inactive sample. */
+        private final TurnProfiler profiler;
+
+        /** The phase and key sampled. */
+        private final String phase, key;
+
+        /** The wall time, CPU time and allocation at the start. */
+        private final long wall, cpu, alloc;
+
+
+        /**
+         * Start a new sample.
+         *
+         * @param profiler The {@code TurnProfiler} to record to.
+         * @param phase The phase name.
+         * @param key The key within the phase.
+         */
+        private Sample(TurnProfiler profiler, String phase, String key) {
+            this.profiler = profiler;
+            this.phase = phase;
+            this.key = key;
+            this.wall = (profiler == null) ? 0L : System.nanoTime();
+            this.cpu = (profiler == null) ? 0L : profiler.cpuTime();
+            this.alloc = (profiler == null) ? 0L : profiler.allocatedBytes();
+        }
+
+        /**
+         * End this sample, recording it.  Call this in a finally
+         * block so that failing phases are recorded too.
+         */
+        public void end() {
+            if (profiler == null) return;
+            profiler.record(phase, key, System.nanoTime() - wall,
+                            profiler.cpuTime() - cpu,
+                            profiler.allocatedBytes() - alloc);
+        }
+    }
+
+    /** A sample that records nothing. */
+    public static final Sample NO_SAMPLE = new Sample(null, null, null);
+
+    /**
+     * The accumulated samples of a phase and key.
+     */
+    public static final class Stat {
+
+        /** The phase name. */
+        public final String phase;
+
+        /** The key within the phase. */
+        public final String key;
+
+        /** The number of samples. */
+        private int count = 0;
+
+        /** The total wall time, CPU time (ns) and allocation (bytes). */
+        private long wall = 0L, cpu = 0L, alloc = 0L;
+
+
+        /**
+         * Create a new stat.
+         *
+         * @param phase The phase name.
+         * @param key The key within the phase.
+         */
+        private Stat(String phase, String key) {
+            this.phase = phase;
+            this.key = key;
+        }
+
+        /**
+         * Get the number of samples.
+         *
+         * @return The sample count.
+         */
+        public int getCount() {
+            return this.count;
+        }
+
+        /**
+         * Get the total wall time.
+         *
+         * @return The wall time in nanoseconds.
+         */
+        public long getWallTime() {
+            return this.wall;
+        }
+
+        /**
+         * Get the total CPU time.
+         *
+         * @return The CPU time in nanoseconds.
+         */
+        public long getCpuTime() {
+            return this.cpu;
+        }
+
+        /**
+         * Get the total allocation.
+         *
+         * @return The allocated bytes.
+         */
+        public long getAllocatedBytes() {
+            return this.alloc;
+        }
+    }
+
+    /**
+     * The profile of one turn.
+     */
+    public static final class TurnProfile {
+
+        /** The turn number. */
+        public final int turn;
+
+        /** The stats, by phase then key. */
+        private final Map<String, Stat> stats = new TreeMap<>();
+
+
+        /**
+         * Create a new turn profile.
+         *
+         * @param turn The turn number.
+         */
+        private TurnProfile(int turn) {
+            this.turn = turn;
+        }
+
+        /**
+         * Get the stats of this turn.
+         *
+         * @return A list of {@code Stat}s, ordered by phase and key.
+         */
+        public List<Stat> getStats() {
+            return new ArrayList<>(this.stats.values());
+        }
+    }
+
+    /** The number of turns to keep. */
+    private final int history;
+
+    /** The completed turn profiles, oldest first. */
+    private final ArrayDeque<TurnProfile> turns = new ArrayDeque<>();
+
+    /** The profile of the current turn. */
+    private TurnProfile current = new TurnProfile(-1);
+
+    /** The thread bean. */
+    private final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+    /** Is CPU time available? */
+    private final boolean cpuTimeSupported;
+
+    /** The extended thread bean for allocation counts, if available. */
+    private final com.sun.management.ThreadMXBean allocBean;
+
+
+    /**
+     * Create a new turn profiler.
+     *
+     * @param history The number of completed turns to keep.
+     */
+    public TurnProfiler(int history) {
+        this.history = Math.max(1, history);
+        this.cpuTimeSupported = bean.isCurrentThreadCpuTimeSupported();
+        if (this.cpuTimeSupported && !bean.isThreadCpuTimeEnabled()) {
+            bean.setThreadCpuTimeEnabled(true);
+        }
+        com.sun.management.ThreadMXBean ab = null;
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            ab = (com.sun.management.ThreadMXBean)bean;
+            if (ab.isThreadAllocatedMemorySupported()) {
+                ab.setThreadAllocatedMemoryEnabled(true);
+            } else {
+                ab = null;
+            }
+        }
+        this.allocBean = ab;
+    }
+
+
+    /**
+     * Get the CPU time of the current thread.
+     *
+     * @return The CPU time in nanoseconds, or zero if not available.
+     */
+    private long cpuTime() {
+        return (cpuTimeSupported) ? bean.getCurrentThreadCpuTime() : 0L;
+    }
+
+    /**
+     * Get the bytes allocated by the current thread.
+     *
+     * @return The allocated bytes, or zero if not available.
+     */
+    private long allocatedBytes() {
+        return (allocBean == null) ? 0L
+            : allocBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Start sampling a phase.
+     *
+     * @param phase The phase name.
+     * @param key The key within the phase, such as a player.
+     * @return A {@code Sample} to end when the phase ends.
+     */
+    public Sample start(String phase, String key) {
+        return new Sample(this, phase, key);
+    }
+
+    /**
+     * Record a sample.
+     *
+     * @param phase The phase name.
+     * @param key The key within the phase.
+     * @param wall The wall time in nanoseconds.
+     * @param cpu The CPU time in nanoseconds.
+     * @param alloc The allocated bytes.
+     */
+    private synchronized void record(String phase, String key,
+                                     long wall, long cpu, long alloc) {
+        final String k = phase + "/" + key;
+        Stat stat = current.stats.get(k);
+        if (stat == null) {
+            stat = new Stat(phase, key);
+            current.stats.put(k, stat);
+        }
+        stat.count++;
+        stat.wall += wall;
+        stat.cpu += cpu;
+        stat.alloc += alloc;
+    }
+
+    /**
+     * Start profiling a new turn, completing the current one.
+     *
+     * @param turn The new turn number.
+     */
+    public synchronized void beginTurn(int turn) {
+        if (!current.stats.isEmpty()) {
+            turns.addLast(current);
+            while (turns.size() > history) turns.removeFirst();
+        }
+        current = new TurnProfile(turn);
+    }
+
+    /**
+     * Get the profiles of the completed turns.
+     *
+     * @return A list of {@code TurnProfile}s, oldest first.
+     */
+    public synchronized List<TurnProfile> getHistory() {
+        return Collections.unmodifiableList(new ArrayList<>(turns));
+    }
+
+    /**
+     * Get the completed turns as CSV.
+     *
+     * @return The CSV text, with a header line.
+     */
+    public String toCSV() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("turn,phase,key,count,wallNanos,cpuNanos,allocBytes\n");
+        for (TurnProfile tp : getHistory()) {
+            for (Stat s : tp.getStats()) {
+                sb.append(tp.turn).append(',').append(csv(s.phase))
+                    .append(',').append(csv(s.key))
+                    .append(',').append(s.count).append(',').append(s.wall)
+                    .append(',').append(s.cpu).append(',').append(s.alloc)
+                    .append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get the completed turns as JSON.
+     *
+     * @return The JSON text.
+     */
+    public String toJSON() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\"turns\":[");
+        String tsep = "";
+        for (TurnProfile tp : getHistory()) {
+            sb.append(tsep).append("\n {\"turn\":").append(tp.turn)
+                .append(",\"phases\":[");
+            String ssep = "";
+            for (Stat s : tp.getStats()) {
+                sb.append(ssep).append("\n  {\"phase\":").append(json(s.phase))
+                    .append(",\"key\":").append(json(s.key))
+                    .append(",\"count\":").append(s.count)
+                    .append(",\"wallNanos\":").append(s.wall)
+                    .append(",\"cpuNanos\":").append(s.cpu)
+                    .append(",\"allocBytes\":").append(s.alloc).append('}');
+                ssep = ",";
+            }
+            sb.append("]}");
+            tsep = ",";
+        }
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Write the completed turns as CSV and JSON.
+     *
+     * @param base The path to write to, without extension.
+     * @exception IOException if the files can not be written.
+     */
+    public void write(Path base) throws IOException {
+        final String name = base.getFileName().toString();
+        Files.write(base.resolveSibling(name + ".csv"),
+                    toCSV().getBytes(StandardCharsets.UTF_8));
+        Files.write(base.resolveSibling(name + ".json"),
+                    toJSON().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Quote a CSV field if needed.
+     *
+     * @param s The field value.
+     * @return The CSV field.
+     */
+    private static String csv(String s) {
+        if (s == null) return "";
+        return (s.indexOf(',') < 0 && s.indexOf('"') < 0) ? s
+            : "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Quote a JSON string.
+     *
+     * @param s The string value.
+     * @return The JSON string.
+     */
+    private static String json(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int)c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -92,6 +92,22 @@ public class Building extends WorkLocation
         return buildingType;
     }
 
+    /**
+     * Make an uninterned copy of this building for a cached colony.
+     * The units present are not copied.
+     *
+     * @param colony The cached copy of the {@code Colony} to attach to.
+     * @return The copied {@code Building}.
+     */
+    Building copyForCache(Colony colony) {
+        Building ret = new Building(getGame(), (String)null);
+        ret.setId(getId());
+        ret.colony = colony;
+        ret.buildingType = this.buildingType;
+        ret.setProductionType(getProductionType());
+        return ret;
+    }
+
     /**
      * Changes the type of the Building.  The type of a building may
      * change when it is upgraded or damaged.
@@ -667,6 +683,16 @@ public class Building extends WorkLocation
         return getType().getModifiers(id, fcgot, turn);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Modifier[] getSortedModifiers(String id,
+                                         FreeColSpecObjectType fcgot,
+                                         Turn turn) {
+        return getType().getSortedModifiers(id, fcgot, turn);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -432,6 +432,31 @@ public class Colony extends Settlement implements TradeLocation {
         this.displayUnitCount = count;
     }
 
+    /**
+     * Make an uninterned copy of the parts of this colony that are
+     * visible to other players, for a cached tile.
+     *
+     * Only the attributes written to other players and the stockade
+     * are copied, the units, goods and other work locations are not.
+     *
+     * @param tile The cached copy of the {@code Tile} to attach to.
+     * @return The copied {@code Colony}.
+     */
+    Colony copyForCache(Tile tile) {
+        Colony ret = new Colony(getGame(), (String)null);
+        ret.setId(getId());
+        ret.owner = this.owner;
+        ret.tile = tile;
+        ret.setName(getName());
+        ret.setType(getType());
+        ret.established = this.established;
+        ret.sonsOfLiberty = this.sonsOfLiberty;
+        ret.displayUnitCount = this.displayUnitCount;
+        Building stockade = getStockade();
+        if (stockade != null) ret.addBuilding(stockade.copyForCache(ret));
+        return ret;
+    }
+
 
     // Occupation routines
 
@@ -1962,7 +1987,7 @@ public class Colony extends Settlement implements TradeLocation {
         final Specification spec = getSpecification();
         int result = super.getConsumptionOf(goodsType);
         if (spec.getGoodsType("model.goods.bells").equals(goodsType)) {
-            result -= spec.getInteger(GameOptions.UNITS_THAT_USE_NO_BELLS);
+            result -= spec.getUnitsThatUseNoBellsHandle().getValue();
         }
         return Math.max(0, result);
     }
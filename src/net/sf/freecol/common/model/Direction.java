@@ -83,6 +83,26 @@ public enum Direction implements Named {
     }
 
 
+    /**
+     * Get the x-offset of a step in this direction from a given row.
+     *
+     * @param y The y-coordinate of the row to step from.
+     * @return The change in the x-coordinate.
+     */
+    public int getXStep(int y) {
+        return ((y & 1) != 0) ? oddDX : evenDX;
+    }
+
+    /**
+     * Get the y-offset of a step in this direction from a given row.
+     *
+     * @param y The y-coordinate of the row to step from.
+     * @return The change in the y-coordinate.
+     */
+    public int getYStep(int y) {
+        return ((y & 1) != 0) ? oddDY : evenDY;
+    }
+
     /**
      * Step the x and y coordinates in this direction.
      *
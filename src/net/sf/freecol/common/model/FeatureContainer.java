@@ -18,11 +18,17 @@
  */
 package net.sf.freecol.common.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
@@ -40,11 +46,131 @@ import static net.sf.freecol.common.util.CollectionUtils.*;
  * - Unit fakes it by constructing a FeatureContainer on the fly.
  *
  * - FreeColObject itself implements a null version.
+ *
+ * Queries are answered from a cache of resolved features, keyed by
+ * the feature identifier, the applicable type, and the turn where any
+ * of the candidate features is time limited.  Resolved modifiers are
+ * held pre-sorted in application order.  Each container counts the
+ * changes to its abilities and modifiers, and a resolved entry
+ * remembers the counts it was built at, so any change to a container
+ * invalidates the entries built from it.  Modifiers can also be
+ * resolved across a chain of containers, such as the unit type, owner
+ * and role of a unit, with the result cached in the first container.
  */
 public final class FeatureContainer {
 
     private static final Logger logger = Logger.getLogger(FeatureContainer.class.getName());
 
+    /** An empty modifier array. */
+    public static final Modifier[] NO_MODIFIERS = new Modifier[0];
+
+    /** An empty ability array. */
+    private static final Ability[] NO_ABILITIES = new Ability[0];
+
+    /** An empty container chain. */
+    private static final FeatureContainer[] NO_CHAIN = new FeatureContainer[0];
+
+    /** The number of resolved entries a container holds before flushing. */
+    private static final int RESOLVED_LIMIT = 256;
+
+    /** The turn bucket for features resolved regardless of turn. */
+    private static final int ANY_TURN = -1;
+
+    /**
+     * The key of a resolved entry.
+     */
+    private static final class ResolveKey {
+
+        /** The feature identifier, or null for all. */
+        private final String id;
+
+        /** The applicable type, compared by identity. */
+        private final FreeColSpecObjectType fcgot;
+
+        /** The turn number, or ANY_TURN. */
+        private final int bucket;
+
+        /** The other containers in the chain, compared by identity. */
+        private final FeatureContainer[] chain;
+
+
+        /**
+         * Create a new key.
+         *
+         * @param id The feature identifier.
+         * @param fcgot The applicable {@code FreeColSpecObjectType}.
+         * @param bucket The turn bucket.
+         * @param chain The other {@code FeatureContainer}s resolved.
+         */
+        public ResolveKey(String id, FreeColSpecObjectType fcgot, int bucket,
+                          FeatureContainer[] chain) {
+            this.id = id;
+            this.fcgot = fcgot;
+            this.bucket = bucket;
+            this.chain = chain;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ResolveKey)) return false;
+            final ResolveKey other = (ResolveKey)o;
+            if (this.bucket != other.bucket || this.fcgot != other.fcgot
+                || !Objects.equals(this.id, other.id)
+                || this.chain.length != other.chain.length) return false;
+            for (int i = 0; i < this.chain.length; i++) {
+                if (this.chain[i] != other.chain[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int hash = Objects.hashCode(this.id);
+            hash = 31 * hash + System.identityHashCode(this.fcgot);
+            hash = 31 * hash + this.bucket;
+            for (FeatureContainer fc : this.chain) {
+                hash = 31 * hash + System.identityHashCode(fc);
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * A resolved entry.
+     */
+    private static final class Resolved<T extends Feature> {
+
+        /** The versions of the containers resolved. */
+        public final int[] versions;
+
+        /** Is any candidate feature time limited? */
+        public final boolean timeLimited;
+
+        /** The applicable features. */
+        public final T[] features;
+
+
+        /**
+         * Create a new resolved entry.
+         *
+         * @param versions The container versions.
+         * @param timeLimited True if any candidate is time limited.
+         * @param features The applicable features.
+         */
+        public Resolved(int[] versions, boolean timeLimited, T[] features) {
+            this.versions = versions;
+            this.timeLimited = timeLimited;
+            this.features = features;
+        }
+    }
+
     /** Lock variables. */
     private final Object abilitiesLock = new Object();
     private final Object modifiersLock = new Object();
@@ -55,6 +181,20 @@ public final class FeatureContainer {
     /** The modifiers in the container. */
     private Map<String, Set<Modifier>> modifiers = null;
 
+    /** The number of changes to the abilities. */
+    private volatile int abilityVersion = 0;
+
+    /** The number of changes to the modifiers. */
+    private volatile int modifierVersion = 0;
+
+    /** The resolved abilities. */
+    private final Map<ResolveKey, Resolved<Ability>> resolvedAbilities
+        = new ConcurrentHashMap<>();
+
+    /** The resolved modifiers, including chains starting here. */
+    private final Map<ResolveKey, Resolved<Modifier>> resolvedModifiers
+        = new ConcurrentHashMap<>();
+
 
     /**
      * Have the abilities map been created?
@@ -169,21 +309,89 @@ public final class FeatureContainer {
      */
     public Stream<Ability> getAbilities(String id, FreeColSpecObjectType fcgot,
                                         Turn turn) {
-        Set<Ability> result = new HashSet<>();
-        if (abilitiesPresent()) {
-            synchronized (abilitiesLock) {
-                if (id == null) {
-                    for (Set<Ability> aset : abilities.values()) {
-                        result.addAll(aset);
-                    }
-                } else {
-                    Set<Ability> aset = abilities.get(id);
-                    if (aset != null) result.addAll(aset);
+        final Ability[] abilities = getResolvedAbilities(id, fcgot, turn);
+        return (abilities.length == 0) ? Stream.<Ability>empty()
+            : Arrays.stream(abilities);
+    }
+
+    /**
+     * Get the applicable abilities with the given identifier, using
+     * the resolved cache.
+     *
+     * @param id The object identifier (null matches all).
+     * @param fcgot An optional {@code FreeColSpecObjectType} the
+     *     ability applies to.
+     * @param turn An optional applicable {@code Turn}.
+     * @return A shared array of abilities, which must not be modified.
+     */
+    private Ability[] getResolvedAbilities(String id,
+                                           FreeColSpecObjectType fcgot,
+                                           Turn turn) {
+        if (!abilitiesPresent()) return NO_ABILITIES;
+        final int[] versions = { this.abilityVersion };
+        Resolved<Ability> r = resolve(resolvedAbilities,
+            new ResolveKey(id, fcgot, ANY_TURN, NO_CHAIN), versions,
+            () -> resolveAbilities(versions, id, fcgot, null));
+        if (turn != null && r.timeLimited) {
+            r = resolve(resolvedAbilities,
+                new ResolveKey(id, fcgot, turn.getNumber(), NO_CHAIN),
+                versions, () -> resolveAbilities(versions, id, fcgot, turn));
+        }
+        return r.features;
+    }
+
+    /**
+     * Resolve the applicable abilities in this container.
+     *
+     * @param versions The container versions to record.
+     * @param id The object identifier (null matches all).
+     * @param fcgot An optional {@code FreeColSpecObjectType} the
+     *     ability applies to.
+     * @param turn An optional applicable {@code Turn}.
+     * @return The {@code Resolved} abilities.
+     */
+    private Resolved<Ability> resolveAbilities(int[] versions, String id,
+                                               FreeColSpecObjectType fcgot,
+                                               Turn turn) {
+        final List<Ability> candidates = new ArrayList<>();
+        synchronized (abilitiesLock) {
+            if (id == null) {
+                for (Set<Ability> aset : abilities.values()) {
+                    candidates.addAll(aset);
                 }
+            } else {
+                Set<Ability> aset = abilities.get(id);
+                if (aset != null) candidates.addAll(aset);
             }
-            removeInPlace(result, a -> !a.appliesTo(fcgot, turn));
         }
-        return result.stream();
+        final boolean timeLimited = any(candidates, Ability::hasTimeLimit);
+        removeInPlace(candidates, a -> !a.appliesTo(fcgot, turn));
+        return new Resolved<>(versions, timeLimited,
+            (candidates.isEmpty()) ? NO_ABILITIES
+                : candidates.toArray(new Ability[0]));
+    }
+
+    /**
+     * Look up a resolved entry, resolving it again if any container
+     * has changed since it was built.
+     *
+     * @param <T> The feature type.
+     * @param cache The cache to look in.
+     * @param key The {@code ResolveKey} to look up.
+     * @param versions The current container versions.
+     * @param resolver A {@code Supplier} to resolve the entry.
+     * @return The {@code Resolved} entry.
+     */
+    private static <T extends Feature> Resolved<T>
+        resolve(Map<ResolveKey, Resolved<T>> cache, ResolveKey key,
+                int[] versions, Supplier<Resolved<T>> resolver) {
+        Resolved<T> r = cache.get(key);
+        if (r == null || !Arrays.equals(r.versions, versions)) {
+            r = resolver.get();
+            if (cache.size() >= RESOLVED_LIMIT) cache.clear();
+            cache.put(key, r);
+        }
+        return r;
     }
 
     /**
@@ -202,7 +410,9 @@ public final class FeatureContainer {
                 abilitySet = new HashSet<>();
                 abilities.put(ability.getId(), abilitySet);
             }
-            return abilitySet.add(ability);
+            if (!abilitySet.add(ability)) return false;
+            abilityVersion++;
+            return true;
         }
     }
 
@@ -217,9 +427,9 @@ public final class FeatureContainer {
 
         synchronized (abilitiesLock) {
             Set<Ability> abilitySet = abilities.get(ability.getId());
-            return (abilitySet == null
-                || !abilitySet.remove(ability)) ? null
-                : ability;
+            if (abilitySet == null || !abilitySet.remove(ability)) return null;
+            abilityVersion++;
+            return ability;
         }
     }
 
@@ -232,7 +442,7 @@ public final class FeatureContainer {
         if (!abilitiesPresent()) return;
 
         synchronized (abilitiesLock) {
-            abilities.remove(id);
+            if (abilities.remove(id) != null) abilityVersion++;
         }
     }
 
@@ -250,18 +460,102 @@ public final class FeatureContainer {
     public Stream<Modifier> getModifiers(String id,
                                          FreeColSpecObjectType fcgot,
                                          Turn turn) {
-        if (!modifiersPresent()) return Stream.<Modifier>empty();
-        Set<Modifier> mset = new HashSet<>();
-        synchronized (modifiersLock) {
-            if (id == null) {
-                for (Set<Modifier> ms : modifiers.values()) mset.addAll(ms);
-            } else {
-                Set<Modifier> ms = modifiers.get(id);
-                if (ms != null) mset.addAll(ms);
+        final Modifier[] mods = getSortedModifiers(id, fcgot, turn);
+        return (mods.length == 0) ? Stream.<Modifier>empty()
+            : Arrays.stream(mods);
+    }
+
+    /**
+     * Gets the modifiers with the given identifier from this
+     * container, sorted into the order they apply in.
+     *
+     * @param id The object identifier.
+     * @param fcgot An optional {@code FreeColSpecObjectType} the
+     *     modifier applies to.
+     * @param turn An optional applicable {@code Turn}.
+     * @return A shared array of {@code Modifier}s, which must not
+     *     be modified.
+     */
+    public Modifier[] getSortedModifiers(String id,
+                                         FreeColSpecObjectType fcgot,
+                                         Turn turn) {
+        return (!modifiersPresent()) ? NO_MODIFIERS
+            : getChainModifiers(id, fcgot, turn, this);
+    }
+
+    /**
+     * Gets the modifiers with the given identifier from a chain of
+     * containers, sorted into the order they apply in.  The result
+     * is cached in the first container of the chain.
+     *
+     * @param id The object identifier.
+     * @param fcgot An optional {@code FreeColSpecObjectType} the
+     *     modifier applies to.
+     * @param turn An optional applicable {@code Turn}.
+     * @param chain The {@code FeatureContainer}s to combine, null
+     *     entries are ignored.
+     * @return A shared array of {@code Modifier}s, which must not
+     *     be modified.
+     */
+    public static Modifier[] getChainModifiers(String id,
+                                               FreeColSpecObjectType fcgot,
+                                               Turn turn,
+                                               FeatureContainer... chain) {
+        if (chain.length == 0 || chain[0] == null) return NO_MODIFIERS;
+        final FeatureContainer head = chain[0];
+        final FeatureContainer[] rest = (chain.length == 1) ? NO_CHAIN
+            : Arrays.copyOfRange(chain, 1, chain.length);
+        final int[] versions = new int[chain.length];
+        for (int i = 0; i < chain.length; i++) {
+            versions[i] = (chain[i] == null) ? 0 : chain[i].modifierVersion;
+        }
+        Resolved<Modifier> r = resolve(head.resolvedModifiers,
+            new ResolveKey(id, fcgot, ANY_TURN, rest), versions,
+            () -> resolveModifiers(versions, id, fcgot, null, chain));
+        if (turn != null && r.timeLimited) {
+            r = resolve(head.resolvedModifiers,
+                new ResolveKey(id, fcgot, turn.getNumber(), rest), versions,
+                () -> resolveModifiers(versions, id, fcgot, turn, chain));
+        }
+        return r.features;
+    }
+
+    /**
+     * Resolve the applicable modifiers in a chain of containers.
+     *
+     * @param versions The container versions to record.
+     * @param id The object identifier.
+     * @param fcgot An optional {@code FreeColSpecObjectType} the
+     *     modifier applies to.
+     * @param turn An optional applicable {@code Turn}.
+     * @param chain The {@code FeatureContainer}s to combine.
+     * @return The {@code Resolved} modifiers.
+     */
+    private static Resolved<Modifier> resolveModifiers(int[] versions,
+        String id, FreeColSpecObjectType fcgot, Turn turn,
+        FeatureContainer[] chain) {
+        final List<Modifier> candidates = new ArrayList<>();
+        for (FeatureContainer fc : chain) {
+            if (fc == null || !fc.modifiersPresent()) continue;
+            synchronized (fc.modifiersLock) {
+                if (id == null) {
+                    for (Set<Modifier> ms : fc.modifiers.values()) {
+                        candidates.addAll(ms);
+                    }
+                } else {
+                    Set<Modifier> ms = fc.modifiers.get(id);
+                    if (ms != null) candidates.addAll(ms);
+                }
             }
         }
-        removeInPlace(mset, m -> !m.appliesTo(fcgot, turn));
-        return (mset.isEmpty()) ? Stream.<Modifier>empty() : mset.stream();
+        final boolean timeLimited = any(candidates, Modifier::hasTimeLimit);
+        removeInPlace(candidates, m -> !m.appliesTo(fcgot, turn));
+        if (candidates.isEmpty()) {
+            return new Resolved<>(versions, timeLimited, NO_MODIFIERS);
+        }
+        candidates.sort(Modifier.ascendingModifierIndexComparator);
+        return new Resolved<>(versions, timeLimited,
+                              candidates.toArray(new Modifier[0]));
     }
 
     /**
@@ -294,6 +588,20 @@ public final class FeatureContainer {
                 sort(mods, Modifier.ascendingModifierIndexComparator));
     }
 
+    /**
+     * Applies modifiers already sorted into application order to the
+     * given float value.
+     *
+     * @param number The number to modify.
+     * @param turn An optional applicable {@code Turn}.
+     * @param mods The sorted {@code Modifier}s to apply.
+     * @return The modified number.
+     */
+    public static float applySortedModifiers(float number, Turn turn,
+                                             Modifier[] mods) {
+        return applyModifiersInternal(number, turn, Arrays.asList(mods));
+    }
+
     /**
      * Implement applyModifiers.
      *
@@ -331,7 +639,9 @@ public final class FeatureContainer {
                 modifierSet = new HashSet<>();
                 modifiers.put(modifier.getId(), modifierSet);
             }
-            return modifierSet.add(modifier);
+            if (!modifierSet.add(modifier)) return false;
+            modifierVersion++;
+            return true;
         }
     }
 
@@ -346,9 +656,11 @@ public final class FeatureContainer {
 
         synchronized (modifiersLock) {
             Set<Modifier> modifierSet = modifiers.get(modifier.getId());
-            return (modifierSet == null
-                || !modifierSet.remove(modifier)) ? null
-                : modifier;
+            if (modifierSet == null || !modifierSet.remove(modifier)) {
+                return null;
+            }
+            modifierVersion++;
+            return modifier;
         }
     }
 
@@ -361,7 +673,7 @@ public final class FeatureContainer {
         if (!modifiersPresent()) return;
 
         synchronized (modifiersLock) {
-            modifiers.remove(id);
+            if (modifiers.remove(id) != null) modifierVersion++;
         }
     }
 
@@ -389,6 +701,7 @@ public final class FeatureContainer {
                         }
                         abilitySet.addAll(e.getValue());
                     });
+                abilityVersion++;
             }
         }
 
@@ -407,6 +720,7 @@ public final class FeatureContainer {
                         }
                         modifierSet.addAll(e.getValue());
                     });
+                modifierVersion++;
             }
         }
     }
@@ -434,6 +748,7 @@ public final class FeatureContainer {
                         if (a.getSource() == fco) abilitySet.remove(a);
                     }
                 }
+                abilityVersion++;
             }
         }
 
@@ -450,6 +765,7 @@ public final class FeatureContainer {
                         if (m.getSource() == fco) modifierSet.remove(m);
                     }
                 }
+                modifierVersion++;
             }
         }
     }
@@ -474,11 +790,13 @@ public final class FeatureContainer {
         if (abilitiesPresent()) {
             synchronized (abilitiesLock) {
                 abilities.clear();
+                abilityVersion++;
             }
         }
         if (modifiersPresent()) {
             synchronized (modifiersLock) {
                 modifiers.clear();
+                modifierVersion++;
             }
         }
     }
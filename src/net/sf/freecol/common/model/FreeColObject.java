@@ -658,6 +658,27 @@ public abstract class FreeColObject
             : fc.getModifiers(id, fcgot, turn);
     }
 
+    /**
+     * Gets the modifiers with the given identifier from this object,
+     * sorted into the order they apply in.
+     *
+     * Subclasses that override {@link #getModifiers(String,
+     * FreeColSpecObjectType, Turn)} must override this routine to match.
+     *
+     * @param id The object identifier.
+     * @param fcgot An optional {@code FreeColSpecObjectType} the
+     *     modifier applies to.
+     * @param turn An optional applicable {@code Turn}.
+     * @return A shared array of modifiers, which must not be modified.
+     */
+    public Modifier[] getSortedModifiers(String id,
+                                         FreeColSpecObjectType fcgot,
+                                         Turn turn) {
+        FeatureContainer fc = getFeatureContainer();
+        return (fc == null) ? FeatureContainer.NO_MODIFIERS
+            : fc.getSortedModifiers(id, fcgot, turn);
+    }
+
     /**
      * Applies this objects modifiers with the given identifier to the
      * given number.
@@ -684,7 +705,8 @@ public abstract class FreeColObject
      */
     public final float apply(float number, Turn turn, String id,
                              FreeColSpecObjectType fcgot) {
-        return applyModifiers(number, turn, getModifiers(id, fcgot, turn));
+        return FeatureContainer.applySortedModifiers(number, turn,
+            getSortedModifiers(id, fcgot, turn));
     }
 
     /**
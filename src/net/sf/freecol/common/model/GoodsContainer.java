@@ -20,11 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 import javax.xml.stream.XMLStreamException;
@@ -63,7 +59,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *
      * Always accessed synchronized (except I/O).
      */
-    private final Map<GoodsType, Integer> storedGoods = new HashMap<>();
+    private final SpecIntMap<GoodsType> storedGoods = new SpecIntMap<>();
 
     /** 
      * The previous list of Goods stored in this
@@ -73,7 +69,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      * This is only touched rarely so the extra lock is tolerable.
      * (Not synchronized during I/O)
      */
-    private final Map<GoodsType, Integer> oldStoredGoods = new HashMap<>();
+    private final SpecIntMap<GoodsType> oldStoredGoods = new SpecIntMap<>();
 
     /** The location for this {@code GoodsContainer}. */
     private Location parent = null;
@@ -129,7 +125,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *
      * @return A map of the stored goods.
      */
-    protected Map<GoodsType, Integer> getStoredGoods() {
+    protected SpecIntMap<GoodsType> getStoredGoods() {
         return this.storedGoods;
     }
 
@@ -138,7 +134,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *
      * @param goods A map of the new stored goods.
      */
-    protected void setStoredGoods(Map<GoodsType, Integer> goods) {
+    protected void setStoredGoods(SpecIntMap<GoodsType> goods) {
         synchronized (this.storedGoods) {
             this.storedGoods.clear();
             this.storedGoods.putAll(goods);
@@ -150,7 +146,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *
      * @return A map of the old stored goods.
      */
-    protected Map<GoodsType, Integer> getOldStoredGoods() {
+    protected SpecIntMap<GoodsType> getOldStoredGoods() {
         return this.oldStoredGoods;
     }
     
@@ -159,7 +155,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *
      * @param goods A map of the new old stored goods.
      */
-    protected void setOldStoredGoods(Map<GoodsType, Integer> goods) {
+    protected void setOldStoredGoods(SpecIntMap<GoodsType> goods) {
         synchronized (this.oldStoredGoods) {
             this.oldStoredGoods.clear();
             this.oldStoredGoods.putAll(goods);
@@ -186,8 +182,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      */
     public int getGoodsCount(GoodsType type) {
         synchronized (this.storedGoods) {
-            Integer val = this.storedGoods.get(type);
-            return (val == null) ? 0 : val;
+            return this.storedGoods.get(type);
         }
     }
 
@@ -200,8 +195,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      */
     public int getOldGoodsCount(GoodsType type) {
         synchronized (this.oldStoredGoods) {
-            Integer val = this.oldStoredGoods.get(type);
-            return (val == null) ? 0 : val;
+            return this.oldStoredGoods.get(type);
         }
     }
 
@@ -345,13 +339,12 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
                 this.storedGoods.clear();
                 return;
             }
-            final Predicate<Entry<GoodsType, Integer>> hiPred = e -> {
-                final GoodsType gt = e.getKey();
-                return gt.isStorable() && !gt.limitIgnored()
-                    && e.getValue() > newAmount;
-            };
-            forEachMapEntry(this.storedGoods, hiPred,
-                            e -> this.storedGoods.put(e.getKey(), newAmount));
+            this.storedGoods.forEach((gt, amount) -> {
+                    if (gt.isStorable() && !gt.limitIgnored()
+                        && amount > newAmount) {
+                        this.storedGoods.put(gt, newAmount);
+                    }
+                });
         }
     }
 
@@ -363,12 +356,15 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *     given amount.
      */
     public boolean hasReachedCapacity(int amount) {
+        final boolean[] ret = { false };
         synchronized (this.storedGoods) {
-            return any(this.storedGoods.entrySet(), e ->
-                       e.getKey().isStorable()
-                           && !e.getKey().limitIgnored()
-                           && e.getValue() > amount);
+            this.storedGoods.forEach((gt, n) -> {
+                    if (gt.isStorable() && !gt.limitIgnored() && n > amount) {
+                        ret[0] = true;
+                    }
+                });
         }
+        return ret[0];
     }
 
     /**
@@ -378,12 +374,14 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      * @return The amount of space taken by this containers goods.
      */
     public int getSpaceTaken() {
+        final int[] ret = { 0 };
         synchronized (this.storedGoods) {
-            return sum(this.storedGoods.values(),
-                       amount -> ((amount % CARGO_SIZE == 0)
-                           ? amount/CARGO_SIZE
-                           : amount/CARGO_SIZE + 1));
+            this.storedGoods.forEach((gt, amount) ->
+                ret[0] += (amount % CARGO_SIZE == 0)
+                    ? amount/CARGO_SIZE
+                    : amount/CARGO_SIZE + 1);
         }
+        return ret[0];
     }
 
     /**
@@ -396,10 +394,10 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
         final Game game = getGame();
         List<Goods> result = new ArrayList<>();
         synchronized (this.storedGoods) {
-            forEachMapEntry(this.storedGoods, e -> {
-                    int amount = e.getValue();
+            this.storedGoods.forEach((gt, n) -> {
+                    int amount = n;
                     while (amount > 0) {
-                        result.add(new Goods(game, parent, e.getKey(),
+                        result.add(new Goods(game, parent, gt,
                                 ((amount >= CARGO_SIZE) ? CARGO_SIZE : amount)));
                         amount -= CARGO_SIZE;
                     }
@@ -416,11 +414,15 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      */
     public List<Goods> getCompactGoodsList() {
         final Game game = getGame();
+        List<Goods> result = new ArrayList<>();
         synchronized (this.storedGoods) {
-            return transform(this.storedGoods.entrySet(),
-                             e -> e.getValue() > 0,
-                             e -> new Goods(game, parent, e.getKey(), e.getValue()));
+            this.storedGoods.forEach((gt, amount) -> {
+                    if (amount > 0) {
+                        result.add(new Goods(game, parent, gt, amount));
+                    }
+                });
         }
+        return result;
     }
 
     /**
@@ -584,12 +586,12 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *     the stream.
      */
     private void writeStorage(FreeColXMLWriter xw, String tag,
-                              Map<GoodsType, Integer> storage) throws XMLStreamException {
+                              SpecIntMap<GoodsType> storage) throws XMLStreamException {
         if (storage.isEmpty()) return;
 
         xw.writeStartElement(tag);
 
-        for (GoodsType goodsType : sort(storage.keySet())) {
+        for (GoodsType goodsType : sort(storage.keys())) {
             
             xw.writeStartElement(Goods.TAG);
 
@@ -645,7 +647,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
      *     the stream.
      */
     private void readStorage(FreeColXMLReader xr,
-        Map<GoodsType, Integer> storage) throws XMLStreamException {
+        SpecIntMap<GoodsType> storage) throws XMLStreamException {
         final Specification spec = getGame().getSpecification();
 
         while (xr.moreTags()) {
@@ -657,7 +659,7 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
 
                 int amount = xr.getAttribute(AMOUNT_TAG, 0);
 
-                storage.put(goodsType, amount);
+                if (goodsType != null) storage.put(goodsType, amount);
 
             } else {
                 throw new XMLStreamException("Bogus GoodsContainer tag: "
@@ -684,12 +686,12 @@ public class GoodsContainer extends FreeColGameObject implements Ownable {
         StringBuilder sb = new StringBuilder(128);
         sb.append('[').append(getId()).append(" [");
         // Do not bother to synchronize containers for display
-        forEachMapEntry(storedGoods, e ->
-            sb.append(e.getKey()).append('=').append(e.getValue()).append(sep));
+        storedGoods.forEach((gt, amount) ->
+            sb.append(gt).append('=').append(amount).append(sep));
         sb.setLength(sb.length() - sep.length());
         sb.append("][");
-        forEachMapEntry(oldStoredGoods, e ->
-            sb.append(e.getKey()).append('=').append(e.getValue()).append(sep));
+        oldStoredGoods.forEach((gt, amount) ->
+            sb.append(gt).append('=').append(amount).append(sep));
         sb.setLength(sb.length() - sep.length());
         sb.append("]]");
         return sb.toString();
@@ -383,6 +383,19 @@ public class LostCityRumour extends TileItem {
         return Layer.RUMOURS;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TileItem copyForCache(Tile tile) {
+        LostCityRumour ret = new LostCityRumour(getGame(), (String)null);
+        ret.setId(getId());
+        ret.tile = tile;
+        ret.type = this.type;
+        ret.name = this.name;
+        return ret;
+    }
+
 
     // Override FreeColGameObject
 
@@ -28,16 +28,22 @@ import java.util.List;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.NoSuchElementException;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.swing.ImageIcon;
@@ -49,10 +55,17 @@ import net.sf.freecol.common.i18n.Messages;
 import net.sf.freecol.common.io.FreeColXMLReader;
 import net.sf.freecol.common.io.FreeColXMLWriter;
 import static net.sf.freecol.common.model.Constants.*;
+import net.sf.freecol.common.model.pathfinding.ClusterGraph;
 import net.sf.freecol.common.model.pathfinding.CostDecider;
 import net.sf.freecol.common.model.pathfinding.CostDeciders;
+import net.sf.freecol.common.model.pathfinding.DistanceField;
 import net.sf.freecol.common.model.pathfinding.GoalDecider;
 import net.sf.freecol.common.model.pathfinding.GoalDeciders;
+import net.sf.freecol.common.model.pathfinding.LandmarkTable;
+import net.sf.freecol.common.model.pathfinding.MovementClass;
+import net.sf.freecol.common.model.pathfinding.PathCache;
+import net.sf.freecol.common.model.pathfinding.PathQuery;
+import net.sf.freecol.common.model.pathfinding.SearchState;
 import net.sf.freecol.common.util.LogBuilder;
 import static net.sf.freecol.common.util.CollectionUtils.*;
 import static net.sf.freecol.common.util.RandomUtils.*;
@@ -259,6 +272,18 @@ public class Map extends FreeColGameObject implements Location {
      */
     private Tile[][] tileArray;
 
+    /**
+     * The columnar terrain of the tiles, by tile index.  This is
+     * created with the tile array, and kept current by the tiles.
+     */
+    private TerrainStore terrain;
+
+    /** The index of the units and settlements on the tiles. */
+    private SpatialIndex spatialIndex;
+
+    /** A reusable flood fill queue for the contiguity updates. */
+    private int[] contiguityQueue = null;
+
     /**
      * The tiles that this map contains, as a list.
      * This is populated in setTile().
@@ -293,6 +318,44 @@ public class Map extends FreeColGameObject implements Location {
     /** The search tracing status. */
     private boolean traceSearch = false;
 
+    /** The long range path finding graphs, by movement class. */
+    private final ClusterGraph[] clusterGraphs
+        = new ClusterGraph[MovementClass.values().length];
+
+    /** The per-turn cache of path search results. */
+    private final PathCache pathCache = new PathCache();
+
+    /** The distance fields built this turn, in access order. */
+    private final LinkedHashMap<Long, DistanceField> distanceFields
+        = new LinkedHashMap<Long, DistanceField>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(java.util.Map.Entry<Long, DistanceField> e) {
+                    return size() > MAX_DISTANCE_FIELDS;
+                }
+            };
+
+    /** The turn the distance fields were built in. */
+    private int distanceFieldTurn = -1;
+
+    /** The landmark tables, by movement class. */
+    private final LandmarkTable[] landmarkTables
+        = new LandmarkTable[MovementClass.values().length];
+
+    /** Use the landmark tables to guide path searches? */
+    private volatile boolean landmarkHeuristic = true;
+
+    /** The total number of nodes expanded by map searches. */
+    private final AtomicLong nodesExpanded = new AtomicLong(0L);
+
+    /** The players views of the tiles, null in clients. */
+    private TileViewTable tileViews = null;
+
+    /**
+     * The distance from each tile index to the nearest land tile,
+     * or null if it needs to be recomputed.
+     */
+    private int[] landDistance = null;
+
 
     /**
      * Create a new {@code Map} from a collection of tiles.
@@ -413,7 +476,12 @@ public class Map extends FreeColGameObject implements Location {
         this.width = width;
         this.height = height;
         this.tileArray = new Tile[width][height];
+        this.terrain = new TerrainStore(width, height);
+        this.spatialIndex = new SpatialIndex(this);
         this.tileList.clear();
+        if (getGame() != null && getGame().isInServer()) {
+            this.tileViews = new TileViewTable(width * height);
+        }
         return null;
     }
 
@@ -461,6 +529,59 @@ public class Map extends FreeColGameObject implements Location {
         return getTile(p.getX(), p.getY());
     }
 
+    /**
+     * Gets the number of tile indices in this map.
+     *
+     * @return The number of tiles (width * height).
+     */
+    public int getTileCount() {
+        return this.width * this.height;
+    }
+
+    /**
+     * Gets the dense index of the tile at position (x, y).
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The tile index (y * width + x), or -1 if invalid.
+     */
+    public int getTileIndex(int x, int y) {
+        return (isValid(x, y)) ? y * this.width + x : -1;
+    }
+
+    /**
+     * Gets the dense index of a tile.
+     *
+     * @param tile The {@code Tile} to index.
+     * @return The tile index (y * width + x).
+     */
+    public int getTileIndex(Tile tile) {
+        return tile.getY() * this.width + tile.getX();
+    }
+
+    /**
+     * Gets the tile with a given dense index.
+     *
+     * @param index The tile index.
+     * @return The {@code Tile} at the index.
+     */
+    public Tile getTile(int index) {
+        return this.tileArray[index % this.width][index / this.width];
+    }
+
+    /**
+     * Gets the index of the tile adjacent to a given tile index.
+     *
+     * @param index The tile index to step from.
+     * @param direction The {@code Direction} to step in.
+     * @return The adjacent tile index, or -1 if off the map.
+     */
+    public int getAdjacentIndex(int index, Direction direction) {
+        final int y = index / this.width;
+        return getTileIndex(index % this.width + direction.getXStep(y),
+                            y + direction.getYStep(y));
+    }
+
     /**
      * Set the tile at the given coordinates.
      *
@@ -478,9 +599,61 @@ public class Map extends FreeColGameObject implements Location {
         if (tile == null) return false;
         this.tileArray[x][y] = tile;
         this.tileList.add(tile);
+        this.landDistance = null;
+        tile.setTerrain(this.terrain);
         return true;
     }
 
+    /**
+     * Get the columnar terrain of this map.
+     *
+     * @return The {@code TerrainStore}.
+     */
+    public TerrainStore getTerrain() {
+        return this.terrain;
+    }
+
+    /**
+     * Get the index of the units and settlements on this map.
+     *
+     * @return The {@code SpatialIndex}.
+     */
+    public SpatialIndex getSpatialIndex() {
+        return this.spatialIndex;
+    }
+
+    /**
+     * Is a tile the tile of this map at its position?
+     *
+     * @param tile The {@code Tile} to check.
+     * @return True if the tile is part of this map.
+     */
+    private boolean isMapTile(Tile tile) {
+        return isValid(tile.getX(), tile.getY())
+            && this.tileArray[tile.getX()][tile.getY()] == tile;
+    }
+
+    /**
+     * Get the player views of the tiles of this map.
+     *
+     * @return The {@code TileViewTable}, or null in clients.
+     */
+    public TileViewTable getTileViews() {
+        return this.tileViews;
+    }
+
+    /**
+     * Get the player views of a tile of this map.
+     *
+     * @param tile The {@code Tile} to look up.
+     * @return The {@code TileViewTable}, or null in clients or if the
+     *     tile is not part of this map.
+     */
+    TileViewTable getTileViews(Tile tile) {
+        return (this.tileViews == null || !isMapTile(tile)) ? null
+            : this.tileViews;
+    }
+
     /**
      * Update a tile in this map from the given tile.
      *
@@ -492,8 +665,13 @@ public class Map extends FreeColGameObject implements Location {
         final int x = tile.getX(), y = tile.getY();
         if (!isValid(x, y)) return false;
         Tile old = this.tileArray[x][y];
-        if (old == null) return setTile(tile, x, y);
-        old.copyIn(tile);
+        if (old == null) {
+            setTile(tile, x, y);
+        } else {
+            old.copyIn(tile);
+            tile = old;
+        }
+        tile.installViews(this);
         return true;
     }
         
@@ -846,7 +1024,7 @@ public class Map extends FreeColGameObject implements Location {
      * @param consumer The {@code Consumer} action to perform.
      */
     public void forEachTile(Consumer<Tile> consumer) {
-        for (Tile t : this.tileList) consumer.accept(t);
+        forEachTerrainTile(i -> true, consumer);
     }
 
     /**
@@ -857,8 +1035,30 @@ public class Map extends FreeColGameObject implements Location {
      */
     public void forEachTile(Predicate<Tile> predicate,
                             Consumer<Tile> consumer) {
-        for (Tile t : this.tileList) {
-            if (predicate.test(t)) consumer.accept(t);
+        forEachTerrainTile(i -> true, t -> {
+                if (predicate.test(t)) consumer.accept(t);
+            });
+    }
+
+    /**
+     * Perform an action on each tile whose terrain matches a predicate.
+     *
+     * The tiles are swept in tile index order, and the predicate is
+     * applied to the tile index so that it can test the columns of the
+     * {@code TerrainStore} without fetching tiles that do not match.
+     *
+     * @param predicate An {@code IntPredicate} on the tile index.
+     * @param consumer The {@code Consumer} action to perform.
+     */
+    public void forEachTerrainTile(IntPredicate predicate,
+                                   Consumer<Tile> consumer) {
+        final TerrainStore ts = this.terrain;
+        if (ts == null) return;
+        final int n = ts.size();
+        for (int i = 0; i < n; i++) {
+            if (!predicate.test(i)) continue;
+            final Tile t = getTile(i);
+            if (t != null) consumer.accept(t);
         }
     }
 
@@ -945,15 +1145,26 @@ public class Map extends FreeColGameObject implements Location {
      * An iterator returning positions in a spiral starting at a given
      * center tile.  The center tile is never included in the returned
      * tiles, and all returned tiles are valid.
+     *
+     * The positions come from the precomputed ring offset tables.
+     * Iteration stops early at the first ring with no valid tiles.
      */
     private final class CircleIterator implements Iterator<Tile> {
 
+        /** The center position. */
+        private final int cx, cy;
+        /** Iterate over all the rings within the radius? */
+        private final boolean isFilled;
         /** The maximum radius. */
         private final int radius;
         /** The current radius of the iteration. */
         private int currentRadius;
-        /** The current index in the circle with the current radius: */
+        /** The offsets of the current ring. */
+        private int[] ring;
+        /** The current index in the current ring. */
         private int n;
+        /** Has a valid position been found in the current ring? */
+        private boolean found;
         /** The current position in the circle. */
         private int x, y;
 
@@ -969,29 +1180,20 @@ public class Map extends FreeColGameObject implements Location {
             if (center == null) {
                 throw new RuntimeException("center must not be null: " + this);
             }
+            this.cx = center.getX();
+            this.cy = center.getY();
+            this.isFilled = isFilled;
             this.radius = radius;
-            n = 0;
-
-            Position step;
-            if (isFilled || radius == 1) {
-                step = Direction.NE.step(center.getX(), center.getY());
-                x = step.x;
-                y = step.y;
-                currentRadius = 1;
-            } else {
-                this.currentRadius = radius;
-                x = center.getX();
-                y = center.getY();
-                for (int i = 1; i < radius; i++) {
-                    step = Direction.N.step(x, y);
-                    x = step.x;
-                    y = step.y;
-                }
-                step = Direction.NE.step(x, y);
-                x = step.x;
-                y = step.y;
+            if (radius < 1) {
+                x = y = UNDEFINED;
+                return;
             }
-            if (!isValid(x, y)) nextTile();
+            this.currentRadius = (isFilled) ? 1 : radius;
+            this.ring = (isFilled) ? RingOffsets.getFilledRing(cy, 1)
+                : RingOffsets.getRing(cy, radius);
+            this.n = -1;
+            this.found = false;
+            nextTile();
         }
 
         /**
@@ -1008,50 +1210,24 @@ public class Map extends FreeColGameObject implements Location {
          * Finds the next position.
          */
         private void nextTile() {
-            boolean started = n != 0;
-            do {
-                n++;
-                final int width = currentRadius * 2;
-                if (n >= width * 4) {
-                    currentRadius++;
-                    if (currentRadius > radius) {
-                        x = y = UNDEFINED;
-                        break;
-                    } else if (!started) {
+            for (;;) {
+                if (++n >= ring.length / 2) {
+                    if (!isFilled || !found || currentRadius >= radius) {
                         x = y = UNDEFINED;
-                        break;
-                    } else {
-                        n = 0;
-                        started = false;
-                        Position step = Direction.NE.step(x, y);
-                        x = step.x;
-                        y = step.y;
-                    }
-                } else {
-                    int i = n / width;
-                    Direction direction;
-                    switch (i) {
-                    case 0:
-                        direction = Direction.SE;
-                        break;
-                    case 1:
-                        direction = Direction.SW;
-                        break;
-                    case 2:
-                        direction = Direction.NW;
-                        break;
-                    case 3:
-                        direction = Direction.NE;
-                        break;
-                    default:
-                        throw new IllegalStateException("i=" + i + ", n=" + n
-                            + ", width=" + width);
+                        return;
                     }
-                    Position step = direction.step(x, y);
-                    x = step.x;
-                    y = step.y;
+                    currentRadius++;
+                    ring = RingOffsets.getFilledRing(cy, currentRadius);
+                    n = 0;
+                    found = false;
+                }
+                x = cx + ring[2 * n];
+                y = cy + ring[2 * n + 1];
+                if (isValid(x, y)) {
+                    found = true;
+                    return;
                 }
-            } while (!isValid(x, y));
+            }
         }
 
         /**
@@ -1118,6 +1294,56 @@ public class Map extends FreeColGameObject implements Location {
     }
         
 
+    /**
+     * Apply an action to the index of each valid tile in a ring around
+     * a center tile, in the same order as a circle iterator that is
+     * not filled.
+     *
+     * @param center The center {@code Tile}.
+     * @param radius The radius of the ring.
+     * @param action The {@code IntConsumer} to apply to the tile indices.
+     */
+    public void forEachInRing(Tile center, int radius, IntConsumer action) {
+        if (radius < 1) return;
+        final int cx = center.getX(), cy = center.getY();
+        final int[] ring = RingOffsets.getRing(cy, radius);
+        for (int k = 0; k < ring.length; k += 2) {
+            final int x = cx + ring[k], y = cy + ring[k + 1];
+            if (isValid(x, y)) action.accept(y * this.width + x);
+        }
+    }
+
+    /**
+     * Apply an action to the index of each valid tile within a range
+     * of distances of a center tile, in the same order as a filled
+     * circle iterator.  The center tile is included first if the
+     * minimum distance is zero.  Iteration stops at the first ring
+     * with no valid tiles, so large maximum distances are cheap.
+     *
+     * @param center The center {@code Tile}.
+     * @param rangeMin The inclusive minimum distance.
+     * @param rangeMax The inclusive maximum distance.
+     * @param action The {@code IntConsumer} to apply to the tile indices.
+     */
+    public void forEachInDisk(Tile center, int rangeMin, int rangeMax,
+                              IntConsumer action) {
+        if (rangeMin > rangeMax || rangeMin < 0) return;
+        final int cx = center.getX(), cy = center.getY();
+        if (rangeMin == 0) action.accept(cy * this.width + cx);
+        for (int r = Math.max(1, rangeMin); r <= rangeMax; r++) {
+            final int[] ring = RingOffsets.getFilledRing(cy, r);
+            boolean found = false;
+            for (int k = 0; k < ring.length; k += 2) {
+                final int x = cx + ring[k], y = cy + ring[k + 1];
+                if (isValid(x, y)) {
+                    found = true;
+                    action.accept(y * this.width + x);
+                }
+            }
+            if (!found) break;
+        }
+    }
+
     // Path-finding/searching infrastructure and routines
 
     /**
@@ -1127,6 +1353,15 @@ public class Map extends FreeColGameObject implements Location {
         int getValue(Tile tile);
     }
 
+    /**
+     * The number of long range route waypoints to skip before trying
+     * to refine a path.
+     */
+    private static final int LONG_RANGE_REFINE_HOPS = 6;
+
+    /** The maximum number of distance fields to retain. */
+    private static final int MAX_DISTANCE_FIELDS = 32;
+
     /** A trivial search heuristic that always returns zero. */
     private SearchHeuristic trivialSearchHeuristic = (Tile t) -> 0;
 
@@ -1140,6 +1375,26 @@ public class Map extends FreeColGameObject implements Location {
         return (Tile tile) -> tile.getDistanceTo(endTile);
     }
 
+    /**
+     * Gets a search heuristic for a unit moving without a carrier,
+     * using the landmark tables to tighten the Manhatten distance.
+     *
+     * @param unit The {@code Unit} that is searching.
+     * @param endTile The {@code Tile} to aim for.
+     * @return A new {@code SearchHeuristic} aiming for the end tile.
+     */
+    private SearchHeuristic getLandmarkHeuristic(Unit unit,
+                                                 final Tile endTile) {
+        if (!landmarkHeuristic || unit == null || unit.isOnCarrier()) {
+            return getManhattenHeuristic(endTile);
+        }
+        final LandmarkTable.Estimator est
+            = getLandmarkTable(MovementClass.of(unit)).getEstimator(endTile);
+        return (est == null) ? getManhattenHeuristic(endTile)
+            : (Tile tile) -> Math.max(tile.getDistanceTo(endTile),
+                                      est.estimate(tile));
+    }
+
     /**
      * Destination argument test for path searches.  Find the actual
      * destination of a path.
@@ -1234,7 +1489,8 @@ public class Map extends FreeColGameObject implements Location {
             // faster, but not always, e.g. mounted units on a good
             // road system.
             path = searchMap(unit, start, gd, costDecider,
-                             INFINITY, null, sh, lb);
+                             INFINITY, null, getLandmarkHeuristic(unit, end),
+                             lb);
             PathNode carrierPath = (carrier == null) ? null
                 : searchMap(unit, start, gd, costDecider,
                             INFINITY, carrier, sh, lb);
@@ -1459,6 +1715,305 @@ public class Map extends FreeColGameObject implements Location {
         return path;
     }
 
+    /**
+     * Gets the long range path finding graph for a movement class,
+     * creating it if needed.
+     *
+     * @param mc The {@code MovementClass} to get the graph for.
+     * @return The {@code ClusterGraph}.
+     */
+    public ClusterGraph getClusterGraph(MovementClass mc) {
+        synchronized (clusterGraphs) {
+            ClusterGraph cg = clusterGraphs[mc.ordinal()];
+            if (cg == null) {
+                cg = new ClusterGraph(this, mc);
+                clusterGraphs[mc.ordinal()] = cg;
+            }
+            return cg;
+        }
+    }
+
+    /**
+     * Mark the long range path finding graphs as needing an update
+     * following a change to a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public void invalidateClusters(Tile tile) {
+        synchronized (clusterGraphs) {
+            for (ClusterGraph cg : clusterGraphs) {
+                if (cg != null) cg.invalidate(tile);
+            }
+        }
+        pathCache.noteChange(tile);
+        synchronized (distanceFields) {
+            distanceFields.clear();
+        }
+        synchronized (landmarkTables) {
+            for (LandmarkTable lt : landmarkTables) {
+                if (lt != null) lt.invalidate(tile);
+            }
+        }
+        final int[] ld = landDistance;
+        if (ld != null && (ld[getTileIndex(tile)] == 0) != tile.isLand()) {
+            landDistance = null;
+        }
+    }
+
+    /**
+     * Gets the landmark table for a movement class, creating it if
+     * needed.
+     *
+     * @param mc The {@code MovementClass} to get the table for.
+     * @return The {@code LandmarkTable}.
+     */
+    public LandmarkTable getLandmarkTable(MovementClass mc) {
+        synchronized (landmarkTables) {
+            LandmarkTable lt = landmarkTables[mc.ordinal()];
+            if (lt == null) {
+                lt = new LandmarkTable(this, mc);
+                landmarkTables[mc.ordinal()] = lt;
+            }
+            return lt;
+        }
+    }
+
+    /**
+     * Are the landmark tables used to guide path searches?
+     *
+     * @return True if the landmark heuristic is in use.
+     */
+    public boolean getLandmarkHeuristic() {
+        return landmarkHeuristic;
+    }
+
+    /**
+     * Set whether the landmark tables are used to guide path searches.
+     *
+     * @param landmarkHeuristic The new landmark heuristic state.
+     */
+    public void setLandmarkHeuristic(boolean landmarkHeuristic) {
+        this.landmarkHeuristic = landmarkHeuristic;
+    }
+
+    /**
+     * Gets the total number of nodes expanded by searches of this map.
+     *
+     * @return The number of nodes expanded.
+     */
+    public long getNodesExpanded() {
+        return nodesExpanded.get();
+    }
+
+    /**
+     * Gets the per-turn cache of path search results.
+     *
+     * @return The {@code PathCache}.
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Gets the distance field to a target for a movement class,
+     * building it if it has not already been built this turn.
+     * Fields are discarded when any tile changes.
+     *
+     * @param target The target {@code Tile}.
+     * @param mc The {@code MovementClass} to use.
+     * @param initialMoves The moves available per turn.
+     * @return The {@code DistanceField}.
+     */
+    public DistanceField getDistanceField(Tile target, MovementClass mc,
+                                          int initialMoves) {
+        final int turn = getGame().getTurn().getNumber();
+        final long key = ((long)getTileIndex(target) << 32)
+            | (mc.ordinal() << 16) | (initialMoves & 0xFFFF);
+        synchronized (distanceFields) {
+            if (turn != distanceFieldTurn) {
+                distanceFields.clear();
+                distanceFieldTurn = turn;
+            }
+            DistanceField df = distanceFields.get(key);
+            if (df == null) {
+                df = new DistanceField(this, target, mc, initialMoves);
+                distanceFields.put(key, df);
+            }
+            return df;
+        }
+    }
+
+    /**
+     * Gets the distance field to a target suitable for a unit.
+     *
+     * @param target The target {@code Location}.
+     * @param unit The {@code Unit} that is to move.
+     * @return The {@code DistanceField}, or null if the target is
+     *     not on the map.
+     */
+    public DistanceField getDistanceField(Location target, Unit unit) {
+        final Tile tile = (target == null) ? null : target.getTile();
+        return (tile == null) ? null
+            : getDistanceField(tile, MovementClass.of(unit),
+                               unit.getInitialMovesLeft());
+    }
+
+    /**
+     * Record a change to the units present on a tile, which may
+     * invalidate cached paths that pass near it.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public void noteOccupancyChange(Tile tile) {
+        pathCache.noteChange(tile);
+        if (isMapTile(tile)) spatialIndex.updateUnits(tile);
+    }
+
+    /**
+     * Note that the settlement on a tile has changed.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public void noteSettlementChange(Tile tile) {
+        pathCache.noteChange(tile);
+        if (isMapTile(tile)) spatialIndex.updateSettlement(tile);
+    }
+
+    /**
+     * Note that the owner of a tile has changed, which may change
+     * path costs and goals near it.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public void noteOwnershipChange(Tile tile) {
+        pathCache.noteChange(tile);
+    }
+
+    /**
+     * Find a path for a unit between two distant tiles on the map,
+     * without a carrier.
+     *
+     * Rather than searching the whole map, a route is found through
+     * the long range graph for the unit movement class, and only
+     * the first few cluster crossings of it are refined into a real
+     * path.  If that does not cover the current turn, the refinement
+     * is extended one waypoint at a time from the end of the refined
+     * path, so each extension is a search between neighbouring
+     * waypoints.  Unless that reaches the end, the path is completed
+     * with a final node for the end tile with the estimated turns and
+     * moves left.  Short routes fall
+     * back to an ordinary full search.
+     *
+     * @param unit The {@code Unit} to find the path for.
+     * @param start The {@code Tile} to start from.
+     * @param end The {@code Tile} to end at.
+     * @param costDecider An optional {@code CostDecider}.
+     * @param lb An optional {@code LogBuilder} to log to.
+     * @return A path starting at the start tile and ending at the end
+     *     tile, or null if none found.
+     */
+    public PathNode findLongRangePath(final Unit unit, final Tile start,
+                                      final Tile end,
+                                      CostDecider costDecider,
+                                      LogBuilder lb) {
+        final ClusterGraph.Route route
+            = getClusterGraph(MovementClass.of(unit)).findRoute(start, end);
+        final int initial = unit.getInitialMovesLeft();
+        if (route != null && initial > 0
+            && LONG_RANGE_REFINE_HOPS < route.size() - 1) {
+            int i = LONG_RANGE_REFINE_HOPS;
+            PathNode path = this.findPath(unit, start,
+                getTile(route.getWaypoint(i)), null, costDecider, lb);
+            PathNode last = (path == null) ? null : path.getLastNode();
+            while (last != null && last.getTurns() < 1
+                && i < route.size() - 1) {
+                last = extendPath(unit, last,
+                    getTile(route.getWaypoint(++i)), costDecider, lb);
+            }
+            if (last != null && i == route.size() - 1) {
+                // Refined all the way to the end.
+                return path;
+            } else if (last != null) {
+                // Estimate the remaining turns from the route cost.
+                int left = last.getMovesLeft();
+                int turns = last.getTurns();
+                int cost = route.getCost() - route.getCostTo(i);
+                if (cost > left) {
+                    cost -= left;
+                    int extra = (cost + initial - 1) / initial;
+                    turns += extra;
+                    left = extra * initial - cost;
+                } else {
+                    left -= cost;
+                }
+                last.next = new PathNode(end, left, turns, false, last, null);
+                return path;
+            }
+        }
+        return this.findPath(unit, start, end, null, costDecider, lb);
+    }
+
+    /**
+     * Extend a path on the map to a nearby tile, continuing with the
+     * moves left at the end of the path.
+     *
+     * @param unit The {@code Unit} travelling along the path.
+     * @param last The last {@code PathNode} of the path to extend.
+     * @param to The {@code Tile} to extend to.
+     * @param costDecider An optional {@code CostDecider}.
+     * @param lb An optional {@code LogBuilder} to log to.
+     * @return The new last node of the path, or null if the extension
+     *     failed, in which case the path is unchanged.
+     */
+    private PathNode extendPath(final Unit unit, final PathNode last,
+                                final Tile to, CostDecider costDecider,
+                                LogBuilder lb) {
+        final Tile from = last.getTile();
+        final SearchState ss = SearchState.acquire(getTileCount());
+        final PathNode segment;
+        try {
+            segment = searchMap(ss, unit, from, last.getMovesLeft(),
+                GoalDeciders.getLocationGoalDecider(to), costDecider,
+                INFINITY, null, getManhattenHeuristic(to), lb);
+        } finally {
+            nodesExpanded.addAndGet(ss.getExpanded());
+            ss.release();
+        }
+        if (segment == null || segment.next == null) return null;
+        final int turns = last.getTurns();
+        if (turns != 0) segment.addTurns(turns);
+        last.next = segment.next;
+        segment.next.previous = last;
+        return last.getLastNode();
+    }
+
+    /**
+     * Run a batch of path queries concurrently.
+     *
+     * The queries are shared out over the common fork-join pool, with
+     * the calling thread taking part, so this only returns when all are
+     * complete.  The searches only read the game, and the caller must
+     * not modify it until this returns.  A query that fails is logged
+     * and given a null result.
+     *
+     * @param queries The list of {@code PathQuery}s to run.
+     * @return A list of the paths found (or null), in query order.
+     */
+    public List<PathNode> searchAll(List<PathQuery> queries) {
+        final Function<PathQuery, PathNode> runner = q -> {
+            try {
+                return q.run();
+            } catch (RuntimeException re) {
+                logger.log(Level.WARNING, "Path query failed: " + q, re);
+            }
+            return null;
+        };
+        return (queries.size() < 2)
+            ? transform(queries, alwaysTrue(), runner)
+            : queries.parallelStream().map(runner)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Searches for a goal.
      * Assumes units in Europe return to their current entry location,
@@ -1562,180 +2117,71 @@ public class Map extends FreeColGameObject implements Location {
     }
 
     /**
-     * Internal class for evaluating a candidate move.
-     */
-    private static class MoveCandidate {
-
-        private Unit unit;
-        private final PathNode current;
-        private final Location dst;
-        private int movesLeft;
-        private int turns;
-        private final boolean onCarrier;
-        private int cost;
-
-
-        /**
-         * Creates a new move candidate where a cost decider will be used
-         * to work out the new moves and turns left.
-         *
-         * @param unit The {@code Unit} to move.
-         * @param current The current position on the path.
-         * @param dst The {@code Location} to move to.
-         * @param movesLeft The initial number of moves left.
-         * @param turns The initial number of turns.
-         * @param onCarrier Will the new move be on a carrier.
-         * @param decider The {@code CostDecider} to use.
-         */
-        public MoveCandidate(Unit unit, PathNode current, Location dst,
-                             int movesLeft, int turns, boolean onCarrier,
-                             CostDecider decider) {
-            this.unit = unit;
-            this.current = current;
-            this.dst = dst;
-            this.movesLeft = movesLeft;
-            this.turns = turns;
-            this.onCarrier = onCarrier;
-            CostDecider cd = (decider != null) ? decider
-                : CostDeciders.defaultCostDeciderFor(unit);
-            this.cost = cd.getCost(unit, current.getLocation(), dst,
-                                   movesLeft);
-            if (this.cost == CostDecider.ILLEGAL_MOVE) {
-                // This can happen "validly" if we try to route
-                // through unexplored tiles.  We do *not* want to
-                // disallow this completely --- there was a bug report
-                // to the effect that surely you should be able to
-                // route through short stretches of unknown to
-                // explored areas on the other side.  However BR#3153
-                // shows that we need to cost the unexplored tiles
-                // conservatively, so for now, consume all moves left
-                // add two extra turns.
-                if (dst.getTile() != null && !dst.getTile().isExplored()) {
-                    this.turns += 2;
-                    this.movesLeft = 0;
-                } else {
-                    throw new RuntimeException("Invalid move candidate:"
-                        + " for " + unit + " to " + dst);
-                }
-            }
-            this.turns += cd.getNewTurns();
-            this.movesLeft = cd.getMovesLeft();
-            this.cost = PathNode.getNodeCost(this.turns, this.movesLeft);
-        }
-
-        /**
-         * Get the cost.
-         *
-         * @return The current move cost.
-         */
-        public int getCost() {
-            return this.cost;
-        }
-
-        /**
-         * Handles the change of unit as a result of an embark.
-         *
-         * @param unit The {@code Unit} to embark.
-         */
-        public void embarkUnit(Unit unit) {
-            this.unit = unit;
-            this.movesLeft = unit.getInitialMovesLeft();
-            this.turns++;
-            this.cost = PathNode.getNodeCost(this.turns, this.movesLeft);
-        }
-
-        /**
-         * Does this move candidate improve on a specified move.
-         *
-         * @param best The {@code PathNode} to compare against.
-         * @return True if this candidate is an improvement.
-         */
-        public boolean canImprove(PathNode best) {
-            return best == null || this.cost < best.getCost();
-        }
-
-        /**
-         * Replace a given path with that of this candidate move.
-         *
-         * @param openMap The list of available nodes.
-         * @param openMapQueue The queue of available nodes.
-         * @param f The heuristic values for A*.
-         * @param sh A {@code SearchHeuristic} to apply.
-         */
-        public void improve(HashMap<String, PathNode> openMap,
-                            PriorityQueue<PathNode> openMapQueue,
-                            HashMap<String, Integer> f,
-                            SearchHeuristic sh) {
-            PathNode best = openMap.get(dst.getId());
-            if (best != null) {
-                openMap.remove(dst.getId());
-                openMapQueue.remove(best);
-            }
-            add(openMap, openMapQueue, f, sh);
-        }
-
-        /**
-         * Add this candidate to the open map+queue.
-         *
-         * @param openMap The list of available nodes.
-         * @param openMapQueue The queue of available nodes.
-         * @param f The map of f-values.
-         * @param sh A {@code SearchHeuristic} to apply.
-         */
-        public void add(HashMap<String, PathNode> openMap,
-                        PriorityQueue<PathNode> openMapQueue,
-                        HashMap<String, Integer> f,
-                        SearchHeuristic sh) {
-            int fcost = this.cost;
-            if (this.dst.getTile() != null) {
-                fcost += sh.getValue(this.dst.getTile());
+     * Work out the turns and moves left after a candidate move.
+     *
+     * @param mv A two element array to fill with the new turns and
+     *     moves left values.
+     * @param unit The {@code Unit} to move.
+     * @param current The current {@code Location} on the path.
+     * @param dst The {@code Tile} to move to.
+     * @param movesLeft The initial number of moves left.
+     * @param turns The initial number of turns.
+     * @param decider The {@code CostDecider} to use.
+     */
+    private static void costMove(int[] mv, Unit unit, Location current,
+                                 Tile dst, int movesLeft, int turns,
+                                 CostDecider decider) {
+        CostDecider cd = (decider != null) ? decider
+            : CostDeciders.defaultCostDeciderFor(unit);
+        int cost = cd.getCost(unit, current, dst, movesLeft);
+        if (cost == CostDecider.ILLEGAL_MOVE) {
+            // This can happen "validly" if we try to route
+            // through unexplored tiles.  We do *not* want to
+            // disallow this completely --- there was a bug report
+            // to the effect that surely you should be able to
+            // route through short stretches of unknown to
+            // explored areas on the other side.  However BR#3153
+            // shows that we need to cost the unexplored tiles
+            // conservatively, so for now, consume all moves left
+            // add two extra turns.
+            if (!dst.isExplored()) {
+                turns += 2;
+            } else {
+                throw new RuntimeException("Invalid move candidate:"
+                    + " for " + unit + " to " + dst);
             }
-            f.put(this.dst.getId(), fcost);
-            PathNode path = new PathNode(this.dst, this.movesLeft, this.turns,
-                this.onCarrier, this.current, null);
-            openMap.put(this.dst.getId(), path);
-            openMapQueue.offer(path);
         }
+        mv[0] = turns + cd.getNewTurns();
+        mv[1] = cd.getMovesLeft();
+    }
 
-
-        // Override Object
-
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public String toString() {
-            StringBuilder sb = new StringBuilder(128);
-            sb.append("[candidate unit=").append(unit)
-                .append(" dst=").append(dst)
-                .append(" movesLeft=").append(movesLeft)
-                .append(" turns=").append(turns)
-                .append(" onCarrier=").append(onCarrier)
-                .append(" cost=").append(cost)
-                .append(']');
-            return sb.toString();
-        }
+    /**
+     * The order in which neighbouring tiles are expanded by the
+     * search, which matches the order of a radius one circle iterator.
+     */
+    private static final Direction[] SEARCH_DIRECTIONS = {
+        Direction.NE, Direction.E, Direction.SE, Direction.S,
+        Direction.SW, Direction.W, Direction.NW, Direction.N
     };
 
     /**
      * Searches for a path to a goal determined by the given
      * {@code GoalDecider}.
      *
-     * Using A* with a List (closedMap) for marking the visited nodes
-     * and using a PriorityQueue (openMapQueue) for getting the next
-     * edge with the least cost.  This implementation could be
-     * improved by having the visited attribute stored on each Tile in
-     * order to avoid both of the HashMaps currently being used to
-     * serve this purpose.
+     * Using A* with the per-tile state held in a {@code SearchState},
+     * which keeps the open/closed status, costs and back links in
+     * arrays indexed by the dense tile index, and a primitive binary
+     * heap of tile indices ordered by f (cost+heuristics) for getting
+     * the next node with the least cost.
+     *
+     * A {@code PathNode} is only created when a node is removed from
+     * the open list and settled, as the goal deciders need one to
+     * inspect, and the .next links are only filled in for the
+     * winning path.
      *
      * If the SearchHeuristic is not supplied, then the algorithm
      * degrades gracefully to Dijkstra's algorithm.
      *
-     * The data structure for the open list is a combined structure: using a
-     * HashMap for membership tests and a PriorityQueue for getting the node
-     * with the minimal f (cost+heuristics). This gives O(1) on membership
-     * test and O(log N) for remove-best and insertions.
-     *
      * @param unit The {@code Unit} to find a path for.
      * @param start The {@code Tile} to start the search from.
      * @param goalDecider The object responsible for determining whether a
@@ -1757,14 +2203,48 @@ public class Map extends FreeColGameObject implements Location {
                                final int maxTurns, final Unit carrier,
                                final SearchHeuristic searchHeuristic,
                                final LogBuilder lb) {
-        final HashMap<String, PathNode> openMap = new HashMap<>();
-        final HashMap<String, PathNode> closedMap = new HashMap<>();
-        final HashMap<String, Integer> f = new HashMap<>();
-        final PriorityQueue<PathNode> openMapQueue = new PriorityQueue<>(1024,
-            Comparator.comparingInt(p -> f.get(p.getLocation().getId())));
+        final SearchState ss = SearchState.acquire(getTileCount());
+        try {
+            return searchMap(ss, unit, start, UNDEFINED, goalDecider,
+                             costDecider, maxTurns, carrier,
+                             searchHeuristic, lb);
+        } finally {
+            nodesExpanded.addAndGet(ss.getExpanded());
+            ss.release();
+        }
+    }
+
+    /**
+     * Implement searchMap using a given search state.
+     *
+     * @param ss The {@code SearchState} to use.
+     * @param unit The {@code Unit} to find a path for.
+     * @param start The {@code Tile} to start the search from.
+     * @param startMovesLeft The moves left at the start, or UNDEFINED
+     *     to use those of the unit.
+     * @param goalDecider The object responsible for determining whether a
+     *     given {@code PathNode} is a goal or not.
+     * @param costDecider An optional {@code CostDecider}
+     *     responsible for determining the path cost.
+     * @param maxTurns The maximum number of turns the given
+     *     {@code Unit} is allowed to move.
+     * @param carrier An optional naval carrier {@code Unit} to use.
+     * @param searchHeuristic An optional {@code SearchHeuristic}.
+     * @param lb An optional {@code LogBuilder} to log to.
+     * @return A path to a goal determined by the given
+     *     {@code GoalDecider}.
+     */
+    private PathNode searchMap(final SearchState ss, final Unit unit,
+                               final Tile start, final int startMovesLeft,
+                               final GoalDecider goalDecider,
+                               final CostDecider costDecider,
+                               final int maxTurns, final Unit carrier,
+                               final SearchHeuristic searchHeuristic,
+                               final LogBuilder lb) {
         final SearchHeuristic sh = (searchHeuristic == null)
             ? trivialSearchHeuristic : searchHeuristic;
         final Unit offMapUnit = (carrier != null) ? carrier : unit;
+        final int[] mv = new int[2];
         Unit currentUnit = (start.isLand())
             ? ((unit != null && unit.getLocation() == carrier
                     && start.hasSettlement()
@@ -1777,21 +2257,30 @@ public class Map extends FreeColGameObject implements Location {
             ", carrier=", carrier, ")",
             "\n", net.sf.freecol.common.debug.FreeColDebugger.stackTraceToString());
 
-        // Create the start node and put it on the open list.
-        final PathNode firstNode = new PathNode(start,
-            ((currentUnit != null) ? currentUnit.getMovesLeft() : -1),
-            0, carrier != null && currentUnit == carrier, null, null);
-        f.put(start.getId(), sh.getValue(start));
-        openMap.put(start.getId(), firstNode);
-        openMapQueue.offer(firstNode);
+        // Put the start node on the open list.
+        final int startIndex = getTileIndex(start);
+        ss.set(startIndex, sh.getValue(start),
+               0, ((startMovesLeft != UNDEFINED) ? startMovesLeft
+                   : (currentUnit != null) ? currentUnit.getMovesLeft() : -1),
+               carrier != null && currentUnit == carrier, null);
+        ss.setState(startIndex, SearchState.OPEN);
+        ss.offer(startIndex);
+
+        // A reusable node for probing whether a neighbouring tile is
+        // a goal.  It is replaced if the goal decider retains it.
+        PathNode probe = null;
 
         PathNode best = null;
         int bestScore = INFINITY;
-ok:     while (!openMap.isEmpty()) {
-            // Choose the node with the lowest f.
-            final PathNode currentNode = openMapQueue.poll();
-            final Location currentLocation = currentNode.getLocation();
-            openMap.remove(currentLocation.getId());
+ok:     while (!ss.isEmpty()) {
+            // Choose the node with the lowest f, and settle it.
+            final int currentIndex = ss.poll();
+            ss.setState(currentIndex, SearchState.NONE);
+            final Tile currentTile = getTile(currentIndex);
+            final PathNode currentNode = new PathNode(currentTile,
+                ss.getMovesLeft(currentIndex), ss.getTurns(currentIndex),
+                ss.isOnCarrier(currentIndex), ss.getPrevious(currentIndex),
+                null);
             if (lb != null) lb.add("\n  ", currentNode);
 
             // Reset current unit to that of this node.
@@ -1808,13 +2297,14 @@ ok:     while (!openMap.isEmpty()) {
             }
 
             // Valid candidate for the closed list.
-            closedMap.put(currentLocation.getId(), currentNode);
+            ss.setState(currentIndex, SearchState.CLOSED);
             if (lb != null) lb.add(" closing");
 
             // Skip nodes that can not beat the current best path.
-            if (bestScore < currentNode.getCost()) {
+            final int currentCost = currentNode.getCost();
+            if (bestScore < currentCost) {
                 if (lb != null) lb.add("...goal cost wins(",
-                    bestScore, " < ", currentNode.getCost(), ")...");
+                    bestScore, " < ", currentCost, ")...");
                 continue;
             }
 
@@ -1828,32 +2318,28 @@ ok:     while (!openMap.isEmpty()) {
             final int currentMovesLeft = currentNode.getMovesLeft();
             final int currentTurns = currentNode.getTurns();
             final boolean currentOnCarrier = currentNode.isOnCarrier();
-
-            final Tile currentTile = currentNode.getTile();
-            if (currentTile == null) { // Must be in Europe.
-                // FIXME: Do not consider tiles "adjacent" to Europe, yet.
-                // There may indeed be cases where going to Europe and
-                // coming back on the other side of the map is faster.
-                if (lb != null) lb.add("...skip Europe");
-                continue;
-            }
+            final Tile previousTile = (currentNode.previous == null) ? null
+                : currentNode.previous.getTile();
 
             // Try the tiles in each direction
-            PathNode closed;
-            for (Tile moveTile : currentTile.getSurroundingTiles(1)) {
+            for (Direction direction : SEARCH_DIRECTIONS) {
+                final int moveIndex = getAdjacentIndex(currentIndex,
+                                                       direction);
+                if (moveIndex < 0) continue;
+                final Tile moveTile = getTile(moveIndex);
                 // If the new tile is the tile we just visited, skip it.
                 if (lb != null) lb.add("\n    ", moveTile);
-                if (currentNode.previous != null
-                    && currentNode.previous.getTile() == moveTile) {
+                if (moveTile == previousTile) {
                     if (lb != null) lb.add(" !prev");
                     continue;
                 }
 
                 // Skip neighbouring tiles already too expensive.
-                closed = closedMap.get(moveTile.getId());
-                if (closed != null) {
-                    int cc = closed.getCost();
-                    if (cc <= currentNode.getCost()) {
+                final boolean closed
+                    = ss.getState(moveIndex) == SearchState.CLOSED;
+                if (closed) {
+                    int cc = ss.getCost(moveIndex);
+                    if (cc <= currentCost) {
                         if (lb != null) lb.add(" !worse ", cc);
                         continue;
                     }
@@ -1867,15 +2353,21 @@ ok:     while (!openMap.isEmpty()) {
                     && carrier.getSimpleMoveType(carrier.getTile(), moveTile).isProgress();
                 if (lb != null) lb.add(" ", ((unitMove) ? "U"
                         : ((carrierMove) ? "C" : "")));
-                MoveCandidate move;
+                boolean moveOnCarrier;
                 String stepLog;
                 
                 // Is this move to the goal?  Use fake high cost so
                 // this does not become cached inside the goal decider
-                // as the preferred path.
-                boolean isGoal = goalDecider.check(unit,
-                    new PathNode(moveTile, 0, INFINITY/2, false,
-                                 currentNode, null));
+                // as the preferred path.  Reuse the probe node unless
+                // the goal decider kept hold of it.
+                if (probe == null) {
+                    probe = new PathNode(moveTile, 0, INFINITY/2, false,
+                                         currentNode, null);
+                } else {
+                    probe = probe.reuse(moveTile, currentNode);
+                }
+                boolean isGoal = goalDecider.check(unit, probe);
+                if (goalDecider.getGoal() == probe) probe = null;
                 if (isGoal) {
                     if (lb != null) lb.add(" *goal*", umt);
                     if (unitMove) {
@@ -1883,9 +2375,10 @@ ok:     while (!openMap.isEmpty()) {
                             // If the goal has a settlement and the
                             // unit is travelling by carrier, dock the
                             // carrier.
-                            move = new MoveCandidate(carrier, currentNode,
-                                moveTile, currentMovesLeft, currentTurns,
-                                true, CostDeciders.tileCost());
+                            costMove(mv, carrier, currentTile, moveTile,
+                                currentMovesLeft, currentTurns,
+                                CostDeciders.tileCost());
+                            moveOnCarrier = true;
                         } else {
                             // Otherwise let the unit complete the path.
                             int left = (currentOnCarrier)
@@ -1893,9 +2386,9 @@ ok:     while (!openMap.isEmpty()) {
                                     ? 0
                                     : unit.getInitialMovesLeft())
                                 : currentMovesLeft;
-                            move = new MoveCandidate(unit, currentNode,
-                                moveTile, left, currentTurns, false,
-                                CostDeciders.tileCost());
+                            costMove(mv, unit, currentTile, moveTile,
+                                left, currentTurns, CostDeciders.tileCost());
+                            moveOnCarrier = false;
                         }
                     } else {
                         // Handle some special cases where the move may not
@@ -1911,15 +2404,17 @@ ok:     while (!openMap.isEmpty()) {
                             // Can not move to the tile, but there is
                             // a valid interaction with the unit or
                             // settlement that is there.
-                            move = new MoveCandidate(unit, currentNode,
-                                moveTile, currentMovesLeft, currentTurns,
-                                false, CostDeciders.tileCost());
+                            costMove(mv, unit, currentTile, moveTile,
+                                currentMovesLeft, currentTurns,
+                                CostDeciders.tileCost());
+                            moveOnCarrier = false;
                             unitMove = true;
                             break;
                         case EMBARK:
-                            move = new MoveCandidate(unit, currentNode,
-                                moveTile, currentMovesLeft, currentTurns,
-                                true, CostDeciders.tileCost());
+                            costMove(mv, unit, currentTile, moveTile,
+                                currentMovesLeft, currentTurns,
+                                CostDeciders.tileCost());
+                            moveOnCarrier = true;
                             unitMove = true;
                             break;
                         case MOVE_NO_ATTACK_CIVILIAN:
@@ -1943,9 +2438,10 @@ ok:     while (!openMap.isEmpty()) {
                             }
                             if (lb != null) lb.add(" blocked");
                             unitMove = true;
-                            move = new MoveCandidate(unit, currentNode,
-                                moveTile, currentMovesLeft, currentTurns,
-                                false, CostDeciders.tileCost());
+                            costMove(mv, unit, currentTile, moveTile,
+                                currentMovesLeft, currentTurns,
+                                CostDeciders.tileCost());
+                            moveOnCarrier = false;
                             break;
                         default:
                             // Several cases here, these are understood:
@@ -1968,13 +2464,12 @@ ok:     while (!openMap.isEmpty()) {
                             continue;
                         }
                     }
-                    assert move != null;
                     stepLog = "@";
                 } else {
                     // Ordinary non-goal moves.
                     //
                     // Check for a carrier change at the new tile,
-                    // creating a MoveCandidate for each case.
+                    // costing the move for each case.
                     //
                     // Do *not* allow units to re-embark on the carrier.
                     // Note that embarking can actually increase the moves
@@ -2001,23 +2496,26 @@ ok:     while (!openMap.isEmpty()) {
                         : MoveStep.FAIL;
                     switch (step) {
                     case BYLAND:
-                        move = new MoveCandidate(unit, currentNode, moveTile, 
-                            currentMovesLeft, currentTurns, false, costDecider);
+                        costMove(mv, unit, currentTile, moveTile,
+                            currentMovesLeft, currentTurns, costDecider);
+                        moveOnCarrier = false;
                         break;
                     case BYWATER:
-                        move = new MoveCandidate(offMapUnit, currentNode, moveTile,
-                            currentMovesLeft, currentTurns, currentOnCarrier,
-                            costDecider);
+                        costMove(mv, offMapUnit, currentTile, moveTile,
+                            currentMovesLeft, currentTurns, costDecider);
+                        moveOnCarrier = currentOnCarrier;
                         break;
                     case EMBARK:
-                        move = new MoveCandidate(offMapUnit, currentNode, moveTile,
-                            currentMovesLeft, currentTurns, true,
-                            costDecider);
-                        move.embarkUnit(carrier);
+                        costMove(mv, offMapUnit, currentTile, moveTile,
+                            currentMovesLeft, currentTurns, costDecider);
+                        mv[0]++;
+                        mv[1] = carrier.getInitialMovesLeft();
+                        moveOnCarrier = true;
                         break;
                     case DISEMBARK:
-                        move = new MoveCandidate(unit, currentNode, moveTile,
-                            0, currentTurns, false, costDecider);
+                        costMove(mv, unit, currentTile, moveTile,
+                            0, currentTurns, costDecider);
+                        moveOnCarrier = false;
                         break;
                     case FAIL: default: // Loop on failure.
                         if (lb != null) lb.add("!");
@@ -2025,23 +2523,25 @@ ok:     while (!openMap.isEmpty()) {
                     }
                     stepLog = " " + step + "_";
                 }
-                assert move.getCost() >= 0;
+                final int moveCost = PathNode.getNodeCost(mv[0], mv[1]);
+                assert moveCost >= 0;
                 // Tighten the bounds on a previously seen case if possible
-                if (closed != null) {
-                    if (move.canImprove(closed)) {
-                        closedMap.remove(moveTile.getId());
-                        move.improve(openMap, openMapQueue, f, sh);
-                        stepLog += "^" + Integer.toString(move.getCost());
-                    } else {
+                final byte moveState = ss.getState(moveIndex);
+                if (closed || moveState == SearchState.NONE
+                    || moveCost < ss.getCost(moveIndex)) {
+                    if (closed && moveCost >= ss.getCost(moveIndex)) {
                         stepLog += "v";
-                    }
-                } else {
-                    if (move.canImprove(openMap.get(moveTile.getId()))){
-                        move.improve(openMap, openMapQueue, f, sh);
-                        stepLog += "+" + Integer.toString(move.getCost());
                     } else {
-                        stepLog += "-";
+                        if (moveState == SearchState.OPEN) ss.remove(moveIndex);
+                        ss.set(moveIndex, moveCost + sh.getValue(moveTile),
+                               mv[0], mv[1], moveOnCarrier, currentNode);
+                        ss.setState(moveIndex, SearchState.OPEN);
+                        ss.offer(moveIndex);
+                        stepLog += ((closed) ? "^" : "+")
+                            + Integer.toString(moveCost);
                     }
+                } else {
+                    stepLog += "-";
                 }
                 if (lb != null) lb.add(stepLog);
             }
@@ -2104,6 +2604,80 @@ ok:     while (!openMap.isEmpty()) {
         return null;
     }
 
+    /**
+     * Gets the distance from each tile to the nearest land tile,
+     * computing it if the land has changed since it was last needed.
+     *
+     * The distances are found with a single breadth first search
+     * outward from all the land tiles at once, so land tiles have
+     * distance zero.  Tiles with no land on the map at all have
+     * distance {@code INFINITY}.
+     *
+     * @return An array of land distances by tile index, which must
+     *     not be modified.
+     */
+    public int[] getLandDistance() {
+        int[] ld = landDistance;
+        if (ld == null) {
+            final int n = getTileCount();
+            ld = new int[n];
+            final int[] queue = new int[n];
+            int tail = 0;
+            for (int i = 0; i < n; i++) {
+                if (terrain.isLand(i)) {
+                    ld[i] = 0;
+                    queue[tail++] = i;
+                } else {
+                    ld[i] = -1;
+                }
+            }
+            distanceTransform(ld, queue, tail, i -> true);
+            for (int i = 0; i < n; i++) if (ld[i] < 0) ld[i] = INFINITY;
+            landDistance = ld;
+        }
+        return ld;
+    }
+
+    /**
+     * Gets the distance from a tile to the nearest land tile.
+     *
+     * @param tile The {@code Tile} to check.
+     * @return The distance to land, zero for land tiles.
+     */
+    public int getLandDistance(Tile tile) {
+        return getLandDistance()[getTileIndex(tile)];
+    }
+
+    /**
+     * Multi-source breadth first search over the tile indices.  Each
+     * unreached neighbour of an expanded tile gets a distance one
+     * greater than that tile.
+     *
+     * @param dist The distances, with the sources set and all other
+     *     entries negative.
+     * @param queue A queue holding the sources, large enough for all
+     *     the tiles.
+     * @param tail The number of sources in the queue.
+     * @param expand An {@code IntPredicate} to select the tile indices
+     *     to expand from.
+     */
+    private void distanceTransform(int[] dist, int[] queue, int tail,
+                                   IntPredicate expand) {
+        final Direction[] dirs = Direction.values();
+        int head = 0;
+        while (head < tail) {
+            final int i = queue[head++];
+            if (!expand.test(i)) continue;
+            for (Direction d : dirs) {
+                final int j = getAdjacentIndex(i, d);
+                if (j >= 0 && dist[j] < 0) {
+                    dist[j] = dist[i] + 1;
+                    queue[tail++] = j;
+                }
+            }
+        }
+    }
+
     /**
      * Flood fills from a given {@code Position} p, based on
      * connectivity information encoded in boolmap
@@ -2154,70 +2728,196 @@ ok:     while (!openMap.isEmpty()) {
 
     /**
      * Sets the contiguity identifier for all tiles.
+     *
+     * The water regions and the land regions are each numbered from
+     * zero, in the order of their first tile in a row by row scan.
+     * The regions are found with a two pass connected component
+     * labelling over the tile indices, joining each tile to its
+     * already scanned neighbours of the same kind with a union-find
+     * forest, then numbering the roots.
      */
     public void resetContiguity() {
-        // Create the water map.  It is an error for any tile not to
-        // have a region at this point.
-        final int xmax = getWidth(), ymax = getHeight();
-        boolean[][] waterMap = new boolean[xmax][ymax];
-        for (int y = 0; y < ymax; y++) {
-            for (int x = 0; x < xmax; x++) {
-                if (isValid(x, y)) {
-                    waterMap[x][y] = !getTile(x,y).isLand();
-                    Tile tile = getTile(x, y);
-                    tile.setContiguity(-1);
+        final int n = getTileCount();
+        final TerrainStore ts = this.terrain;
+
+        // First pass, join neighbours.  Each root is the lowest index
+        // in its set, which is also the first tile of the region
+        // found by the scan.
+        final int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            for (Direction d : Direction.values()) {
+                final int j = getAdjacentIndex(i, d);
+                if (j >= 0 && j < i && ts.isLand(j) == ts.isLand(i)) {
+                    union(parent, i, j);
                 }
             }
         }
 
-        // Flood fill each contiguous water region, setting the
-        // contiguity number.
-        int contig = 0;
-        floodFill(contig, ymax, xmax, waterMap);
+        // Second pass, number the roots in scan order.
+        ts.resetMaxContiguity();
+        final int[] label = new int[n];
+        int water = 0, earth = 0;
+        for (int i = 0; i < n; i++) {
+            final int r = findRoot(parent, i);
+            label[i] = (r == i) ? ((ts.isLand(i)) ? earth++ : water++)
+                : label[r];
+            getTile(i).setContiguity(label[i]);
+        }
+    }
+
+    /**
+     * Find the root of a union-find set, halving the path on the way.
+     *
+     * @param parent The parent array.
+     * @param i The index to find the root of.
+     * @return The root index.
+     */
+    private static int findRoot(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
 
-        // Complement the waterMap, it is now the land map.
-        for (int y = 0; y < ymax; y++) {
-            for (int x = 0; x < xmax; x++) {
-                if (isValid(x, y)) waterMap[x][y] = !waterMap[x][y];
-            }
+    /**
+     * Join two union-find sets, keeping the lower root.
+     *
+     * @param parent The parent array.
+     * @param i An index in the first set.
+     * @param j An index in the second set.
+     */
+    private static void union(int[] parent, int i, int j) {
+        final int ri = findRoot(parent, i), rj = findRoot(parent, j);
+        if (ri < rj) parent[rj] = ri; else if (rj < ri) parent[ri] = rj;
+    }
+
+    /**
+     * Update the contiguity identifiers following a tile changing
+     * between land and water.
+     *
+     * The tile joins (and if need be merges) the regions of its
+     * neighbours of the new kind, or starts a new region if there are
+     * none.  The region it has left is split if the tile was the only
+     * connection between its remaining neighbours.  Merging keeps the
+     * lowest number and splitting allocates new ones, so the numbers
+     * may differ from those a full {@link #resetContiguity} would give.
+     * Only the regions around the tile are visited.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public void updateContiguity(Tile tile) {
+        final boolean isLand = tile.isLand();
+        final int old = tile.getContiguity();
+        final int index = getTileIndex(tile);
+        final Direction[] dirs = Direction.values();
+
+        // Join the new neighbours.
+        final TerrainStore ts = this.terrain;
+        int joined = -1;
+        for (Direction d : dirs) {
+            final int j = getAdjacentIndex(index, d);
+            if (j < 0) continue;
+            final int c = ts.getContiguity(j);
+            if (ts.isLand(j) != isLand || c < 0) continue;
+            if (joined < 0 || c < joined) joined = c;
         }
+        if (joined < 0) joined = getNextContiguity(isLand);
+        tile.setContiguity(joined);
+        for (Direction d : dirs) {
+            final int j = getAdjacentIndex(index, d);
+            if (j < 0 || ts.isLand(j) != isLand) continue;
+            final int c = ts.getContiguity(j);
+            if (c >= 0 && c != joined) relabel(j, isLand, c, joined);
+        }
+        if (old < 0) return;
 
-        // Flood fill again for each contiguous land region.
-        floodFill(contig, ymax, xmax, waterMap);
+        // Split the old region if the remaining neighbours of the old
+        // kind do not form a single run around the tile, and can not
+        // reach each other any more.
+        int runs = 0;
+        boolean prev = isOldKind(index, dirs[dirs.length - 1], !isLand, old);
+        for (Direction d : dirs) {
+            final boolean cur = isOldKind(index, d, !isLand, old);
+            if (cur && !prev) runs++;
+            prev = cur;
+        }
+        if (runs <= 1) return;
+        // Mark everything still reachable from the first neighbour with
+        // -2, then any unmarked neighbours start new regions, then
+        // restore the first part.
+        int first = -1;
+        for (Direction d : dirs) {
+            if (!isOldKind(index, d, !isLand, old)) continue;
+            final int j = getAdjacentIndex(index, d);
+            if (first < 0) {
+                first = j;
+                relabel(j, !isLand, old, -2);
+            } else {
+                relabel(j, !isLand, old, getNextContiguity(!isLand));
+            }
+        }
+        relabel(first, !isLand, -2, old);
     }
 
     /**
-     * Performs fill flood action and calculations
+     * Is the neighbour of a tile in a given direction of a given kind
+     * and contiguity?
      *
-     * @param contig The contiguity number.
-     * @param ymax The Y-value
-     * @param xmax The X-value
-     * @param waterMap The boolean array containing the x and y coordinates
+     * @param index The tile index.
+     * @param d The {@code Direction} to look in.
+     * @param isLand The kind of tile to look for.
+     * @param contiguity The contiguity to look for.
+     * @return True if the neighbour matches.
      */
-    private void floodFill(int contig, int ymax, int xmax, boolean[][] waterMap) {
-        for (int y = 0; y < ymax; y++) {
-            for (int x = 0; x < xmax; x++) {
-                if (waterMap[x][y]) {
-                    Tile tile = getTile(x, y);
-                    if (tile.getContiguity() >= 0) continue;
+    private boolean isOldKind(int index, Direction d, boolean isLand,
+                              int contiguity) {
+        final int j = getAdjacentIndex(index, d);
+        return j >= 0 && terrain.isLand(j) == isLand
+            && terrain.getContiguity(j) == contiguity;
+    }
 
-                    boolean[][] found = floodFillBool(waterMap, x, y);
-                    for (int yy = 0; yy < ymax; yy++) {
-                        for (int xx = 0; xx < xmax; xx++) {
-                            if (found[xx][yy]) {
-                                Tile t = getTile(xx, yy);
-                                if (t.getContiguity() < 0) {
-                                    t.setContiguity(contig);
-                                }
-                            }
-                        }
-                    }
-                    contig++;
+    /**
+     * Flood fill a contiguity change from a tile.
+     *
+     * @param start The starting tile index.
+     * @param isLand The kind of tile to fill.
+     * @param from The contiguity to replace.
+     * @param to The new contiguity.
+     */
+    private void relabel(int start, boolean isLand, int from, int to) {
+        final int n = getTileCount();
+        if (contiguityQueue == null || contiguityQueue.length < n) {
+            contiguityQueue = new int[n];
+        }
+        final int[] queue = contiguityQueue;
+        int head = 0, tail = 0;
+        getTile(start).setContiguity(to);
+        queue[tail++] = start;
+        while (head < tail) {
+            final int i = queue[head++];
+            for (Direction d : Direction.values()) {
+                final int j = getAdjacentIndex(i, d);
+                if (j >= 0 && terrain.isLand(j) == isLand
+                    && terrain.getContiguity(j) == from) {
+                    getTile(j).setContiguity(to);
+                    queue[tail++] = j;
                 }
             }
         }
     }
 
+    /**
+     * Get an unused contiguity number for a kind of tile.
+     *
+     * @param isLand The kind of tile.
+     * @return One more than the highest contiguity used for that kind.
+     */
+    private int getNextContiguity(boolean isLand) {
+        return terrain.getMaxContiguity(isLand) + 1;
+    }
+
     /**
      * Places the "high seas"-tiles on the border of this map.
      *
@@ -2247,22 +2947,23 @@ ok:     while (!openMap.isEmpty()) {
         }
 
         // Reset all highSeas tiles to the default ocean type.
-        forEachTile(t -> t.getType() == highSeas, t -> t.setType(ocean));
+        final int highSeasIndex = highSeas.getIndex();
+        forEachTerrainTile(i -> terrain.getTypeIndex(i) == highSeasIndex,
+                           t -> t.setType(ocean));
 
         final int width = getWidth(), height = getHeight();
+        final int[] ld = getLandDistance();
         Tile t, seaL = null, seaR = null;
         int totalL = 0, totalR = 0, distanceL = -1, distanceR = -1;
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < maxDistanceToEdge && x < width
                      && isValid(x, y)
                      && (t = getTile(x, y)).getType() == ocean; x++) {
-                Tile other = getLandWithinDistance(x, y,
-                    distToLandFromHighSeas);
-                if (other == null) {
+                final int distance = ld[getTileIndex(t)];
+                if (distance > distToLandFromHighSeas) {
                     t.setType(highSeas);
                     totalL++;
                 } else {
-                    int distance = t.getDistanceTo(other);
                     if (distanceL < distance) {
                         distanceL = distance;
                         seaL = t;
@@ -2272,13 +2973,11 @@ ok:     while (!openMap.isEmpty()) {
             for (int x = 0; x < maxDistanceToEdge && x < width
                      && isValid(width-1-x, y)
                      && (t = getTile(width-1-x, y)).getType() == ocean; x++) {
-                Tile other = getLandWithinDistance(width-1-x, y,
-                    distToLandFromHighSeas);
-                if (other == null) {
+                final int distance = ld[getTileIndex(t)];
+                if (distance > distToLandFromHighSeas) {
                     t.setType(highSeas);
                     totalR++;
                 } else {
-                    int distance = t.getDistanceTo(other);
                     if (distanceR < distance) {
                         distanceR = distance;
                         seaR = t;
@@ -2319,11 +3018,13 @@ ok:     while (!openMap.isEmpty()) {
      * tile.
      */
     public void resetHighSeasCount() {
-        List<Tile> curr = new ArrayList<>();
-        List<Tile> next = new ArrayList<>();
-        int hsc = 0;
-        for (Tile t : this.tileList) {
-            t.setHighSeasCount(-1);
+        final int n = getTileCount();
+        final int[] hsc = new int[n];
+        final int[] queue = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            final Tile t = getTile(i);
+            hsc[i] = -1;
             if (!t.isLand()) {
                 if ((t.getX() == 0 || t.getX() == getWidth()-1)
                     && t.getType() != null
@@ -2333,34 +3034,18 @@ ok:     while (!openMap.isEmpty()) {
                     t.setMoveToEurope(Boolean.TRUE);
                 }
                 if (t.isDirectlyHighSeasConnected()) {
-                    t.setHighSeasCount(0);
-                    next.add(t);
-                }
-            }
-        }
-        while (!next.isEmpty()) {
-            hsc++;
-            curr.addAll(next);
-            next.clear();
-            while (!curr.isEmpty()) {
-                Tile tile = curr.remove(0);
-                // Deliberately using low level access to neighbours
-                // rather than Tile.getSurroundingTiles() because that
-                // relies on the map being attached to the game, which
-                // is not necessarily true in the test suite.
-                Position position = new Position(tile.getX(), tile.getY());
-                for (Position p : transform(Direction.values(), alwaysTrue(),
-                        d -> new Position(position, d))) {
-                    if (isValid(p)) {
-                        Tile t = getTile(p);
-                        if (t.getHighSeasCount() < 0) {
-                            t.setHighSeasCount(hsc);
-                            if (!t.isLand()) next.add(t);
-                        }
-                    }
+                    hsc[i] = 0;
+                    queue[tail++] = i;
                 }
             }
         }
+        // Deliberately using the tile indices rather than
+        // Tile.getSurroundingTiles() because that relies on the map
+        // being attached to the game, which is not necessarily true
+        // in the test suite.  The count spreads over water, and stops
+        // at the first land tiles.
+        distanceTransform(hsc, queue, tail, i -> !terrain.isLand(i));
+        for (int i = 0; i < n; i++) getTile(i).setHighSeasCount(hsc[i]);
     }
 
     /**
@@ -2372,15 +3057,25 @@ ok:     while (!openMap.isEmpty()) {
             lostCityRumours = false,
             resources = false,
             nativeSettlements = false;
-        final int hgt = getHeight(), wid = getWidth();
-        for (int y = 0; y < hgt; y++) {
-            for (int x = 0; x < wid; x++) {
-                Tile t = getTile(x, y);
-                regions |= t.getRegion() != null;
-                rivers |= t.hasRiver();
+        // Rivers are complete improvements, so they can be found in
+        // the terrain store.  Rumours and native settlements are only
+        // on land, so only the land tiles need to be checked for them.
+        final Specification spec = getSpecification();
+        final TileImprovementType river = (spec == null) ? null
+            : spec.getTileImprovementType("model.improvement.river");
+        final TerrainStore ts = this.terrain;
+        final int n = ts.size();
+        for (int i = 0; i < n; i++) {
+            final Tile t = getTile(i);
+            if (t == null) continue;
+            regions |= t.getRegion() != null;
+            resources |= t.hasResource();
+            rivers |= (river == null) ? t.hasRiver()
+                : ts.hasImprovement(i, river);
+            if (ts.isLand(i)) {
                 lostCityRumours |= t.hasLostCityRumour();
-                resources |= t.hasResource();
-                nativeSettlements |= t.getSettlement() instanceof IndianSettlement;
+                nativeSettlements
+                    |= t.getSettlement() instanceof IndianSettlement;
             }
         }
         setLayer((rivers && lostCityRumours && resources && nativeSettlements)
@@ -2753,6 +3448,7 @@ ok:     while (!openMap.isEmpty()) {
         // overwriteable, so we do not clear it unlike most other containers.
 
         super.readChildren(xr);
+        spatialIndex.invalidate();
 
         // Fix up settlement tile ownership in one hit here, avoiding
         // complications with Tile-internal cached tiles.
@@ -22,8 +22,6 @@ package net.sf.freecol.common.model;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.logging.Logger;
 
 import javax.xml.stream.XMLStreamException;
@@ -63,7 +61,8 @@ public final class Market extends FreeColGameObject implements Ownable {
 
 
     /** The contents of the market, keyed by goods type. */
-    private final Map<GoodsType, MarketData> marketData = new HashMap<>();
+    private final SpecTypeMap<GoodsType, MarketData> marketData
+        = new SpecTypeMap<>();
 
     /** The owning player. */
     private Player owner;
@@ -114,7 +113,7 @@ public final class Market extends FreeColGameObject implements Ownable {
      *
      * @return The map of goods type to market data.
      */
-    private Map<GoodsType, MarketData> getMarketData() {
+    private SpecTypeMap<GoodsType, MarketData> getMarketData() {
         synchronized (this.marketData) {
             return this.marketData;
         }
@@ -123,7 +122,7 @@ public final class Market extends FreeColGameObject implements Ownable {
     /**
      * Get the market data values.
      *
-     * @return The market data in this market.
+     * @return A list of the market data in this market.
      */
     public Collection<MarketData> getMarketDataValues() {
         synchronized (this.marketData) {
@@ -178,10 +177,10 @@ public final class Market extends FreeColGameObject implements Ownable {
      *
      * @param data The new market data.
      */
-    private void setMarketData(Map<GoodsType, MarketData> data) {
+    private void setMarketData(SpecTypeMap<GoodsType, MarketData> data) {
         synchronized (this.marketData) {
             this.marketData.clear();
-            this.marketData.putAll(data);
+            data.forEach(this.marketData::put);
         }
     }
 
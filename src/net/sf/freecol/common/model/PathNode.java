@@ -38,7 +38,7 @@ public class PathNode {
     private static final int TURN_FACTOR = 100;
 
     /** The location this node refers to.  Usually a Tile. */
-    private final Location location;
+    private Location location;
 
     /**
      * The number of moves left at this node for the unit traversing
@@ -87,6 +87,26 @@ public class PathNode {
     }
 
 
+    /**
+     * Reset this node for reuse as a goal probe in a search.
+     *
+     * Only for use by the map search, which guarantees that the node
+     * is not retained elsewhere.
+     *
+     * @param location The new {@code Location}.
+     * @param previous The new previous {@code PathNode}.
+     * @return This node.
+     */
+    PathNode reuse(Location location, PathNode previous) {
+        this.location = location;
+        this.movesLeft = 0;
+        this.turns = INFINITY/2;
+        this.onCarrier = false;
+        this.previous = previous;
+        this.next = null;
+        return this;
+    }
+
     /**
      * Gets the location of this path.
      *
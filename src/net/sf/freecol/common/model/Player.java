@@ -33,6 +33,7 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -293,11 +294,15 @@ public class Player extends FreeColGameObject implements Nameable {
     /** The settlements this player owns. */
     protected final List<Settlement> settlements = new ArrayList<>();
 
-    /** The tiles the player can see. */
-    private boolean[][] canSeeTiles = null;
-    /** Are the canSeeTiles valid or do they need to be recalculated? */
-    private boolean canSeeValid = false;
-    /** Do not access canSeeTiles without taking canSeeLock. */
+    /**
+     * The number of sight disks covering each tile index, or null if
+     * it needs to be recalculated.  Read without locking, but only
+     * replaced or updated while holding canSeeLock.
+     */
+    private volatile int[] canSeeCount = null;
+    /** Incremented whenever canSeeCount is invalidated or rebuilt. */
+    private long canSeeEpoch = 0L;
+    /** Do not modify canSeeCount without taking canSeeLock. */
     private final Object canSeeLock = new Object();
 
     /** A container for the abilities and modifiers of this type. */
@@ -2827,12 +2832,13 @@ public class Player extends FreeColGameObject implements Nameable {
     }
 
     /**
-     * Forces an update of the {@code canSeeTiles}.
+     * Forces an update of the {@code canSeeCount}.
      *
      * This method should be used to invalidate the current
-     * {@code canSeeTiles} when something significant changes.
-     * The method {@link #makeCanSeeTiles} will be called whenever it
-     * is needed.
+     * {@code canSeeCount} when something significant changes.
+     * The method {@link #makeCanSeeCount} will be called whenever it
+     * is needed.  Simple moves of a single sight disk can use the
+     * cheaper {@link #updateSight} instead.
      *
      * So what is "significant"?
      *
@@ -2856,7 +2862,7 @@ public class Player extends FreeColGameObject implements Nameable {
      * Ideally then when any of these events occurs we should call
      * invalidateCanSeeTiles().  However while iCST is quick and
      * cheap, as soon as we then call canSee() the big expensive
-     * makeCanSeeTiles will be run.  Often the situation in the server
+     * makeCanSeeCount will be run.  Often the situation in the server
      * is that several routines with visibility implications will be
      * called in succession.  Usually there, the best solution is to
      * make all the changes and issue the iCST at the end.  So, to
@@ -2869,7 +2875,67 @@ public class Player extends FreeColGameObject implements Nameable {
      */
     public void invalidateCanSeeTiles() {
         synchronized (canSeeLock) {
-            canSeeValid = false;
+            canSeeCount = null;
+            canSeeEpoch++;
+        }
+    }
+
+    /**
+     * Get the current visibility epoch.
+     *
+     * Callers that will update the visibility incrementally with
+     * {@link #updateSight} take the epoch before making their change,
+     * so that the update can be discarded if the visibility has been
+     * rebuilt in the meantime.
+     *
+     * @return The visibility epoch.
+     */
+    public long getCanSeeEpoch() {
+        synchronized (canSeeLock) {
+            return canSeeEpoch;
+        }
+    }
+
+    /**
+     * Incrementally update the visibility for a moved, added or
+     * removed sight disk.
+     *
+     * This is the cheap alternative to {@link #invalidateCanSeeTiles}
+     * for the common case of a single unit or settlement changing its
+     * position or line of sight.  The new disk is added before the old
+     * one is removed, so that tiles in both never appear unseen.
+     * Without fog of war the visible tiles are the explored tiles, so
+     * the update falls back to invalidation, as it does if the
+     * visibility has been rebuilt since the epoch was taken.
+     *
+     * @param epoch The visibility epoch from before the change.
+     * @param oldTile The {@code Tile} of the old disk, or null if none.
+     * @param oldRadius The radius of the old disk.
+     * @param newTile The {@code Tile} of the new disk, or null if none.
+     * @param newRadius The radius of the new disk.
+     */
+    public void updateSight(long epoch, Tile oldTile, int oldRadius,
+                            Tile newTile, int newRadius) {
+        if (oldTile == newTile && oldRadius == newRadius) return;
+        synchronized (canSeeLock) {
+            final int[] count = canSeeCount;
+            if (count == null) return; // Rebuilt when next needed
+            final Map map = getGame().getMap();
+            if (epoch != canSeeEpoch || map == null
+                || count.length != map.getTileCount()
+                || !getSpecification().getFogOfWarHandle().getValue()) {
+                invalidateCanSeeTiles();
+                return;
+            }
+            if (newTile != null) {
+                map.forEachInDisk(newTile, 0, newRadius, i -> {
+                        // Set the PET for newly visible tiles.
+                        if (count[i]++ == 0) map.getTile(i).seeTile(this);
+                    });
+            }
+            if (oldTile != null) {
+                map.forEachInDisk(oldTile, 0, oldRadius, i -> count[i]--);
+            }
         }
     }
 
@@ -2886,14 +2952,12 @@ public class Player extends FreeColGameObject implements Nameable {
         final Map map = getGame().getMap();
         if (map == null) return false;
 
-        synchronized (canSeeLock) {
-            if (!canSeeValid) {
-                // Build new visibility and mark as valid
-                canSeeTiles = makeCanSeeTiles(map);
-                canSeeValid = true;
-            }
-            return canSeeTiles[tile.getX()][tile.getY()];
+        final int i = map.getTileIndex(tile);
+        int[] count = canSeeCount;
+        if (count == null || i >= count.length) {
+            count = makeCanSeeCount(map);
         }
+        return count[i] > 0;
     }
 
     /**
@@ -2918,58 +2982,84 @@ public class Player extends FreeColGameObject implements Nameable {
      * @return A set of visible {@code Tile}s.
      */
     public Set<Tile> getVisibleTileSet() {
-        final Specification spec = getSpecification();
-        Set<Tile> tiles = new HashSet<>();
-        if (spec.getBoolean(GameOptions.FOG_OF_WAR)) {
-            // When there is fog, have to trace all locations where the
-            // player has units, settlements (including visible with
-            // Coronado), (optionally) missions, and extra visibility.
-            List<? extends Settlement> settlements
-                = (hasAbility(Ability.SEE_ALL_COLONIES))
-                ? getGame().getAllColoniesList(null)
-                : getSettlementList();
-            for (Settlement s : settlements) tiles.addAll(s.getVisibleTileSet());
-            for (Unit u : transform(getUnitSet(), Unit::isOnTile)) {
-                tiles.addAll(u.getVisibleTileSet());
-            }
-            if (isEuropean()
-                && spec.getBoolean(GameOptions.ENHANCED_MISSIONARIES)) {
-                for (Player other : getGame().getLiveNativePlayerList(this)) {
-                    for (IndianSettlement is : other.getIndianSettlementsWithMissionaryList(this)) {
-                        tiles.addAll(is.getVisibleTileSet());
-                    }
-                }
-            }
+        final Map map = getGame().getMap();
+        final TileSet tiles = new TileSet(map);
+        if (getSpecification().getFogOfWarHandle().getValue()) {
+            forEachSight(map, tiles::addIndex);
         } else {
             // Otherwise it is just the explored tiles
-            getGame().getMap().forEachTile(t -> this.hasExplored(t),
-                                           t -> tiles.add(t));
+            map.forEachTile(t -> this.hasExplored(t), t -> tiles.add(t));
         }
         return tiles;
     }
 
     /**
-     * Builds a canSeeTiles array.
+     * Visit the sight disks of this player under fog of war.
+     *
+     * The player can see from all locations where they have units,
+     * settlements (including those visible with Coronado),
+     * (optionally) missions, and extra visibility.  A tile index is
+     * visited once for each disk that covers it.
+     *
+     * @param map The {@code Map} to use.
+     * @param see An {@code IntConsumer} to accept the tile indices.
+     */
+    private void forEachSight(Map map, IntConsumer see) {
+        List<? extends Settlement> settlements
+            = (hasAbility(Ability.SEE_ALL_COLONIES))
+            ? getGame().getAllColoniesList(null)
+            : getSettlementList();
+        for (Settlement s : settlements) {
+            if (s.getTile() != null) {
+                map.forEachInDisk(s.getTile(), 0, s.getLineOfSight(), see);
+            }
+        }
+        for (Unit u : getUnitSet()) {
+            if (u.isOnTile()) {
+                map.forEachInDisk(u.getTile(), 0, u.getLineOfSight(), see);
+            }
+        }
+        if (isEuropean()
+            && getSpecification().getBoolean(GameOptions.ENHANCED_MISSIONARIES)) {
+            for (Player other : getGame().getLiveNativePlayerList(this)) {
+                for (IndianSettlement is : other.getIndianSettlementsWithMissionaryList(this)) {
+                    if (is.getTile() == null) continue;
+                    map.forEachInDisk(is.getTile(), 0,
+                                      is.getLineOfSight(), see);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the canSeeCount array if it is not valid.
      *
      * @param map The {@code Map} to use.
-     * @return A new visibility array.
+     * @return The current visibility count array.
      */
-    private boolean[][] makeCanSeeTiles(Map map) {
-        final Specification spec = getSpecification();
-        boolean[][] cST = new boolean[map.getWidth()][map.getHeight()];
-        final Set<Tile> visible = getVisibleTileSet();
-        if (spec.getBoolean(GameOptions.FOG_OF_WAR)) {
-            for (Tile t : visible) {
-                cST[t.getX()][t.getY()] = true;
-                // Set the PET for visible tiles to the tile itself.
-                t.seeTile(this);
+    private int[] makeCanSeeCount(Map map) {
+        synchronized (canSeeLock) {
+            int[] count = canSeeCount;
+            if (count != null && count.length == map.getTileCount()) {
+                return count;
             }
-        } else {
-            for (Tile t : visible) {
-                cST[t.getX()][t.getY()] = true;
+            count = new int[map.getTileCount()];
+            if (getSpecification().getFogOfWarHandle().getValue()) {
+                final int[] c = count;
+                forEachSight(map, i -> c[i]++);
+                for (int i = 0; i < c.length; i++) {
+                    // Set the PET for visible tiles to the tile itself.
+                    if (c[i] > 0) map.getTile(i).seeTile(this);
+                }
+            } else {
+                for (int i = 0; i < count.length; i++) {
+                    if (hasExplored(map.getTile(i))) count[i] = 1;
+                }
             }
+            canSeeEpoch++;
+            canSeeCount = count;
+            return count;
         }
-        return cST;
     }
 
 
@@ -27,7 +27,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
-import net.sf.freecol.common.option.GameOptions;
 import static net.sf.freecol.common.util.CollectionUtils.*;
 
 
@@ -128,7 +127,7 @@ public class ProductionCache {
         // Add bell production to compensate for the units-that-use-no-bells
         // as this is not handled by the unit conumption.
         int unitsThatUseNoBells
-            = spec.getInteger(GameOptions.UNITS_THAT_USE_NO_BELLS);
+            = spec.getUnitsThatUseNoBellsHandle().getValue();
         int amount = Math.min(unitsThatUseNoBells, colony.getUnitCount());
         ProductionInfo bellsInfo = new ProductionInfo();
         bellsInfo.addProduction(new AbstractGoods(bells, amount));
@@ -20,9 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static net.sf.freecol.common.util.CollectionUtils.*;
 
@@ -141,7 +139,7 @@ public class ProductionMap {
     }
 
 
-    private final Map<GoodsType, Object> cache = new HashMap<>();
+    private final SpecTypeMap<GoodsType, Object> cache = new SpecTypeMap<>();
 
 
     public AbstractGoods get(GoodsType type) {
@@ -217,9 +215,8 @@ public class ProductionMap {
     public String toString() {
         StringBuilder sb = new StringBuilder(64);
         sb.append('[');
-        forEachMapEntry(cache, e ->
-            sb.append(' ').append(e.getKey().getSuffix())
-              .append(':').append(e.getValue()));
+        cache.forEach((k, v) ->
+            sb.append(' ').append(k.getSuffix()).append(':').append(v));
         sb.append(" ]");
         return sb.toString();
     }
@@ -266,6 +266,19 @@ public class Resource extends TileItem {
         return Layer.RESOURCES;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TileItem copyForCache(Tile tile) {
+        Resource ret = new Resource(getGame(), (String)null);
+        ret.setId(getId());
+        ret.tile = tile;
+        ret.type = this.type;
+        ret.quantity = this.quantity;
+        return ret;
+    }
+
 
     // Override FreeColGameObject
 
@@ -0,0 +1,155 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+
+/**
+ * Precomputed position offsets for the rings of tiles around a center
+ * tile, as visited by the map circle iteration.
+ *
+ * A ring of radius r holds 8r positions.  The offsets of a step depend
+ * on whether the row it starts from is odd or even, so there is a
+ * table for each parity of the center row.  Rings visited as part of a
+ * filled circle start from a different corner to rings visited on
+ * their own, so each order has its own table.  The tables are grown on
+ * demand and shared by all maps, the map edges are handled by the
+ * callers.
+ *
+ * Each ring is stored as a packed array of (dx, dy) pairs.
+ */
+final class RingOffsets {
+
+    /** The directions walked around each quarter of a ring. */
+    private static final Direction[] WALK = {
+        Direction.SE, Direction.SW, Direction.NW, Direction.NE
+    };
+
+    /** A large even coordinate to simulate the walk around. */
+    private static final int ORIGIN = 1 << 20;
+
+    /** The rings of filled circles, by center row parity and radius. */
+    private static volatile int[][][] filled = new int[2][1][0];
+
+    /** The stand-alone rings, by center row parity and radius. */
+    private static volatile int[][][] rings = new int[2][1][0];
+
+
+    /** Do not instantiate. */
+    private RingOffsets() {}
+
+
+    /**
+     * Get the offsets of a ring that is part of a filled circle.
+     *
+     * @param y The y-coordinate of the center tile.
+     * @param radius The ring radius, at least one.
+     * @return The packed (dx, dy) offsets, which must not be modified.
+     */
+    static int[] getFilledRing(int y, int radius) {
+        int[][][] f = filled;
+        if (radius >= f[0].length) f = grow(radius);
+        return f[y & 1][radius];
+    }
+
+    /**
+     * Get the offsets of a stand-alone ring.
+     *
+     * @param y The y-coordinate of the center tile.
+     * @param radius The ring radius, at least one.
+     * @return The packed (dx, dy) offsets, which must not be modified.
+     */
+    static int[] getRing(int y, int radius) {
+        int[][][] r = rings;
+        if (radius >= r[0].length) {
+            grow(radius);
+            r = rings;
+        }
+        return r[y & 1][radius];
+    }
+
+    /**
+     * Grow the tables to cover at least a given radius.
+     *
+     * @param radius The radius required.
+     * @return The new filled ring table.
+     */
+    private static synchronized int[][][] grow(int radius) {
+        if (radius < filled[0].length) return filled;
+        final int size = Math.max(radius + 1, 2 * filled[0].length);
+        final int[][][] f = new int[2][size][];
+        final int[][][] r = new int[2][size][];
+        for (int parity = 0; parity < 2; parity++) {
+            f[parity][0] = r[parity][0] = new int[0];
+            // Filled circles start each ring one step NE of where the
+            // walk around the previous ring finished.
+            int x = ORIGIN, y = ORIGIN + parity;
+            for (int rad = 1; rad < size; rad++) {
+                x += Direction.NE.getXStep(y);
+                y += Direction.NE.getYStep(y);
+                f[parity][rad] = walk(x, y, rad, ORIGIN, ORIGIN + parity);
+                final int[] last = f[parity][rad];
+                x = ORIGIN + last[last.length - 2];
+                y = ORIGIN + parity + last[last.length - 1];
+            }
+            // Stand-alone rings start one step NE of the tile r-1
+            // steps N of the center.
+            for (int rad = 1; rad < size; rad++) {
+                x = ORIGIN;
+                y = ORIGIN + parity;
+                for (int i = 1; i < rad; i++) {
+                    x += Direction.N.getXStep(y);
+                    y += Direction.N.getYStep(y);
+                }
+                x += Direction.NE.getXStep(y);
+                y += Direction.NE.getYStep(y);
+                r[parity][rad] = walk(x, y, rad, ORIGIN, ORIGIN + parity);
+            }
+        }
+        rings = r;
+        filled = f;
+        return f;
+    }
+
+    /**
+     * Walk around a ring.
+     *
+     * @param x The starting x-coordinate.
+     * @param y The starting y-coordinate.
+     * @param radius The ring radius.
+     * @param cx The center x-coordinate.
+     * @param cy The center y-coordinate.
+     * @return The packed offsets of the ring from the center.
+     */
+    private static int[] walk(int x, int y, int radius, int cx, int cy) {
+        final int width = 2 * radius;
+        final int[] ret = new int[2 * 4 * width];
+        ret[0] = x - cx;
+        ret[1] = y - cy;
+        for (int n = 1; n < 4 * width; n++) {
+            final Direction d = WALK[n / width];
+            final int dx = d.getXStep(y);
+            y += d.getYStep(y);
+            x += dx;
+            ret[2 * n] = x - cx;
+            ret[2 * n + 1] = y - cy;
+        }
+        return ret;
+    }
+}
@@ -258,8 +258,11 @@ public abstract class Settlement extends GoodsLocation
      */
     public Set<Tile> getVisibleTileSet() {
         final Tile tile = getTile();
-        return (tile == null) ? Collections.<Tile>emptySet()
-            : new HashSet<Tile>(tile.getSurroundingTiles(0, getLineOfSight()));
+        if (tile == null) return Collections.<Tile>emptySet();
+        final Map map = tile.getMap();
+        final TileSet ret = new TileSet(map);
+        map.forEachInDisk(tile, 0, getLineOfSight(), ret::addIndex);
+        return ret;
     }
 
     /**
@@ -0,0 +1,344 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static net.sf.freecol.common.model.Constants.*;
+
+
+/**
+ * A spatial index of the units and settlements on the tiles of a map.
+ *
+ * The map is divided into square chunks of tiles, and each chunk
+ * holds the units directly on its tiles (not those aboard carriers or
+ * inside settlements) and the settlements placed on them.  The tiles
+ * tell the map when their units or settlement change, and the entries
+ * for that tile are refreshed.  Wholesale changes, such as reading
+ * the map, mark the index dirty and it is rebuilt when next queried.
+ *
+ * Queries only visit the chunks that could hold a match.  A single
+ * step on the map moves at most one column and two rows, so the
+ * distance to any tile in a chunk is at least the larger of the
+ * column gap and half the row gap to the chunk.
+ */
+public final class SpatialIndex {
+
+    /** The chunk size in tiles, in each dimension. */
+    public static final int CHUNK_SIZE = 16;
+
+    /**
+     * An item on a tile.
+     */
+    private static final class Entry<T> {
+
+        /** The item. */
+        public final T item;
+
+        /** The tile index of the item. */
+        public final int index;
+
+
+        /**
+         * Create a new entry.
+         *
+         * @param item The item.
+         * @param index The tile index.
+         */
+        public Entry(T item, int index) {
+            this.item = item;
+            this.index = index;
+        }
+    }
+
+    /**
+     * A chunk of the map.
+     */
+    private static final class Chunk {
+
+        /** The units on the tiles of this chunk. */
+        public final List<Entry<Unit>> units = new ArrayList<>();
+
+        /** The settlements on the tiles of this chunk. */
+        public final List<Entry<Settlement>> settlements = new ArrayList<>();
+    }
+
+    /**
+     * A match found by a query.
+     */
+    private static final class Match<T> {
+
+        /** The item. */
+        public final T item;
+
+        /** The distance to the item. */
+        public final int distance;
+
+        /** The tile index of the item. */
+        public final int index;
+
+
+        /**
+         * Create a new match.
+         *
+         * @param item The item.
+         * @param distance The distance to the item.
+         * @param index The tile index of the item.
+         */
+        public Match(T item, int distance, int index) {
+            this.item = item;
+            this.distance = distance;
+            this.index = index;
+        }
+    }
+
+    /** Matches are ordered by distance, then by tile index. */
+    private static final Comparator<Match<?>> matchComparator
+        = Comparator.<Match<?>>comparingInt(m -> m.distance)
+            .thenComparingInt(m -> m.index);
+
+    /** The map indexed. */
+    private final Map map;
+
+    /** The number of chunk columns and rows. */
+    private final int columns, rows;
+
+    /** The chunks, by row then column. */
+    private final Chunk[] chunks;
+
+    /** Does the index need rebuilding? */
+    private boolean dirty = true;
+
+
+    /**
+     * Create a new spatial index.  It is built when first queried.
+     *
+     * @param map The {@code Map} to index.
+     */
+    public SpatialIndex(Map map) {
+        this.map = map;
+        this.columns = (map.getWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.rows = (map.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunks = new Chunk[this.columns * this.rows];
+        for (int i = 0; i < this.chunks.length; i++) {
+            this.chunks[i] = new Chunk();
+        }
+    }
+
+
+    /**
+     * Mark the index as needing a rebuild.
+     */
+    public synchronized void invalidate() {
+        this.dirty = true;
+    }
+
+    /**
+     * Get the chunk holding a tile.
+     *
+     * @param tile The {@code Tile} to look up.
+     * @return The {@code Chunk}.
+     */
+    private Chunk getChunk(Tile tile) {
+        return chunks[(tile.getY() / CHUNK_SIZE) * columns
+                      + tile.getX() / CHUNK_SIZE];
+    }
+
+    /**
+     * Refresh the units entered for a tile.
+     *
+     * @param tile The {@code Tile} whose units have changed.
+     */
+    public synchronized void updateUnits(Tile tile) {
+        if (dirty) return;
+        final int index = map.getTileIndex(tile);
+        final List<Entry<Unit>> units = getChunk(tile).units;
+        units.removeIf(e -> e.index == index);
+        for (Unit u : tile.getUnitList()) units.add(new Entry<>(u, index));
+    }
+
+    /**
+     * Refresh the settlement entered for a tile.
+     *
+     * @param tile The {@code Tile} whose settlement has changed.
+     */
+    public synchronized void updateSettlement(Tile tile) {
+        if (dirty) return;
+        final int index = map.getTileIndex(tile);
+        final List<Entry<Settlement>> settlements = getChunk(tile).settlements;
+        settlements.removeIf(e -> e.index == index);
+        final Settlement s = tile.getSettlement();
+        if (s != null) settlements.add(new Entry<>(s, index));
+    }
+
+    /**
+     * Rebuild the index if it is dirty.
+     */
+    private void ensureBuilt() {
+        if (!dirty) return;
+        for (Chunk c : chunks) {
+            c.units.clear();
+            c.settlements.clear();
+        }
+        dirty = false;
+        map.forEachTile(t -> {
+                updateUnits(t);
+                updateSettlement(t);
+            });
+    }
+
+    /**
+     * Get a lower bound on the distance from a tile to any tile in
+     * a chunk.
+     *
+     * @param tile The {@code Tile} to measure from.
+     * @param column The chunk column.
+     * @param row The chunk row.
+     * @return The lower bound.
+     */
+    private static int lowerBound(Tile tile, int column, int row) {
+        final int x = tile.getX(), y = tile.getY();
+        final int x0 = column * CHUNK_SIZE, x1 = x0 + CHUNK_SIZE - 1;
+        final int y0 = row * CHUNK_SIZE, y1 = y0 + CHUNK_SIZE - 1;
+        final int dx = (x < x0) ? x0 - x : (x > x1) ? x - x1 : 0;
+        final int dy = (y < y0) ? y0 - y : (y > y1) ? y - y1 : 0;
+        return Math.max(dx, (dy + 1) / 2);
+    }
+
+    /**
+     * Find the nearest items to a tile.
+     *
+     * @param <T> The item type.
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance to search.
+     * @param k The maximum number of items to find.
+     * @param bucket A function to get the entries of a chunk.
+     * @param pred A {@code Predicate} to select items.
+     * @return A list of the items found, nearest first.
+     */
+    private synchronized <T> List<T> nearest(Tile center, int radius, int k,
+        Function<Chunk, List<Entry<T>>> bucket, Predicate<? super T> pred) {
+        ensureBuilt();
+        if (radius <= 0) radius = INFINITY;
+
+        // Visit the chunks in order of their lower bound.
+        final List<int[]> order = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                final int lb = lowerBound(center, c, r);
+                if (lb <= radius) order.add(new int[] { lb, r * columns + c });
+            }
+        }
+        order.sort(Comparator.comparingInt(a -> a[0]));
+
+        final List<Match<T>> found = new ArrayList<>();
+        for (int[] o : order) {
+            if (found.size() >= k
+                && o[0] > found.get(found.size() - 1).distance) break;
+            for (Entry<T> e : bucket.apply(chunks[o[1]])) {
+                final Tile t = map.getTile(e.index);
+                final int d = map.getDistance(center, t);
+                if (d > radius || !pred.test(e.item)) continue;
+                found.add(new Match<>(e.item, d, e.index));
+            }
+            if (k < INFINITY) {
+                found.sort(matchComparator);
+                while (found.size() > k) found.remove(found.size() - 1);
+            }
+        }
+        found.sort(matchComparator);
+        final List<T> ret = new ArrayList<>(found.size());
+        for (Match<T> m : found) ret.add(m.item);
+        return ret;
+    }
+
+    /**
+     * Get the units within a distance of a tile.
+     *
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance, non-positive for no limit.
+     * @param pred A {@code Predicate} to select units.
+     * @return A list of the units found, nearest first.
+     */
+    public List<Unit> getUnitsInRange(Tile center, int radius,
+                                      Predicate<? super Unit> pred) {
+        return nearest(center, radius, INFINITY, c -> c.units, pred);
+    }
+
+    /**
+     * Get the nearest units to a tile.
+     *
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance, non-positive for no limit.
+     * @param k The maximum number of units to find.
+     * @param pred A {@code Predicate} to select units.
+     * @return A list of the units found, nearest first.
+     */
+    public List<Unit> getNearestUnits(Tile center, int radius, int k,
+                                      Predicate<? super Unit> pred) {
+        return nearest(center, radius, k, c -> c.units, pred);
+    }
+
+    /**
+     * Get the settlements within a distance of a tile.
+     *
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance, non-positive for no limit.
+     * @param pred A {@code Predicate} to select settlements.
+     * @return A list of the settlements found, nearest first.
+     */
+    public List<Settlement> getSettlementsInRange(Tile center, int radius,
+        Predicate<? super Settlement> pred) {
+        return nearest(center, radius, INFINITY, c -> c.settlements, pred);
+    }
+
+    /**
+     * Get the nearest settlements to a tile.
+     *
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance, non-positive for no limit.
+     * @param k The maximum number of settlements to find.
+     * @param pred A {@code Predicate} to select settlements.
+     * @return A list of the settlements found, nearest first.
+     */
+    public List<Settlement> getNearestSettlements(Tile center, int radius,
+        int k, Predicate<? super Settlement> pred) {
+        return nearest(center, radius, k, c -> c.settlements, pred);
+    }
+
+    /**
+     * Get the nearest settlement to a tile.
+     *
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance, non-positive for no limit.
+     * @param pred A {@code Predicate} to select settlements.
+     * @return The nearest settlement found, or null if none.
+     */
+    public Settlement getNearestSettlement(Tile center, int radius,
+        Predicate<? super Settlement> pred) {
+        final List<Settlement> ret
+            = getNearestSettlements(center, radius, 1, pred);
+        return (ret.isEmpty()) ? null : ret.get(0);
+    }
+}
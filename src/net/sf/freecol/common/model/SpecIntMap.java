@@ -0,0 +1,286 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * A map from specification types of one kind to integers, held in
+ * plain arrays indexed by the type index.
+ *
+ * The types of each kind are indexed densely by the specification, so
+ * lookups neither hash nor box, and iteration is in definition order.
+ * Types that do not have an index, such as those made up outside the
+ * specification, are held in a small side map and iterated last, as
+ * are any types whose slot is already taken by a type of another
+ * kind.  Keys should all be of one kind for the map to be fast.  Not
+ * synchronized.
+ *
+ * @param <K> The key type.
+ */
+public final class SpecIntMap<K extends FreeColSpecObjectType> {
+
+    private static final Object[] NO_KEYS = new Object[0];
+    private static final int[] NO_VALUES = new int[0];
+
+    /** The keys present, by type index. */
+    private Object[] keys = NO_KEYS;
+
+    /** The values, by type index. */
+    private int[] values = NO_VALUES;
+
+    /** The number of keys present in the arrays. */
+    private int size = 0;
+
+    /** The values of any keys without an index. */
+    private java.util.Map<K, Integer> extra = null;
+
+
+    /**
+     * Create a new empty map.
+     */
+    public SpecIntMap() {}
+
+    /**
+     * Create a new map with the contents of another.
+     *
+     * @param other The {@code SpecIntMap} to copy.
+     */
+    public SpecIntMap(SpecIntMap<K> other) {
+        putAll(other);
+    }
+
+
+    /**
+     * Is a key held in the arrays the same type as a given key?
+     * Types are equal by identifier, as in the hash maps these
+     * maps replace.
+     *
+     * @param held The key held, or null if none.
+     * @param key The key to compare.
+     * @return True if the keys are the same type.
+     */
+    private static boolean same(Object held, FreeColSpecObjectType key) {
+        return held == key || (held != null && held.equals(key));
+    }
+
+    /**
+     * Make sure the arrays can hold an index.
+     *
+     * @param index The index to hold.
+     */
+    private void ensureCapacity(int index) {
+        if (index < this.keys.length) return;
+        final int n = Math.max(index + 1, 2 * this.keys.length);
+        this.keys = Arrays.copyOf(this.keys, n);
+        this.values = Arrays.copyOf(this.values, n);
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key The key to look up.
+     * @return The value, or zero if the key is absent.
+     */
+    public int get(K key) {
+        final int i = key.getIndex();
+        if (i >= 0 && i < this.keys.length && same(this.keys[i], key)) {
+            return this.values[i];
+        }
+        final Integer v = (this.extra == null) ? null : this.extra.get(key);
+        return (v == null) ? 0 : v;
+    }
+
+    /**
+     * Is a key present?
+     *
+     * @param key The key to check.
+     * @return True if the key is present.
+     */
+    public boolean containsKey(K key) {
+        final int i = key.getIndex();
+        return (i >= 0 && i < this.keys.length && same(this.keys[i], key))
+            || (this.extra != null && this.extra.containsKey(key));
+    }
+
+    /**
+     * Set the value for a key.
+     *
+     * @param key The key to set.
+     * @param value The new value.
+     * @return The previous value, or zero if the key was absent.
+     */
+    public int put(K key, int value) {
+        final int i = key.getIndex();
+        if (i >= 0) {
+            ensureCapacity(i);
+            if (this.keys[i] == null
+                && (this.extra == null || !this.extra.containsKey(key))) {
+                this.keys[i] = key;
+                this.values[i] = value;
+                this.size++;
+                return 0;
+            } else if (same(this.keys[i], key)) {
+                final int old = this.values[i];
+                this.values[i] = value;
+                return old;
+            }
+        }
+        // No index, or the slot is taken by a type of another kind.
+        if (this.extra == null) this.extra = new HashMap<>();
+        final Integer v = this.extra.put(key, value);
+        return (v == null) ? 0 : v;
+    }
+
+    /**
+     * Add to the value for a key, removing the key if the value
+     * becomes zero.
+     *
+     * @param key The key to change.
+     * @param amount The amount to add.
+     * @return The new value.
+     */
+    public int add(K key, int amount) {
+        final int v = get(key) + amount;
+        if (v == 0) remove(key); else put(key, v);
+        return v;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key The key to remove.
+     * @return The previous value, or zero if the key was absent.
+     */
+    public int remove(K key) {
+        final int i = key.getIndex();
+        if (i >= 0 && i < this.keys.length && same(this.keys[i], key)) {
+            final int old = this.values[i];
+            this.keys[i] = null;
+            this.values[i] = 0;
+            this.size--;
+            return old;
+        }
+        final Integer v = (this.extra == null) ? null : this.extra.remove(key);
+        return (v == null) ? 0 : v;
+    }
+
+    /**
+     * Add all the entries of another map to this one, replacing
+     * existing values.
+     *
+     * @param other The {@code SpecIntMap} to add.
+     */
+    public void putAll(SpecIntMap<K> other) {
+        other.forEach(this::put);
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, 0);
+        this.size = 0;
+        this.extra = null;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The number of keys present.
+     */
+    public int size() {
+        return this.size + ((this.extra == null) ? 0 : this.extra.size());
+    }
+
+    /**
+     * Is this map empty?
+     *
+     * @return True if no keys are present.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Visit each entry, in type index order.
+     *
+     * @param action An {@code ObjIntConsumer} to accept each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        final Object[] k = this.keys;
+        final int[] v = this.values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != null) action.accept((K)k[i], v[i]);
+        }
+        if (this.extra != null) {
+            for (java.util.Map.Entry<K, Integer> e : this.extra.entrySet()) {
+                action.accept(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Get the keys present, in type index order.
+     *
+     * @return A new list of keys.
+     */
+    public List<K> keys() {
+        final List<K> ret = new ArrayList<>(size());
+        forEach((k, v) -> ret.add(k));
+        return ret;
+    }
+
+    /**
+     * Get the sum of the values.
+     *
+     * @return The total of all values.
+     */
+    public int sum() {
+        int ret = 0;
+        for (int v : this.values) ret += v;
+        if (this.extra != null) {
+            for (Integer v : this.extra.values()) ret += v;
+        }
+        return ret;
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append('[');
+        forEach((k, v) -> sb.append(' ').append(k.getSuffix())
+                            .append('=').append(v));
+        sb.append(" ]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+
+/**
+ * A map from specification types of one kind to values, held in
+ * plain arrays indexed by the type index.
+ *
+ * This is the object valued companion of {@link SpecIntMap}, and
+ * follows the same rules.  Null values are not permitted.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public final class SpecTypeMap<K extends FreeColSpecObjectType, V> {
+
+    private static final Object[] NO_ENTRIES = new Object[0];
+
+    /** The keys present, by type index. */
+    private Object[] keys = NO_ENTRIES;
+
+    /** The values, by type index. */
+    private Object[] values = NO_ENTRIES;
+
+    /** The number of keys present in the arrays. */
+    private int size = 0;
+
+    /** The values of any keys without an index. */
+    private java.util.Map<K, V> extra = null;
+
+
+    /**
+     * Create a new empty map.
+     */
+    public SpecTypeMap() {}
+
+
+    /**
+     * Is a key held in the arrays the same type as a given key?
+     * Types are equal by identifier, as in the hash maps these
+     * maps replace.
+     *
+     * @param held The key held, or null if none.
+     * @param key The key to compare.
+     * @return True if the keys are the same type.
+     */
+    private static boolean same(Object held, FreeColSpecObjectType key) {
+        return held == key || (held != null && held.equals(key));
+    }
+
+    /**
+     * Make sure the arrays can hold an index.
+     *
+     * @param index The index to hold.
+     */
+    private void ensureCapacity(int index) {
+        if (index < this.keys.length) return;
+        final int n = Math.max(index + 1, 2 * this.keys.length);
+        this.keys = Arrays.copyOf(this.keys, n);
+        this.values = Arrays.copyOf(this.values, n);
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key The key to look up.
+     * @return The value, or null if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        final int i = key.getIndex();
+        if (i >= 0 && i < this.keys.length && same(this.keys[i], key)) {
+            return (V)this.values[i];
+        }
+        return (this.extra == null) ? null : this.extra.get(key);
+    }
+
+    /**
+     * Is a key present?
+     *
+     * @param key The key to check.
+     * @return True if the key is present.
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Set the value for a key.
+     *
+     * @param key The key to set.
+     * @param value The new value, which must not be null.
+     * @return The previous value, or null if the key was absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null value for " + key.getId());
+        }
+        final int i = key.getIndex();
+        if (i >= 0) {
+            ensureCapacity(i);
+            if (this.keys[i] == null
+                && (this.extra == null || !this.extra.containsKey(key))) {
+                this.keys[i] = key;
+                this.values[i] = value;
+                this.size++;
+                return null;
+            } else if (same(this.keys[i], key)) {
+                final V old = (V)this.values[i];
+                this.values[i] = value;
+                return old;
+            }
+        }
+        // No index, or the slot is taken by a type of another kind.
+        if (this.extra == null) this.extra = new HashMap<>();
+        return this.extra.put(key, value);
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key The key to remove.
+     * @return The previous value, or null if the key was absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        final int i = key.getIndex();
+        if (i >= 0 && i < this.keys.length && same(this.keys[i], key)) {
+            final V old = (V)this.values[i];
+            this.keys[i] = null;
+            this.values[i] = null;
+            this.size--;
+            return old;
+        }
+        return (this.extra == null) ? null : this.extra.remove(key);
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, null);
+        this.size = 0;
+        this.extra = null;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The number of keys present.
+     */
+    public int size() {
+        return this.size + ((this.extra == null) ? 0 : this.extra.size());
+    }
+
+    /**
+     * Is this map empty?
+     *
+     * @return True if no keys are present.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Visit each entry, in type index order.
+     *
+     * @param action A {@code BiConsumer} to accept each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        final Object[] k = this.keys;
+        final Object[] v = this.values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != null) action.accept((K)k[i], (V)v[i]);
+        }
+        if (this.extra != null) this.extra.forEach(action);
+    }
+
+    /**
+     * Get the keys present, in type index order.
+     *
+     * @return A new list of keys.
+     */
+    public List<K> keys() {
+        final List<K> ret = new ArrayList<>(size());
+        forEach((k, v) -> ret.add(k));
+        return ret;
+    }
+
+    /**
+     * Get the values present, in type index order of their keys.
+     *
+     * @return A new list of values.
+     */
+    public List<V> values() {
+        final List<V> ret = new ArrayList<>(size());
+        forEach((k, v) -> ret.add(v));
+        return ret;
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append('[');
+        forEach((k, v) -> sb.append(' ').append(k.getSuffix())
+                            .append(':').append(v));
+        sb.append(" ]");
+        return sb.toString();
+    }
+}
@@ -26,6 +26,7 @@ import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +34,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -53,11 +55,14 @@ import net.sf.freecol.common.model.UnitChangeType;
 import net.sf.freecol.common.option.AbstractOption;
 import net.sf.freecol.common.option.AbstractUnitOption;
 import net.sf.freecol.common.option.BooleanOption;
+import net.sf.freecol.common.option.BooleanOptionHandle;
 import net.sf.freecol.common.option.FileOption;
 import net.sf.freecol.common.option.GameOptions;
 import net.sf.freecol.common.option.IntegerOption;
+import net.sf.freecol.common.option.IntegerOptionHandle;
 import net.sf.freecol.common.option.MapGeneratorOptions;
 import net.sf.freecol.common.option.Option;
+import net.sf.freecol.common.option.OptionHandle;
 import net.sf.freecol.common.option.OptionContainer;
 import net.sf.freecol.common.option.OptionGroup;
 import net.sf.freecol.common.option.PercentageOption;
@@ -415,6 +420,29 @@ public final class Specification implements OptionContainer {
     private final Map<String, AbstractOption> allOptions = new HashMap<>();
     private final Map<String, OptionGroup> allOptionGroups = new HashMap<>();
 
+    /** The option version, advanced whenever options are replaced. */
+    private volatile int optionVersion = 0;
+
+    /** The resolved option handles, by identifier. */
+    private final Map<String, OptionHandle<?>> optionHandles
+        = new ConcurrentHashMap<>();
+
+    /** Handles on the game options read in hot paths. */
+    private final BooleanOptionHandle amphibiousMoves
+        = getBooleanHandle(GameOptions.AMPHIBIOUS_MOVES);
+    private final BooleanOptionHandle emptyTraders
+        = getBooleanHandle(GameOptions.EMPTY_TRADERS);
+    private final BooleanOptionHandle enableUpkeep
+        = getBooleanHandle(GameOptions.ENABLE_UPKEEP);
+    private final BooleanOptionHandle fogOfWar
+        = getBooleanHandle(GameOptions.FOG_OF_WAR);
+    private final IntegerOptionHandle interventionBells
+        = getIntegerHandle(GameOptions.INTERVENTION_BELLS);
+    private final IntegerOptionHandle naturalDisasters
+        = getIntegerHandle(GameOptions.NATURAL_DISASTERS);
+    private final IntegerOptionHandle unitsThatUseNoBells
+        = getIntegerHandle(GameOptions.UNITS_THAT_USE_NO_BELLS);
+
     /* Containers derived from readerMap containers */
 
     // Derived from readerMap container: goodsTypeList
@@ -621,6 +649,23 @@ public final class Specification implements OptionContainer {
         }
     }
 
+    /**
+     * Give the types of each kind dense indices, in definition order.
+     * Deleted types leave gaps in the indices assigned while reading,
+     * which are closed up here.
+     */
+    private void reindexTypes() {
+        for (List<? extends FreeColSpecObjectType> types
+                 : Arrays.asList(buildingTypeList, disasters,
+                                 europeanNationTypes, events, foundingFathers,
+                                 goodsTypeList, indianNationTypes, nations,
+                                 resourceTypeList, roles, tileTypeList,
+                                 tileImprovementTypeList, unitChangeTypeList,
+                                 unitTypeList)) {
+            for (int i = 0; i < types.size(); i++) types.get(i).setIndex(i);
+        }
+    }
+
     /**
      * Clean up the specification.
      *
@@ -637,6 +682,10 @@ public final class Specification implements OptionContainer {
         // Drop all abstract types
         removeInPlace(allTypes, e -> e.getValue().isAbstractType());
 
+        // Number the types of each kind densely, in definition order,
+        // so they can index the array backed SpecIntMap and SpecTypeMap.
+        reindexTypes();
+
         // Fix up the GoodsType derived attributes.  Several GoodsType
         // predicates are likely to fail until this is done.
         GoodsType.setDerivedAttributes(this);
@@ -1031,6 +1080,102 @@ public final class Specification implements OptionContainer {
         }
     }
 
+    /**
+     * Get the option version.  This advances whenever options are
+     * added, replaced or dropped, so that option handles know to
+     * resolve their options again.
+     *
+     * @return The option version.
+     */
+    public int getOptionVersion() {
+        return this.optionVersion;
+    }
+
+    /**
+     * Get a handle on a boolean option.
+     *
+     * @param id The option identifier.
+     * @return The {@code BooleanOptionHandle}.
+     */
+    public BooleanOptionHandle getBooleanHandle(String id) {
+        return (BooleanOptionHandle)optionHandles.computeIfAbsent(id,
+            k -> new BooleanOptionHandle(this, k));
+    }
+
+    /**
+     * Get a handle on an integer option, or one derived from it.
+     *
+     * @param id The option identifier.
+     * @return The {@code IntegerOptionHandle}.
+     */
+    public IntegerOptionHandle getIntegerHandle(String id) {
+        return (IntegerOptionHandle)optionHandles.computeIfAbsent(id,
+            k -> new IntegerOptionHandle(this, k));
+    }
+
+    /**
+     * Get the handle on the amphibious moves game option.
+     *
+     * @return The {@code BooleanOptionHandle}.
+     */
+    public BooleanOptionHandle getAmphibiousMovesHandle() {
+        return this.amphibiousMoves;
+    }
+
+    /**
+     * Get the handle on the empty traders game option.
+     *
+     * @return The {@code BooleanOptionHandle}.
+     */
+    public BooleanOptionHandle getEmptyTradersHandle() {
+        return this.emptyTraders;
+    }
+
+    /**
+     * Get the handle on the enable upkeep game option.
+     *
+     * @return The {@code BooleanOptionHandle}.
+     */
+    public BooleanOptionHandle getEnableUpkeepHandle() {
+        return this.enableUpkeep;
+    }
+
+    /**
+     * Get the handle on the fog of war game option.
+     *
+     * @return The {@code BooleanOptionHandle}.
+     */
+    public BooleanOptionHandle getFogOfWarHandle() {
+        return this.fogOfWar;
+    }
+
+    /**
+     * Get the handle on the intervention bells game option.
+     *
+     * @return The {@code IntegerOptionHandle}.
+     */
+    public IntegerOptionHandle getInterventionBellsHandle() {
+        return this.interventionBells;
+    }
+
+    /**
+     * Get the handle on the natural disasters game option.
+     *
+     * @return The {@code IntegerOptionHandle}.
+     */
+    public IntegerOptionHandle getNaturalDisastersHandle() {
+        return this.naturalDisasters;
+    }
+
+    /**
+     * Get the handle on the units that use no bells game option.
+     *
+     * @return The {@code IntegerOptionHandle}.
+     */
+    public IntegerOptionHandle getUnitsThatUseNoBellsHandle() {
+        return this.unitsThatUseNoBells;
+    }
+
     /**
      * Adds an {@code OptionGroup} to this specification.
      *
@@ -1059,6 +1204,7 @@ public final class Specification implements OptionContainer {
     private void addAbstractOption(AbstractOption abstractOption) {
         // Add the option
         allOptions.put(abstractOption.getId(), abstractOption);
+        optionVersion++;
     }
 
     /**
@@ -2114,6 +2260,7 @@ public final class Specification implements OptionContainer {
             allOptionGroups.remove(ao.getId());
             logger.warning("Dropping orphan option group: " + ao);
         }
+        if (!allO.isEmpty()) optionVersion++;
         return !allO.isEmpty() || !allG.isEmpty();
     }
 
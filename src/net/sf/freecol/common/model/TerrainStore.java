@@ -0,0 +1,339 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Columnar storage of the terrain of the tiles of a map.
+ *
+ * The commonly scanned primitive attributes of each tile are held in
+ * parallel arrays indexed by tile index, so that passes over the
+ * whole map sweep memory in order rather than visiting every tile
+ * object.  The tiles of the map write through to the store whenever
+ * one of these attributes changes, so it always agrees with them.
+ *
+ * The tile type is held as its specification index, the owner as an
+ * index into a table of owners local to the store, and the
+ * improvements as a mask of the specification indices of the complete
+ * tile improvement types present.  Absent values are -1.
+ */
+public final class TerrainStore {
+
+    /** The map width. */
+    private final int width;
+
+    /** The tile type index of each tile. */
+    private final short[] type;
+
+    /** Whether each tile is land. */
+    private final boolean[] land;
+
+    /** The owner index of each tile. */
+    private final short[] owner;
+
+    /** The contiguity of each tile. */
+    private final int[] contiguity;
+
+    /** The highest contiguity set on a water and on a land tile. */
+    private final int[] maxContiguity = { -1, -1 };
+
+    /** The high seas count of each tile. */
+    private final int[] highSeasCount;
+
+    /** The style of each tile. */
+    private final int[] style;
+
+    /** The complete improvement type mask of each tile. */
+    private final long[] improvements;
+
+    /** The owners, by owner index. */
+    private final List<Player> owners = new ArrayList<>();
+
+
+    /**
+     * Create a new terrain store.
+     *
+     * @param width The map width.
+     * @param height The map height.
+     */
+    public TerrainStore(int width, int height) {
+        final int n = width * height;
+        this.width = width;
+        this.type = new short[n];
+        this.land = new boolean[n];
+        this.owner = new short[n];
+        this.contiguity = new int[n];
+        this.highSeasCount = new int[n];
+        this.style = new int[n];
+        this.improvements = new long[n];
+        Arrays.fill(this.type, (short)-1);
+        Arrays.fill(this.owner, (short)-1);
+        Arrays.fill(this.contiguity, -1);
+        Arrays.fill(this.highSeasCount, -1);
+    }
+
+
+    /**
+     * Get the index of a tile.
+     *
+     * @param tile The {@code Tile} to look up.
+     * @return The tile index.
+     */
+    private int indexOf(Tile tile) {
+        return tile.getY() * width + tile.getX();
+    }
+
+    /**
+     * Get the number of tiles in this store.
+     *
+     * @return The tile count.
+     */
+    public int size() {
+        return this.type.length;
+    }
+
+    /**
+     * Get the tile type index of a tile.
+     *
+     * @param index The tile index.
+     * @return The specification index of the tile type, or -1 if none.
+     */
+    public int getTypeIndex(int index) {
+        return this.type[index];
+    }
+
+    /**
+     * Is a tile land?
+     *
+     * @param index The tile index.
+     * @return True if the tile is land.
+     */
+    public boolean isLand(int index) {
+        return this.land[index];
+    }
+
+    /**
+     * Get the owner index of a tile.
+     *
+     * @param index The tile index.
+     * @return The owner index, or -1 if not owned.
+     */
+    public int getOwnerIndex(int index) {
+        return this.owner[index];
+    }
+
+    /**
+     * Get the owner of a tile.
+     *
+     * @param index The tile index.
+     * @return The owning {@code Player}, or null if not owned.
+     */
+    public Player getOwner(int index) {
+        final int o = this.owner[index];
+        synchronized (owners) {
+            return (o < 0) ? null : owners.get(o);
+        }
+    }
+
+    /**
+     * Get the contiguity of a tile.
+     *
+     * @param index The tile index.
+     * @return The contiguity number.
+     */
+    public int getContiguity(int index) {
+        return this.contiguity[index];
+    }
+
+    /**
+     * Get the highest contiguity set on a kind of tile since the
+     * last reset.
+     *
+     * @param isLand The kind of tile.
+     * @return The highest contiguity number, or -1 if none.
+     */
+    public int getMaxContiguity(boolean isLand) {
+        return this.maxContiguity[(isLand) ? 1 : 0];
+    }
+
+    /**
+     * Forget the highest contiguities, prior to renumbering all tiles.
+     */
+    void resetMaxContiguity() {
+        Arrays.fill(this.maxContiguity, -1);
+    }
+
+    /**
+     * Get the high seas count of a tile.
+     *
+     * @param index The tile index.
+     * @return The high seas count.
+     */
+    public int getHighSeasCount(int index) {
+        return this.highSeasCount[index];
+    }
+
+    /**
+     * Get the style of a tile.
+     *
+     * @param index The tile index.
+     * @return The style.
+     */
+    public int getStyle(int index) {
+        return this.style[index];
+    }
+
+    /**
+     * Get the complete improvements of a tile.
+     *
+     * @param index The tile index.
+     * @return A mask with a bit set for the specification index of
+     *     each complete tile improvement type present.
+     */
+    public long getImprovements(int index) {
+        return this.improvements[index];
+    }
+
+    /**
+     * Does a tile have a complete improvement of a given type?
+     *
+     * @param index The tile index.
+     * @param type The {@code TileImprovementType} to check.
+     * @return True if the improvement is present and complete.
+     */
+    public boolean hasImprovement(int index, TileImprovementType type) {
+        final long bit = improvementBit(type);
+        return bit != 0L && (this.improvements[index] & bit) != 0L;
+    }
+
+    /**
+     * Get the mask bit for a tile improvement type.
+     *
+     * @param type The {@code TileImprovementType} to check.
+     * @return The mask bit, or zero if the type can not be represented.
+     */
+    private static long improvementBit(TileImprovementType type) {
+        final int i = type.getIndex();
+        return (i < 0 || i >= Long.SIZE) ? 0L : 1L << i;
+    }
+
+    /**
+     * Get the owner index for a player, adding it if needed.
+     *
+     * @param player The {@code Player} to look up.
+     * @return The owner index.
+     */
+    private short ownerIndex(Player player) {
+        synchronized (owners) {
+            int i = owners.indexOf(player);
+            if (i < 0) {
+                i = owners.size();
+                owners.add(player);
+            }
+            return (short)i;
+        }
+    }
+
+    /**
+     * Set the type of a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     * @param tileType The new {@code TileType}.
+     */
+    void setType(Tile tile, TileType tileType) {
+        final int i = indexOf(tile);
+        this.type[i] = (short)((tileType == null) ? -1 : tileType.getIndex());
+        this.land[i] = tileType != null && !tileType.isWater();
+    }
+
+    /**
+     * Set the owner of a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     * @param player The new owning {@code Player}.
+     */
+    void setOwner(Tile tile, Player player) {
+        this.owner[indexOf(tile)] = (player == null) ? -1 : ownerIndex(player);
+    }
+
+    /**
+     * Set the contiguity of a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     * @param value The new contiguity.
+     */
+    void setContiguity(Tile tile, int value) {
+        final int i = indexOf(tile);
+        final int k = (this.land[i]) ? 1 : 0;
+        this.contiguity[i] = value;
+        if (value > this.maxContiguity[k]) this.maxContiguity[k] = value;
+    }
+
+    /**
+     * Set the high seas count of a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     * @param value The new high seas count.
+     */
+    void setHighSeasCount(Tile tile, int value) {
+        this.highSeasCount[indexOf(tile)] = value;
+    }
+
+    /**
+     * Set the style of a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     * @param value The new style.
+     */
+    void setStyle(Tile tile, int value) {
+        this.style[indexOf(tile)] = value;
+    }
+
+    /**
+     * Update the improvements of a tile.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    void updateImprovements(Tile tile) {
+        long mask = 0L;
+        for (TileImprovement ti : tile.getCompleteTileImprovements()) {
+            mask |= improvementBit(ti.getType());
+        }
+        this.improvements[indexOf(tile)] = mask;
+    }
+
+    /**
+     * Update all the attributes of a tile.
+     *
+     * @param tile The {@code Tile} to update from.
+     */
+    void update(Tile tile) {
+        setType(tile, tile.getType());
+        setOwner(tile, tile.getOwner());
+        setContiguity(tile, tile.getContiguity());
+        setHighSeasCount(tile, tile.getHighSeasCount());
+        setStyle(tile, tile.getStyle());
+        updateImprovements(tile);
+    }
+}
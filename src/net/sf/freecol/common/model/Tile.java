@@ -71,47 +71,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     public static final Predicate<Tile> isSeaTile = t ->
         !t.isLand() && t.getHighSeasCount() >= 0;
 
-    /**
-     * Information that is internal to the native settlements, and only
-     * updated on close contact.
-     */
-    private static class IndianSettlementInternals {
-
-        /** The skill taught at the settlement. */
-        public UnitType skill = null;
-
-        /** The goods the settlement is interested in. */
-        public List<GoodsType> wantedGoods = null;
-
-
-        /**
-         * Update the internal information from a native settlement.
-         *
-         * @param is The {@code IndianSettlement} to update.
-         */
-        public void update(IndianSettlement is) {
-            setValues(is.getLearnableSkill(), is.getWantedGoods());
-        }
-
-        /**
-         * Set the internal values.
-         *
-         * @param skill The skill taught.
-         * @param wanted The wanted goods.
-         */
-        public void setValues(UnitType skill, List<GoodsType> wanted) {
-            this.skill = skill;
-            if (wanted == null) {
-                this.wantedGoods = null;
-            } else if (this.wantedGoods == null) {
-                this.wantedGoods = new ArrayList<GoodsType>(wanted);
-            } else {
-                this.wantedGoods.clear();
-                this.wantedGoods.addAll(wanted);
-            }
-        }
-    }
-
     /**
      * This must be distinct from ColonyTile/Building.UNIT_CHANGE or
      * the colony panel can get confused.
@@ -203,16 +162,17 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     private int contiguity = -1;
 
-    /** A map of cached tiles for each European player, null in clients. */
-    private final java.util.Map<Player, Tile> cachedTiles;
-
     // Do not serialize below
 
+    /** The terrain store of the map holding this tile, null if none. */
+    private TerrainStore terrain = null;
+
     /**
-     * A cache of native settlement internals for each European
-     * player, null in clients.
+     * The player views read with this tile, held until the tile is
+     * placed in its map.  The views of the tiles of a map are held
+     * in the map {@link TileViewTable}.
      */
-    private final java.util.Map<Player, IndianSettlementInternals> playerIndianSettlements;
+    private java.util.Map<Player, TileView> pendingViews = null;
 
 
     /**
@@ -231,14 +191,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         this.y = locY;
         this.owningSettlement = null;
         this.settlement = null;
-
-        if (game.isInServer()) {
-            this.cachedTiles = new HashMap<>();
-            this.playerIndianSettlements = new HashMap<>();
-        } else {
-            this.cachedTiles = null;
-            this.playerIndianSettlements = null;
-        }
     }
 
     /**
@@ -251,14 +203,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public Tile(Game game, String id) {
         super(game, id);
-
-        if (game.isInServer()) {
-            this.cachedTiles = new HashMap<>();
-            this.playerIndianSettlements = new HashMap<>();
-        } else {
-            this.cachedTiles = null;
-            this.playerIndianSettlements = null;
-        }
     }
 
 
@@ -284,6 +228,59 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setType(TileType t) {
         type = t;
+        if (terrain != null) terrain.setType(this, t);
+        invalidateClusters();
+    }
+
+    /**
+     * Place this tile in the terrain store of its map.
+     *
+     * @param terrain The {@code TerrainStore} to write through to.
+     */
+    void setTerrain(TerrainStore terrain) {
+        this.terrain = terrain;
+        if (terrain != null) terrain.update(this);
+    }
+
+    /**
+     * Tell the terrain store that the improvements on this tile may
+     * have changed.
+     */
+    void updateImprovements() {
+        if (terrain != null) terrain.updateImprovements(this);
+    }
+
+    /**
+     * Tell the map that this tile has changed in a way that affects
+     * long range path finding.
+     */
+    public void invalidateClusters() {
+        final Map map = getMap();
+        if (map != null) map.invalidateClusters(this);
+    }
+
+    /**
+     * Tell the map that the units on this tile have changed.
+     */
+    private void noteOccupancyChange() {
+        final Map map = getMap();
+        if (map != null) map.noteOccupancyChange(this);
+    }
+
+    /**
+     * Tell the map that the settlement on this tile has changed.
+     */
+    private void noteSettlementChange() {
+        final Map map = getMap();
+        if (map != null) map.noteSettlementChange(this);
+    }
+
+    /**
+     * Tell the map that the owner of this tile has changed.
+     */
+    private void noteOwnershipChange() {
+        final Map map = getMap();
+        if (map != null) map.noteOwnershipChange(this);
     }
 
     /**
@@ -365,6 +362,8 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setSettlement(Settlement settlement) {
         this.settlement = settlement;
+        invalidateClusters();
+        noteSettlementChange();
     }
 
     /**
@@ -414,6 +413,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setTileItemContainer(TileItemContainer newTileItemContainer) {
         tileItemContainer = newTileItemContainer;
+        updateImprovements();
     }
 
     /**
@@ -480,6 +480,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setHighSeasCount(final int count) {
         this.highSeasCount = count;
+        if (terrain != null) terrain.setHighSeasCount(this, count);
     }
 
     /**
@@ -574,6 +575,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setStyle(final int newStyle) {
         this.style = newStyle;
+        if (terrain != null) terrain.setStyle(this, newStyle);
     }
 
     /**
@@ -592,6 +594,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public void setContiguity(int contiguity) {
         this.contiguity = contiguity;
+        if (terrain != null) terrain.setContiguity(this, contiguity);
     }
 
     /**
@@ -662,15 +665,47 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     }
        
     /**
-     * Gets the {@code IndianSettlementInternals} for the given player.
+     * Gets the view a player has of this tile.
      *
      * @param player The {@code Player} to query.
-     * @return The {@code IndianSettlementInternals} for the given player,
-     *     or null if none present.
+     * @return The {@code TileView} for the given player, or null if
+     *     none present.
+     */
+    private TileView getView(Player player) {
+        final Map map = getMap();
+        final TileViewTable views = (map == null) ? null
+            : map.getTileViews(this);
+        return (views == null) ? null
+            : views.get(player, map.getTileIndex(this));
+    }
+
+    /**
+     * Sets the view a player has of this tile.
+     *
+     * @param player The {@code Player} to set the view for.
+     * @param view The new {@code TileView}, or null if unexplored.
+     */
+    private void setView(Player player, TileView view) {
+        final Map map = getMap();
+        final TileViewTable views = (map == null) ? null
+            : map.getTileViews(this);
+        if (views != null) views.set(player, map.getTileIndex(this), view);
+    }
+
+    /**
+     * Move the player views read with this tile into its map.
+     *
+     * @param map The {@code Map} this tile has been placed in.
      */
-    private IndianSettlementInternals getPlayerIndianSettlement(Player player) {
-        return (playerIndianSettlements == null) ? null
-            : playerIndianSettlements.get(player);
+    void installViews(Map map) {
+        if (pendingViews == null) return;
+        final TileViewTable views = map.getTileViews(this);
+        if (views != null) {
+            final int index = map.getTileIndex(this);
+            forEachMapEntry(pendingViews,
+                e -> views.set(e.getKey(), index, e.getValue()));
+        }
+        pendingViews = null;
     }
 
 
@@ -1311,23 +1346,10 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @return A list of the tiles surrounding this {@code Tile}.
      */
     public List<Tile> getSurroundingTiles(int rangeMin, int rangeMax) {
+        final Map map = getMap();
         List<Tile> result = new ArrayList<>();
-        if (rangeMin > rangeMax || rangeMin < 0) return result;
-
-        if (rangeMin == 0) result.add(this);
-
-        if (rangeMax > 0) {
-            for (Tile t : getSurroundingTiles(rangeMax)) {
-                // add all tiles up to rangeMax
-                result.add(t);
-            }
-        }
-        if (rangeMin > 1) {
-            for (Tile t : getSurroundingTiles(rangeMin - 1)) {
-                // remove the tiles closer than rangeMin
-                result.remove(t);
-            }
-        }
+        map.forEachInDisk(this, rangeMin, rangeMax,
+                          i -> result.add(map.getTile(i)));
         return result;
     }
 
@@ -1372,18 +1394,11 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      */
     public Settlement getNearestSettlement(Player owner, int radius,
                                            boolean same) {
-        if (radius <= 0) radius = INFINITY;
-        Map map = getGame().getMap();
-        for (Tile t : map.getCircleTiles(this, true, radius)) {
-            if (t == this
-                || (same && !isConnectedTo(t))) continue;
-            Settlement settlement = t.getSettlement();
-            if (settlement != null
-                && (owner == null || owner.owns(settlement))) {
-                return settlement;
-            }
-        }
-        return null;
+        final Map map = getGame().getMap();
+        return map.getSpatialIndex().getNearestSettlement(this, radius,
+            s -> s.getTile() != this
+                && (!same || isConnectedTo(s.getTile()))
+                && (owner == null || owner.owns(s)));
     }
 
     /**
@@ -1519,12 +1534,20 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @param type The new {@code TileType}.
      */
     public void changeType(TileType type) {
+        final boolean wasLand = isLand();
         setType(type);
+        if (isLand() != wasLand && contiguity >= 0) {
+            final Map map = getMap();
+            if (map != null) map.updateContiguity(this);
+        }
 
         if (tileItemContainer != null) {
             tileItemContainer.removeIncompatibleImprovements();
         }
-        if (!isLand()) settlement = null;
+        if (!isLand() && settlement != null) {
+            settlement = null;
+            noteSettlementChange();
+        }
 
         updateColonyTiles();
     }
@@ -1874,27 +1897,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         if (wl != null) wl.updateProductionType();
     }
 
-    /**
-     * Get the cached tile map.
-     *
-     * @return The map of cached tiles.
-     */
-    private java.util.Map<Player, Tile> getCachedTiles() {
-        return this.cachedTiles;
-    }
-
-    /**
-     * Get the cached tile map.
-     *
-     * @param cachedTiles The new map of cached {@code Tile}s.
-     */
-    private void setCachedTiles(java.util.Map<Player, Tile> cachedTiles) {
-        if (this.cachedTiles != null) {
-            this.cachedTiles.clear();
-            if (cachedTiles != null) this.cachedTiles.putAll(cachedTiles);
-        }
-    }
-
     /**
      * Get a players view of this tile.
      *
@@ -1902,9 +1904,10 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @return The view of this {@code Tile}.
      */
     private Tile getCachedTile(Player player) {
-        return (cachedTiles == null) ? null
-            : (player.isEuropean()) ? cachedTiles.get(player)
-            : this;
+        if (!getGame().isInServer()) return null;
+        if (!player.isEuropean()) return this;
+        final TileView view = getView(player);
+        return (view == null) ? null : view.getTile(this);
     }
 
     /**
@@ -1915,8 +1918,10 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      *     tile, or an uninterned copy of it).
      */
     public void setCachedTile(Player player, Tile tile) {
-        if (cachedTiles == null || !player.isEuropean()) return;
-        cachedTiles.put(player, tile);
+        if (!player.isEuropean()) return;
+        final TileView view = getView(player);
+        setView(player, ((view == null) ? TileView.LIVE : view)
+            .withTile((tile == this) ? null : tile));
     }
 
     /**
@@ -1943,11 +1948,21 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     /**
      * Get a copy of this tile suitable for caching (lacking units).
      *
+     * The copy is made directly, and only includes what other
+     * players can see.  Tiles with native settlements are still
+     * copied through serialization, as the native settlement shows
+     * different information to each player.
+     *
      * @return An uninterned copy of this {@code Tile}.
      */
     public Tile getTileToCache() {
-        Tile tile = this.copy(getGame());
-        tile.clearUnitList();
+        Tile tile;
+        if (getIndianSettlement() != null) {
+            tile = this.copy(getGame());
+            tile.clearUnitList();
+        } else {
+            tile = copyForCache();
+        }
         // Set the unit count for a copied colony.
         // Beware though, we may be caching a tile with a colony that is
         // being destroyed, where the unit count has already gone to zero.
@@ -1959,6 +1974,45 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         return tile;
     }
 
+    /**
+     * Make a structural copy of this tile for caching, equivalent to
+     * what serializing it to a copy would produce as seen by another
+     * player.
+     *
+     * @return An uninterned copy of this {@code Tile}.
+     */
+    private Tile copyForCache() {
+        Tile tile = new Tile(getGame(), (String)null);
+        tile.setId(getId());
+        tile.x = this.x;
+        tile.y = this.y;
+        tile.type = this.type;
+        if (this.type != null) { // Unexplored tiles have no other state
+            tile.style = this.style;
+            tile.highSeasCount = this.highSeasCount;
+            tile.owner = this.owner;
+            tile.region = this.region;
+            tile.moveToEurope = this.moveToEurope;
+            tile.contiguity = this.contiguity;
+            // As for serialization, drop disposed owning settlements.
+            tile.owningSettlement = (this.owningSettlement == null
+                || this.owningSettlement.isDisposed()
+                || this.owningSettlement.getId() == null) ? null
+                : this.owningSettlement;
+        }
+        final Colony colony = getColony();
+        if (colony != null) {
+            tile.settlement = colony.copyForCache(tile);
+            if (tile.owningSettlement == colony) {
+                tile.owningSettlement = tile.settlement;
+            }
+        }
+        if (this.tileItemContainer != null) {
+            tile.tileItemContainer = this.tileItemContainer.copyForCache(tile);
+        }
+        return tile;
+    }
+
     /**
      * A change is about to occur on this tile.  Cache it if unseen.
      */
@@ -1999,7 +2053,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @param copied An optional {@code Tile} to cache.
      */
     private void cacheUnseen(Player player, Tile copied) {
-        if (cachedTiles == null) return;
+        if (!getGame().isInServer()) return;
         for (Player p : transform(getGame().getLiveEuropeanPlayers(player),
                 p -> !p.canSee(this) && getCachedTile(p) == this)) {
             if (copied == null) copied = getTileToCache();
@@ -2014,51 +2068,50 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @param player The {@code Player}.
      */
     public void updateIndianSettlement(Player player) {
-        if (playerIndianSettlements == null || !player.isEuropean()) return;
-        IndianSettlementInternals isi = getPlayerIndianSettlement(player);
-        IndianSettlement is = getIndianSettlement();
+        if (!player.isEuropean()) return;
+        final TileView view = getView(player);
+        final IndianSettlement is = getIndianSettlement();
         if (is == null) {
-            if (isi != null) removeIndianSettlementInternals(player);
+            if (view != null) setView(player, view.withInternals(null, null));
         } else {
-            if (isi == null) {
-                isi = new IndianSettlementInternals();
-                playerIndianSettlements.put(player, isi);
-            }
-            isi.update(is);
+            setView(player, ((view == null) ? TileView.LIVE : view)
+                .withInternals(is.getLearnableSkill(), is.getWantedGoods()));
         }
     }
 
+    /**
+     * Forget what a player knows of the native settlement on this tile.
+     *
+     * @param player The {@code Player} to forget for.
+     */
     public void removeIndianSettlementInternals(Player player) {
-        if (playerIndianSettlements == null) return;
-        playerIndianSettlements.remove(player);
+        final TileView view = getView(player);
+        if (view != null) setView(player, view.withInternals(null, null));
     }
 
+    /**
+     * Get the skill a player knows is taught at the native settlement
+     * on this tile.
+     *
+     * @param player The {@code Player} to query.
+     * @return The skill {@code UnitType}, or null if not known.
+     */
     public UnitType getLearnableSkill(Player player) {
-        IndianSettlementInternals isi = getPlayerIndianSettlement(player);
-        return (isi == null) ? null : isi.skill;
-    }
-
-    public List<GoodsType> getWantedGoods(Player player) {
-        IndianSettlementInternals isi = getPlayerIndianSettlement(player);
-        return (isi == null) ? null : isi.wantedGoods;
+        final TileView view = getView(player);
+        return (view == null) ? null : view.getSkill();
     }
 
     /**
-     * Set native settlement information.  Do not check the current
-     * map state as we might leak destruction information.
+     * Get the goods a player knows are wanted by the native settlement
+     * on this tile.
      *
-     * @param player The {@code Player} to pet belonged to.
-     * @param skill The skill taught by the settlement.
-     * @param wanted The goods wanted by the settlement.
+     * @param player The {@code Player} to query.
+     * @return An unmodifiable list of {@code GoodsType}s, or null if
+     *     not known.
      */
-    private void setIndianSettlementInternals(Player player, UnitType skill,
-                                              List<GoodsType> wanted) {
-        IndianSettlementInternals isi = getPlayerIndianSettlement(player);
-        if (isi == null) {
-            isi = new IndianSettlementInternals();
-            playerIndianSettlements.put(player, isi);
-        }
-        isi.setValues(skill, wanted);
+    public List<GoodsType> getWantedGoods(Player player) {
+        final TileView view = getView(player);
+        return (view == null) ? null : view.getWantedGoods();
     }
 
     /**
@@ -2078,7 +2131,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     public boolean isExploredBy(Player player) {
         return (!player.isEuropean()) ? true
             : (!isExplored()) ? false
-            : (cachedTiles == null) ? true
+            : (!getGame().isInServer()) ? true
             : getCachedTile(player) != null;
     }
 
@@ -2089,11 +2142,11 @@ public final class Tile extends UnitLocation implements Named, Ownable {
      * @param reveal The exploration state.
      */
     public void setExplored(Player player, boolean reveal) {
-        if (cachedTiles == null || !player.isEuropean()) return;
+        if (!player.isEuropean()) return;
         if (reveal) {
             seeTile(player);
         } else {
-            cachedTiles.remove(player);
+            setView(player, null);
         }
     }
 
@@ -2241,6 +2294,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         } else if (locatable instanceof Unit) {
             if (super.add(locatable)) {
                 ((Unit)locatable).setState(Unit.UnitState.ACTIVE);
+                noteOccupancyChange();
                 return true;
             }
             return false;
@@ -2261,6 +2315,13 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             return removeTileItem((TileItem)locatable)
                 == locatable;//-til
 
+        } else if (locatable instanceof Unit) {
+            if (super.remove(locatable)) {
+                noteOccupancyChange();
+                return true;
+            }
+            return false;
+
         } else {
             return super.remove(locatable);
         }
@@ -2364,6 +2425,8 @@ public final class Tile extends UnitLocation implements Named, Ownable {
     @Override
     public void setOwner(Player owner) {
         this.owner = owner;
+        if (terrain != null) terrain.setOwner(this, owner);
+        noteOwnershipChange();
     }
 
 
@@ -2457,8 +2520,13 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         this.moveToEurope = o.getMoveToEurope();
         this.style = o.getStyle();
         this.contiguity = o.getContiguity();
-        // Do not need to update the cached tiles, they live server-side
-        this.setCachedTiles(o.getCachedTiles());
+        // Do not need to update the cached tiles, they live server-side,
+        // but keep any views read with the other tile.
+        if (o.pendingViews != null) this.pendingViews = o.pendingViews;
+        if (terrain != null) terrain.update(this);
+        invalidateClusters();
+        noteSettlementChange();
+        noteOccupancyChange();
         return true;
     }
 
@@ -2620,7 +2688,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
         if (tileItemContainer != null) tileItemContainer.toXML(xw);
 
         // Save the cached tiles to saved games.
-        if (cachedTiles != null && xw.validForSave()) {
+        if (getGame().isInServer() && xw.validForSave()) {
             for (Player p : getGame().getLiveEuropeanPlayerList()) {
                 Tile t = getCachedTile(p);
                 if (t == null) continue;
@@ -2629,8 +2697,6 @@ public final class Tile extends UnitLocation implements Named, Ownable {
                     // Always save client view of native settlements
                     // because of the hidden information.
                     t = getTileToCache();
-                    t.setIndianSettlementInternals(p, getLearnableSkill(p),
-                                                   getWantedGoods(p));
                 }
 
                 xw.writeStartElement(CACHED_TILE_TAG);
@@ -2715,6 +2781,19 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             : null;
     }
 
+    /**
+     * Hold a player view read with this tile until the tile is placed
+     * in its map.
+     *
+     * @param player The {@code Player} the view belongs to.
+     * @param view The {@code TileView} read.
+     */
+    private void addPendingView(Player player, TileView view) {
+        if (!player.isEuropean()) return;
+        if (pendingViews == null) pendingViews = new HashMap<>();
+        pendingViews.put(player, view);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2760,18 +2839,15 @@ public final class Tile extends UnitLocation implements Named, Ownable {
                     // end workaround
 
                     IndianSettlement is = tile.getIndianSettlement();
-                    if (is == null) {
-                        removeIndianSettlementInternals(player);
-                    } else {
-                        setIndianSettlementInternals(player,
-                            is.getLearnableSkill(), is.getWantedGoods());
-                    }
-                    setCachedTile(player, tile);
+                    addPendingView(player, (is == null)
+                        ? TileView.of(tile, null, null)
+                        : TileView.of(tile, is.getLearnableSkill(),
+                                      is.getWantedGoods()));
                 } finally {
                     xr.replaceScope(rs);
                 }
             } else {
-                setCachedTile(player, this);
+                addPendingView(player, TileView.LIVE);
             }
 
             xr.closeTag(CACHED_TILE_TAG);
@@ -2788,7 +2864,7 @@ public final class Tile extends UnitLocation implements Named, Ownable {
             Player player = xr.findFreeColGameObject(game, PLAYER_TAG, 
                 Player.class, (Player)null, true);
             xr.swallowTag(OLD_PLAYER_EXPLORED_TILE_TAG);
-            if (player != null) setCachedTile(player, this);
+            if (player != null) addPendingView(player, TileView.LIVE);
         // end @compat 0.11.0
 
         } else if (TileItemContainer.TAG.equals(tag)
@@ -180,6 +180,7 @@ public class TileImprovement extends TileItem {
      */
     public void setTurnsToComplete(int turns) {
         turnsToComplete = turns;
+        if (tile != null) tile.updateImprovements();
     }
 
     /**
@@ -601,6 +602,22 @@ public class TileImprovement extends TileItem {
         return Layer.RIVERS;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TileItem copyForCache(Tile tile) {
+        TileImprovement ret = new TileImprovement(getGame(), (String)null);
+        ret.setId(getId());
+        ret.tile = tile;
+        ret.type = this.type;
+        ret.turnsToComplete = this.turnsToComplete;
+        ret.magnitude = this.magnitude;
+        ret.style = this.style;
+        ret.virtual = this.virtual;
+        return ret;
+    }
+
 
     // Override FreeColGameObject
 
@@ -144,6 +144,14 @@ public abstract class TileItem extends FreeColGameObject
      */
     public abstract boolean isComplete();
 
+    /**
+     * Make an uninterned copy of this item for a cached tile.
+     *
+     * @param tile The cached copy of the {@code Tile} to attach to.
+     * @return The copied {@code TileItem}.
+     */
+    abstract TileItem copyForCache(Tile tile);
+
     /**
      * Get the layer associated with this tile item.
      *
@@ -94,6 +94,8 @@ public class TileItemContainer extends FreeColGameObject {
      * but only if the tile is actually being used.
      */
     private void invalidateCache() {
+        tile.updateImprovements();
+        tile.invalidateClusters();
         final Colony colony = tile.getColony();
         if (colony != null && colony.isTileInUse(tile)) {
             colony.invalidateCache();
@@ -216,6 +218,7 @@ public class TileItemContainer extends FreeColGameObject {
         synchronized (tileItems) {
             removeInPlace(tileItems, ti -> c.isInstance(ti));
         }
+        invalidateCache();
     }
 
     /**
@@ -498,6 +501,26 @@ public class TileItemContainer extends FreeColGameObject {
     }
 
 
+    /**
+     * Make an uninterned copy of this container and its items for a
+     * cached tile.
+     *
+     * @param tile The cached copy of the {@code Tile} to attach to.
+     * @return The copied {@code TileItemContainer}.
+     */
+    TileItemContainer copyForCache(Tile tile) {
+        TileItemContainer ret = new TileItemContainer(getGame(), (String)null);
+        ret.setId(getId());
+        ret.tile = tile;
+        synchronized (tileItems) {
+            for (TileItem ti : tileItems) {
+                ret.tileItems.add(ti.copyForCache(tile));
+            }
+        }
+        return ret;
+    }
+
+
     // Low level
 
     /**
@@ -580,6 +603,7 @@ public class TileItemContainer extends FreeColGameObject {
             }
             addTileItem(nti);
         }
+        if (this.tile != null) this.tile.updateImprovements();
         return true;
     }
 
@@ -634,6 +658,8 @@ public class TileItemContainer extends FreeColGameObject {
         clearTileItems();
 
         super.readChildren(xr);
+
+        if (tile != null) tile.updateImprovements();
     }
 
     /**
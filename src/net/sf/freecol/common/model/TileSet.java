@@ -0,0 +1,377 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+
+/**
+ * A set of the tiles of a map, held as a bitset over the tile indices.
+ *
+ * Membership is by position, so a cached copy of a tile is treated as
+ * the map tile at the same position, and iteration always returns the
+ * map tiles, in index order.  Set operations with another tile set of
+ * the same size work a word at a time.  Null tiles are not permitted.
+ *
+ * A tile set can be encoded as a compact string and decoded again
+ * against a map of the same size.
+ */
+public final class TileSet extends AbstractSet<Tile> {
+
+    /** The map the tiles belong to. */
+    private final Map map;
+
+    /** The bits, one per tile index. */
+    private final long[] words;
+
+    /** The number of modifications, to detect concurrent changes. */
+    private int modCount = 0;
+
+
+    /**
+     * Create a new empty tile set.
+     *
+     * @param map The {@code Map} the tiles belong to.
+     */
+    public TileSet(Map map) {
+        this.map = map;
+        this.words = new long[(map.getTileCount() + 63) >>> 6];
+    }
+
+    /**
+     * Create a new tile set containing some tiles.
+     *
+     * @param map The {@code Map} the tiles belong to.
+     * @param tiles The {@code Tile}s to add.
+     */
+    public TileSet(Map map, Collection<? extends Tile> tiles) {
+        this(map);
+        addAll(tiles);
+    }
+
+
+    /**
+     * Get the map the tiles belong to.
+     *
+     * @return The {@code Map}.
+     */
+    public Map getMap() {
+        return this.map;
+    }
+
+    /**
+     * Get the index of a tile in this set's map.
+     *
+     * @param o The object to check.
+     * @return The tile index, or -1 if not a tile on the map.
+     */
+    private int indexOf(Object o) {
+        if (!(o instanceof Tile)) return -1;
+        final Tile tile = (Tile)o;
+        return map.getTileIndex(tile.getX(), tile.getY());
+    }
+
+    /**
+     * Is a tile index in this set?
+     *
+     * @param index The tile index to check.
+     * @return True if the tile with the index is present.
+     */
+    public boolean containsIndex(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Add a tile index to this set.
+     *
+     * @param index The tile index to add.
+     * @return True if the tile with the index was not already present.
+     */
+    public boolean addIndex(int index) {
+        final int w = index >>> 6;
+        final long old = words[w];
+        words[w] = old | (1L << index);
+        modCount++;
+        return words[w] != old;
+    }
+
+    /**
+     * Remove a tile index from this set.
+     *
+     * @param index The tile index to remove.
+     * @return True if the tile with the index was present.
+     */
+    public boolean removeIndex(int index) {
+        final int w = index >>> 6;
+        final long old = words[w];
+        words[w] = old & ~(1L << index);
+        modCount++;
+        return words[w] != old;
+    }
+
+    /**
+     * Visit the indices of the tiles in this set in order.
+     *
+     * @param consumer An {@code IntConsumer} to accept the indices.
+     */
+    public void forEachIndex(IntConsumer consumer) {
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                consumer.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Is another collection a tile set that can be combined with this
+     * one a word at a time?
+     *
+     * @param c The {@code Collection} to check.
+     * @return True if the collection is a compatible {@code TileSet}.
+     */
+    private boolean isCompatible(Collection<?> c) {
+        return c instanceof TileSet
+            && ((TileSet)c).words.length == words.length;
+    }
+
+    /**
+     * Get the index of the next tile at or after a given index.
+     *
+     * @param from The index to start at.
+     * @return The next tile index, or -1 if none.
+     */
+    private int nextIndex(int from) {
+        int w = from >>> 6;
+        if (w >= words.length) return -1;
+        long word = words[w] & (-1L << from);
+        for (;;) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w >= words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    /**
+     * Encode this set as a compact string.
+     *
+     * @return The encoded set.
+     */
+    public String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(8 * words.length);
+        for (long w : words) buf.putLong(w);
+        return Base64.getEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    /**
+     * Decode a tile set encoded with {@link #encode}.
+     *
+     * @param map The {@code Map} the tiles belong to.
+     * @param encoded The encoded set.
+     * @return The decoded {@code TileSet}.
+     * @exception IllegalArgumentException if the encoding is invalid
+     *     or does not match the map size.
+     */
+    public static TileSet decode(Map map, String encoded) {
+        final TileSet ret = new TileSet(map);
+        final byte[] bytes = Base64.getDecoder().decode(encoded);
+        if (bytes.length != 8 * ret.words.length) {
+            throw new IllegalArgumentException("Tile set size mismatch: "
+                + bytes.length + " != " + (8 * ret.words.length));
+        }
+        ByteBuffer.wrap(bytes).asLongBuffer().get(ret.words);
+        final int extra = ret.words.length * 64 - map.getTileCount();
+        if (extra > 0 && (ret.words[ret.words.length - 1]
+                >>> (64 - extra)) != 0) {
+            throw new IllegalArgumentException("Tile set out of range");
+        }
+        return ret;
+    }
+
+
+    // Implement Set
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        int ret = 0;
+        for (long w : words) ret += Long.bitCount(w);
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        for (long w : words) if (w != 0) return false;
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Object o) {
+        final int i = indexOf(o);
+        return i >= 0 && containsIndex(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean add(Tile tile) {
+        final int i = indexOf(tile);
+        if (i < 0) {
+            throw new IllegalArgumentException("Not a map tile: " + tile);
+        }
+        return addIndex(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(Object o) {
+        final int i = indexOf(o);
+        return i >= 0 && removeIndex(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+        modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (!isCompatible(c)) return super.containsAll(c);
+        final long[] other = ((TileSet)c).words;
+        for (int w = 0; w < words.length; w++) {
+            if ((other[w] & ~words[w]) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean addAll(Collection<? extends Tile> c) {
+        if (!isCompatible(c)) return super.addAll(c);
+        final long[] other = ((TileSet)c).words;
+        long changed = 0;
+        for (int w = 0; w < words.length; w++) {
+            changed |= other[w] & ~words[w];
+            words[w] |= other[w];
+        }
+        modCount++;
+        return changed != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (!isCompatible(c)) return super.removeAll(c);
+        final long[] other = ((TileSet)c).words;
+        long changed = 0;
+        for (int w = 0; w < words.length; w++) {
+            changed |= other[w] & words[w];
+            words[w] &= ~other[w];
+        }
+        modCount++;
+        return changed != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (!isCompatible(c)) return super.retainAll(c);
+        final long[] other = ((TileSet)c).words;
+        long changed = 0;
+        for (int w = 0; w < words.length; w++) {
+            changed |= words[w] & ~other[w];
+            words[w] &= other[w];
+        }
+        modCount++;
+        return changed != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Tile> iterator() {
+        return new Iterator<Tile>() {
+            private int next = nextIndex(0);
+            private int last = -1;
+            private int expected = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Tile next() {
+                if (next < 0) throw new NoSuchElementException();
+                if (modCount != expected) {
+                    throw new ConcurrentModificationException();
+                }
+                last = next;
+                next = nextIndex(next + 1);
+                return map.getTile(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) throw new IllegalStateException();
+                if (modCount != expected) {
+                    throw new ConcurrentModificationException();
+                }
+                removeIndex(last);
+                expected = modCount;
+                last = -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * An immutable snapshot of what a player knows about a tile.
+ *
+ * The view holds the cached copy of the tile the player last saw, or
+ * null if the player currently sees the tile itself, and the native
+ * settlement internals (skill taught and goods wanted) the player
+ * learned on its last close contact.  Views are shared between
+ * players wherever they are equal, so they must never be modified.
+ */
+public final class TileView {
+
+    /** The view of a player that sees the tile, knowing no internals. */
+    public static final TileView LIVE = new TileView(null, null, null);
+
+    /** The cached copy of the tile, or null for the tile itself. */
+    private final Tile tile;
+
+    /** The skill taught at the native settlement, if known. */
+    private final UnitType skill;
+
+    /** The goods wanted by the native settlement, if known. */
+    private final List<GoodsType> wantedGoods;
+
+
+    /**
+     * Create a new tile view.
+     *
+     * @param tile The cached copy of the {@code Tile}, or null for
+     *     the tile itself.
+     * @param skill The skill taught at the native settlement.
+     * @param wantedGoods The goods wanted by the native settlement.
+     */
+    private TileView(Tile tile, UnitType skill, List<GoodsType> wantedGoods) {
+        this.tile = tile;
+        this.skill = skill;
+        this.wantedGoods = wantedGoods;
+    }
+
+
+    /**
+     * Get a tile view.
+     *
+     * @param tile The cached copy of the {@code Tile}, or null for
+     *     the tile itself.
+     * @param skill The skill taught at the native settlement.
+     * @param wantedGoods The goods wanted by the native settlement.
+     * @return A {@code TileView} with the given contents.
+     */
+    public static TileView of(Tile tile, UnitType skill,
+                              List<GoodsType> wantedGoods) {
+        return (tile == null && skill == null && wantedGoods == null) ? LIVE
+            : new TileView(tile, skill, (wantedGoods == null) ? null
+                : Collections.unmodifiableList(new ArrayList<>(wantedGoods)));
+    }
+
+    /**
+     * Get the tile a player sees.
+     *
+     * @param live The actual {@code Tile}.
+     * @return The cached copy if there is one, otherwise the actual tile.
+     */
+    public Tile getTile(Tile live) {
+        return (this.tile == null) ? live : this.tile;
+    }
+
+    /**
+     * Is this a view of the tile itself?
+     *
+     * @return True if there is no cached copy.
+     */
+    public boolean isLive() {
+        return this.tile == null;
+    }
+
+    /**
+     * Get the skill taught at the native settlement.
+     *
+     * @return The skill {@code UnitType}, or null if not known.
+     */
+    public UnitType getSkill() {
+        return this.skill;
+    }
+
+    /**
+     * Get the goods wanted by the native settlement.
+     *
+     * @return An unmodifiable list of {@code GoodsType}s, or null if
+     *     not known.
+     */
+    public List<GoodsType> getWantedGoods() {
+        return this.wantedGoods;
+    }
+
+    /**
+     * Get a view with a different tile and the same internals.
+     *
+     * @param tile The cached copy of the {@code Tile}, or null for
+     *     the tile itself.
+     * @return The new {@code TileView}.
+     */
+    public TileView withTile(Tile tile) {
+        return (tile == this.tile) ? this
+            : of(tile, this.skill, this.wantedGoods);
+    }
+
+    /**
+     * Get a view with different internals and the same tile.
+     *
+     * @param skill The skill taught at the native settlement.
+     * @param wantedGoods The goods wanted by the native settlement.
+     * @return The new {@code TileView}.
+     */
+    public TileView withInternals(UnitType skill, List<GoodsType> wantedGoods) {
+        return (skill == this.skill
+            && Objects.equals(wantedGoods, this.wantedGoods)) ? this
+            : of(this.tile, skill, wantedGoods);
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TileView)) return false;
+        final TileView other = (TileView)o;
+        // Cached copies are only equal if they are the same copy.
+        return this.tile == other.tile
+            && this.skill == other.skill
+            && Objects.equals(this.wantedGoods, other.wantedGoods);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int hash = System.identityHashCode(this.tile);
+        hash = 31 * hash + Objects.hashCode(this.skill);
+        return 31 * hash + Objects.hashCode(this.wantedGoods);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[TileView " + ((this.tile == null) ? "live" : "cached")
+            + " skill=" + this.skill + " wanted=" + this.wantedGoods + "]";
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * The views each European player has of the tiles of a map, held in
+ * the server.
+ *
+ * There is a row for each player that has a view of any tile, indexed
+ * by tile index, and a null entry means the player has not explored
+ * the tile.  When a view is stored it is replaced by any equal view
+ * that another player already has of the same tile, so players that
+ * saw the same state of a tile share one {@code TileView}, and all
+ * players that currently see a tile share {@link TileView#LIVE}.
+ */
+public final class TileViewTable {
+
+    /** The number of tiles covered. */
+    private final int size;
+
+    /** The row of each player. */
+    private final java.util.Map<Player, Integer> slots
+        = new ConcurrentHashMap<>();
+
+    /** The views, by player row and tile index. */
+    private volatile TileView[][] rows = new TileView[0][];
+
+
+    /**
+     * Create a new view table.
+     *
+     * @param size The number of tiles to cover.
+     */
+    public TileViewTable(int size) {
+        this.size = size;
+    }
+
+
+    /**
+     * Get the row for a player.
+     *
+     * @param player The {@code Player} to look up.
+     * @param create If true, create a row if the player has none.
+     * @return The row of views, or null if none.
+     */
+    private TileView[] getRow(Player player, boolean create) {
+        Integer slot = slots.get(player);
+        if (slot == null) {
+            if (!create) return null;
+            synchronized (slots) {
+                slot = slots.get(player);
+                if (slot == null) {
+                    slot = rows.length;
+                    TileView[][] r = Arrays.copyOf(rows, slot + 1);
+                    r[slot] = new TileView[size];
+                    rows = r;
+                    slots.put(player, slot);
+                }
+            }
+        }
+        return rows[slot];
+    }
+
+    /**
+     * Get a player's view of a tile.
+     *
+     * @param player The {@code Player} to query.
+     * @param index The tile index.
+     * @return The {@code TileView}, or null if the tile is unexplored.
+     */
+    public TileView get(Player player, int index) {
+        final TileView[] row = getRow(player, false);
+        return (row == null) ? null : row[index];
+    }
+
+    /**
+     * Set a player's view of a tile, sharing an equal view if another
+     * player has one.
+     *
+     * @param player The {@code Player} to set the view for.
+     * @param index The tile index.
+     * @param view The new {@code TileView}, or null to unexplore.
+     */
+    public void set(Player player, int index, TileView view) {
+        if (view == null) {
+            final TileView[] row = getRow(player, false);
+            if (row != null) row[index] = null;
+            return;
+        }
+        final TileView[] row = getRow(player, true);
+        row[index] = intern(index, view);
+    }
+
+    /**
+     * Find an existing view of a tile equal to a given one.
+     *
+     * @param index The tile index.
+     * @param view The {@code TileView} to look for.
+     * @return An equal existing view, or the given view if none.
+     */
+    private TileView intern(int index, TileView view) {
+        if (view == TileView.LIVE) return view;
+        for (TileView[] row : rows) {
+            final TileView v = row[index];
+            if (v != null && v.equals(view)) return v;
+        }
+        return view;
+    }
+
+    /**
+     * Count the view objects held by this table.
+     *
+     * @return The number of distinct {@code TileView}s.
+     */
+    public int countDistinctViews() {
+        final Set<TileView> seen
+            = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TileView[] row : rows) {
+            for (TileView v : row) if (v != null) seen.add(v);
+        }
+        return seen.size();
+    }
+
+    /**
+     * Count the entries in this table.
+     *
+     * @return The number of explored player/tile pairs.
+     */
+    public int countEntries() {
+        int ret = 0;
+        for (TileView[] row : rows) {
+            for (TileView v : row) if (v != null) ret++;
+        }
+        return ret;
+    }
+}
@@ -19,47 +19,66 @@
 
 package net.sf.freecol.common.model;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import static net.sf.freecol.common.util.CollectionUtils.*;
-
 
 /**
  * A map that incorporates a count.
  *
+ * The counts are held in a {@link SpecIntMap}, so the keys are
+ * visited in specification order.
+ *
  * FIXME: implement entire Map interface
  */
 public class TypeCountMap<T extends FreeColSpecObjectType> {
 
-    private final Map<T, Integer> values = new HashMap<>();
+    private final SpecIntMap<T> values = new SpecIntMap<>();
 
+    /**
+     * Get a copy of the counts as a map.
+     *
+     * @return A new map of the counts.
+     */
     public Map<T, Integer> getValues() {
+        final Map<T, Integer> ret = new HashMap<>();
+        values.forEach((k, v) -> ret.put(k, v));
+        return ret;
+    }
+
+    /**
+     * Get the underlying count map.
+     *
+     * @return The {@code SpecIntMap} of counts.
+     */
+    public SpecIntMap<T> getCounts() {
         return values;
     }
 
     public int getCount(T key) {
-        Integer value = values.get(key);
-        return value == null ? 0 : value;
+        return values.get(key);
     }
 
     public Integer incrementCount(T key, int newCount) {
-        Integer oldValue = values.get(key);
-        if (oldValue == null) {
-            return values.put(key, newCount);
-        } else if (oldValue == -newCount) {
+        if (!values.containsKey(key)) {
+            values.put(key, newCount);
+            return null;
+        }
+        final int oldValue = values.get(key);
+        if (oldValue == -newCount) {
             values.remove(key);
             return null;
-        } else {
-            return values.put(key, oldValue + newCount);
         }
+        return values.put(key, oldValue + newCount);
     }
 
     public void add(TypeCountMap<T> other) {
-        forEachMapEntry(other.values,
-                        e -> incrementCount(e.getKey(), e.getValue()));
+        other.values.forEach((k, v) -> incrementCount(k, v));
     }
 
     public void clear() {
@@ -67,11 +86,13 @@ public class TypeCountMap<T extends FreeColSpecObjectType> {
     }
 
     public Set<T> keySet() {
-        return values.keySet();
+        return new LinkedHashSet<>(values.keys());
     }
 
     public Collection<Integer> values() {
-        return values.values();
+        final List<Integer> ret = new ArrayList<>(values.size());
+        values.forEach((k, v) -> ret.add(v));
+        return ret;
     }
 
     public boolean containsKey(T key) {
@@ -100,9 +121,9 @@ public class TypeCountMap<T extends FreeColSpecObjectType> {
     public String toString() {
         StringBuilder sb = new StringBuilder(64);
         sb.append('[').append(getClass().getName());
-        forEachMapEntry(values, e ->
-            sb.append(" [").append(e.getKey().getIndex())
-              .append(',').append(e.getValue()).append(']'));
+        values.forEach((k, v) ->
+            sb.append(" [").append(k.getIndex())
+              .append(',').append(v).append(']'));
         sb.append(']');
         return sb.toString();
     }
@@ -20,6 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -41,8 +42,10 @@ import static net.sf.freecol.common.model.Constants.*;
 import net.sf.freecol.common.model.Direction;
 import net.sf.freecol.common.model.pathfinding.CostDecider;
 import net.sf.freecol.common.model.pathfinding.CostDeciders;
+import net.sf.freecol.common.model.pathfinding.DistanceField;
 import net.sf.freecol.common.model.pathfinding.GoalDecider;
 import net.sf.freecol.common.model.pathfinding.GoalDeciders;
+import net.sf.freecol.common.model.pathfinding.PathCache;
 import net.sf.freecol.common.model.UnitTypeChange;
 import net.sf.freecol.common.option.GameOptions;
 import static net.sf.freecol.common.util.CollectionUtils.*;
@@ -2432,7 +2435,7 @@ public class Unit extends GoodsLocation
                 ? MoveType.MOVE_NO_ACCESS_CONTACT
                 // Allow trade if cargo present or empty-traders-option
                 : (this.hasGoodsCargo() || getSpecification()
-                    .getBoolean(GameOptions.EMPTY_TRADERS))
+                    .getEmptyTradersHandle().getValue())
                 ? MoveType.ENTER_SETTLEMENT_WITH_CARRIER_AND_GOODS
                 : MoveType.MOVE_NO_ACCESS_GOODS;
         } else {
@@ -2496,7 +2499,7 @@ public class Unit extends GoodsLocation
     private boolean allowMoveFrom(Tile from) {
         return from.isLand()
             || (!getOwner().isREF()
-                && getSpecification().getBoolean(GameOptions.AMPHIBIOUS_MOVES));
+                && getSpecification().getAmphibiousMovesHandle().getValue());
     }
 
     /**
@@ -2934,6 +2937,26 @@ public class Unit extends GoodsLocation
                                            end, carrier, costDecider, lb);
     }
 
+    /**
+     * Finds a path from the current location to a possibly distant
+     * location on the map without a carrier, only refining the start
+     * of long paths.
+     *
+     * @param end The {@code Location} to end at.
+     * @param costDecider An optional {@code CostDecider}.
+     * @return A {@code PathNode}, or null if no path is found.
+     * @see Map#findLongRangePath
+     */
+    public PathNode findLongRangePath(Location end, CostDecider costDecider) {
+        final Tile start = getTile();
+        final Tile endTile = (end == null) ? null : end.getTile();
+        return (start == null || endTile == null || isOnCarrier()
+            || (!isNaval() && !Map.isSameContiguity(start, endTile)))
+            ? this.findPath(getLocation(), end, null, costDecider, null)
+            : getGame().getMap().findLongRangePath(this, start, endTile,
+                                                   costDecider, null);
+    }
+
     /**
      * Unified argument tests for full path searches, which then finds
      * the actual starting location for the path.  Deals with special
@@ -3074,6 +3097,9 @@ public class Unit extends GoodsLocation
      * destination location from a starting location, using an optional
      * carrier and cost decider.
      *
+     * Results are shared through the map path cache, so repeated
+     * queries within a turn for similar units are cheap.
+     *
      * @param start The {@code Location} to start the search from.
      * @param end The destination {@code Location}.
      * @param carrier An optional carrier {@code Unit} to use.
@@ -3084,8 +3110,33 @@ public class Unit extends GoodsLocation
      */
     public int getTurnsToReach(Location start, Location end, Unit carrier,
                                CostDecider costDecider) {
-        PathNode path = this.findPath(start, end, carrier, costDecider, null);
-        return (path == null) ? MANY_TURNS : path.getTotalTurns();
+        final Game game = getGame();
+        final PathCache.Key key
+            = new PathCache.Key(this, start, end, carrier, costDecider);
+        int turns = game.getMap().getPathCache().getTotalTurns(key,
+            game.getTurn().getNumber(),
+            () -> this.findPath(start, end, carrier, costDecider, null));
+        return (turns >= INFINITY) ? MANY_TURNS : turns;
+    }
+
+    /**
+     * Estimates the number of turns required for this unit to reach a
+     * destination using the shared distance field to that destination.
+     * This is a cheap terrain-only estimate, intended for when many
+     * units are being compared against the same destination.  Falls
+     * back to a full search if this unit is not directly on the map.
+     *
+     * @param end The destination {@code Location}.
+     * @return The estimated number of turns to reach the {@code end},
+     *     or {@code MANY_TURNS} if it can not be reached.
+     */
+    public int estimateTurnsToReach(Location end) {
+        final Tile tile = getTile();
+        final DistanceField df = (tile == null || isOnCarrier()) ? null
+            : getGame().getMap().getDistanceField(end, this);
+        if (df == null) return getTurnsToReach(end);
+        final int turns = df.getTurns(tile);
+        return (turns >= INFINITY) ? MANY_TURNS : turns;
     }
 
     /**
@@ -3399,8 +3450,11 @@ public class Unit extends GoodsLocation
      */
     public Set<Tile> getVisibleTileSet() {
         final Tile tile = getTile();
-        return (tile == null) ? Collections.<Tile>emptySet()
-            : new HashSet<Tile>(tile.getSurroundingTiles(0, getLineOfSight()));
+        if (tile == null) return Collections.<Tile>emptySet();
+        final Map map = tile.getMap();
+        final TileSet ret = new TileSet(map);
+        map.forEachInDisk(tile, 0, getLineOfSight(), ret::addIndex);
+        return ret;
     }
 
 
@@ -4514,15 +4568,22 @@ public class Unit extends GoodsLocation
     @Override
     public Stream<Modifier> getModifiers(String id, FreeColSpecObjectType fcgot,
                                          Turn turn) {
-        final Player owner = getOwner();
-        final UnitType unitType = getType();
+        return Arrays.stream(getSortedModifiers(id, fcgot, turn));
+    }
 
-        return concat(// UnitType modifiers always apply.
-                      unitType.getModifiers(id, fcgot, turn),
-                      // The player's modifiers apply.
-                      owner.getModifiers(id, fcgot, turn),
-                      // Role modifiers apply.
-                      role.getModifiers(id, fcgot, turn));
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Modifier[] getSortedModifiers(String id,
+                                         FreeColSpecObjectType fcgot,
+                                         Turn turn) {
+        // The unit type, player and role modifiers all apply.
+        // Resolved in the player container so all its units share them.
+        return FeatureContainer.getChainModifiers(id, fcgot, turn,
+            getOwner().getFeatureContainer(),
+            getType().getFeatureContainer(),
+            role.getFeatureContainer());
     }
 
     /**
@@ -0,0 +1,680 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static net.sf.freecol.common.model.Constants.*;
+import net.sf.freecol.common.model.Direction;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Tile;
+
+
+/**
+ * An abstract graph over a map used for long range path finding.
+ *
+ * The map is divided into square clusters, and the tiles of each
+ * cluster that are passable for a movement class are split into
+ * components connected within the cluster (which refines the map
+ * contiguity).  Where components in neighbouring clusters touch,
+ * entrance tile pairs are chosen, and the cheapest in-cluster costs
+ * between the entrances of each component are precomputed.  A route
+ * between two tiles is then found by searching only the entrances,
+ * which is far cheaper than a search over every tile on a large map.
+ *
+ * The costs are the basic tile move costs (including roads and
+ * rivers for land), and take no account of units, settlements or
+ * the particular unit that will travel, so a route is only an
+ * estimate to be refined by a real search.
+ *
+ * Clusters are invalidated by {@link #invalidate(Tile)} when a tile
+ * changes, and only the dirty clusters and their neighbours are
+ * rebuilt, lazily on the next query.
+ */
+public final class ClusterGraph {
+
+    private static final Logger logger = Logger.getLogger(ClusterGraph.class.getName());
+
+    /** The size of a (square) cluster. */
+    public static final int CLUSTER_SIZE = 16;
+
+    /** The minimum separation of entrances along a cluster border. */
+    private static final int ENTRANCE_SPACING = 8;
+
+    /** The largest number of components in a cluster. */
+    private static final int MAX_COMPONENTS = CLUSTER_SIZE * CLUSTER_SIZE;
+
+    /** Maximum number of cached routes. */
+    private static final int ROUTE_CACHE_SIZE = 4096;
+
+    /** A route through the graph. */
+    public static final class Route {
+
+        /** The tile indices of the route waypoints, ending at the goal. */
+        private final int[] waypoints;
+
+        /** The cost to reach each waypoint. */
+        private final int[] costs;
+
+
+        /**
+         * Create a new route.
+         *
+         * @param waypoints The waypoint tile indices.
+         * @param costs The costs to reach each waypoint.
+         */
+        Route(int[] waypoints, int[] costs) {
+            this.waypoints = waypoints;
+            this.costs = costs;
+        }
+
+        /**
+         * Get the number of waypoints.
+         *
+         * @return The number of waypoints, including the goal.
+         */
+        public int size() {
+            return waypoints.length;
+        }
+
+        /**
+         * Get a waypoint.
+         *
+         * @param i The waypoint number.
+         * @return The tile index of the waypoint.
+         */
+        public int getWaypoint(int i) {
+            return waypoints[i];
+        }
+
+        /**
+         * Get the cost to reach a waypoint.
+         *
+         * @param i The waypoint number.
+         * @return The cost to reach the waypoint from the start.
+         */
+        public int getCostTo(int i) {
+            return costs[i];
+        }
+
+        /**
+         * Get the total cost of this route.
+         *
+         * @return The route cost in move points.
+         */
+        public int getCost() {
+            return (costs.length == 0) ? 0 : costs[costs.length-1];
+        }
+    }
+
+    /** The map to work on. */
+    private final Map map;
+
+    /** The movement class. */
+    private final MovementClass movementClass;
+
+    /** The map dimensions, and the dimensions in clusters. */
+    private final int width, height, cWidth, cHeight;
+
+    /** The global component of each tile index, or -1 if impassable. */
+    private final int[] component;
+
+    /** Dirty flag for each cluster. */
+    private final boolean[] dirty;
+
+    /** Are any clusters dirty? */
+    private boolean anyDirty = true;
+
+    /**
+     * The entrance pairs across each cluster border, keyed by the
+     * border, with each pair stored as four ints: the tiles on the
+     * lower and higher numbered cluster, and the costs of moving
+     * between them in each direction.
+     */
+    private final java.util.Map<Long, int[]> borders = new HashMap<>();
+
+    /** The entrance tile indices of each cluster. */
+    private final int[][] entrances;
+
+    /** The n*n cost matrix between the entrances of each cluster. */
+    private final int[][] entranceCosts;
+
+    /** Cache of recently found routes. */
+    private final java.util.Map<Long, Route> routeCache = new HashMap<>();
+
+    /** Scratch storage for in-cluster searches. */
+    private final int[] localCost = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+    private long[] localHeap = new long[64];
+
+
+    /**
+     * Create a new cluster graph for a map.  All clusters start dirty.
+     *
+     * @param map The {@code Map} to build the graph for.
+     * @param movementClass The {@code MovementClass} of the graph.
+     */
+    public ClusterGraph(Map map, MovementClass movementClass) {
+        this.map = map;
+        this.movementClass = movementClass;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.cWidth = (width + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.cHeight = (height + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.component = new int[width * height];
+        this.dirty = new boolean[cWidth * cHeight];
+        Arrays.fill(this.dirty, true);
+        this.entrances = new int[cWidth * cHeight][];
+        this.entranceCosts = new int[cWidth * cHeight][];
+    }
+
+
+    /**
+     * Get the movement class of this graph.
+     *
+     * @return The {@code MovementClass}.
+     */
+    public MovementClass getMovementClass() {
+        return movementClass;
+    }
+
+    /**
+     * Mark the cluster containing a tile as needing a rebuild.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public synchronized void invalidate(Tile tile) {
+        if (tile == null || tile.getX() >= width || tile.getY() >= height)
+            return;
+        dirty[clusterOf(tile.getX(), tile.getY())] = true;
+        anyDirty = true;
+    }
+
+    /**
+     * Find a route between two tiles.
+     *
+     * @param start The starting {@code Tile}.
+     * @param end The goal {@code Tile}.
+     * @return A {@code Route} to the goal, or null if none found.
+     */
+    public synchronized Route findRoute(Tile start, Tile end) {
+        if (anyDirty) rebuild();
+        final int s = map.getTileIndex(start), e = map.getTileIndex(end);
+        if (component[s] < 0 || component[e] < 0) return null;
+        final long key = ((long)s << 32) | e;
+        Route route = routeCache.get(key);
+        if (route == null && !routeCache.containsKey(key)) {
+            route = search(s, e);
+            if (routeCache.size() >= ROUTE_CACHE_SIZE) routeCache.clear();
+            routeCache.put(key, route);
+        }
+        return route;
+    }
+
+
+    // Cluster geometry
+
+    /**
+     * Get the cluster containing a tile position.
+     *
+     * @param x The tile x-coordinate.
+     * @param y The tile y-coordinate.
+     * @return The cluster number.
+     */
+    private int clusterOf(int x, int y) {
+        return (y / CLUSTER_SIZE) * cWidth + x / CLUSTER_SIZE;
+    }
+
+    /**
+     * Get the cluster containing a tile index.
+     *
+     * @param index The tile index.
+     * @return The cluster number.
+     */
+    private int clusterOf(int index) {
+        return clusterOf(index % width, index / width);
+    }
+
+    /**
+     * Get the local index of a tile index within its cluster.
+     *
+     * @param index The tile index.
+     * @return The local index.
+     */
+    private int localOf(int index) {
+        return (index / width % CLUSTER_SIZE) * CLUSTER_SIZE
+            + index % width % CLUSTER_SIZE;
+    }
+
+    /**
+     * Get the key for a border between two clusters.
+     *
+     * @param c The first cluster.
+     * @param d The second cluster.
+     * @return The border key.
+     */
+    private static long borderKey(int c, int d) {
+        return (c < d) ? ((long)c << 32) | d : ((long)d << 32) | c;
+    }
+
+
+    // Building
+
+    /**
+     * Rebuild the dirty clusters.
+     */
+    private void rebuild() {
+        final Set<Integer> refresh = new HashSet<>();
+        final Set<Long> borderKeys = new HashSet<>();
+        for (int c = 0; c < dirty.length; c++) {
+            if (!dirty[c]) continue;
+            labelComponents(c);
+            refresh.add(c);
+            for (int d : neighbourClusters(c)) {
+                refresh.add(d);
+                borderKeys.add(borderKey(c, d));
+            }
+        }
+        for (long key : borderKeys) {
+            buildBorder((int)(key >>> 32), (int)key);
+        }
+        for (int c : refresh) buildEntrances(c);
+        Arrays.fill(dirty, false);
+        anyDirty = false;
+        routeCache.clear();
+    }
+
+    /**
+     * Get the clusters neighbouring a given one.
+     *
+     * @param c The cluster number.
+     * @return An array of neighbouring cluster numbers.
+     */
+    private int[] neighbourClusters(int c) {
+        final int cx = c % cWidth, cy = c / cWidth;
+        int[] ret = new int[8];
+        int n = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int x = cx + dx, y = cy + dy;
+                if ((dx != 0 || dy != 0)
+                    && x >= 0 && x < cWidth && y >= 0 && y < cHeight) {
+                    ret[n++] = y * cWidth + x;
+                }
+            }
+        }
+        return Arrays.copyOf(ret, n);
+    }
+
+    /**
+     * Label the connected components of the passable tiles in a cluster.
+     *
+     * @param c The cluster number.
+     */
+    private void labelComponents(int c) {
+        final int x0 = (c % cWidth) * CLUSTER_SIZE;
+        final int y0 = (c / cWidth) * CLUSTER_SIZE;
+        final int x1 = Math.min(x0 + CLUSTER_SIZE, width);
+        final int y1 = Math.min(y0 + CLUSTER_SIZE, height);
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int i = y * width + x;
+                component[i] = (movementClass.isPassable(map.getTile(i)))
+                    ? UNDEFINED : -1;
+            }
+        }
+        final int[] queue = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+        int next = c * MAX_COMPONENTS;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int i = y * width + x;
+                if (component[i] != UNDEFINED) continue;
+                int head = 0, tail = 0;
+                component[i] = next;
+                queue[tail++] = i;
+                while (head < tail) {
+                    int j = queue[head++];
+                    for (Direction d : Direction.values()) {
+                        int k = map.getAdjacentIndex(j, d);
+                        if (k >= 0 && component[k] == UNDEFINED
+                            && clusterOf(k) == c) {
+                            component[k] = next;
+                            queue[tail++] = k;
+                        }
+                    }
+                }
+                next++;
+            }
+        }
+    }
+
+    /**
+     * Choose the entrance pairs across the border between two clusters.
+     *
+     * @param c The lower numbered cluster.
+     * @param d The higher numbered cluster.
+     */
+    private void buildBorder(int c, int d) {
+        final int x0 = (c % cWidth) * CLUSTER_SIZE;
+        final int y0 = (c / cWidth) * CLUSTER_SIZE;
+        final int x1 = Math.min(x0 + CLUSTER_SIZE, width);
+        final int y1 = Math.min(y0 + CLUSTER_SIZE, height);
+        final Set<Long> chosen = new HashSet<>();
+        int[] pairs = new int[16];
+        int n = 0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                final int a = y * width + x;
+                if (component[a] < 0) continue;
+                for (Direction dir : Direction.values()) {
+                    final int b = map.getAdjacentIndex(a, dir);
+                    if (b < 0 || component[b] < 0 || clusterOf(b) != d)
+                        continue;
+                    // One entrance per component pair per
+                    // ENTRANCE_SPACING sized block of the border.
+                    final long key
+                        = ((long)(component[a] % MAX_COMPONENTS) << 48)
+                        | ((long)(component[b] % MAX_COMPONENTS) << 32)
+                        | ((y / ENTRANCE_SPACING) * width
+                            + x / ENTRANCE_SPACING);
+                    if (!chosen.add(key)) continue;
+                    if (n + 4 > pairs.length) {
+                        pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+                    }
+                    final Tile ta = map.getTile(a), tb = map.getTile(b);
+                    pairs[n++] = a;
+                    pairs[n++] = b;
+                    pairs[n++] = movementClass.getMoveCost(ta, tb);
+                    pairs[n++] = movementClass.getMoveCost(tb, ta);
+                }
+            }
+        }
+        final long key = borderKey(c, d);
+        if (n == 0) {
+            borders.remove(key);
+        } else {
+            borders.put(key, Arrays.copyOf(pairs, n));
+        }
+    }
+
+    /**
+     * Collect the entrances of a cluster and the costs between them.
+     *
+     * @param c The cluster number.
+     */
+    private void buildEntrances(int c) {
+        int[] ents = new int[16];
+        int n = 0;
+        for (int d : neighbourClusters(c)) {
+            int[] pairs = borders.get(borderKey(c, d));
+            if (pairs == null) continue;
+            final int side = (c < d) ? 0 : 1;
+            for (int i = 0; i < pairs.length; i += 4) {
+                final int t = pairs[i + side];
+                boolean dup = false;
+                for (int j = 0; j < n; j++) {
+                    if (ents[j] == t) { dup = true; break; }
+                }
+                if (dup) continue;
+                if (n >= ents.length) ents = Arrays.copyOf(ents, 2 * n);
+                ents[n++] = t;
+            }
+        }
+        ents = Arrays.copyOf(ents, n);
+        final int[] costs = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            localSearch(c, ents[i], false);
+            for (int j = 0; j < n; j++) {
+                costs[i * n + j] = localCost[localOf(ents[j])];
+            }
+        }
+        entrances[c] = ents;
+        entranceCosts[c] = costs;
+    }
+
+    /**
+     * Find the cheapest costs within a cluster from (or to) a tile.
+     * The results are left in {@code localCost}, indexed by local index,
+     * with INFINITY for unreachable tiles.
+     *
+     * @param c The cluster number.
+     * @param source The tile index to search from.
+     * @param reverse If true, find the costs to reach the source instead.
+     */
+    private void localSearch(int c, int source, boolean reverse) {
+        Arrays.fill(localCost, INFINITY);
+        final int comp = component[source];
+        int size = 0;
+        localCost[localOf(source)] = 0;
+        size = heapPush(size, 0L, source);
+        while (size > 0) {
+            final long top = localHeap[0];
+            size = heapPop(size);
+            final int cost = (int)(top >>> 32), i = (int)top;
+            if (cost > localCost[localOf(i)]) continue;
+            final Tile ti = map.getTile(i);
+            for (Direction d : Direction.values()) {
+                final int j = map.getAdjacentIndex(i, d);
+                if (j < 0 || component[j] != comp) continue;
+                final Tile tj = map.getTile(j);
+                final int nc = cost + ((reverse)
+                    ? movementClass.getMoveCost(tj, ti)
+                    : movementClass.getMoveCost(ti, tj));
+                final int lj = localOf(j);
+                if (nc < localCost[lj]) {
+                    localCost[lj] = nc;
+                    size = heapPush(size, nc, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Push a cost/index pair onto the local heap.
+     *
+     * @param size The current heap size.
+     * @param cost The cost.
+     * @param index The tile index.
+     * @return The new heap size.
+     */
+    private int heapPush(int size, long cost, int index) {
+        if (size >= localHeap.length) {
+            localHeap = Arrays.copyOf(localHeap, 2 * localHeap.length);
+        }
+        final long x = (cost << 32) | index;
+        int k = size;
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (x >= localHeap[parent]) break;
+            localHeap[k] = localHeap[parent];
+            k = parent;
+        }
+        localHeap[k] = x;
+        return size + 1;
+    }
+
+    /**
+     * Pop the top of the local heap.
+     *
+     * @param size The current heap size.
+     * @return The new heap size.
+     */
+    private int heapPop(int size) {
+        final int n = size - 1;
+        final long x = localHeap[n];
+        int k = 0;
+        final int half = n >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            if (child + 1 < n && localHeap[child + 1] < localHeap[child])
+                child++;
+            if (x <= localHeap[child]) break;
+            localHeap[k] = localHeap[child];
+            k = child;
+        }
+        if (n > 0) localHeap[k] = x;
+        return n;
+    }
+
+
+    // Searching
+
+    /**
+     * Search the entrance graph for a route between two tile indices.
+     *
+     * @param s The start tile index.
+     * @param e The end tile index.
+     * @return A {@code Route}, or null if none found.
+     */
+    private Route search(int s, int e) {
+        final int sc = clusterOf(s), ec = clusterOf(e);
+        final Tile endTile = map.getTile(e);
+
+        // In-cluster costs from the start, and to the end.
+        localSearch(sc, s, false);
+        final int[] fromStart = localCost.clone();
+        localSearch(ec, e, true);
+        final int[] toEnd = localCost.clone();
+
+        final SearchState ss = SearchState.acquire(map.getTileCount());
+        try {
+            ss.setLink(s, heuristic(s, endTile), 0, -1);
+            ss.setState(s, SearchState.OPEN);
+            ss.offer(s);
+            while (!ss.isEmpty()) {
+                final int u = ss.poll();
+                ss.setState(u, SearchState.CLOSED);
+                final int g = ss.getTurns(u);
+                if (u == e) return makeRoute(ss, s, e);
+                final int c = clusterOf(u);
+
+                // Leave the start cluster through one of its entrances,
+                // or go direct to the end if it is in the same component.
+                if (u == s) {
+                    for (int t : entrances[sc]) {
+                        int cost = fromStart[localOf(t)];
+                        if (cost < INFINITY) relax(ss, u, t, cost, endTile);
+                    }
+                }
+                if (c == ec && component[u] == component[e]) {
+                    int cost = (u == s) ? fromStart[localOf(e)]
+                        : toEnd[localOf(u)];
+                    if (cost < INFINITY) relax(ss, u, e, g + cost, endTile);
+                }
+                if (u == s && !isEntrance(sc, u)) continue;
+
+                // Cross to the neighbouring clusters.
+                for (int d : neighbourClusters(c)) {
+                    int[] pairs = borders.get(borderKey(c, d));
+                    if (pairs == null) continue;
+                    final int side = (c < d) ? 0 : 1;
+                    for (int i = 0; i < pairs.length; i += 4) {
+                        if (pairs[i + side] != u) continue;
+                        relax(ss, u, pairs[i + 1 - side],
+                              g + pairs[i + 2 + side], endTile);
+                    }
+                }
+
+                // Move to the other entrances of this cluster.
+                final int[] ents = entrances[c];
+                final int n = ents.length;
+                int row = -1;
+                for (int i = 0; i < n; i++) {
+                    if (ents[i] == u) { row = i; break; }
+                }
+                if (row < 0) continue;
+                for (int i = 0; i < n; i++) {
+                    int cost = entranceCosts[c][row * n + i];
+                    if (i != row && cost < INFINITY) {
+                        relax(ss, u, ents[i], g + cost, endTile);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            ss.release();
+        }
+    }
+
+    /**
+     * Is a tile index an entrance of a cluster?
+     *
+     * @param c The cluster number.
+     * @param t The tile index.
+     * @return True if the tile is an entrance.
+     */
+    private boolean isEntrance(int c, int t) {
+        for (int i : entrances[c]) if (i == t) return true;
+        return false;
+    }
+
+    /**
+     * An admissible heuristic for the entrance graph search.
+     *
+     * @param t The tile index.
+     * @param end The goal {@code Tile}.
+     * @return A lower bound on the cost to the goal.
+     */
+    private int heuristic(int t, Tile end) {
+        return map.getDistance(map.getTile(t), end);
+    }
+
+    /**
+     * Relax an edge of the entrance graph.
+     *
+     * @param ss The {@code SearchState} in use.
+     * @param u The tile index being expanded.
+     * @param v The tile index being reached.
+     * @param g The cost to reach v through u.
+     * @param end The goal {@code Tile}.
+     */
+    private void relax(SearchState ss, int u, int v, int g, Tile end) {
+        final byte state = ss.getState(v);
+        if (state == SearchState.CLOSED
+            || (state == SearchState.OPEN && ss.getTurns(v) <= g)) return;
+        if (state == SearchState.OPEN) ss.remove(v);
+        ss.setLink(v, g + heuristic(v, end), g, u);
+        ss.setState(v, SearchState.OPEN);
+        ss.offer(v);
+    }
+
+    /**
+     * Build a route from the completed search.
+     *
+     * @param ss The {@code SearchState} holding the results.
+     * @param s The start tile index.
+     * @param e The end tile index.
+     * @return The new {@code Route}.
+     */
+    private Route makeRoute(SearchState ss, int s, int e) {
+        int n = 0;
+        for (int t = e; t != s; t = ss.getLink(t)) n++;
+        final int[] waypoints = new int[n], costs = new int[n];
+        for (int t = e; t != s; t = ss.getLink(t)) {
+            n--;
+            waypoints[n] = t;
+            costs[n] = ss.getTurns(t);
+        }
+        return new Route(waypoints, costs);
+    }
+}
@@ -40,9 +40,13 @@ public final class CostDeciders {
 
     /**
      * A {@code CostDecider} that costs unit moves normally.
+     *
+     * The cost deciders derived from {@code BaseCostDecider} keep the
+     * result of the last move in fields, so the shared instances are
+     * per-thread to allow concurrent searches.
      */
-    private static final CostDecider avoidIllegalCostDecider
-        = new BaseCostDecider();
+    private static final ThreadLocal<CostDecider> avoidIllegalCostDecider
+        = ThreadLocal.withInitial(BaseCostDecider::new);
 
 
     /**
@@ -130,8 +134,9 @@ public final class CostDeciders {
     /**
      * A server-side {@code CostDecider} that costs unit moves normally.
      */
-    private static final CostDecider
-        serverAvoidIllegalCostDecider = new ServerBaseCostDecider();
+    private static final ThreadLocal<CostDecider>
+        serverAvoidIllegalCostDecider
+        = ThreadLocal.withInitial(ServerBaseCostDecider::new);
 
 
     /**
@@ -156,8 +161,9 @@ public final class CostDeciders {
     /**
      * An instance of the cost decider for avoiding settlements.
      */
-    private static final AvoidSettlementsCostDecider
-        avoidSettlementsCostDecider = new AvoidSettlementsCostDecider();
+    private static final ThreadLocal<CostDecider>
+        avoidSettlementsCostDecider
+        = ThreadLocal.withInitial(AvoidSettlementsCostDecider::new);
 
 
     /**
@@ -190,9 +196,9 @@ public final class CostDeciders {
     /**
      * An instance of the settlement+unit avoiding cost decider.
      */
-    private static final AvoidSettlementsAndBlockingUnitsCostDecider
+    private static final ThreadLocal<CostDecider>
         avoidSettlementsAndBlockingUnitsCostDecider
-        = new AvoidSettlementsAndBlockingUnitsCostDecider();
+        = ThreadLocal.withInitial(AvoidSettlementsAndBlockingUnitsCostDecider::new);
 
 
     /**
@@ -233,6 +239,21 @@ public final class CostDeciders {
 
     // Public interface
 
+    /**
+     * Get an object that identifies the behaviour of a cost decider,
+     * for use in caching search results.  All the cost deciders derived
+     * from {@code BaseCostDecider} are stateless between searches, so
+     * instances of the same class are equivalent.
+     *
+     * @param costDecider The {@code CostDecider} to identify.
+     * @return An identifying object.
+     */
+    public static Object getCacheKey(CostDecider costDecider) {
+        return (costDecider instanceof BaseCostDecider)
+            ? costDecider.getClass()
+            : costDecider;
+    }
+
     /**
      * Gets a composite cost decider composed of two or more
      * individual cost deciders.  The result/s are determined by the
@@ -342,7 +363,7 @@ public final class CostDeciders {
      * @return The {@code CostDecider}.
      */
     public static CostDecider avoidIllegal() {
-        return avoidIllegalCostDecider;
+        return avoidIllegalCostDecider.get();
     }
 
     /**
@@ -354,7 +375,7 @@ public final class CostDeciders {
      * @return The {@code CostDecider}.
      */
     public static CostDecider serverAvoidIllegal() {
-        return serverAvoidIllegalCostDecider;
+        return serverAvoidIllegalCostDecider.get();
     }
 
     /**
@@ -367,7 +388,7 @@ public final class CostDeciders {
      * @return The {@code CostDecider}.
      */
     public static CostDecider avoidSettlements() {
-        return avoidSettlementsCostDecider;
+        return avoidSettlementsCostDecider.get();
     }
 
     /**
@@ -379,7 +400,7 @@ public final class CostDeciders {
      * @return The {@code CostDecider}.
      */
     public static CostDecider avoidSettlementsAndBlockingUnits() {
-        return avoidSettlementsAndBlockingUnitsCostDecider;
+        return avoidSettlementsAndBlockingUnitsCostDecider.get();
     }
 
     /**
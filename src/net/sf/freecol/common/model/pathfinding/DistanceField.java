@@ -0,0 +1,220 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.Arrays;
+
+import net.sf.freecol.common.model.Direction;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.PathNode;
+import net.sf.freecol.common.model.Tile;
+import static net.sf.freecol.common.model.Constants.*;
+
+
+/**
+ * The estimated cost of reaching a single target tile from every
+ * other tile on the map, for a movement class and number of moves
+ * per turn.
+ *
+ * The field is built with one reverse Dijkstra search out from the
+ * target over the basic terrain move costs of the movement class, so
+ * any number of units can then look up their distance to the target
+ * in constant time.  As with the long range graphs, units and
+ * settlement ownership are ignored, so the results are estimates
+ * suitable for choosing between units or targets, not for following.
+ *
+ * The turns and moves left for each tile are packed into one int,
+ * with -1 marking unreachable tiles.
+ */
+public final class DistanceField {
+
+    /** Search directions. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The map the field covers. */
+    private final Map map;
+
+    /** The target tile. */
+    private final Tile target;
+
+    /** The movement class. */
+    private final MovementClass movementClass;
+
+    /** The moves available per turn. */
+    private final int initialMoves;
+
+    /** The packed turns and moves left for each tile index. */
+    private final int[] field;
+
+
+    /**
+     * Build a new distance field.
+     *
+     * @param map The {@code Map} to cover.
+     * @param target The target {@code Tile}.
+     * @param movementClass The {@code MovementClass} to use.
+     * @param initialMoves The moves available per turn.
+     */
+    public DistanceField(Map map, Tile target, MovementClass movementClass,
+                         int initialMoves) {
+        this.map = map;
+        this.target = target;
+        this.movementClass = movementClass;
+        this.initialMoves = Math.max(1, initialMoves);
+        this.field = new int[map.getTileCount()];
+        Arrays.fill(this.field, -1);
+        build();
+    }
+
+
+    /**
+     * Get the target tile.
+     *
+     * @return The target {@code Tile}.
+     */
+    public Tile getTarget() {
+        return target;
+    }
+
+    /**
+     * Get the movement class.
+     *
+     * @return The {@code MovementClass}.
+     */
+    public MovementClass getMovementClass() {
+        return movementClass;
+    }
+
+    /**
+     * Get the moves per turn this field was built for.
+     *
+     * @return The initial moves.
+     */
+    public int getInitialMoves() {
+        return initialMoves;
+    }
+
+    /**
+     * Can the target be reached from a tile?
+     *
+     * @param tile The {@code Tile} to start from.
+     * @return True if the target is reachable.
+     */
+    public boolean isReachable(Tile tile) {
+        return tile != null && field[map.getTileIndex(tile)] >= 0;
+    }
+
+    /**
+     * Get the turns needed to reach the target from a tile.
+     *
+     * @param tile The {@code Tile} to start from.
+     * @return The number of turns, or {@code INFINITY} if unreachable.
+     */
+    public int getTurns(Tile tile) {
+        if (tile == null) return INFINITY;
+        final int v = field[map.getTileIndex(tile)];
+        return (v < 0) ? INFINITY : v >>> 16;
+    }
+
+    /**
+     * Get the moves left on reaching the target from a tile.
+     *
+     * @param tile The {@code Tile} to start from.
+     * @return The moves left, or zero if unreachable.
+     */
+    public int getMovesLeft(Tile tile) {
+        if (tile == null) return 0;
+        final int v = field[map.getTileIndex(tile)];
+        return (v < 0) ? 0 : v & 0xFFFF;
+    }
+
+    /**
+     * Get the cost of reaching the target from a tile, comparable with
+     * {@link PathNode#getCost}.
+     *
+     * @param tile The {@code Tile} to start from.
+     * @return The cost, or {@code INFINITY} if unreachable.
+     */
+    public int getCost(Tile tile) {
+        if (tile == null) return INFINITY;
+        final int v = field[map.getTileIndex(tile)];
+        return (v < 0) ? INFINITY
+            : PathNode.getNodeCost(v >>> 16, v & 0xFFFF);
+    }
+
+    /**
+     * Run the reverse search out from the target and fill in the field.
+     *
+     * A tile whose total move cost to the target is c takes
+     * (c-1)/initialMoves extra turns, and arrives with the remainder
+     * of the moves of the last turn.
+     */
+    private void build() {
+        if (!movementClass.isPassable(target)) return;
+        final int n = map.getTileCount();
+        final SearchState ss = SearchState.acquire(n);
+        try {
+            final int t = map.getTileIndex(target);
+            ss.setLink(t, 0, 0, -1);
+            ss.setState(t, SearchState.OPEN);
+            ss.offer(t);
+            while (!ss.isEmpty()) {
+                final int i = ss.poll();
+                ss.setState(i, SearchState.CLOSED);
+                final int cost = ss.getTurns(i);
+                field[i] = (cost == 0) ? initialMoves
+                    : (((cost - 1) / initialMoves) << 16)
+                        | (initialMoves - 1 - (cost - 1) % initialMoves);
+                final Tile ti = map.getTile(i);
+                for (Direction d : DIRECTIONS) {
+                    final int j = map.getAdjacentIndex(i, d);
+                    if (j < 0 || ss.getState(j) == SearchState.CLOSED) {
+                        continue;
+                    }
+                    final Tile tj = map.getTile(j);
+                    if (!movementClass.isPassable(tj)) continue;
+                    // Reverse edge: moving from tj into ti
+                    final int nc = cost + movementClass.getMoveCost(tj, ti);
+                    if (ss.getState(j) == SearchState.OPEN) {
+                        if (nc >= ss.getTurns(j)) continue;
+                        ss.remove(j);
+                    }
+                    ss.setLink(j, nc, nc, i);
+                    ss.setState(j, SearchState.OPEN);
+                    ss.offer(j);
+                }
+            }
+        } finally {
+            ss.release();
+        }
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[DistanceField " + target.getId() + " " + movementClass
+            + "/" + initialMoves + "]";
+    }
+}
@@ -462,8 +462,11 @@ public final class GoalDeciders {
                     public boolean hasSubGoals() { return true; }
                     @Override
                     public boolean check(Unit u, PathNode path) {
+                        // Ignore the high cost probes for goals
+                        // adjacent to the current search node.
                         Tile tile = path.getTile();
-                        if (tile == null) return false;
+                        if (tile == null || path.getCost() >= INFINITY)
+                            return false;
                         for (Location loc : transform(locs,
                                 l -> tile.isAdjacent(l.getTile()))) {
                             PathNode p = results.get(loc);
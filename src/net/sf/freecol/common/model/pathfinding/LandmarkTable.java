@@ -0,0 +1,385 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.freecol.common.model.Direction;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Tile;
+
+
+/**
+ * Landmark distance tables for the ALT (A*, landmarks, triangle
+ * inequality) search heuristic.
+ *
+ * For each sufficiently large connected region of a movement class a
+ * few landmark tiles are chosen by farthest-point sampling, and the
+ * step distance from each landmark to every tile of its region is
+ * recorded.  For tiles a and b in the same region and any landmark L,
+ * |d(L,b) - d(L,a)| is then a lower bound on the number of steps from
+ * a to b, which goes around lakes, coasts and other obstacles where
+ * the plain map distance does not.
+ *
+ * Steps are counted rather than move costs, as every step of a real
+ * path costs at least one, while the move cost of a step can be less
+ * than the terrain cost (e.g. when a unit spends its last moves).
+ * The regions use a superset of the tiles a unit of the class can
+ * actually move through, so the bound stays admissible.
+ *
+ * The tables depend only on which tiles are passable, so changes to
+ * roads and other tile items do not require a rebuild.  Any change
+ * of passability marks the tables dirty, and they are rebuilt when
+ * next used.
+ */
+public final class LandmarkTable {
+
+    private static final Logger logger = Logger.getLogger(LandmarkTable.class.getName());
+
+    /** The number of landmarks to place in each region. */
+    private static final int LANDMARKS_PER_REGION = 4;
+
+    /** Regions smaller than this are too small to be worth covering. */
+    private static final int MIN_REGION_SIZE = 64;
+
+    /** The maximum total number of landmarks. */
+    private static final int MAX_LANDMARKS = 16;
+
+    /** Marker for an unreached tile. */
+    private static final short UNREACHED = -1;
+
+    /** Search directions. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * A lower bound estimator for the distance to a fixed end tile.
+     */
+    public static final class Estimator {
+
+        /** The region of each tile index. */
+        private final int[] region;
+
+        /** The region of the end tile. */
+        private final int endRegion;
+
+        /** The landmark distance tables for the end region. */
+        private final short[][] dist;
+
+        /** The distances from each landmark to the end tile. */
+        private final int[] endDist;
+
+        /** The width of the map. */
+        private final int width;
+
+
+        /**
+         * Create a new estimator.
+         *
+         * @param region The region labels.
+         * @param endRegion The region of the end tile.
+         * @param dist The landmark distance tables.
+         * @param endIndex The index of the end tile.
+         * @param width The map width.
+         */
+        private Estimator(int[] region, int endRegion, short[][] dist,
+                          int endIndex, int width) {
+            this.region = region;
+            this.endRegion = endRegion;
+            this.dist = dist;
+            this.endDist = new int[dist.length];
+            for (int i = 0; i < dist.length; i++) {
+                this.endDist[i] = dist[i][endIndex];
+            }
+            this.width = width;
+        }
+
+        /**
+         * Get a lower bound on the number of steps from a tile to the
+         * end tile.
+         *
+         * @param tile The {@code Tile} to estimate from.
+         * @return The estimate, zero if nothing is known.
+         */
+        public int estimate(Tile tile) {
+            final int i = tile.getY() * width + tile.getX();
+            if (region[i] != endRegion) return 0;
+            int best = 0;
+            for (int l = 0; l < dist.length; l++) {
+                best = Math.max(best, Math.abs(endDist[l] - dist[l][i]));
+            }
+            return best;
+        }
+    }
+
+    /**
+     * An immutable built set of tables, so searches on other threads
+     * can keep using them while a rebuild happens.
+     */
+    private static final class Tables {
+
+        /** The region of each tile index, -1 if impassable. */
+        public final int[] region;
+
+        /** The landmark distance tables, by region. */
+        public final short[][][] dist;
+
+
+        /**
+         * Create new tables.
+         *
+         * @param region The region labels.
+         * @param dist The distance tables by region.
+         */
+        public Tables(int[] region, short[][][] dist) {
+            this.region = region;
+            this.dist = dist;
+        }
+    }
+
+    /** The map to cover. */
+    private final Map map;
+
+    /** The movement class. */
+    private final MovementClass movementClass;
+
+    /** The passability of each tile index when the tables were built. */
+    private boolean[] passable = null;
+
+    /** The current tables, null if dirty. */
+    private volatile Tables tables = null;
+
+
+    /**
+     * Create a new landmark table.  It is built when first used.
+     *
+     * @param map The {@code Map} to cover.
+     * @param movementClass The {@code MovementClass} to use.
+     */
+    public LandmarkTable(Map map, MovementClass movementClass) {
+        this.map = map;
+        this.movementClass = movementClass;
+    }
+
+
+    /**
+     * Is a tile possibly passable for this movement class?  This is a
+     * superset of {@link MovementClass#isPassable}, ignoring exploration
+     * and coastal restrictions.
+     *
+     * @param tile The {@code Tile} to test.
+     * @return True if the tile might be passable.
+     */
+    private boolean isPassable(Tile tile) {
+        switch (movementClass) {
+        case LAND:
+            return tile.isLand();
+        case NAVAL:
+            return !tile.isLand() || tile.hasSettlement();
+        default:
+            break;
+        }
+        return false;
+    }
+
+    /**
+     * Note that a tile has changed, marking the tables dirty if its
+     * passability has changed.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public synchronized void invalidate(Tile tile) {
+        if (passable == null) return;
+        final int i = map.getTileIndex(tile);
+        if (i >= 0 && i < passable.length
+            && passable[i] != isPassable(tile)) tables = null;
+    }
+
+    /**
+     * Get an estimator for the distance to an end tile.
+     *
+     * @param end The end {@code Tile}.
+     * @return An {@code Estimator}, or null if the end tile is not in
+     *     a region with landmarks.
+     */
+    public Estimator getEstimator(Tile end) {
+        Tables t = tables;
+        if (t == null) t = build();
+        final int endIndex = map.getTileIndex(end);
+        final int r = t.region[endIndex];
+        return (r < 0 || t.dist[r] == null) ? null
+            : new Estimator(t.region, r, t.dist[r], endIndex,
+                            map.getWidth());
+    }
+
+    /**
+     * Get the landmarks placed in the region of a tile.
+     *
+     * Public for the test suite.
+     *
+     * @param tile The {@code Tile} to find the region of.
+     * @return A list of landmark {@code Tile}s, in placement order.
+     */
+    public List<Tile> getLandmarks(Tile tile) {
+        Tables t = tables;
+        if (t == null) t = build();
+        final List<Tile> ret = new ArrayList<>();
+        final int r = t.region[map.getTileIndex(tile)];
+        if (r < 0 || t.dist[r] == null) return ret;
+        for (short[] d : t.dist[r]) {
+            for (int i = 0; i < d.length; i++) {
+                if (d[i] == 0) {
+                    ret.add(map.getTile(i));
+                    break;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Build the tables if needed.
+     *
+     * @return The current {@code Tables}.
+     */
+    private synchronized Tables build() {
+        if (tables != null) return tables;
+        final int n = map.getTileCount();
+        passable = new boolean[n];
+        for (int i = 0; i < n; i++) passable[i] = isPassable(map.getTile(i));
+
+        // Label the regions, remembering the members of each.
+        final int[] region = new int[n];
+        Arrays.fill(region, -1);
+        final List<int[]> members = new ArrayList<>();
+        final int[] queue = new int[n];
+        for (int s = 0; s < n; s++) {
+            if (!passable[s] || region[s] >= 0) continue;
+            final int r = members.size();
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            region[s] = r;
+            while (head < tail) {
+                final int i = queue[head++];
+                for (Direction d : DIRECTIONS) {
+                    final int j = map.getAdjacentIndex(i, d);
+                    if (j >= 0 && passable[j] && region[j] < 0) {
+                        region[j] = r;
+                        queue[tail++] = j;
+                    }
+                }
+            }
+            members.add(Arrays.copyOf(queue, tail));
+        }
+
+        // Place landmarks in the large regions, largest first.
+        final short[][][] dist = new short[members.size()][][];
+        final Integer[] order = new Integer[members.size()];
+        for (int r = 0; r < order.length; r++) order[r] = r;
+        Arrays.sort(order, (a, b) -> members.get(b).length
+                                   - members.get(a).length);
+        int total = 0;
+        for (int r : order) {
+            final int[] m = members.get(r);
+            if (m.length < MIN_REGION_SIZE
+                || total + LANDMARKS_PER_REGION > MAX_LANDMARKS) break;
+            dist[r] = placeLandmarks(m, queue);
+            total += dist[r].length;
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine("Built " + total + " " + movementClass
+                + " landmarks in " + members.size() + " regions");
+        }
+        return tables = new Tables(region, dist);
+    }
+
+    /**
+     * Place landmarks in a region by farthest-point sampling, and find
+     * the distance tables for them.
+     *
+     * @param members The tile indices in the region.
+     * @param queue Scratch space for the breadth first searches.
+     * @return The distance tables for the landmarks.
+     */
+    private short[][] placeLandmarks(int[] members, int[] queue) {
+        final short[][] dist = new short[LANDMARKS_PER_REGION][];
+        // The first landmark is the tile farthest from an arbitrary
+        // member, then each subsequent landmark is the tile farthest
+        // from all those already chosen.
+        final short[] seed = distances(members[0], queue);
+        int next = farthest(members, new short[][] { seed }, 1);
+        for (int l = 0; l < LANDMARKS_PER_REGION; l++) {
+            dist[l] = distances(next, queue);
+            next = farthest(members, dist, l + 1);
+        }
+        return dist;
+    }
+
+    /**
+     * Find the member tile farthest from a set of landmarks.
+     *
+     * @param members The tile indices in the region.
+     * @param dist The landmark distance tables.
+     * @param count The number of valid tables.
+     * @return The index of the farthest tile.
+     */
+    private static int farthest(int[] members, short[][] dist, int count) {
+        int best = members[0], bestDist = -1;
+        for (int i : members) {
+            int d = Integer.MAX_VALUE;
+            for (int l = 0; l < count; l++) d = Math.min(d, dist[l][i]);
+            if (d > bestDist) {
+                bestDist = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find the step distances from a tile to the rest of its region.
+     *
+     * @param source The source tile index.
+     * @param queue Scratch space for the breadth first search.
+     * @return The distance table.
+     */
+    private short[] distances(int source, int[] queue) {
+        final short[] dist = new short[passable.length];
+        Arrays.fill(dist, UNREACHED);
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        dist[source] = 0;
+        while (head < tail) {
+            final int i = queue[head++];
+            final short di = (short)Math.min(dist[i] + 1, Short.MAX_VALUE);
+            for (Direction d : DIRECTIONS) {
+                final int j = map.getAdjacentIndex(i, d);
+                if (j >= 0 && passable[j] && dist[j] == UNREACHED) {
+                    dist[j] = di;
+                    queue[tail++] = j;
+                }
+            }
+        }
+        return dist;
+    }
+}
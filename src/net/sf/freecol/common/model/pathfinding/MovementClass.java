@@ -0,0 +1,84 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.TileItemContainer;
+import net.sf.freecol.common.model.Unit;
+
+
+/**
+ * The broad classes of unit movement used by the unit-independent
+ * path finding structures (long range graphs and distance fields).
+ *
+ * These only consider terrain, not units or settlement ownership,
+ * so any answers derived from them are estimates.
+ */
+public enum MovementClass {
+    LAND,
+    NAVAL;
+
+
+    /**
+     * Get the movement class of a unit.
+     *
+     * @param unit The {@code Unit} to check.
+     * @return The {@code MovementClass} of the unit.
+     */
+    public static MovementClass of(Unit unit) {
+        return (unit.isNaval()) ? NAVAL : LAND;
+    }
+
+    /**
+     * Is a tile passable in this movement class?
+     *
+     * @param tile The {@code Tile} to test.
+     * @return True if the tile is passable.
+     */
+    public boolean isPassable(Tile tile) {
+        if (tile == null || !tile.isExplored()) return false;
+        switch (this) {
+        case LAND:
+            return tile.isLand();
+        case NAVAL:
+            return !tile.isLand()
+                || (tile.hasSettlement() && tile.isCoastland());
+        default:
+            break;
+        }
+        return false;
+    }
+
+    /**
+     * Get the basic cost of moving between adjacent passable tiles.
+     *
+     * @param from The {@code Tile} to move from.
+     * @param to The {@code Tile} to move to.
+     * @return The move cost.
+     */
+    public int getMoveCost(Tile from, Tile to) {
+        int cost = to.getType().getBasicMoveCost();
+        if (this == LAND) {
+            TileItemContainer tic = to.getTileItemContainer();
+            if (tic != null) cost = tic.getMoveCost(from, to, cost);
+        }
+        return Math.max(1, cost);
+    }
+}
@@ -0,0 +1,452 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.PathNode;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Role;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.UnitType;
+import static net.sf.freecol.common.model.Constants.*;
+
+
+/**
+ * A per-turn cache of path search results.
+ *
+ * The AI asks many near-identical path questions each turn, typically
+ * for several units of the same type starting from the same place.
+ * Results are keyed on everything about the searching unit that the
+ * search depends upon (type, role, owner, moves left, any carrier),
+ * the start and end of the search and the cost decider used.
+ *
+ * The map publishes a journal of tile changes (terrain, settlements,
+ * ownership, tile items and unit occupancy) to the cache, each change
+ * advancing the mutation epoch.  A cached path to a fixed destination
+ * is still valid if none of the changes since it was found lie within
+ * one tile of its bounding box.  Failed searches are only reused while
+ * the epoch is unchanged, as any change might open a path, and so are
+ * goal driven searches, as their best goal depends on tiles away from
+ * the path found.  The whole cache is dropped when the turn changes.
+ */
+public final class PathCache {
+
+    private static final Logger logger = Logger.getLogger(PathCache.class.getName());
+
+    /** The size of the change journal, must be a power of two. */
+    private static final int JOURNAL_SIZE = 1024;
+
+    /** The maximum number of cached results. */
+    private static final int MAX_ENTRIES = 4096;
+
+    /** Placeholder for a cached failed search. */
+    private static final PathNode NO_PATH
+        = new PathNode(null, 0, INFINITY, false, null, null);
+
+    /**
+     * The key for a cached search.
+     */
+    public static final class Key {
+
+        private final UnitType unitType;
+        private final Role role;
+        private final Player owner;
+        private final int movesLeft;
+        private final Location start;
+        private final Object end;
+        private final UnitType carrierType;
+        private final int carrierMovesLeft;
+        private final Object costDecider;
+        private final boolean goalDriven;
+
+
+        /**
+         * Create a new key for a search to a destination.
+         *
+         * @param unit The {@code Unit} that is searching.
+         * @param start The {@code Location} the search starts from.
+         * @param end The destination {@code Location}.
+         * @param carrier An optional carrier {@code Unit}.
+         * @param costDecider The {@code CostDecider} used.
+         */
+        public Key(Unit unit, Location start, Location end, Unit carrier,
+                   CostDecider costDecider) {
+            this(unit, start, end, carrier, costDecider, false);
+        }
+
+        /**
+         * Create a new key.
+         *
+         * @param unit The {@code Unit} that is searching.
+         * @param start The {@code Location} the search starts from.
+         * @param end The destination {@code Location}, or some other
+         *     object identifying the goal of the search.
+         * @param carrier An optional carrier {@code Unit}.
+         * @param costDecider The {@code CostDecider} used.
+         * @param goalDriven True if the search is for the best goal
+         *     rather than to a fixed destination.
+         */
+        public Key(Unit unit, Location start, Object end, Unit carrier,
+                   CostDecider costDecider, boolean goalDriven) {
+            this.unitType = unit.getType();
+            this.role = unit.getRole();
+            this.owner = unit.getOwner();
+            this.movesLeft = unit.getMovesLeft();
+            this.start = start;
+            this.end = end;
+            this.carrierType = (carrier == null) ? null : carrier.getType();
+            this.carrierMovesLeft = (carrier == null) ? 0
+                : carrier.getMovesLeft();
+            this.costDecider = CostDeciders.getCacheKey(costDecider);
+            this.goalDriven = goalDriven;
+        }
+
+
+        // Override Object
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o instanceof Key) {
+                Key k = (Key)o;
+                return this.unitType == k.unitType
+                    && this.role == k.role
+                    && this.owner == k.owner
+                    && this.movesLeft == k.movesLeft
+                    && this.start == k.start
+                    && Objects.equals(this.end, k.end)
+                    && this.carrierType == k.carrierType
+                    && this.carrierMovesLeft == k.carrierMovesLeft
+                    && Objects.equals(this.costDecider, k.costDecider)
+                    && this.goalDriven == k.goalDriven;
+            }
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(unitType);
+            hash = 31 * hash + System.identityHashCode(role);
+            hash = 31 * hash + System.identityHashCode(owner);
+            hash = 31 * hash + movesLeft;
+            hash = 31 * hash + System.identityHashCode(start);
+            hash = 31 * hash + Objects.hashCode(end);
+            hash = 31 * hash + System.identityHashCode(carrierType);
+            hash = 31 * hash + carrierMovesLeft;
+            return 31 * hash + Objects.hashCode(costDecider);
+        }
+    }
+
+    /** A cached result. */
+    private static final class Entry {
+
+        /** The path found, or NO_PATH. */
+        public final PathNode path;
+
+        /** The epoch at which the search was started. */
+        public final long epoch;
+
+        /** Was the search goal driven? */
+        public final boolean goalDriven;
+
+        /** The bounding box of the path tiles, grown by one. */
+        public final int minX, minY, maxX, maxY;
+
+        /**
+         * Create a new entry.
+         *
+         * @param path The path found.
+         * @param epoch The epoch the search started at.
+         * @param goalDriven True if the search was goal driven.
+         */
+        public Entry(PathNode path, long epoch, boolean goalDriven) {
+            this.path = path;
+            this.epoch = epoch;
+            this.goalDriven = goalDriven;
+            int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE,
+                x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+            for (PathNode p = path; p != null; p = p.next) {
+                Tile t = p.getTile();
+                if (t == null) continue;
+                x0 = Math.min(x0, t.getX()); x1 = Math.max(x1, t.getX());
+                y0 = Math.min(y0, t.getY()); y1 = Math.max(y1, t.getY());
+            }
+            this.minX = x0 - 1;
+            this.minY = y0 - 1;
+            this.maxX = (x1 == Integer.MIN_VALUE) ? x1 : x1 + 1;
+            this.maxY = (y1 == Integer.MIN_VALUE) ? y1 : y1 + 1;
+        }
+
+        /**
+         * Is a position within the bounding box of this entry?
+         *
+         * @param x The x-coordinate.
+         * @param y The y-coordinate.
+         * @return True if the position is affected.
+         */
+        public boolean covers(int x, int y) {
+            return minX <= x && x <= maxX && minY <= y && y <= maxY;
+        }
+    }
+
+    /** The cached results, in access order. */
+    private final LinkedHashMap<Key, Entry> entries
+        = new LinkedHashMap<Key, Entry>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(java.util.Map.Entry<Key, Entry> e) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    /** The current mutation epoch. */
+    private long epoch = 0L;
+
+    /** The changed tile coordinates, indexed by epoch. */
+    private final int[] journalX = new int[JOURNAL_SIZE];
+    private final int[] journalY = new int[JOURNAL_SIZE];
+
+    /** The turn the cached results belong to. */
+    private int turn = -1;
+
+    /** Statistics for the current turn. */
+    private int hits = 0, misses = 0, stale = 0;
+
+
+    /**
+     * Create a new path cache.
+     */
+    public PathCache() {}
+
+
+    /**
+     * Get the current mutation epoch.
+     *
+     * @return The epoch.
+     */
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Record a change to a tile in the journal.
+     *
+     * @param tile The {@code Tile} that changed.
+     */
+    public synchronized void noteChange(Tile tile) {
+        epoch++;
+        final int i = (int)(epoch & (JOURNAL_SIZE - 1));
+        journalX[i] = tile.getX();
+        journalY[i] = tile.getY();
+    }
+
+    /**
+     * Get the tiles changed since a given epoch.
+     *
+     * @param since The epoch to start from.
+     * @param map The {@code Map} the journal refers to.
+     * @return A list of the changed {@code Tile}s, possibly with
+     *     repeats, or null if the journal no longer reaches back to
+     *     the given epoch.
+     */
+    public synchronized List<Tile> getChangesSince(long since, Map map) {
+        if (epoch - since >= JOURNAL_SIZE || since > epoch) return null;
+        List<Tile> ret = new ArrayList<>();
+        for (long t = since + 1; t <= epoch; t++) {
+            final int i = (int)(t & (JOURNAL_SIZE - 1));
+            Tile tile = map.getTile(journalX[i], journalY[i]);
+            if (tile != null) ret.add(tile);
+        }
+        return ret;
+    }
+
+    /**
+     * Get a copy of a path, searching for it if it is not cached.
+     *
+     * @param key The {@code Key} for the search.
+     * @param turn The current turn number.
+     * @param search A {@code Supplier} that performs the search.
+     * @return A new copy of the path found, or null if none.
+     */
+    public PathNode getPath(Key key, int turn, Supplier<PathNode> search) {
+        PathNode path = lookup(key, turn, search);
+        return (path == NO_PATH) ? null : copyPath(path);
+    }
+
+    /**
+     * Get the total turns of a path, searching for it if it is not cached.
+     *
+     * @param key The {@code Key} for the search.
+     * @param turn The current turn number.
+     * @param search A {@code Supplier} that performs the search.
+     * @return The number of turns the path takes, or {@code INFINITY}
+     *     if no path is found.
+     */
+    public int getTotalTurns(Key key, int turn, Supplier<PathNode> search) {
+        PathNode path = lookup(key, turn, search);
+        return (path == NO_PATH) ? INFINITY : path.getTotalTurns();
+    }
+
+    /**
+     * Find a cached result or search for it and cache it.
+     *
+     * The search is run without holding the lock, as searches can
+     * themselves make further cached queries.
+     *
+     * @param key The {@code Key} for the search.
+     * @param turn The current turn number.
+     * @param search A {@code Supplier} that performs the search.
+     * @return The path, or {@code NO_PATH} if none found.
+     */
+    private PathNode lookup(Key key, int turn, Supplier<PathNode> search) {
+        final long startEpoch;
+        synchronized (this) {
+            if (turn != this.turn) newTurn(turn);
+            Entry e = entries.get(key);
+            if (e != null) {
+                if (isValid(e)) {
+                    hits++;
+                    return e.path;
+                }
+                entries.remove(key);
+                stale++;
+            }
+            misses++;
+            startEpoch = epoch;
+        }
+        PathNode path = search.get();
+        if (path == null) path = NO_PATH;
+        synchronized (this) {
+            if (turn == this.turn) {
+                entries.put(key, new Entry(copyPath(path), startEpoch,
+                                           key.goalDriven));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Is a cached entry still valid?
+     *
+     * @param e The {@code Entry} to check.
+     * @return True if no journalled change since the entry was made
+     *     can affect it.
+     */
+    private boolean isValid(Entry e) {
+        if (e.epoch == epoch) return true;
+        if (e.path == NO_PATH || e.goalDriven
+            || epoch - e.epoch >= JOURNAL_SIZE) return false;
+        for (long t = e.epoch + 1; t <= epoch; t++) {
+            final int i = (int)(t & (JOURNAL_SIZE - 1));
+            if (e.covers(journalX[i], journalY[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drop the cached results at the start of a new turn, logging
+     * the statistics for the previous one.
+     *
+     * @param turn The new turn number.
+     */
+    private void newTurn(int turn) {
+        if (this.turn >= 0 && hits + misses > 0
+            && logger.isLoggable(Level.FINE)) {
+            logger.fine("Path cache turn " + this.turn + ": " + this);
+        }
+        entries.clear();
+        this.turn = turn;
+        hits = misses = stale = 0;
+    }
+
+    /**
+     * Get the number of searches avoided this turn.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of searches performed this turn.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the proportion of queries answered from the cache this turn.
+     *
+     * @return The hit rate, between zero and one.
+     */
+    public synchronized float getHitRate() {
+        return (hits + misses == 0) ? 0.0f : (float)hits / (hits + misses);
+    }
+
+    /**
+     * Copy a path.
+     *
+     * @param path The first {@code PathNode} of the path to copy.
+     * @return A copy of the path.
+     */
+    private static PathNode copyPath(PathNode path) {
+        if (path == NO_PATH) return path;
+        PathNode first = null, prev = null;
+        for (PathNode p = path; p != null; p = p.next) {
+            PathNode n = new PathNode(p.getLocation(), p.getMovesLeft(),
+                                      p.getTurns(), p.isOnCarrier(),
+                                      prev, null);
+            if (prev == null) first = n; else prev.next = n;
+            prev = n;
+        }
+        return first;
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString() {
+        return "[PathCache hits=" + hits + " misses=" + misses
+            + " stale=" + stale + " rate=" + (int)(100 * getHitRate())
+            + "% size=" + entries.size() + " epoch=" + epoch + "]";
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.PathNode;
+import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.Unit;
+
+
+/**
+ * A path to a destination that is kept for a unit from turn to turn,
+ * and repaired rather than replanned when the map changes.
+ *
+ * The plan records the mutation epoch of the map path cache journal
+ * when it was made.  When the path is next wanted it is trimmed to the
+ * current location of the unit, and the journal is consulted for the
+ * tiles changed since.  If none of them lie on the rest of the path,
+ * it is reused as is.  Otherwise only the damaged section is searched
+ * again, from the last intact node before the first changed tile to
+ * the first intact node after the last one, and the new section is
+ * spliced in.  A full search is made when the destination changes,
+ * when the journal has overflowed, when the damage reaches the end of
+ * the path, or when the repair search fails.
+ *
+ * Only paths that stay on the map without a carrier are repaired,
+ * other paths are always found afresh.  The turn and moves left
+ * values in a repaired path are not updated, so it is only suitable
+ * for following, and a repaired path may be longer than a fresh one
+ * when a change elsewhere has opened a shortcut.
+ */
+public final class PathPlan {
+
+    private static final Logger logger = Logger.getLogger(PathPlan.class.getName());
+
+    /** The unit the plan is for. */
+    private final Unit unit;
+
+    /** The destination of the current path. */
+    private Location destination = null;
+
+    /** The current path, or null if none. */
+    private PathNode path = null;
+
+    /** The journal epoch when the path was last checked. */
+    private long epoch = -1L;
+
+    /** Statistics. */
+    private int reused = 0, repaired = 0, replanned = 0;
+
+
+    /**
+     * Create a new path plan.
+     *
+     * @param unit The {@code Unit} to plan for.
+     */
+    public PathPlan(Unit unit) {
+        this.unit = unit;
+    }
+
+
+    /**
+     * Get the unit this plan is for.
+     *
+     * @return The {@code Unit}.
+     */
+    public Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Get the number of times the path was reused unchanged.
+     *
+     * @return The reuse count.
+     */
+    public int getReused() {
+        return reused;
+    }
+
+    /**
+     * Get the number of times the path was repaired.
+     *
+     * @return The repair count.
+     */
+    public int getRepaired() {
+        return repaired;
+    }
+
+    /**
+     * Get the number of times the path was found afresh.
+     *
+     * @return The replan count.
+     */
+    public int getReplanned() {
+        return replanned;
+    }
+
+    /**
+     * Forget the current path.
+     */
+    public void clear() {
+        this.destination = null;
+        this.path = null;
+    }
+
+    /**
+     * Get a path from the current location of the unit to a destination,
+     * reusing or repairing the previous path where possible.
+     *
+     * @param destination The destination {@code Location}.
+     * @return A path starting at the unit location, or null if none found.
+     */
+    public PathNode getPath(Location destination) {
+        final Map map = unit.getGame().getMap();
+        final PathCache cache = map.getPathCache();
+        final long now = cache.getEpoch();
+
+        PathNode p = (destination == this.destination) ? trim(path) : null;
+        if (p != null) {
+            final List<Tile> changes = cache.getChangesSince(epoch, map);
+            p = (changes == null) ? null : repair(p, changes);
+        }
+        if (p == null) {
+            p = unit.findPath(destination);
+            replanned++;
+        }
+        this.destination = destination;
+        this.path = p;
+        this.epoch = now;
+        return p;
+    }
+
+    /**
+     * Can a path be repaired?
+     *
+     * @param path The {@code PathNode} to check.
+     * @return True if the path is all on map tiles and uses no carrier.
+     */
+    private static boolean isRepairable(PathNode path) {
+        for (PathNode p = path; p != null; p = p.next) {
+            if (!(p.getLocation() instanceof Tile) || p.isOnCarrier()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trim a path to start at the current location of the unit.
+     *
+     * @param path The {@code PathNode} to trim.
+     * @return The node for the unit location, or null if the path is
+     *     not repairable or the unit has left it.
+     */
+    private PathNode trim(PathNode path) {
+        if (path == null || !unit.hasTile() || !isRepairable(path)) {
+            return null;
+        }
+        final Tile tile = unit.getTile();
+        for (PathNode p = path; p != null; p = p.next) {
+            if (p.getTile() == tile) return p;
+        }
+        return null;
+    }
+
+    /**
+     * Repair a path following changes to the map.
+     *
+     * @param path The path to repair, starting at the unit location.
+     * @param changes The {@code Tile}s that have changed.
+     * @return The repaired path, or null if a full search is needed.
+     */
+    private PathNode repair(PathNode path, List<Tile> changes) {
+        final Set<Tile> changed = new HashSet<>(changes);
+        // The unit location itself is expected to have changed.
+        PathNode first = null, last = null;
+        for (PathNode p = path.next; p != null; p = p.next) {
+            if (changed.contains(p.getTile())) {
+                if (first == null) first = p;
+                last = p;
+            }
+        }
+        if (first == null) {
+            reused++;
+            return path;
+        }
+        final PathNode from = first.previous, to = last.next;
+        if (to == null) return null;
+
+        final PathNode section = unit.findPath(from.getTile(), to.getTile(),
+                                               null, null, null);
+        if (section == null || !isRepairable(section)) {
+            logger.fine("Repair failed for " + unit + " at " + first);
+            return null;
+        }
+        // Splice the inner nodes of the new section between the
+        // intact nodes either side of the damage.
+        final PathNode end = section.getLastNode();
+        if (section.next == end) {
+            from.next = to;
+            to.previous = from;
+        } else {
+            from.next = section.next;
+            section.next.previous = from;
+            end.previous.next = to;
+            to.previous = end.previous;
+        }
+        repaired++;
+        return path;
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[PathPlan " + unit.getId() + " -> " + destination
+            + " reused=" + reused + " repaired=" + repaired
+            + " replanned=" + replanned + "]";
+    }
+}
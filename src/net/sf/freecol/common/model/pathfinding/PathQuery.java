@@ -0,0 +1,192 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.function.Supplier;
+
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.PathNode;
+import net.sf.freecol.common.model.Unit;
+
+
+/**
+ * A single path finding request, either for a path to a known
+ * destination ({@link Unit#findPath}) or for a goal driven search
+ * ({@link Unit#search}), so that requests can be collected and run
+ * together with {@link net.sf.freecol.common.model.Map#searchAll}.
+ *
+ * A query may be marked as cached, in which case its result is shared
+ * with other similar queries through the map path cache.
+ *
+ * Most cost deciders keep the result of the last move they costed,
+ * so a query holds a supplier of its cost decider, which is only
+ * called on the thread that runs the search.
+ */
+public final class PathQuery {
+
+    /** The unit to find a path for. */
+    private final Unit unit;
+
+    /** The location to start at. */
+    private final Location start;
+
+    /** The destination for a path query. */
+    private final Location end;
+
+    /** The goal decider for a search query. */
+    private final GoalDecider goalDecider;
+
+    /** An optional carrier to use. */
+    private final Unit carrier;
+
+    /** The supplier of the cost decider to use, null for the default. */
+    private final Supplier<? extends CostDecider> costDecider;
+
+    /** The maximum turns for a search query. */
+    private final int maxTurns;
+
+    /** Identification of the goal for cached queries, null if not cached. */
+    private Object goal = null;
+
+
+    /**
+     * Private constructor, use {@link #path} or {@link #search}.
+     *
+     * @param unit The {@code Unit} to find a path for.
+     * @param start The {@code Location} to start at.
+     * @param end The destination {@code Location}, or null.
+     * @param goalDecider The {@code GoalDecider}, or null.
+     * @param carrier An optional carrier {@code Unit}.
+     * @param costDecider An optional supplier of the {@code CostDecider}.
+     * @param maxTurns The maximum turns to search.
+     */
+    private PathQuery(Unit unit, Location start, Location end,
+                      GoalDecider goalDecider, Unit carrier,
+                      Supplier<? extends CostDecider> costDecider,
+                      int maxTurns) {
+        this.unit = unit;
+        this.start = start;
+        this.end = end;
+        this.goalDecider = goalDecider;
+        this.carrier = carrier;
+        this.costDecider = costDecider;
+        this.maxTurns = maxTurns;
+    }
+
+
+    /**
+     * Create a query for a path to a destination.
+     *
+     * @param unit The {@code Unit} to find a path for.
+     * @param start The {@code Location} to start at.
+     * @param end The destination {@code Location}.
+     * @param carrier An optional carrier {@code Unit}.
+     * @param costDecider An optional supplier of the {@code CostDecider}.
+     * @return A new {@code PathQuery}.
+     */
+    public static PathQuery path(Unit unit, Location start, Location end,
+                                 Unit carrier,
+                                 Supplier<? extends CostDecider> costDecider) {
+        return new PathQuery(unit, start, end, null, carrier, costDecider,
+                             Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a query for a goal driven search.
+     *
+     * @param unit The {@code Unit} to search for.
+     * @param start The {@code Location} to start at.
+     * @param goalDecider The {@code GoalDecider} to select the goal.
+     * @param costDecider An optional supplier of the {@code CostDecider}.
+     * @param maxTurns The maximum turns to search.
+     * @param carrier An optional carrier {@code Unit}.
+     * @return A new {@code PathQuery}.
+     */
+    public static PathQuery search(Unit unit, Location start,
+                                   GoalDecider goalDecider,
+                                   Supplier<? extends CostDecider> costDecider,
+                                   int maxTurns, Unit carrier) {
+        return new PathQuery(unit, start, null, goalDecider, carrier,
+                             costDecider, maxTurns);
+    }
+
+    /**
+     * Share the result of this query through the map path cache.
+     *
+     * @param goal An object identifying the goal of the query,
+     *     including any parameters that affect the result.  Path
+     *     queries may pass null to use their destination.
+     * @return This query.
+     */
+    public PathQuery cached(Object goal) {
+        this.goal = (goal != null) ? goal : end;
+        return this;
+    }
+
+    /**
+     * Get the unit this query is for.
+     *
+     * @return The {@code Unit}.
+     */
+    public Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Run this query.
+     *
+     * @return The path found, or null if none.
+     */
+    public PathNode run() {
+        final CostDecider cd = (costDecider == null) ? null
+            : costDecider.get();
+        if (goal == null) return find(cd);
+        final Game game = unit.getGame();
+        return game.getMap().getPathCache()
+            .getPath(new PathCache.Key(unit, start, goal, carrier,
+                                       cd, goalDecider != null),
+                     game.getTurn().getNumber(), () -> find(cd));
+    }
+
+    /**
+     * Perform the search.
+     *
+     * @param cd The {@code CostDecider} to use, null for the default.
+     * @return The path found, or null if none.
+     */
+    private PathNode find(CostDecider cd) {
+        return (goalDecider == null)
+            ? unit.findPath(start, end, carrier, cd, null)
+            : unit.search(start, goalDecider, cd, maxTurns, carrier);
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[PathQuery " + unit.getId() + " " + start + " -> "
+            + ((goalDecider == null) ? end : goalDecider) + "]";
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model.pathfinding;
+
+import java.util.Arrays;
+
+import net.sf.freecol.common.model.PathNode;
+
+
+/**
+ * Reusable working storage for the map search routines.
+ *
+ * All per-tile search state is held in primitive arrays indexed by
+ * the dense tile index (y * width + x) of the map being searched.
+ * A generation stamp is bumped on each acquisition, and any index
+ * whose stamp does not match the current generation is considered to
+ * be untouched, so the arrays never need to be cleared between
+ * searches.
+ *
+ * The open list is a binary heap of tile indices ordered by the
+ * f-value array.  It deliberately uses exactly the same sift
+ * operations as {@code java.util.PriorityQueue} so that ties are
+ * broken in the same order as the previous object-based search.
+ *
+ * Instances are cached per-thread.  A search that is started while
+ * another search on the same thread is still running (for example,
+ * from within a goal decider) is given a fresh private instance.
+ */
+public final class SearchState {
+
+    /** Node states. */
+    public static final byte NONE = 0, OPEN = 1, CLOSED = 2;
+
+    /** The per-thread cached search state. */
+    private static final ThreadLocal<SearchState> cache
+        = ThreadLocal.withInitial(SearchState::new);
+
+    /** The current generation. */
+    private int generation = 0;
+
+    /** Is this state currently in use? */
+    private boolean inUse = false;
+
+    /** The generation stamp for each tile index. */
+    private int[] stamp = new int[0];
+
+    /** The node state for each tile index. */
+    private byte[] state = new byte[0];
+
+    /** The f-value (cost plus heuristic) for each tile index. */
+    private int[] f = new int[0];
+
+    /** The turns taken to reach each tile index. */
+    private int[] turns = new int[0];
+
+    /** The moves left on reaching each tile index. */
+    private int[] movesLeft = new int[0];
+
+    /** Whether each tile index is reached on a carrier. */
+    private boolean[] onCarrier = new boolean[0];
+
+    /** The settled node that each tile index was reached from. */
+    private PathNode[] previous = new PathNode[0];
+
+    /** A general purpose back link (index) for each tile index. */
+    private int[] link = new int[0];
+
+    /** The position of each tile index in the heap, or -1. */
+    private int[] heapPos = new int[0];
+
+    /** The open list heap, holding tile indices. */
+    private int[] heap = new int[0];
+
+    /** The number of entries in the heap. */
+    private int size = 0;
+
+    /** The number of indices polled in this generation. */
+    private int expanded = 0;
+
+    /** The indices touched in this generation. */
+    private int[] touched = new int[0];
+
+    /** The number of touched indices. */
+    private int touchedCount = 0;
+
+
+    /**
+     * Private constructor, use {@link #acquire}.
+     */
+    private SearchState() {}
+
+
+    /**
+     * Acquire a search state for a map with the given number of tiles.
+     *
+     * @param n The number of tile indices required.
+     * @return A {@code SearchState} ready for use.
+     */
+    public static SearchState acquire(int n) {
+        SearchState ss = cache.get();
+        if (ss.inUse) ss = new SearchState(); // Reentrant search
+        ss.reset(n);
+        ss.inUse = true;
+        return ss;
+    }
+
+    /**
+     * Release this search state for reuse by a later search.
+     *
+     * Node references are dropped so that the cache does not retain
+     * old paths (and thus old games).
+     */
+    public void release() {
+        for (int i = 0; i < touchedCount; i++) previous[touched[i]] = null;
+        touchedCount = 0;
+        size = 0;
+        inUse = false;
+    }
+
+    /**
+     * Prepare for a new search.
+     *
+     * @param n The number of tile indices required.
+     */
+    private void reset(int n) {
+        if (stamp.length < n) {
+            stamp = new int[n];
+            state = new byte[n];
+            f = new int[n];
+            turns = new int[n];
+            movesLeft = new int[n];
+            onCarrier = new boolean[n];
+            previous = new PathNode[n];
+            link = new int[n];
+            heapPos = new int[n];
+            heap = new int[Math.min(n, 1024)];
+            touched = new int[Math.min(n, 1024)];
+            generation = 0;
+        }
+        if (++generation == 0) { // Wrapped, really clear
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        size = 0;
+        touchedCount = 0;
+        expanded = 0;
+    }
+
+    /**
+     * Get the state of a tile index.
+     *
+     * @param i The tile index.
+     * @return The node state, {@link #NONE} if not yet seen.
+     */
+    public byte getState(int i) {
+        return (stamp[i] == generation) ? state[i] : NONE;
+    }
+
+    /**
+     * Set the state of a tile index.
+     *
+     * @param i The tile index.
+     * @param s The new node state.
+     */
+    public void setState(int i, byte s) {
+        touch(i);
+        state[i] = s;
+    }
+
+    /**
+     * Get the turns value for a tile index.
+     *
+     * @param i The tile index.
+     * @return The turns taken to reach the tile.
+     */
+    public int getTurns(int i) {
+        return turns[i];
+    }
+
+    /**
+     * Get the moves left value for a tile index.
+     *
+     * @param i The tile index.
+     * @return The moves left on reaching the tile.
+     */
+    public int getMovesLeft(int i) {
+        return movesLeft[i];
+    }
+
+    /**
+     * Is a tile index reached on a carrier?
+     *
+     * @param i The tile index.
+     * @return True if the tile is reached on a carrier.
+     */
+    public boolean isOnCarrier(int i) {
+        return onCarrier[i];
+    }
+
+    /**
+     * Get the settled node a tile index was reached from.
+     *
+     * @param i The tile index.
+     * @return The previous {@code PathNode}, or null for the start.
+     */
+    public PathNode getPrevious(int i) {
+        return previous[i];
+    }
+
+    /**
+     * Get the cost of reaching a tile index.
+     *
+     * @param i The tile index.
+     * @return The node cost.
+     */
+    public int getCost(int i) {
+        return PathNode.getNodeCost(turns[i], movesLeft[i]);
+    }
+
+    /**
+     * Record the values for a tile index.
+     *
+     * @param i The tile index.
+     * @param fValue The f-value.
+     * @param t The turns taken.
+     * @param ml The moves left.
+     * @param carrier True if on a carrier.
+     * @param prev The settled {@code PathNode} this index was reached from.
+     */
+    public void set(int i, int fValue, int t, int ml, boolean carrier,
+                    PathNode prev) {
+        touch(i);
+        f[i] = fValue;
+        turns[i] = t;
+        movesLeft[i] = ml;
+        onCarrier[i] = carrier;
+        previous[i] = prev;
+    }
+
+    /**
+     * Get the back link for a tile index.
+     *
+     * @param i The tile index.
+     * @return The linked index, as set by {@link #setLink}.
+     */
+    public int getLink(int i) {
+        return link[i];
+    }
+
+    /**
+     * Set the f-value and back link for a tile index, for searches
+     * over graphs that do not need {@code PathNode}s.
+     *
+     * @param i The tile index.
+     * @param fValue The f-value.
+     * @param g The cost so far.
+     * @param l The linked index.
+     */
+    public void setLink(int i, int fValue, int g, int l) {
+        touch(i);
+        f[i] = fValue;
+        turns[i] = g;
+        link[i] = l;
+    }
+
+    /**
+     * Mark an index as touched in the current generation.
+     *
+     * @param i The tile index.
+     */
+    private void touch(int i) {
+        if (stamp[i] == generation) return;
+        stamp[i] = generation;
+        state[i] = NONE;
+        heapPos[i] = -1;
+        if (touchedCount >= touched.length) {
+            touched = Arrays.copyOf(touched, 2 * touched.length + 1);
+        }
+        touched[touchedCount++] = i;
+    }
+
+    // Heap routines, following java.util.PriorityQueue
+
+    /**
+     * Is the open list empty?
+     *
+     * @return True if there are no open nodes.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of indices removed from the open list by
+     * {@link #poll} since this state was acquired.
+     *
+     * @return The number of nodes expanded.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Add a tile index to the open list.  Its f-value must already be set.
+     *
+     * @param i The tile index.
+     */
+    public void offer(int i) {
+        if (size >= heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heap.length + 1);
+        }
+        siftUp(size++, i);
+    }
+
+    /**
+     * Remove and return the open tile index with the lowest f-value.
+     *
+     * @return The tile index.
+     */
+    public int poll() {
+        expanded++;
+        final int result = heap[0];
+        heapPos[result] = -1;
+        final int n = --size;
+        if (n > 0) siftDown(0, heap[n]);
+        return result;
+    }
+
+    /**
+     * Remove a tile index from the open list if present.
+     *
+     * @param i The tile index.
+     */
+    public void remove(int i) {
+        if (stamp[i] != generation) return;
+        final int k = heapPos[i];
+        if (k < 0) return;
+        heapPos[i] = -1;
+        final int s = --size;
+        if (s == k) return;
+        final int moved = heap[s];
+        siftDown(k, moved);
+        if (heap[k] == moved) siftUp(k, moved);
+    }
+
+    /**
+     * Sift an index up the heap.
+     *
+     * @param k The heap position to start at.
+     * @param x The tile index to place.
+     */
+    private void siftUp(int k, int x) {
+        final int fx = f[x];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            int e = heap[parent];
+            if (fx >= f[e]) break;
+            heap[k] = e;
+            heapPos[e] = k;
+            k = parent;
+        }
+        heap[k] = x;
+        heapPos[x] = k;
+    }
+
+    /**
+     * Sift an index down the heap.
+     *
+     * @param k The heap position to start at.
+     * @param x The tile index to place.
+     */
+    private void siftDown(int k, int x) {
+        final int fx = f[x];
+        final int half = size >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && f[c] > f[heap[right]]) c = heap[child = right];
+            if (fx <= f[c]) break;
+            heap[k] = c;
+            heapPos[c] = k;
+            k = child;
+        }
+        heap[k] = x;
+        heapPos[x] = k;
+    }
+}
@@ -21,10 +21,12 @@ package net.sf.freecol.common.networking;
 
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -68,6 +70,11 @@ public class ChangeSet {
     /** The changes to send. */
     private final List<Change> changes;
 
+    /** Order parts by message priority, then by the change they came from. */
+    private static final Comparator<Part> partComparator
+        = Comparator.<Part>comparingInt(p -> p.message.getPriorityLevel())
+            .thenComparingInt(p -> p.ordinal);
+
 
     /**
      * Class to control the visibility of a change.
@@ -258,6 +265,19 @@ public class ChangeSet {
             return null;
         }
 
+        /**
+         * Is the message for this Change the same for every player
+         * that is notified of it?
+         *
+         * Override in subclasses whose messages do not depend on the
+         * player.
+         *
+         * @return True if the message does not depend on the player.
+         */
+        public boolean isShared() {
+            return false;
+        }
+
         /**
          * Specialize a Change for a particular player.
          *
@@ -415,6 +435,14 @@ public class ChangeSet {
         }
 
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -476,6 +504,14 @@ public class ChangeSet {
             return check(player) == SeeCheck.VISIBLE;
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -526,6 +562,14 @@ public class ChangeSet {
         }
 
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -774,6 +818,14 @@ public class ChangeSet {
         }
 
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -1028,6 +1080,14 @@ public class ChangeSet {
         }
 
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -1056,6 +1116,30 @@ public class ChangeSet {
         }
     }
 
+    /**
+     * A message built from a change, with the position of the change.
+     */
+    private static final class Part {
+
+        /** The message. */
+        public final Message message;
+
+        /** The position of the change the message was built from. */
+        public final int ordinal;
+
+
+        /**
+         * Create a new part.
+         *
+         * @param message The {@code Message}.
+         * @param ordinal The position of the change.
+         */
+        public Part(Message message, int ordinal) {
+            this.message = message;
+            this.ordinal = ordinal;
+        }
+    }
+
     /**
      * Simple constructor.
      */
@@ -1437,6 +1521,88 @@ public class ChangeSet {
         this.changes.addAll(other.changes);
     }
 
+    /**
+     * Add the messages for a change to a player.
+     *
+     * @param c The {@code Change} to add.
+     * @param ordinal The position of the change.
+     * @param player The {@code Player} to build for.
+     * @param parts A list of {@code Part}s to add to.
+     * @param diverted A list to add trivial mergeable messages to.
+     */
+    private static void addParts(Change<?> c, int ordinal, Player player,
+                                 List<Part> parts, List<Message> diverted) {
+        if (!c.isNotifiable(player)) return;
+        Message m = c.toMessage(player);
+        if (m.canMerge()) diverted.add(m); else parts.add(new Part(m, ordinal));
+        final Change<?> cc = c.consequence(player);
+        if (cc != null) {
+            m = cc.toMessage(player);
+            if (m.canMerge()) diverted.add(m); else parts.add(new Part(m, ordinal));
+        }
+    }
+
+    /**
+     * Sort parts by priority and merge them where possible.
+     *
+     * @param parts The list of {@code Part}s to merge.
+     * @return A list of the merged parts.
+     */
+    private static List<Part> mergeParts(List<Part> parts) {
+        parts.sort(partComparator);
+        List<Part> ret = new ArrayList<>(parts.size());
+        Part head = null;
+        for (Part p : parts) {
+            if (head != null && head.message.merge(p.message)) continue;
+            ret.add(head = p);
+        }
+        return ret;
+    }
+
+    /**
+     * Splice two sorted lists of parts into one message list.
+     *
+     * Parts from different lists are not merged, as the parts of the
+     * first list may be shared with other players.
+     *
+     * @param shared The shared list of {@code Part}s.
+     * @param own The player-specific list of {@code Part}s.
+     * @return A list of the {@code Message}s in priority order.
+     */
+    private static List<Message> splice(List<Part> shared, List<Part> own) {
+        List<Message> ret = new ArrayList<>(shared.size() + own.size());
+        int i = 0, j = 0;
+        while (i < shared.size() || j < own.size()) {
+            ret.add((j >= own.size() || (i < shared.size()
+                        && partComparator.compare(shared.get(i),
+                                                  own.get(j)) <= 0))
+                ? shared.get(i++).message
+                : own.get(j++).message);
+        }
+        return ret;
+    }
+
+    /**
+     * Collapse messages into one.
+     *
+     * @param messages The list of {@code Message}s to collapse.
+     * @param diverted The trivial mergeable messages to merge in.
+     * @return The collapsed {@code Message}, or null if there is
+     *     nothing to report.
+     */
+    private static Message collapse(List<Message> messages,
+                                    List<Message> diverted) {
+        MultipleMessage mm = new MultipleMessage(messages);
+        mm.setMergeable(true);
+            
+        // Merge in the diverted messages.
+        diverted.sort(Message.messagePriorityComparator);
+        for (Message m : diverted) mm.merge(m);
+
+        // Do not return degenerate multiple messages
+        return mm.simplify();
+    }
+
     /**
      * Build an update message.
      *
@@ -1447,48 +1613,73 @@ public class ChangeSet {
     public Message build(Player player) {
         if (this.changes.isEmpty()) return null;
 
-        // Convert eligible changes to messages and sort by priority,
-        // splitting out trivial mergeable attribute changes.
-        List<Message> messages = new ArrayList<>();
+        // Convert eligible changes to messages, splitting out trivial
+        // mergeable attribute changes, then merge the rest by priority.
+        List<Part> parts = new ArrayList<>();
         List<Message> diverted = new ArrayList<>();
-        for (Change c : this.changes) {
-            if (!c.isNotifiable(player)) continue;
-            Message m = c.toMessage(player);
-            List<Message> onto = (m.canMerge()) ? diverted : messages;
-            onto.add(m);
-            if ((c = c.consequence(player)) != null) {
-                m = c.toMessage(player);
-                onto = (m.canMerge()) ? diverted : messages;
-                onto.add(m);
+        for (int i = 0; i < this.changes.size(); i++) {
+            addParts(this.changes.get(i), i, player, parts, diverted);
+        }
+        return collapse(transform(mergeParts(parts), alwaysTrue(),
+                                  p -> p.message), diverted);
+    }
+
+    /**
+     * Build update messages for several players.
+     *
+     * Players that are notified of the same shared changes, those
+     * whose message does not depend on the player, fall into one
+     * visibility class.  The shared changes are built and merged once
+     * for each class, and only the player-specific changes are built
+     * for each player and spliced in around them by priority.  The
+     * players of a class therefore receive the same shared message
+     * instances.
+     *
+     * @param players The list of {@code Player}s to send the update to.
+     * @return A map of each player to its update {@code Message}.
+     *     Players with nothing to report are absent.
+     */
+    public Map<Player, Message> build(List<? extends Player> players) {
+        final Map<Player, Message> ret = new LinkedHashMap<>();
+        if (this.changes.isEmpty()) return ret;
+
+        // Partition the players by the shared changes they see.
+        final int n = this.changes.size();
+        final Map<BitSet, List<Player>> classes = new LinkedHashMap<>();
+        for (Player p : players) {
+            BitSet key = new BitSet(n);
+            for (int i = 0; i < n; i++) {
+                Change<?> c = this.changes.get(i);
+                if (c.isShared() && c.isNotifiable(p)) key.set(i);
             }
+            appendToMapList(classes, key, p);
         }
-        messages.sort(Message.messagePriorityComparator);
-        diverted.sort(Message.messagePriorityComparator);
-            
-        // Merge the messages where possible
-        if (messages.size() > 1) {
-            List<Message> more = new ArrayList<>();
-            Message head = messages.remove(0);
-            while (!messages.isEmpty()) {
-                Message m = messages.remove(0);
-                if (!head.merge(m)) {
-                    more.add(head);
-                    head = m;
+
+        for (Entry<BitSet, List<Player>> e : classes.entrySet()) {
+            // Build the shared part of the class once.
+            final BitSet key = e.getKey();
+            final Player first = e.getValue().get(0);
+            List<Part> shared = new ArrayList<>();
+            List<Message> sharedDiverted = new ArrayList<>();
+            for (int i = key.nextSetBit(0); i >= 0; i = key.nextSetBit(i+1)) {
+                addParts(this.changes.get(i), i, first, shared, sharedDiverted);
+            }
+            shared = mergeParts(shared);
+
+            // Add the player-specific parts of each player.
+            for (Player p : e.getValue()) {
+                List<Part> own = new ArrayList<>();
+                List<Message> diverted = new ArrayList<>(sharedDiverted);
+                for (int i = 0; i < n; i++) {
+                    Change<?> c = this.changes.get(i);
+                    if (!c.isShared()) addParts(c, i, p, own, diverted);
                 }
+                Message m = collapse(splice(shared, mergeParts(own)),
+                                     diverted);
+                if (m != null) ret.put(p, m);
             }
-            more.add(head);
-            messages = more;
         }
-
-        // Collapse to one message
-        MultipleMessage mm = new MultipleMessage(messages);
-        mm.setMergeable(true);
-            
-        // Merge in the diverted messages.
-        for (Message m : diverted) mm.merge(m);
-
-        // Do not return degenerate multiple messages
-        return mm.simplify();
+        return ret;
     }
 
 
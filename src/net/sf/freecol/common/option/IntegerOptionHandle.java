@@ -0,0 +1,49 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.freecol.common.option;
+
+import net.sf.freecol.common.model.Specification;
+
+
+/**
+ * A handle on an {@code IntegerOption}, including the percentage,
+ * selection and range options derived from it.
+ */
+public final class IntegerOptionHandle extends OptionHandle<IntegerOption> {
+
+    /**
+     * Create a new integer option handle.
+     *
+     * @param spec The {@code Specification} to resolve in.
+     * @param id The option identifier.
+     */
+    public IntegerOptionHandle(Specification spec, String id) {
+        super(spec, id, IntegerOption.class);
+    }
+
+
+    /**
+     * Get the option value.
+     *
+     * @return The integer value.
+     */
+    public int getValue() {
+        return getOption().getValue();
+    }
+}
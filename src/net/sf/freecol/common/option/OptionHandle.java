@@ -0,0 +1,103 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.freecol.common.option;
+
+import net.sf.freecol.common.model.Specification;
+
+
+/**
+ * A handle on an option of a specification, resolved once.
+ *
+ * Looking an option up by identifier hashes the identifier and checks
+ * the option class on every call.  A handle does that once and then
+ * holds on to the option itself, so reading the value is just a field
+ * access.  Value changes are seen directly as they are made to the
+ * option held.  If the specification replaces or drops options it
+ * advances its option version, and the handle resolves the option
+ * again when it is next used.
+ *
+ * @param <T> The option type.
+ */
+public abstract class OptionHandle<T extends Option<?>> {
+
+    /** The specification to resolve in. */
+    private final Specification spec;
+
+    /** The option identifier. */
+    private final String id;
+
+    /** The option class. */
+    private final Class<T> returnClass;
+
+    /** The resolved option, or null if not yet resolved. */
+    private T option = null;
+
+    /** The specification option version the option was resolved at. */
+    private volatile int version = -1;
+
+
+    /**
+     * Create a new option handle.
+     *
+     * @param spec The {@code Specification} to resolve in.
+     * @param id The option identifier.
+     * @param returnClass The option class.
+     */
+    protected OptionHandle(Specification spec, String id,
+                           Class<T> returnClass) {
+        this.spec = spec;
+        this.id = id;
+        this.returnClass = returnClass;
+    }
+
+
+    /**
+     * Get the option identifier.
+     *
+     * @return The identifier.
+     */
+    public final String getId() {
+        return this.id;
+    }
+
+    /**
+     * Get the option, resolving it if needed.
+     *
+     * @return The option.
+     */
+    public final T getOption() {
+        final int v = this.spec.getOptionVersion();
+        if (this.version != v) {
+            this.option = this.spec.getOption(this.id, this.returnClass);
+            this.version = v;
+        }
+        return this.option;
+    }
+
+
+    // Override Object
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[" + getClass().getSimpleName() + " " + this.id + "]";
+    }
+}
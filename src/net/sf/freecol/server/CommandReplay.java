@@ -0,0 +1,348 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLStreamException;
+
+import net.sf.freecol.common.FreeColException;
+import net.sf.freecol.common.io.FreeColSavegameFile;
+import net.sf.freecol.common.io.FreeColXMLWriter;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Specification;
+import net.sf.freecol.common.util.LogBuilder;
+import net.sf.freecol.common.util.Utils;
+import net.sf.freecol.server.control.CommandJournal;
+import net.sf.freecol.server.control.InGameController;
+import net.sf.freecol.server.model.ServerGame;
+import net.sf.freecol.server.model.ServerPlayer;
+import net.sf.freecol.server.networking.DummyConnection;
+
+
+/**
+ * Replays a command journal into a fresh server, as fast as it can.
+ *
+ * The server is loaded from the saved game the journal starts from,
+ * with its random state restored from the journal.  Every player
+ * connection is replaced with an inert dummy connection, so that no
+ * client or AI acts, and the players that were connected when the
+ * journal started are connected again.  Each command is then handed
+ * to the server input handler on the connection of the player that
+ * sent it, exactly as it was when recorded, and the time taken to
+ * handle it is measured by message type.
+ *
+ * The turn and current player recorded with each command are checked
+ * against the replayed game, and any mismatch is counted as a
+ * divergence.  A replay with no divergences has done the same work as
+ * the recorded game, so replays of one journal on different builds can
+ * be compared directly.
+ */
+public final class CommandReplay {
+
+    private static final Logger logger = Logger.getLogger(CommandReplay.class.getName());
+
+    /** The handling latency percentiles to report. */
+    private static final int[] PERCENTILES = { 50, 90, 99 };
+
+    /** The server to replay into. */
+    private final FreeColServer freeColServer;
+
+    /** The handling time of each command, in nanoseconds, by type. */
+    private final java.util.Map<String, List<Long>> latencies
+        = new TreeMap<>();
+
+    /** The simulation that was recorded, if any. */
+    private Simulation simulation = null;
+
+    /** The number of commands replayed. */
+    private int commands = 0;
+
+    /** The number of commands that failed. */
+    private int failures = 0;
+
+    /** The number of divergences from the recorded game. */
+    private int divergences = 0;
+
+    /** The time taken by the replay, in nanoseconds. */
+    private long elapsed = 0L;
+
+
+    /**
+     * Create a new replay.
+     *
+     * @param freeColServer The {@code FreeColServer} to replay into.
+     */
+    public CommandReplay(FreeColServer freeColServer) {
+        this.freeColServer = freeColServer;
+    }
+
+
+    /**
+     * Load the server to replay a journal into.
+     *
+     * @param playback The {@code CommandJournal.Playback} to replay.
+     * @return A new {@code FreeColServer} with the starting game.
+     * @exception FreeColException if the game can not be loaded.
+     * @exception IOException if the saved game can not be read.
+     * @exception XMLStreamException if the saved game is malformed.
+     */
+    public static FreeColServer load(CommandJournal.Playback playback)
+        throws FreeColException, IOException, XMLStreamException {
+        final File save = playback.getSavegameFile();
+        if (save == null) {
+            throw new FreeColException("Journal names no saved game");
+        }
+        FreeColServer ret = new FreeColServer(new FreeColSavegameFile(save),
+            (Specification)null, -1, "replay");
+        ret.setPublicServer(false);
+        return ret;
+    }
+
+    /**
+     * Connect a player with an inert connection.
+     *
+     * @param serverPlayer The {@code ServerPlayer} to connect.
+     */
+    private void connect(ServerPlayer serverPlayer) {
+        DummyConnection serverConnection
+            = new DummyConnection("Replay-" + serverPlayer.getSuffix());
+        serverConnection.setMessageHandler(this.freeColServer.getInputHandler());
+        serverConnection.setWriteScope(FreeColXMLWriter.WriteScope
+            .toClient(serverPlayer));
+        DummyConnection clientConnection
+            = new DummyConnection("Replay-" + serverPlayer.getSuffix()
+                + "-to-Server");
+        clientConnection.setOtherConnection(serverConnection);
+        serverConnection.setOtherConnection(clientConnection);
+        serverPlayer.setConnection(serverConnection);
+        this.freeColServer.getServer().addDummyConnection(serverConnection);
+    }
+
+    /**
+     * Prepare the server to replay a journal.
+     *
+     * @param playback The {@code CommandJournal.Playback} to replay.
+     * @exception FreeColException if the game can not be started.
+     */
+    public void prepare(CommandJournal.Playback playback)
+        throws FreeColException {
+        final ServerGame serverGame = this.freeColServer.getGame();
+        final InGameController igc = this.freeColServer.getInGameController();
+        for (Player p : serverGame.getLivePlayerList()) {
+            this.freeColServer.removePlayerConnection(p);
+        }
+        for (String id : playback.getConnected()) {
+            ServerPlayer sp = serverGame.getFreeColGameObject(id,
+                ServerPlayer.class);
+            if (sp == null) {
+                logger.warning("Replay can not connect missing player: " + id);
+            } else {
+                connect(sp);
+            }
+        }
+        if (playback.getRandomState() != null) {
+            Random random = Utils.restoreRandomState(playback.getRandomState());
+            this.freeColServer.setServerRandom(random);
+            igc.setRandom(random);
+        }
+        if (playback.getSimulate() > 0) {
+            this.simulation = new Simulation(playback.getSimulate());
+            igc.setSimulation(this.simulation);
+        }
+        this.freeColServer.startGame();
+        if (this.simulation != null) this.simulation.begin();
+    }
+
+    /**
+     * Note a divergence from the recorded game.
+     *
+     * @param entry The {@code CommandJournal.Entry} being replayed.
+     * @param what A description of the divergence.
+     */
+    private void diverge(CommandJournal.Entry entry, String what) {
+        final String msg = "Replay diverged at command " + entry.sequence
+            + " (" + entry.message.getType() + "): " + what;
+        if (this.divergences++ == 0) {
+            logger.warning(msg);
+        } else {
+            logger.fine(msg);
+        }
+    }
+
+    /**
+     * Replay one command.
+     *
+     * @param entry The {@code CommandJournal.Entry} to replay.
+     */
+    private void replay(CommandJournal.Entry entry) {
+        final ServerGame serverGame = this.freeColServer.getGame();
+        final ServerPlayer serverPlayer = (entry.playerId == null) ? null
+            : serverGame.getFreeColGameObject(entry.playerId,
+                                              ServerPlayer.class);
+        if (serverPlayer == null || serverPlayer.getConnection() == null) {
+            diverge(entry, "no connected player " + entry.playerId);
+            this.failures++;
+            return;
+        }
+
+        final Player current = serverGame.getCurrentPlayer();
+        if (entry.currentId != null && (current == null
+                || !entry.currentId.equals(current.getId()))) {
+            if (current == null) {
+                // Loaded games have no current player until a login,
+                // and logins are not commands.
+                serverGame.setCurrentPlayer(serverGame
+                    .getFreeColGameObject(entry.currentId, Player.class));
+            } else {
+                diverge(entry, "current player " + current.getId()
+                    + " != " + entry.currentId);
+            }
+        }
+        if (entry.turn != serverGame.getTurn().getNumber()) {
+            diverge(entry, "turn " + serverGame.getTurn().getNumber()
+                + " != " + entry.turn);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            serverPlayer.getConnection().handle(entry.message);
+        } catch (FreeColException fce) {
+            logger.log(Level.WARNING, "Replay failed at command "
+                + entry.sequence, fce);
+            this.failures++;
+        }
+        final long time = System.nanoTime() - start;
+        this.latencies.computeIfAbsent(entry.message.getType(),
+                                       k -> new ArrayList<>()).add(time);
+        this.commands++;
+    }
+
+    /**
+     * Replay a journal.
+     *
+     * @param playback The {@code CommandJournal.Playback} to replay.
+     * @return True if every command was replayed without failure.
+     */
+    public boolean run(CommandJournal.Playback playback) {
+        final ServerGame serverGame = this.freeColServer.getGame();
+        final long start = System.nanoTime();
+        try {
+            CommandJournal.Entry entry;
+            while ((entry = playback.next(serverGame)) != null) {
+                replay(entry);
+            }
+        } catch (FreeColException fce) {
+            logger.log(Level.WARNING, "Replay could not read command "
+                + this.commands, fce);
+            this.failures++;
+        }
+        this.elapsed = System.nanoTime() - start;
+        return this.failures == 0;
+    }
+
+    /**
+     * Get the number of commands replayed.
+     *
+     * @return The command count.
+     */
+    public int getCommands() {
+        return this.commands;
+    }
+
+    /**
+     * Get the number of divergences from the recorded game.
+     *
+     * @return The divergence count.
+     */
+    public int getDivergences() {
+        return this.divergences;
+    }
+
+    /**
+     * Report the results of the replay.
+     *
+     * @param lb A {@code LogBuilder} to log to.
+     */
+    public void report(LogBuilder lb) {
+        final double seconds = this.elapsed / 1.0e9;
+        lb.add("Replay commands=", this.commands,
+            " failures=", this.failures,
+            " divergences=", this.divergences,
+            " seconds=", String.format("%.3f", seconds),
+            " commands/s=", String.format("%.1f",
+                (seconds <= 0.0) ? 0.0 : this.commands / seconds),
+            "\n Handling latency (us) by message:");
+        for (java.util.Map.Entry<String, List<Long>> e
+                 : this.latencies.entrySet()) {
+            final List<Long> times = e.getValue();
+            final long[] sorted = new long[times.size()];
+            long total = 0L;
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = times.get(i);
+                total += sorted[i];
+            }
+            Arrays.sort(sorted);
+            lb.add("\n  ", e.getKey(), " count=", sorted.length,
+                " mean=", total / sorted.length / 1000L);
+            for (int p : PERCENTILES) {
+                lb.add(" p", p, "=", Simulation.percentile(sorted, p) / 1000L);
+            }
+            lb.add(" max=", sorted[sorted.length - 1] / 1000L);
+        }
+        lb.add("\n");
+        if (this.simulation != null) this.simulation.report(lb);
+    }
+
+    /**
+     * Replay a journal file into a new server, and report the results.
+     *
+     * @param file The journal {@code File}.
+     * @param lb A {@code LogBuilder} to report to.
+     * @return True if every command was replayed without failure.
+     * @exception FreeColException if the game can not be loaded.
+     * @exception IOException if a file can not be read.
+     * @exception XMLStreamException if a file is malformed.
+     */
+    public static boolean replay(File file, LogBuilder lb)
+        throws FreeColException, IOException, XMLStreamException {
+        try (CommandJournal.Playback playback
+                = new CommandJournal.Playback(file)) {
+            final FreeColServer freeColServer = load(playback);
+            try {
+                CommandReplay replay = new CommandReplay(freeColServer);
+                replay.prepare(playback);
+                final boolean ret = replay.run(playback);
+                replay.report(lb);
+                return ret;
+            } finally {
+                freeColServer.getController().shutdown();
+            }
+        }
+    }
+}
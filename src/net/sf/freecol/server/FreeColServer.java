@@ -86,6 +86,7 @@ import static net.sf.freecol.common.util.Utils.*;
 import net.sf.freecol.server.ai.AIInGameInputHandler;
 import net.sf.freecol.server.ai.AIMain;
 import net.sf.freecol.server.ai.AIPlayer;
+import net.sf.freecol.server.control.CommandJournal;
 import net.sf.freecol.server.control.Controller;
 import net.sf.freecol.server.control.InGameController;
 import net.sf.freecol.server.control.PreGameController;
@@ -217,6 +218,12 @@ public final class FreeColServer {
     /** The game integrity state. */
     private IntegrityType integrity = IntegrityType.INTEGRITY_GOOD;
 
+    /** The file to journal commands to when the game starts, if any. */
+    private File journalFile = null;
+
+    /** The journal of the commands handled, if recording. */
+    private volatile CommandJournal journal = null;
+
 
     /**
      * Base constructor common to the following new-game and
@@ -422,6 +429,9 @@ public final class FreeColServer {
      * @param serverGame The new {@code Game}.
      */
     public void setGame(ServerGame serverGame) {
+        if (this.serverGame != null && this.serverGame != serverGame) {
+            this.serverGame.shutdownNewTurnPool();
+        }
         this.serverGame = serverGame;
     }
 
@@ -466,6 +476,8 @@ public final class FreeColServer {
      * Shut down this FreeColServer.
      */
     public void shutdown() {
+        stopJournal();
+        if (this.serverGame != null) this.serverGame.shutdownNewTurnPool();
         this.server.shutdown();
     }
 
@@ -589,6 +601,24 @@ public final class FreeColServer {
         this.mapGenerator = mapGenerator;
     }
 
+    /**
+     * Set the file to journal commands to when the game starts.
+     *
+     * @param journalFile The journal {@code File}, or null for none.
+     */
+    public void setJournalFile(File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Get the journal of the commands handled.
+     *
+     * @return The {@code CommandJournal}, or null if not recording.
+     */
+    public CommandJournal getJournal() {
+        return this.journal;
+    }
+
     /**
      * Gets the integrity check result.
      *
@@ -613,6 +643,40 @@ public final class FreeColServer {
         }
     }
         
+    /**
+     * Start journalling the commands handled.
+     *
+     * The game is saved beside the journal first, so that the journal
+     * can be replayed against it.
+     *
+     * @param file The journal {@code File} to write.
+     * @exception IOException if the game or journal can not be written.
+     * @exception XMLStreamException if the journal header can not be
+     *     written.
+     */
+    public void startJournal(File file)
+        throws IOException, XMLStreamException {
+        stopJournal();
+        final File save = CommandJournal.getSavegameFile(file);
+        final String randomState = getRandomState(this.random);
+        saveGame(save, null, null);
+        final Simulation simulation = this.inGameController.getSimulation();
+        this.journal = new CommandJournal(file, save, randomState,
+            getGame().getConnectedPlayers(),
+            (simulation == null) ? -1 : simulation.getTurns());
+        logger.info("Journalling commands to " + file.getPath());
+    }
+
+    /**
+     * Stop journalling the commands handled.
+     */
+    public void stopJournal() {
+        final CommandJournal j = this.journal;
+        if (j == null) return;
+        this.journal = null;
+        j.close();
+    }
+
     /**
      * Add a new user connection.  That is a new connection to the server
      * that has not yet logged in as a player.
@@ -750,6 +814,14 @@ public final class FreeColServer {
             return;
         }
 
+        if (this.journalFile != null) {
+            try {
+                startJournal(this.journalFile);
+            } catch (IOException|XMLStreamException ex) {
+                logger.log(Level.WARNING, "Failed to start journal: "
+                    + this.journalFile.getPath(), ex);
+            }
+        }
         changeServerState(ServerState.IN_GAME);
         sendToAll(TrivialMessage.startGameMessage, (Player)null);
         updateMetaServer();
@@ -1126,7 +1198,7 @@ public final class FreeColServer {
             }
             if (player.isEuropean()) {
                 // The map will be invalid, so trigger a recalculation of the
-                // canSeeTiles, by calling canSee for an arbitrary tile.
+                // visibility counts, by calling canSee for an arbitrary tile.
                 player.canSee(serverGame.getMap().getTile(0, 0));
             }
         }
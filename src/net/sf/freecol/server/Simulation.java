@@ -0,0 +1,306 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.freecol.common.FreeColException;
+import net.sf.freecol.common.model.Specification;
+import net.sf.freecol.common.option.MapGeneratorOptions;
+import net.sf.freecol.common.option.OptionGroup;
+import net.sf.freecol.common.util.LogBuilder;
+import net.sf.freecol.server.control.InGameController;
+import net.sf.freecol.server.model.ServerGame;
+import net.sf.freecol.server.model.ServerPlayer;
+
+
+/**
+ * A headless simulation, where every nation is played by the AI.
+ *
+ * The simulation starts a server with no human players, lets the AI
+ * players take their turns until either the turn limit is reached or
+ * one of them wins, and then saves the game.  The in-game controller
+ * reports each completed turn to the simulation, which measures the
+ * time taken by the turn and samples the heap, and so can report the
+ * throughput, the per-turn latency percentiles and the heap high-water
+ * mark at the end of the run.
+ */
+public final class Simulation {
+
+    private static final Logger logger = Logger.getLogger(Simulation.class.getName());
+
+    /** The per-turn latency percentiles to report. */
+    private static final int[] PERCENTILES = { 50, 90, 99 };
+
+    /** The number of turns to run. */
+    private final int turns;
+
+    /** The time taken by each completed turn, in nanoseconds. */
+    private final List<Long> latencies = new ArrayList<>();
+
+    /** Signalled when the simulation is over. */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** The heap memory pools to sample. */
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+
+    /** The {@code System.nanoTime} the simulation started at. */
+    private long startTime = 0L;
+
+    /** The {@code System.nanoTime} the last turn completed at. */
+    private long lastTime = 0L;
+
+    /** The {@code System.nanoTime} the simulation ended at. */
+    private long endTime = 0L;
+
+    /** The largest heap use seen at the end of a turn, in bytes. */
+    private long heapHighWater = 0L;
+
+    /** The player that won, if any. */
+    private ServerPlayer winner = null;
+
+
+    /**
+     * Create a new simulation.
+     *
+     * @param turns The number of turns to run.
+     */
+    public Simulation(int turns) {
+        this.turns = turns;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) this.heapPools.add(pool);
+        }
+    }
+
+
+    /**
+     * Get the number of turns to run.
+     *
+     * @return The turn limit.
+     */
+    public int getTurns() {
+        return this.turns;
+    }
+
+    /**
+     * Get the number of turns completed so far.
+     *
+     * @return The completed turn count.
+     */
+    public synchronized int getCompletedTurns() {
+        return this.latencies.size();
+    }
+
+    /**
+     * Get the winner of the simulation.
+     *
+     * @return The winning {@code ServerPlayer}, or null if none.
+     */
+    public synchronized ServerPlayer getWinner() {
+        return this.winner;
+    }
+
+    /**
+     * Is this simulation over?
+     *
+     * @return True if the simulation has finished.
+     */
+    public boolean isOver() {
+        return this.done.getCount() == 0;
+    }
+
+    /**
+     * Set up the map generator options for a simulation.
+     *
+     * @param spec The {@code Specification} to configure.
+     * @param width The map width, non-positive to keep the default.
+     * @param height The map height, non-positive to keep the default.
+     */
+    public static void configureMap(Specification spec, int width, int height) {
+        final OptionGroup mapOptions = spec.getMapGeneratorOptions();
+        if (width > 0) mapOptions.setInteger(MapGeneratorOptions.MAP_WIDTH, width);
+        if (height > 0) mapOptions.setInteger(MapGeneratorOptions.MAP_HEIGHT, height);
+    }
+
+    /**
+     * Sample the heap use.
+     */
+    private void sampleHeap() {
+        long used = 0L;
+        for (MemoryPoolMXBean pool : this.heapPools) {
+            used += pool.getUsage().getUsed();
+        }
+        this.heapHighWater = Math.max(this.heapHighWater, used);
+    }
+
+    /**
+     * Start timing the simulation.
+     *
+     * Called by the in-game controller when the first player starts.
+     */
+    public synchronized void begin() {
+        this.startTime = this.lastTime = System.nanoTime();
+        sampleHeap();
+    }
+
+    /**
+     * Record the completion of a turn.
+     *
+     * Called by the in-game controller when a new turn begins.
+     *
+     * @return True if the simulation should continue.
+     */
+    public synchronized boolean turnCompleted() {
+        final long now = System.nanoTime();
+        this.latencies.add(now - this.lastTime);
+        this.lastTime = now;
+        sampleHeap();
+        return !isOver() && this.latencies.size() < this.turns;
+    }
+
+    /**
+     * End the simulation.
+     *
+     * @param winner The {@code ServerPlayer} that won, or null if the
+     *     turn limit was reached.
+     */
+    public synchronized void finish(ServerPlayer winner) {
+        if (isOver()) return;
+        this.winner = winner;
+        this.endTime = System.nanoTime();
+        sampleHeap();
+        this.done.countDown();
+    }
+
+    /**
+     * Wait for the simulation to finish.
+     *
+     * @param stall The time in milliseconds to wait for a turn to
+     *     complete before giving up.
+     * @return True if the simulation finished, false if it stalled.
+     * @exception InterruptedException if interrupted while waiting.
+     */
+    public boolean await(long stall) throws InterruptedException {
+        int completed = -1;
+        for (;;) {
+            if (this.done.await(stall, TimeUnit.MILLISECONDS)) return true;
+            final int now = getCompletedTurns();
+            if (now == completed) return false;
+            completed = now;
+        }
+    }
+
+    /**
+     * Get a percentile of a sorted array.
+     *
+     * @param sorted The sorted values.
+     * @param percentile The percentile to find.
+     * @return The value at the percentile, or zero if there are none.
+     */
+    static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) return 0L;
+        final int rank = (int)Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    /**
+     * Report the results of the simulation.
+     *
+     * @param lb A {@code LogBuilder} to log to.
+     */
+    public synchronized void report(LogBuilder lb) {
+        final long[] sorted = new long[this.latencies.size()];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = this.latencies.get(i);
+        Arrays.sort(sorted);
+        final long end = (isOver()) ? this.endTime : System.nanoTime();
+        final double seconds = (end - this.startTime) / 1.0e9;
+        long peak = 0L;
+        for (MemoryPoolMXBean pool : this.heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        lb.add("Simulation turns=", sorted.length, "/", this.turns,
+            " winner=", (this.winner == null) ? "none" : this.winner.getName(),
+            " seconds=", String.format("%.3f", seconds),
+            " turns/s=", String.format("%.3f",
+                (seconds <= 0.0) ? 0.0 : sorted.length / seconds),
+            "\n Turn latency (ms):");
+        for (int p : PERCENTILES) {
+            lb.add(" p", p, "=", percentile(sorted, p) / 1000000L);
+        }
+        lb.add(" max=", (sorted.length == 0) ? 0L
+            : sorted[sorted.length - 1] / 1000000L,
+            "\n Heap (MB): high-water=", this.heapHighWater / (1024 * 1024),
+            " pool-peak=", peak / (1024 * 1024), "\n");
+    }
+
+    /**
+     * Run the simulation on a server, and save the game when done.
+     *
+     * The server must not have started its game yet.
+     *
+     * @param freeColServer The {@code FreeColServer} to run on.
+     * @param save The {@code File} to save the game to, or null to
+     *     not save.
+     * @param stall The time in milliseconds to wait for a turn to
+     *     complete before giving up.
+     * @return True if the simulation finished, false if it stalled.
+     * @exception FreeColException if the game can not be started.
+     * @exception InterruptedException if interrupted while waiting.
+     */
+    public boolean run(FreeColServer freeColServer, File save, long stall)
+        throws FreeColException, InterruptedException {
+        final InGameController igc = freeColServer.getInGameController();
+        igc.setSimulation(this); // Before any journal starts
+        freeColServer.startGame();
+        final ServerGame serverGame = freeColServer.getGame();
+        igc.startSimulation(this);
+        final boolean ret = await(stall);
+        if (!ret) {
+            logger.warning("Simulation stalled at turn "
+                + serverGame.getTurn());
+            finish(null);
+        }
+
+        LogBuilder lb = new LogBuilder(256);
+        report(lb);
+        lb.log(logger, Level.INFO);
+        if (save != null) {
+            try {
+                freeColServer.saveGame(save, null, null);
+                logger.info("Simulation saved to " + save.getPath());
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, "Simulation save failed: "
+                    + save.getPath(), ioe);
+            }
+        }
+        return ret;
+    }
+}
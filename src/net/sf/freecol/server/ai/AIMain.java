@@ -124,7 +124,7 @@ public class AIMain extends FreeColObject
      *
      * @return A unique identifier.
      */
-    public String getNextId() {
+    public synchronized String getNextId() {
         String id = Integer.toString(nextId);
         nextId++;
         return id;
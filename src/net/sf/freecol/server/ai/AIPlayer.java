@@ -30,6 +30,8 @@ import java.util.logging.Logger;
 import javax.xml.stream.XMLStreamException;
 
 import net.sf.freecol.FreeCol;
+import net.sf.freecol.common.debug.FreeColDebugger;
+import net.sf.freecol.common.debug.TurnProfiler;
 import net.sf.freecol.common.io.FreeColXMLReader;
 import net.sf.freecol.common.io.FreeColXMLWriter;
 import net.sf.freecol.common.model.Colony;
@@ -513,7 +515,13 @@ public abstract class AIPlayer extends AIObject {
     public void setCurrentPlayerHandler(Player currentPlayer) {
         if (getPlayer().getId().equals(currentPlayer.getId())) {
             invoke(() -> {
-                    startWorking();
+                    final TurnProfiler.Sample s = FreeColDebugger
+                        .profile("startWorking", getPlayer().getSuffix());
+                    try {
+                        startWorking();
+                    } finally {
+                        s.end();
+                    }
                     AIMessage.askEndTurn(this);
                 });
         }
@@ -28,6 +28,8 @@ import java.util.logging.Logger;
 import javax.xml.stream.XMLStreamException;
 
 import net.sf.freecol.common.FreeColException;
+import net.sf.freecol.common.debug.FreeColDebugger;
+import net.sf.freecol.common.debug.TurnProfiler;
 import net.sf.freecol.common.io.FreeColXMLReader;
 import net.sf.freecol.common.io.FreeColXMLWriter;
 import net.sf.freecol.common.model.Ability;
@@ -325,7 +327,15 @@ public final class AIUnit extends TransportableAIObject {
      * @param lb A {@code LogBuilder} to log to.
      */
     public void doMission(LogBuilder lb) {
-        if (this.mission != null) this.mission.doMission(lb);
+        final Mission m = this.mission;
+        if (m == null) return;
+        final TurnProfiler.Sample s = FreeColDebugger
+            .profile("mission", m.getClass().getSimpleName());
+        try {
+            m.doMission(lb);
+        } finally {
+            s.end();
+        }
     }
 
     /**
@@ -81,7 +81,7 @@ import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.Unit.UnitState;
 import net.sf.freecol.common.model.UnitType;
 import net.sf.freecol.common.model.pathfinding.CostDeciders;
-import net.sf.freecol.common.model.pathfinding.GoalDeciders;
+import net.sf.freecol.common.model.pathfinding.PathQuery;
 import net.sf.freecol.common.option.GameOptions;
 import net.sf.freecol.common.util.CachingFunction;
 import static net.sf.freecol.common.util.CollectionUtils.*;
@@ -626,10 +626,9 @@ public class EuropeanAIPlayer extends MissionAIPlayer {
                 AIColony defend = getRandomMember(logger,
                     "AIColony to defend", bad, air);
                 Tile center = defend.getColony().getTile();
-                Tile t = game.getMap().searchCircle(center,
-                    GoalDeciders.getEnemySettlementGoalDecider(enemies),
-                    30);
-                if (t != null) target = t.getSettlement();
+                target = game.getMap().getSpatialIndex()
+                    .getNearestSettlement(center, 30,
+                        s -> enemies.contains(s.getOwner()));
             }
             if (target != null) {
                 List<AbstractUnit> aMercs = new ArrayList<>();
@@ -1717,6 +1716,7 @@ public class EuropeanAIPlayer extends MissionAIPlayer {
         }
         aiUnits.removeAll(done);
         done.clear();
+        precomputeTargets(aiUnits, lb);
 
         // First try to satisfy the demand for missions with a defined
         // quota.  Builders first to keep weak players in the game,
@@ -1898,6 +1898,39 @@ public class EuropeanAIPlayer extends MissionAIPlayer {
         logMissions(reasons, lb);
     }
 
+    /**
+     * Find the candidate colony sites and attack targets for the land
+     * units that need a new mission in one parallel pass.  The results
+     * land in the map path cache, where the mission selection that
+     * follows will find them.
+     *
+     * @param aiUnits The {@code AIUnit}s that need missions.
+     * @param lb A {@code LogBuilder} to log to.
+     */
+    private void precomputeTargets(List<AIUnit> aiUnits, LogBuilder lb) {
+        List<PathQuery> queries = new ArrayList<>();
+        for (AIUnit aiUnit : aiUnits) {
+            final Unit unit = aiUnit.getUnit();
+            if (unit.isNaval()) continue;
+            PathQuery q;
+            if (nBuilders > 0
+                && BuildColonyMission.invalidMissionReason(aiUnit) == null
+                && (q = BuildColonyMission.getTargetQuery(aiUnit,
+                        buildingRange, unit.isInEurope())) != null) {
+                queries.add(q);
+            }
+            if (UnitSeekAndDestroyMission.invalidMissionReason(aiUnit) == null
+                && (q = UnitSeekAndDestroyMission.getTargetQuery(aiUnit,
+                        (unit.hasAbility(Ability.REF_UNIT)) ? 12 : 8)) != null) {
+                queries.add(q);
+            }
+        }
+        if (queries.size() > 1) {
+            getGame().getMap().searchAll(queries);
+            lb.add("\n  Precomputed ", queries.size(), " target searches");
+        }
+    }
+
     /**
      * Choose a mission for an AIUnit.
      *
@@ -2039,9 +2072,11 @@ public class EuropeanAIPlayer extends MissionAIPlayer {
                     worstColony = colony;
                     break;
                 }
-                int ttr = 1 + unit.getTurnsToReach(loc, colony.getTile(),
-                    unit.getCarrier(),
-                    ((relaxed) ? CostDeciders.numberOfTiles() : null));
+                int ttr = 1 + ((relaxed && loc instanceof Tile)
+                    ? unit.estimateTurnsToReach(colony.getTile())
+                    : unit.getTurnsToReach(loc, colony.getTile(),
+                        unit.getCarrier(),
+                        ((relaxed) ? CostDeciders.numberOfTiles() : null)));
                 if (ttr >= Unit.MANY_TURNS) continue;
                 double value = colony.getDefenceRatio() * 100.0 / ttr;
                 if (worstValue > value) {
@@ -38,11 +38,13 @@ import net.sf.freecol.common.io.FreeColXMLReader;
 import net.sf.freecol.common.model.Colony;
 import net.sf.freecol.common.model.CombatModel;
 import net.sf.freecol.common.model.Constants.IndianDemandAction;
+import static net.sf.freecol.common.model.Constants.*;
 import net.sf.freecol.common.model.FeatureContainer;
 import net.sf.freecol.common.model.Goods;
 import net.sf.freecol.common.model.GoodsType;
 import net.sf.freecol.common.model.IndianSettlement;
 import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.Modifier;
 import net.sf.freecol.common.model.NativeTrade;
 import net.sf.freecol.common.model.NativeTrade.NativeTradeAction;
@@ -352,15 +354,18 @@ public final class NativeAIPlayer extends MissionAIPlayer {
                    " threats=", threats.size(), ", ");
         }
 
-        // Assign units to attack the threats, greedily chosing closest unit.
+        // Assign units to attack the threats, greedily chosing closest
+        // unit.  All the candidates are heading for the same tile, so
+        // score them with the distance field to it.
+        final Map map = getGame().getMap();
         while (!threatTiles.isEmpty() && !units.isEmpty()) {
             Tile tile = threatTiles.remove(0);
             final ToIntFunction<Unit> score = cacheInt(u ->
-                u.getTile().getDistanceTo(tile));
+                map.getDistanceField(tile, u).getCost(u.getTile()));
             final Predicate<Unit> validPred = u ->
                 UnitSeekAndDestroyMission.invalidMissionReason(aiMain.getAIUnit(u),
                     tile.getDefendingUnit(u)) == null
-                && score.applyAsInt(u) >= 0;
+                && score.applyAsInt(u) < INFINITY;
             final Comparator<Unit> scoreComp = Comparator.comparingInt(score);
             Unit unit = minimize(units, validPred, scoreComp);
             if (unit == null) continue; // Declined to attack.
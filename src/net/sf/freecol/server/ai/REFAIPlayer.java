@@ -857,7 +857,7 @@ public final class REFAIPlayer extends EuropeanAIPlayer {
                         int bestValue = Unit.MANY_TURNS;
                         AIUnit best = null;
                         for (AIUnit aiu : todo) {
-                            int value = aiu.getUnit().getTurnsToReach(l);
+                            int value = aiu.getUnit().estimateTurnsToReach(l);
                             if (bestValue > value) {
                                 bestValue = value;
                                 best = aiu;
@@ -35,9 +35,9 @@ import net.sf.freecol.common.model.PathNode;
 import net.sf.freecol.common.model.Player;
 import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.Unit;
-import net.sf.freecol.common.model.pathfinding.CostDecider;
 import net.sf.freecol.common.model.pathfinding.CostDeciders;
 import net.sf.freecol.common.model.pathfinding.GoalDecider;
+import net.sf.freecol.common.model.pathfinding.PathQuery;
 import net.sf.freecol.common.model.pathfinding.GoalDeciders;
 import static net.sf.freecol.common.util.CollectionUtils.*;
 import net.sf.freecol.common.util.LogBuilder;
@@ -190,25 +190,42 @@ public final class BuildColonyMission extends Mission {
     }
 
     /**
-     * Finds a site for a new colony.  Favour closer sites.
+     * Gets the query to find a site for a new colony.  The result is
+     * shared with similar units through the map path cache, so the
+     * queries for several units can be run together beforehand.
      *
      * @param aiUnit The {@code AIUnit} to execute this mission.
      * @param range An upper bound on the number of moves.
      * @param deferOK Enables deferring to a fallback colony.
-     * @return A path to the new target, or null if none found.
+     * @return A {@code PathQuery} for the new target, or null if the
+     *     unit is not valid.
      */
-    private static PathNode findTargetPath(AIUnit aiUnit, int range,
+    public static PathQuery getTargetQuery(AIUnit aiUnit, int range,
                                            boolean deferOK) {
         if (invalidAIUnitReason(aiUnit) != null) return null;
         final Unit unit = aiUnit.getUnit();
         final Location start = unit.getPathStartLocation();
         final Unit carrier = unit.getCarrier();
         final GoalDecider gd = getGoalDecider(aiUnit, deferOK);
-        final CostDecider standardCd
-            = CostDeciders.avoidSettlementsAndBlockingUnits();
 
         // Try for something sensible nearby.
-        return unit.search(start, gd, standardCd, range, carrier);
+        return PathQuery.search(unit, start, gd,
+            CostDeciders::avoidSettlementsAndBlockingUnits, range, carrier)
+            .cached("BuildColonyMission/" + range + "/" + deferOK);
+    }
+
+    /**
+     * Finds a site for a new colony.  Favour closer sites.
+     *
+     * @param aiUnit The {@code AIUnit} to execute this mission.
+     * @param range An upper bound on the number of moves.
+     * @param deferOK Enables deferring to a fallback colony.
+     * @return A path to the new target, or null if none found.
+     */
+    private static PathNode findTargetPath(AIUnit aiUnit, int range,
+                                           boolean deferOK) {
+        final PathQuery query = getTargetQuery(aiUnit, range, deferOK);
+        return (query == null) ? null : query.run();
     }
 
     /**
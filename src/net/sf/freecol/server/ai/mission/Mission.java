@@ -725,8 +725,7 @@ public abstract class Mission extends AIObject {
 
             } else {
                 // Should not need transport within the same contiguity.
-                path = unit.findPath(unit.getLocation(), target,
-                                     null, costDecider, null);
+                path = unit.findLongRangePath(target, costDecider);
             }
         }
 
@@ -850,7 +849,7 @@ public abstract class Mission extends AIObject {
      * @param lb A {@code LogBuilder} to log to.
      * @return The type of move the unit stopped at.
      */
-    private MoveType followMapPath(PathNode path, LogBuilder lb) {
+    MoveType followMapPath(PathNode path, LogBuilder lb) {
         final Unit unit = getUnit();
         final Location target = path.getLastNode().getLocation();
 
@@ -874,6 +873,13 @@ public abstract class Mission extends AIObject {
                     return MoveType.MOVE_ILLEGAL;
                 }
             }
+            if (path.getDirection() == null) {
+                // Reached the end of the refined part of a long range
+                // path, continue next turn.
+                lbAt(lb);
+                lb.add(", en route to ", Location.upLoc(target));
+                return MoveType.MOVE_NO_MOVES;
+            }
             MoveType mt = unit.getMoveType(path.getDirection());
             if (mt == MoveType.MOVE_NO_MOVES) {
                 unit.setMovesLeft(0);
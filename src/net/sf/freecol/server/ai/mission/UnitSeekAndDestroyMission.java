@@ -36,6 +36,7 @@ import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.pathfinding.CostDeciders;
 import net.sf.freecol.common.model.pathfinding.GoalDecider;
+import net.sf.freecol.common.model.pathfinding.PathQuery;
 import static net.sf.freecol.common.util.CollectionUtils.*;
 import net.sf.freecol.common.util.LogBuilder;
 import net.sf.freecol.server.ai.AIMain;
@@ -241,23 +242,41 @@ public final class UnitSeekAndDestroyMission extends Mission {
     }
 
     /**
-     * Finds a suitable seek-and-destroy target path for an AI unit.
+     * Gets the query to find a suitable seek-and-destroy target path
+     * for an AI unit.  The result is shared with similar units through
+     * the map path cache, so the queries for several units can be run
+     * together beforehand.
      *
      * @param aiUnit The {@code AIUnit} to find a target for.
      * @param range An upper bound on the number of moves.
-     * @param deferOK Not implemented in this mission.
-     * @return A path to the target, or null if none found.
+     * @return A {@code PathQuery} for the target, or null if the unit
+     *     is not valid.
      */
-    private static PathNode findTargetPath(AIUnit aiUnit, int range,
-        @SuppressWarnings("unused") boolean deferOK) {
+    public static PathQuery getTargetQuery(AIUnit aiUnit, int range) {
         if (invalidAIUnitReason(aiUnit) != null) return null;
         final Unit unit = aiUnit.getUnit();
         final Location start = unit.getPathStartLocation();
 
         // Can the unit legally reach a valid target from where it
         // currently is?
-        return unit.search(start, getGoalDecider(aiUnit, false),
-            CostDeciders.avoidIllegal(), range, unit.getCarrier());
+        return PathQuery.search(unit, start, getGoalDecider(aiUnit, false),
+                                CostDeciders::avoidIllegal, range,
+                                unit.getCarrier())
+            .cached("UnitSeekAndDestroyMission/" + range);
+    }
+
+    /**
+     * Finds a suitable seek-and-destroy target path for an AI unit.
+     *
+     * @param aiUnit The {@code AIUnit} to find a target for.
+     * @param range An upper bound on the number of moves.
+     * @param deferOK Not implemented in this mission.
+     * @return A path to the target, or null if none found.
+     */
+    private static PathNode findTargetPath(AIUnit aiUnit, int range,
+        @SuppressWarnings("unused") boolean deferOK) {
+        final PathQuery query = getTargetQuery(aiUnit, range);
+        return (query == null) ? null : query.run();
     }
 
     /**
@@ -0,0 +1,394 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.control;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import net.sf.freecol.FreeCol;
+import net.sf.freecol.common.FreeColException;
+import net.sf.freecol.common.io.FreeColXMLReader;
+import net.sf.freecol.common.io.FreeColXMLWriter;
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.networking.Message;
+
+
+/**
+ * A journal of the commands the server handles.
+ *
+ * Every message a player sends to the server input handler is
+ * written to the journal, wrapped in a command element that records
+ * its sequence number, the turn, the sending player and the current
+ * player.  The journal header names a saved game written when the
+ * journal started, and records the server random state, the players
+ * that were connected, and the turn limit of any simulation being
+ * run.  Replaying the commands against that saved game reproduces
+ * the same workload on the server.
+ *
+ * Commands are written in the order the handler receives them.
+ * Questions the server asks a client, and their replies, are not
+ * commands and are not recorded.
+ */
+public final class CommandJournal implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(CommandJournal.class.getName());
+
+    /** The current journal version. */
+    public static final int JOURNAL_VERSION = 1;
+
+    private static final String COMMAND_TAG = "command";
+    private static final String CONNECTED_TAG = "connected";
+    private static final String CURRENT_TAG = "current";
+    private static final String JOURNAL_TAG = "journal";
+    private static final String PLAYER_TAG = "player";
+    private static final String RANDOM_STATE_TAG = "randomState";
+    private static final String SAVEGAME_TAG = "savegame";
+    private static final String SEQUENCE_TAG = "sequence";
+    private static final String SIMULATE_TAG = "simulate";
+    private static final String TURN_TAG = "turn";
+    private static final String VERSION_TAG = "version";
+
+    /**
+     * A command read back from a journal.
+     */
+    public static final class Entry {
+
+        /** The sequence number of the command. */
+        public final int sequence;
+
+        /** The turn number the command was handled in. */
+        public final int turn;
+
+        /** The identifier of the player that sent the command. */
+        public final String playerId;
+
+        /** The identifier of the current player, if any. */
+        public final String currentId;
+
+        /** The message. */
+        public final Message message;
+
+
+        /**
+         * Create a new entry.
+         *
+         * @param sequence The sequence number.
+         * @param turn The turn number.
+         * @param playerId The sending player identifier.
+         * @param currentId The current player identifier.
+         * @param message The {@code Message}.
+         */
+        public Entry(int sequence, int turn, String playerId,
+                     String currentId, Message message) {
+            this.sequence = sequence;
+            this.turn = turn;
+            this.playerId = playerId;
+            this.currentId = currentId;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Reads a journal back, one command at a time.
+     *
+     * Commands are read lazily as the messages in them may refer to
+     * objects created by the commands before them.
+     */
+    public static final class Playback implements Closeable {
+
+        /** The journal file. */
+        private final File file;
+
+        /** The reader of the journal. */
+        private final FreeColXMLReader xr;
+
+        /** The saved game file name. */
+        private final String savegame;
+
+        /** The server random state. */
+        private final String randomState;
+
+        /** The identifiers of the connected players. */
+        private final List<String> connected = new ArrayList<>();
+
+        /** The simulation turn limit, non-positive if not simulating. */
+        private final int simulate;
+
+        /** Has the end of the journal been reached? */
+        private boolean done = false;
+
+
+        /**
+         * Open a journal for playback.
+         *
+         * @param file The journal {@code File}.
+         * @exception IOException if the file can not be read.
+         * @exception XMLStreamException if the header is malformed.
+         */
+        public Playback(File file) throws IOException, XMLStreamException {
+            this.file = file;
+            this.xr = new FreeColXMLReader(file);
+            this.xr.nextTag();
+            this.xr.expectTag(JOURNAL_TAG);
+            final int version = this.xr.getAttribute(VERSION_TAG, -1);
+            if (version != JOURNAL_VERSION) {
+                throw new XMLStreamException("Unsupported journal version "
+                    + version + " in " + file.getPath());
+            }
+            this.savegame = this.xr.getAttribute(SAVEGAME_TAG, (String)null);
+            this.randomState = this.xr.getAttribute(RANDOM_STATE_TAG,
+                                                    (String)null);
+            final String c = this.xr.getAttribute(CONNECTED_TAG, "");
+            for (String id : c.split(" ")) {
+                if (!id.isEmpty()) this.connected.add(id);
+            }
+            this.simulate = this.xr.getAttribute(SIMULATE_TAG, -1);
+        }
+
+
+        /**
+         * Get the saved game the journal starts from.
+         *
+         * @return The saved game {@code File}.
+         */
+        public File getSavegameFile() {
+            return (this.savegame == null) ? null
+                : new File(this.file.getAbsoluteFile().getParentFile(),
+                           this.savegame);
+        }
+
+        /**
+         * Get the server random state when the journal started.
+         *
+         * @return The random state.
+         */
+        public String getRandomState() {
+            return this.randomState;
+        }
+
+        /**
+         * Get the players that were connected when the journal started.
+         *
+         * @return A list of player identifiers.
+         */
+        public List<String> getConnected() {
+            return this.connected;
+        }
+
+        /**
+         * Get the turn limit of the simulation that was recorded.
+         *
+         * @return The turn limit, non-positive if not simulating.
+         */
+        public int getSimulate() {
+            return this.simulate;
+        }
+
+        /**
+         * Read the next command.
+         *
+         * A journal that was not closed, such as one left by a crashed
+         * server, ends at the last complete command.
+         *
+         * @param game The {@code Game} to read the message in.
+         * @return The next {@code Entry}, or null at the end.
+         * @exception FreeColException if the message can not be built.
+         */
+        public Entry next(Game game) throws FreeColException {
+            if (this.done) return null;
+            try {
+                if (this.xr.nextTag() != XMLStreamConstants.START_ELEMENT) {
+                    this.done = true;
+                    return null;
+                }
+                this.xr.expectTag(COMMAND_TAG);
+                final int sequence = this.xr.getAttribute(SEQUENCE_TAG, -1);
+                final int turn = this.xr.getAttribute(TURN_TAG, -1);
+                final String playerId
+                    = this.xr.getAttribute(PLAYER_TAG, (String)null);
+                final String currentId
+                    = this.xr.getAttribute(CURRENT_TAG, (String)null);
+                this.xr.nextTag();
+                final Message message = Message.read(game, this.xr);
+                this.xr.closeTag(COMMAND_TAG);
+                return new Entry(sequence, turn, playerId, currentId, message);
+            } catch (XMLStreamException xse) {
+                logger.log(Level.WARNING, "Journal ends early: "
+                    + this.file.getPath(), xse);
+                this.done = true;
+                return null;
+            }
+        }
+
+        // Implement Closeable
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            this.xr.close();
+        }
+    }
+
+    /** The journal file. */
+    private final File file;
+
+    /** The stream to the journal file. */
+    private final OutputStream out;
+
+    /** The writer to the journal. */
+    private final FreeColXMLWriter xw;
+
+    /** The next sequence number. */
+    private int sequence = 0;
+
+
+    /**
+     * Start a new journal.
+     *
+     * @param file The journal {@code File} to write.
+     * @param savegame The saved game {@code File} the journal starts from.
+     * @param randomState The server random state.
+     * @param connected The players that are connected.
+     * @param simulate The simulation turn limit, non-positive if not
+     *     simulating.
+     * @exception IOException if the file can not be written.
+     * @exception XMLStreamException if the header can not be written.
+     */
+    public CommandJournal(File file, File savegame, String randomState,
+                          List<? extends Player> connected, int simulate)
+        throws IOException, XMLStreamException {
+        this.file = file;
+        this.out = Files.newOutputStream(file.toPath());
+        this.xw = new FreeColXMLWriter(this.out,
+            FreeColXMLWriter.WriteScope.toServer(), false);
+        this.xw.writeStartDocument("UTF-8", "1.0");
+        this.xw.writeCharacters("\n");
+        this.xw.writeStartElement(JOURNAL_TAG);
+        this.xw.writeAttribute(VERSION_TAG, JOURNAL_VERSION);
+        this.xw.writeAttribute(SAVEGAME_TAG, savegame.getName());
+        this.xw.writeAttribute(RANDOM_STATE_TAG, randomState);
+        StringBuilder sb = new StringBuilder(64);
+        for (Player p : connected) sb.append(p.getId()).append(' ');
+        this.xw.writeAttribute(CONNECTED_TAG, sb.toString().trim());
+        if (simulate > 0) this.xw.writeAttribute(SIMULATE_TAG, simulate);
+        this.xw.writeCharacters("\n");
+        this.xw.flush();
+    }
+
+
+    /**
+     * Get the saved game file to go with a journal file.
+     *
+     * @param file The journal {@code File}.
+     * @return The saved game {@code File} beside it.
+     */
+    public static File getSavegameFile(File file) {
+        String name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        if (dot > 0) name = name.substring(0, dot);
+        return new File(file.getAbsoluteFile().getParentFile(),
+                        name + "." + FreeCol.FREECOL_SAVE_EXTENSION);
+    }
+
+    /**
+     * Get the journal file.
+     *
+     * @return The journal {@code File}.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Get the number of commands recorded so far.
+     *
+     * @return The command count.
+     */
+    public synchronized int getCount() {
+        return this.sequence;
+    }
+
+    /**
+     * Record a command.
+     *
+     * Failure to record is logged but must not disturb the game.
+     *
+     * @param game The {@code Game} the command is for.
+     * @param player The {@code Player} that sent the command.
+     * @param message The command {@code Message}.
+     */
+    public synchronized void record(Game game, Player player,
+                                    Message message) {
+        try {
+            this.xw.writeStartElement(COMMAND_TAG);
+            this.xw.writeAttribute(SEQUENCE_TAG, this.sequence++);
+            this.xw.writeAttribute(TURN_TAG, (game == null
+                    || game.getTurn() == null) ? -1
+                : game.getTurn().getNumber());
+            this.xw.writeAttribute(PLAYER_TAG, player);
+            final Player current = (game == null) ? null
+                : game.getCurrentPlayer();
+            if (current != null) this.xw.writeAttribute(CURRENT_TAG, current);
+            message.toXML(this.xw);
+            this.xw.writeEndElement();
+            this.xw.writeCharacters("\n");
+            this.xw.flush();
+        } catch (XMLStreamException xse) {
+            logger.log(Level.WARNING, "Journal write failed: "
+                + message.getType(), xse);
+        }
+    }
+
+    // Implement Closeable
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            this.xw.writeEndElement();
+            this.xw.writeEndDocument();
+        } catch (XMLStreamException xse) {
+            logger.log(Level.WARNING, "Journal close failed", xse);
+        }
+        this.xw.close();
+        try {
+            this.out.close();
+        } catch (IOException ioe) {
+            logger.log(Level.WARNING, "Journal close failed", ioe);
+        }
+        logger.info("Journal closed after " + this.sequence + " commands: "
+            + this.file.getPath());
+    }
+}
@@ -22,6 +22,7 @@ package net.sf.freecol.server.control;
 import java.util.logging.Logger;
 
 import net.sf.freecol.server.FreeColServer;
+import net.sf.freecol.server.model.ServerGame;
 import net.sf.freecol.server.networking.Server;
 
 
@@ -48,6 +49,9 @@ public abstract class Controller extends FreeColServerHolder {
      * Shut down the server (which sends a message to each client).
      */
     public void shutdown() {
+        getFreeColServer().stopJournal();
+        ServerGame serverGame = getGame();
+        if (serverGame != null) serverGame.shutdownNewTurnPool();
         Server server = getFreeColServer().getServer();
         if (server != null) {
             server.shutdown();
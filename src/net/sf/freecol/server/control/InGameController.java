@@ -36,6 +36,7 @@ import java.util.stream.Collectors;
 
 import net.sf.freecol.FreeCol;
 import net.sf.freecol.common.debug.FreeColDebugger;
+import net.sf.freecol.common.debug.TurnProfiler;
 import net.sf.freecol.common.i18n.Messages;
 import net.sf.freecol.common.model.Ability;
 import net.sf.freecol.common.model.AbstractGoods;
@@ -129,6 +130,7 @@ import static net.sf.freecol.common.util.StringUtils.*;
 import net.sf.freecol.common.util.Utils;
 
 import net.sf.freecol.server.FreeColServer;
+import net.sf.freecol.server.Simulation;
 import net.sf.freecol.server.ai.REFAIPlayer;
 import net.sf.freecol.server.model.DiplomacySession;
 import net.sf.freecol.server.model.LootSession;
@@ -165,6 +167,9 @@ public final class InGameController extends Controller {
     private MonarchAction debugMonarchAction = null;
     private ServerPlayer debugMonarchPlayer = null;
 
+    /** The AI-only simulation being run, if any. */
+    private Simulation simulation = null;
+
 
     /**
      * The constructor to use.
@@ -221,6 +226,60 @@ public final class InGameController extends Controller {
         }
     }
 
+    /**
+     * Get the AI-only simulation being run.
+     *
+     * @return The {@code Simulation}, or null if none.
+     */
+    public Simulation getSimulation() {
+        return this.simulation;
+    }
+
+    /**
+     * Set the AI-only simulation being run.
+     *
+     * @param simulation The {@code Simulation}, or null if none.
+     */
+    public void setSimulation(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Start an AI-only simulation.
+     *
+     * There are no human players to log in and become the current
+     * player, so make the first player current directly.  The AI
+     * players then take their turns until the simulation ends.
+     *
+     * @param simulation The {@code Simulation} to run.
+     */
+    public void startSimulation(Simulation simulation) {
+        final ServerGame serverGame = getGame();
+        final ServerPlayer first = (ServerPlayer)serverGame.getNextPlayer();
+        this.simulation = simulation;
+        if (first == null) {
+            simulation.finish(null);
+            return;
+        }
+        logger.info("Starting simulation of " + simulation.getTurns()
+            + " turns with " + first.getName());
+        simulation.begin();
+        serverGame.setCurrentPlayer(first);
+        ChangeSet cs = new ChangeSet();
+        cs.add(See.all(), new SetCurrentPlayerMessage(first));
+        serverGame.sendToAll(cs);
+    }
+
+    /**
+     * End an AI-only simulation.
+     *
+     * @param winner The {@code ServerPlayer} that won, if any.
+     */
+    private void endSimulation(ServerPlayer winner) {
+        getGame().setCurrentPlayer(null);
+        this.simulation.finish(winner);
+    }
+
     /**
      * Sets a monarch action to debug/test.
      *
@@ -942,7 +1001,9 @@ public final class InGameController extends Controller {
 
         // Build settlement
         Tile tile = unit.getTile();
+        final int unitRadius = unit.getLineOfSight();
         Settlement settlement;
+        long epoch;
         if (Player.ASSIGN_SETTLEMENT_NAME.equals(name)) {
             name = serverPlayer.getSettlementName(random);
         }
@@ -973,6 +1034,7 @@ public final class InGameController extends Controller {
             }
 
             // Place settlement
+            epoch = serverPlayer.getCanSeeEpoch();
             serverPlayer.addSettlement(settlement);
             settlement.placeSettlement(false);//-vis(serverPlayer,?),-til
             cs.addHistory(serverPlayer, new HistoryEvent(game.getTurn(),
@@ -1002,6 +1064,7 @@ public final class InGameController extends Controller {
             }
 
             // Place settlement
+            epoch = serverPlayer.getCanSeeEpoch();
             serverPlayer.addSettlement(settlement);
             settlement.placeSettlement(true);//-vis(serverPlayer),-til
 
@@ -1018,7 +1081,10 @@ public final class InGameController extends Controller {
 
         // Update with settlement tile, and newly owned tiles.
         cs.add(See.perhaps(), settlement.getOwnedTiles());
-        serverPlayer.invalidateCanSeeTiles();//+vis(serverPlayer)
+        // The founding unit no longer sees from the tile, the
+        // settlement does.
+        serverPlayer.updateSight(epoch, tile, unitRadius,
+            tile, settlement.getLineOfSight());//+vis(serverPlayer)
 
         // Others can see tile changes.
         getGame().sendToOthers(serverPlayer, cs);
@@ -2032,6 +2098,22 @@ public final class InGameController extends Controller {
      * @return A {@code ChangeSet} encapsulating the end of turn changes.
      */
     public ChangeSet endTurn(ServerPlayer serverPlayer) {
+        final TurnProfiler.Sample s = FreeColDebugger
+            .profile("endTurn", serverPlayer.getSuffix());
+        try {
+            return csEndTurn(serverPlayer);
+        } finally {
+            s.end();
+        }
+    }
+
+    /**
+     * Implement endTurn.
+     *
+     * @param serverPlayer The {@code ServerPlayer} to end the turn of.
+     * @return A {@code ChangeSet} encapsulating the end of turn changes.
+     */
+    private ChangeSet csEndTurn(ServerPlayer serverPlayer) {
         final FreeColServer freeColServer = getFreeColServer();
         final ServerGame serverGame = getGame();
         ServerPlayer winner = serverGame.checkForWinner();
@@ -2051,10 +2133,17 @@ public final class InGameController extends Controller {
             // Check for new turn
             if (serverGame.isNextPlayerInNewTurn()) {
                 serverGame.csNextTurn(cs);
+                FreeColDebugger.profileNewTurn(serverGame.getTurn().getNumber());
 
                 LogBuilder lb = new LogBuilder(512);
                 lb.add("New turn ", serverGame.getTurn(), " for ");
-                serverGame.csNewTurn(random, lb, cs);
+                final TurnProfiler.Sample s = FreeColDebugger
+                    .profile("csNewTurn", serverGame.getId());
+                try {
+                    serverGame.csNewTurn(random, lb, cs);
+                } finally {
+                    s.end();
+                }
                 lb.shrink(", ");
                 lb.log(logger, Level.FINEST);
                 if (debugOnlyAITurns > 0) {
@@ -2067,6 +2156,11 @@ public final class InGameController extends Controller {
                 }
                 serverGame.sendToAll(cs); // Flush changes
                 cs.clear();
+                if (simulation != null && !simulation.turnCompleted()) {
+                    logger.info("Simulation complete at " + serverGame.getTurn());
+                    endSimulation(null);
+                    return cs;
+                }
             }
 
             if ((current = (ServerPlayer)serverGame.getNextPlayer()) == null) {
@@ -2100,12 +2194,11 @@ public final class InGameController extends Controller {
             // Do not proceed with a dead players turn
             if (current.isDead()) continue;
 
-            // Are there humans left?
-            // FIXME: see if this can be relaxed so we can run large
-            // AI-only simulations.
+            // Are there humans left?  AI-only simulations continue
+            // without them.
             List<Player> connected = serverGame.getConnectedPlayers();
             boolean onlyAI = all(connected, Player::isAI);
-            if (onlyAI) {
+            if (onlyAI && simulation == null) {
                 final Comparator<Player> scoreComp
                     = Comparator.comparingInt(Player::getScore).reversed();
                 winner = (ServerPlayer)first(sort(connected, scoreComp));
@@ -2130,6 +2223,11 @@ public final class InGameController extends Controller {
                 cs.add(See.all(), new GameEndedMessage(winner, highScore));
                 serverGame.sendToAll(cs);
                 cs.clear();
+                if (simulation != null) {
+                    logger.info("Simulation won by " + winner.getName());
+                    endSimulation(winner);
+                    return cs;
+                }
             }
 
             // Do "new turn"-like actions that need to wait until right
@@ -2148,7 +2246,13 @@ public final class InGameController extends Controller {
                     logger.severe("REF failed to initialize.");
                 }
             }
-            current.csStartTurn(random, cs);
+            final TurnProfiler.Sample s = FreeColDebugger
+                .profile("csStartTurn", current.getSuffix());
+            try {
+                current.csStartTurn(random, cs);
+            } finally {
+                s.end();
+            }
 
             cs.add(See.all(), new SetCurrentPlayerMessage(current));
             if (current.getPlayerType() == PlayerType.COLONIAL) {
@@ -2168,7 +2272,13 @@ public final class InGameController extends Controller {
                 if (action != null) {
                     if (monarch.actionIsValid(action)) {
                         logger.finest("Monarch action: " + action);
-                        csMonarchAction(current, action, cs);
+                        final TurnProfiler.Sample ms = FreeColDebugger
+                            .profile("monarch", action.toString());
+                        try {
+                            csMonarchAction(current, action, cs);
+                        } finally {
+                            ms.end();
+                        }
                     } else {
                         logger.finest("Skipping invalid monarch action: "
                             + action);
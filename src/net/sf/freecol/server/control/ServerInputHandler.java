@@ -67,6 +67,8 @@ public final class ServerInputHandler extends FreeColServerHolder
                 + message);
         }
         final Game game = freeColServer.getGame();
+        final CommandJournal journal = freeColServer.getJournal();
+        if (journal != null) journal.record(game, serverPlayer, message);
         final boolean current = message.currentPlayerMessage();
         ChangeSet cs = (current
             && (game == null || serverPlayer != game.getCurrentPlayer()))
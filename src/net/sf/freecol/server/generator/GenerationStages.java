@@ -0,0 +1,186 @@
+/**
+ *  Copyright (C) 2002-2020   The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import net.sf.freecol.common.util.LogBuilder;
+
+
+/**
+ * Runs the stages of map generation and times them.
+ *
+ * Banded stages split the map into bands of rows and work on each
+ * band as a separate task in a fork-join pool.  Each band draws from
+ * its own random stream, seeded from the generation seed, the stage
+ * name and the band number, so the result does not depend on how
+ * many threads run the bands or in what order.  Serial stages just
+ * run in the calling thread.
+ */
+final class GenerationStages {
+
+    /** The number of map rows in a band. */
+    public static final int BAND_HEIGHT = 16;
+
+    /**
+     * A task run on one band of the map.
+     */
+    @FunctionalInterface
+    interface BandTask {
+
+        /**
+         * Run the task on a band.
+         *
+         * @param y0 The first row of the band.
+         * @param y1 The row after the last row of the band.
+         * @param random The random stream of the band.
+         */
+        void run(int y0, int y1, Random random);
+    }
+
+    /** The generation seed. */
+    private final long seed;
+
+    /** The pool to run banded stages in. */
+    private final ForkJoinPool pool;
+
+    /** The names of the stages run so far. */
+    private final List<String> names = new ArrayList<>();
+
+    /** The time taken by each stage, in nanoseconds. */
+    private final List<Long> times = new ArrayList<>();
+
+
+    /**
+     * Create new generation stages running in the common pool.
+     *
+     * @param seed The generation seed.
+     */
+    public GenerationStages(long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create new generation stages.
+     *
+     * @param seed The generation seed.
+     * @param pool The {@code ForkJoinPool} to run banded stages in.
+     */
+    public GenerationStages(long seed, ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+
+    /**
+     * Get the random stream for a band of a stage.
+     *
+     * @param stage The stage name.
+     * @param band The band number.
+     * @return A new {@code Random}.
+     */
+    public Random getRandom(String stage, int band) {
+        long z = this.seed + 0x9E3779B97F4A7C15L * (stage.hashCode() + 1)
+            + 0xC2B2AE3D27D4EB4FL * (band + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new Random(z ^ (z >>> 31));
+    }
+
+    /**
+     * Record the time taken by a stage.
+     *
+     * @param name The stage name.
+     * @param start The {@code System.nanoTime} the stage started at.
+     */
+    private synchronized void record(String name, long start) {
+        this.names.add(name);
+        this.times.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Run a stage on bands of the map in parallel.
+     *
+     * @param name The stage name.
+     * @param height The map height.
+     * @param task The {@code BandTask} to run on each band.
+     */
+    public void runBands(String name, int height, BandTask task) {
+        final long start = System.nanoTime();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int y = 0, band = 0; y < height; y += BAND_HEIGHT, band++) {
+            final int y0 = y, y1 = Math.min(y + BAND_HEIGHT, height);
+            final Random random = getRandom(name, band);
+            tasks.add(ForkJoinTask.adapt(() -> task.run(y0, y1, random)));
+        }
+        this.pool.invoke(ForkJoinTask.adapt(() -> {
+                    ForkJoinTask.invokeAll(tasks);
+                }));
+        record(name, start);
+    }
+
+    /**
+     * Run a serial stage.
+     *
+     * @param name The stage name.
+     * @param stage The stage to run.
+     */
+    public void runSerial(String name, Runnable stage) {
+        final long start = System.nanoTime();
+        stage.run();
+        record(name, start);
+    }
+
+    /**
+     * Run a serial stage that produces a result.
+     *
+     * @param <T> The result type.
+     * @param name The stage name.
+     * @param stage The stage to run.
+     * @return The result of the stage.
+     */
+    public <T> T computeSerial(String name, Supplier<T> stage) {
+        final long start = System.nanoTime();
+        T ret = stage.get();
+        record(name, start);
+        return ret;
+    }
+
+    /**
+     * Report the stage timings.
+     *
+     * @param lb A {@code LogBuilder} to log to.
+     */
+    public synchronized void report(LogBuilder lb) {
+        long total = 0L;
+        lb.add("Generation stage timings (ms):");
+        for (int i = 0; i < this.names.size(); i++) {
+            final long t = this.times.get(i);
+            lb.add(" ", this.names.get(i), "=", t / 1000000L);
+            total += t;
+        }
+        lb.add(" total=", total / 1000000L, "\n");
+    }
+}
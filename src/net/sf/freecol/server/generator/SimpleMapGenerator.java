@@ -583,12 +583,13 @@ public class SimpleMapGenerator implements MapGenerator {
      */
     private boolean suitableForNativeSettlement(Tile tile) {
         if (!tile.getType().canSettle()) return false;
-        int good = 0, n = 0;
-        for (Tile t : tile.getSurroundingTiles(1)) {
-            if (t.getType().canSettle()) good++;
-            n++;
-        }
-        return good >= n / 2;
+        final Map map = tile.getMap();
+        final int[] count = new int[2]; // good, all
+        map.forEachInDisk(tile, 1, 1, i -> {
+                if (map.getTile(i).getType().canSettle()) count[0]++;
+                count[1]++;
+            });
+        return count[0] >= count[1] / 2;
     }
 
     /**
@@ -716,13 +717,14 @@ public class SimpleMapGenerator implements MapGenerator {
                         Collectors.toMap(rc ->
                             rc.getObject().getExpertProduction(), rc -> 1));
 
-        for (Tile t: tile.getSurroundingTiles(1)) {
-            forEachMapEntry(scale, e -> {
-                    GoodsType goodsType = e.getKey();
-                    scale.put(goodsType, e.getValue()
-                        + t.getPotentialProduction(goodsType, null));
-                });
-        }
+        map.forEachInDisk(tile, 1, 1, i -> {
+                final Tile t = map.getTile(i);
+                forEachMapEntry(scale, e -> {
+                        GoodsType goodsType = e.getKey();
+                        scale.put(goodsType, e.getValue()
+                            + t.getPotentialProduction(goodsType, null));
+                    });
+            });
 
         final Function<RandomChoice<UnitType>, RandomChoice<UnitType>> mapper
             = rc -> {
@@ -1059,9 +1061,13 @@ public class SimpleMapGenerator implements MapGenerator {
     @Override
     public Map generateEmptyMap(Game game, int width, int height,
                                 LogBuilder lb) {
-        return new TerrainGenerator(this.random)
+        final GenerationStages stages
+            = new GenerationStages(this.random.nextLong());
+        Map map = new TerrainGenerator(this.random, stages)
             .generateMap(game, null,
                          new LandMap(width, height, this.cache), lb);
+        stages.report(lb);
+        return map;
     }
 
     /**
@@ -1069,20 +1075,28 @@ public class SimpleMapGenerator implements MapGenerator {
      */
     @Override
     public Map generateMap(Game game, Map importMap, LogBuilder lb) {
+        final GenerationStages stages
+            = new GenerationStages(this.random.nextLong());
+
         // Create land map.
-        LandMap landMap = (importMap != null)
+        LandMap landMap = stages.computeSerial("land", () ->
+            (importMap != null)
             ? new LandMap(importMap, this.cache)
-            : new LandMap(game.getMapGeneratorOptions(), this.cache);
+            : new LandMap(game.getMapGeneratorOptions(), this.cache));
 
         // Create terrain.
-        Map map = new TerrainGenerator(this.random)
+        Map map = new TerrainGenerator(this.random, stages)
             .generateMap(game, importMap, landMap, lb);
 
         // Decorate the map.
-        makeNativeSettlements(map, importMap, lb);
-        makeLostCityRumours(map, importMap, lb);
-        createEuropeanUnits(map, game.getLiveEuropeanPlayerList(), lb);
+        stages.runSerial("settlements",
+            () -> makeNativeSettlements(map, importMap, lb));
+        stages.runSerial("rumours",
+            () -> makeLostCityRumours(map, importMap, lb));
+        stages.runSerial("units", () -> createEuropeanUnits(map,
+                game.getLiveEuropeanPlayerList(), lb));
         lb.shrink("\n");
+        stages.report(lb);
         return map;
     }
 }
@@ -25,6 +25,7 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.function.BiPredicate;
 import java.util.logging.Logger;
 
 import net.sf.freecol.common.model.Game;
@@ -69,23 +70,52 @@ public class TerrainGenerator {
     /** A cached random integer source. */
     private final RandomIntCache cache;
 
+    /** The stages of generation, and their timings. */
+    private final GenerationStages stages;
+
     /** The cached land and ocean tile types. */
     private List<TileType> landTileTypes = null;
     private List<TileType> oceanTileTypes = null;
 
+    /**
+     * A bonus planned for a tile.
+     */
+    private static final class Bonus {
+
+        /** The resource type to add, if any. */
+        public ResourceType resourceType = null;
+
+        /** The resource quantity. */
+        public int quantity = 0;
+
+        /** Add the land and river fish bonuses? */
+        public boolean fishLand = false, fishRiver = false;
+    }
+
 
     /**
      * Creates a new {@code TerrainGenerator}.
      * 
      * FIXME: cache or randomizer???
      *
-     * @param cache A {@code RandomIntCache} number source.
+     * @param random The {@code Random} number source.
      * @see #generateMap
      */
     public TerrainGenerator(Random random) {
+        this(random, new GenerationStages(random.nextLong()));
+    }
+
+    /**
+     * Creates a new {@code TerrainGenerator} running in given stages.
+     *
+     * @param random The {@code Random} number source.
+     * @param stages The {@code GenerationStages} to run in.
+     */
+    TerrainGenerator(Random random, GenerationStages stages) {
         this.random = random;
         this.cache = new RandomIntCache(logger, "terrain", random,
                                         1 << 16, 512);
+        this.stages = stages;
     }
 
 
@@ -110,6 +140,26 @@ public class TerrainGenerator {
             / 100;
     }
 
+    /**
+     * Initialize the land and ocean tile types.  This must be done
+     * before the tiles are typed in parallel.
+     *
+     * @param spec The {@code Specification} to use.
+     */
+    private void initializeTileTypes(Specification spec) {
+        if (landTileTypes == null) {
+            // Do not generate elevated and water tiles at this time
+            // they are created elsewhere.
+            landTileTypes = transform(spec.getTileTypeList(),
+                                      t -> !t.isElevation() && !t.isWater());
+        }
+        if (oceanTileTypes == null) {
+            oceanTileTypes = transform(spec.getTileTypeList(),
+                                       t -> t.isWater() && t.isHighSeasConnected()
+                                           && !t.isDirectlyHighSeasConnected());
+        }
+    }
+
     /**
      * Gets a random land tile type based on the latitude.
      *
@@ -118,17 +168,12 @@ public class TerrainGenerator {
      *     poles and equator:
      *     0 is the mid-section of the map (equator)
      *     +/-90 is on the bottom/top of the map (poles).
+     * @param random The {@code Random} number source.
      * @return A suitable random land tile type.
      */
-    private TileType getRandomLandTileType(Game game, int latitude) {
-        final Specification spec = game.getSpecification();
-        if (landTileTypes == null) {
-            // Do not generate elevated and water tiles at this time
-            // they are created elsewhere.
-            landTileTypes = transform(spec.getTileTypeList(),
-                                      t -> !t.isElevation() && !t.isWater());
-        }
-        return getRandomTileType(game, landTileTypes, latitude);
+    private TileType getRandomLandTileType(Game game, int latitude,
+                                           Random random) {
+        return getRandomTileType(game, landTileTypes, latitude, random);
     }
 
     /**
@@ -136,16 +181,12 @@ public class TerrainGenerator {
      *
      * @param game The {@code Game} to generate for.
      * @param latitude The latitude of the proposed tile.
+     * @param random The {@code Random} number source.
      * @return A suitable random ocean tile type.
      */
-    private TileType getRandomOceanTileType(Game game, int latitude) {
-        final Specification spec = game.getSpecification();
-        if (oceanTileTypes == null) {
-            oceanTileTypes = transform(spec.getTileTypeList(),
-                                       t -> t.isWater() && t.isHighSeasConnected()
-                                           && !t.isDirectlyHighSeasConnected());
-        }
-        return getRandomTileType(game, oceanTileTypes, latitude);
+    private TileType getRandomOceanTileType(Game game, int latitude,
+                                            Random random) {
+        return getRandomTileType(game, oceanTileTypes, latitude, random);
     }
 
     /**
@@ -157,10 +198,11 @@ public class TerrainGenerator {
      * @param candidates A list of {@code TileType}s to use for
      *     calculations.
      * @param latitude The tile latitude.
+     * @param random The {@code Random} number source.
      * @return A suitable {@code TileType}.
      */
     private TileType getRandomTileType(Game game, List<TileType> candidates,
-                                       int latitude) {
+                                       int latitude, Random random) {
         final OptionGroup mapOptions = game.getMapGeneratorOptions();
         final Specification spec = game.getSpecification();
         // decode options
@@ -201,14 +243,14 @@ public class TerrainGenerator {
         int localeTemperature = poleTemperature + (90 - Math.abs(latitude))
             * temperatureRange/90;
         int temperatureDeviation = 7; // +/- 7 degrees randomization
-        localeTemperature += this.cache.nextInt(temperatureDeviation * 2)
+        localeTemperature += random.nextInt(temperatureDeviation * 2)
             - temperatureDeviation;
         localeTemperature = limitToRange(localeTemperature, -20, 40);
 
         // humidity calculation
         int localeHumidity = spec.getRange(MapGeneratorOptions.HUMIDITY);
         int humidityDeviation = 20; // +/- 20% randomization
-        localeHumidity += this.cache.nextInt(humidityDeviation * 2)
+        localeHumidity += random.nextInt(humidityDeviation * 2)
             - humidityDeviation;
         localeHumidity = limitToRange(localeHumidity, 0, 100);
 
@@ -261,7 +303,7 @@ public class TerrainGenerator {
         }
 
         // Filter the candidates by forest presence.
-        boolean forested = this.cache.nextInt(100) < forestChance;
+        boolean forested = random.nextInt(100) < forestChance;
         i = 0;
         while (i < candidateTileTypes.size()) {
             TileType type = candidateTileTypes.get(i);
@@ -280,7 +322,7 @@ public class TerrainGenerator {
         case 1:
             return first(candidateTileTypes);
         default:
-            return candidateTileTypes.get(this.cache.nextInt(i));
+            return candidateTileTypes.get(random.nextInt(i));
         }
     }
 
@@ -667,84 +709,110 @@ public class TerrainGenerator {
     }
 
     /**
-     * Adds a terrain bonus with a probability determined by the
-     * {@code MapGeneratorOptions}.
+     * Plans a terrain bonus with a probability determined by the
+     * {@code MapGeneratorOptions}.  Only reads the map, so bonuses
+     * can be planned in parallel and added in tile order later.
      *
-     * @param t The {@code Tile} to add bonuses to.
+     * @param map The {@code Map} to work on.
+     * @param landDistance The distance of each tile to land.
+     * @param t The {@code Tile} to plan bonuses for.
      * @param generateBonus Generate the bonus or not.
+     * @param random The {@code Random} number source.
+     * @return The planned {@code Bonus}, or null if none.
      */
-    private void perhapsAddBonus(Tile t, boolean generateBonus) {
+    private Bonus planBonus(Map map, int[] landDistance, Tile t,
+                            boolean generateBonus, Random random) {
         final Game game = t.getGame();
         final OptionGroup mapOptions = game.getMapGeneratorOptions();
-        final Specification spec = game.getSpecification();
-        TileImprovementType fishBonusLandType
-            = spec.getTileImprovementType("model.improvement.fishBonusLand");
-        TileImprovementType fishBonusRiverType
-            = spec.getTileImprovementType("model.improvement.fishBonusRiver");
         final int bonusNumber
             = mapOptions.getRange(MapGeneratorOptions.BONUS_NUMBER);
+        final Bonus bonus = new Bonus();
         if (t.isLand()) {
-            if (generateBonus && this.cache.nextInt(100) < bonusNumber) {
+            if (generateBonus && random.nextInt(100) < bonusNumber) {
                 // Create random Bonus Resource
-                t.addResource(createResource(t));
+                planResource(bonus, t, random);
             }
         } else {
             int adjacentLand = 0;
             boolean adjacentRiver = false;
-            for (Direction direction : Direction.values()) {
-                Tile otherTile = t.getNeighbourOrNull(direction);
-                if (otherTile != null && otherTile.isLand()) {
-                    adjacentLand++;
-                    if (otherTile.hasRiver()) {
-                        adjacentRiver = true;
+            // Open water needs no neighbour scan
+            if (landDistance[map.getTileIndex(t)] == 1) {
+                for (Direction direction : Direction.values()) {
+                    Tile otherTile = t.getNeighbourOrNull(direction);
+                    if (otherTile != null && otherTile.isLand()) {
+                        adjacentLand++;
+                        if (otherTile.hasRiver()) {
+                            adjacentRiver = true;
+                        }
                     }
                 }
             }
 
             // In Col1, ocean tiles with less than 3 land neighbours
             // produce 2 fish, all others produce 4 fish
-            if (adjacentLand > 2) {
-                t.add(new TileImprovement(game, t, fishBonusLandType, null));
-            }
+            bonus.fishLand = adjacentLand > 2;
 
             // In Col1, the ocean tile in front of a river mouth would
             // get an additional +1 bonus
             // FIXME: This probably has some false positives, means
             // river tiles that are NOT a river mouth next to this tile!
-            if (adjacentRiver && !t.hasRiver()) {
-                t.add(new TileImprovement(game, t, fishBonusRiverType, null));
-            }
+            bonus.fishRiver = adjacentRiver && !t.hasRiver();
 
             if (t.getType().isHighSeasConnected()) {
                 if (generateBonus && adjacentLand > 1
-                    && this.cache.nextInt(10 - adjacentLand) == 0) {
-                    t.addResource(createResource(t));
+                    && random.nextInt(10 - adjacentLand) == 0) {
+                    planResource(bonus, t, random);
                 }
             } else {
-                if (this.cache.nextInt(100) < bonusNumber) {
+                if (random.nextInt(100) < bonusNumber) {
                     // Create random Bonus Resource
-                    t.addResource(createResource(t));
+                    planResource(bonus, t, random);
                 }
             }
         }
+        return (bonus.resourceType == null && !bonus.fishLand
+            && !bonus.fishRiver) ? null : bonus;
     }
 
     /**
-     * Create a random resource on a tile.
+     * Plan a random resource on a tile.
      *
-     * @param tile The {@code Tile} to create the resource on.
-     * @return The created resource, or null if it is not possible.
+     * @param bonus The {@code Bonus} to plan the resource in.
+     * @param tile The {@code Tile} to plan the resource for.
+     * @param random The {@code Random} number source.
      */
-    private Resource createResource(Tile tile) {
-        if (tile == null) return null;
+    private void planResource(Bonus bonus, Tile tile, Random random) {
         ResourceType resourceType = RandomChoice.getWeightedRandom(null, null,
-            tile.getType().getResourceTypes(), this.random);
-        if (resourceType == null) return null;
+            tile.getType().getResourceTypes(), random);
+        if (resourceType == null) return;
         int minValue = resourceType.getMinValue();
         int maxValue = resourceType.getMaxValue();
-        int quantity = (minValue == maxValue) ? maxValue
-            : (minValue + this.cache.nextInt(maxValue - minValue + 1));
-        return new Resource(tile.getGame(), tile, resourceType, quantity);
+        bonus.resourceType = resourceType;
+        bonus.quantity = (minValue == maxValue) ? maxValue
+            : (minValue + random.nextInt(maxValue - minValue + 1));
+    }
+
+    /**
+     * Add a planned bonus to a tile.
+     *
+     * @param t The {@code Tile} to add the bonus to.
+     * @param bonus The planned {@code Bonus}.
+     */
+    private void addBonus(Tile t, Bonus bonus) {
+        final Game game = t.getGame();
+        final Specification spec = game.getSpecification();
+        if (bonus.fishLand) {
+            t.add(new TileImprovement(game, t, spec.getTileImprovementType(
+                        "model.improvement.fishBonusLand"), null));
+        }
+        if (bonus.fishRiver) {
+            t.add(new TileImprovement(game, t, spec.getTileImprovementType(
+                        "model.improvement.fishBonusRiver"), null));
+        }
+        if (bonus.resourceType != null) {
+            t.addResource(new Resource(game, t, bonus.resourceType,
+                                       bonus.quantity));
+        }
     }
 
     /**
@@ -849,13 +917,35 @@ public class TerrainGenerator {
         final Map.Layer layer = (importRumours) ? Map.Layer.RUMOURS
             : (importBonuses) ? Map.Layer.RESOURCES
             : Map.Layer.RIVERS;
+        final BiPredicate<Integer, Integer> imported = (x, y) -> {
+            Tile otherTile;
+            return importTerrain
+                && importMap.isValid(x, y)
+                && (otherTile = importMap.getTile(x, y)) != null
+                && otherTile.isLand() == landMap.isLand(x, y);
+        };
+
+        // Choose the types of the new tiles band by band.
+        initializeTileTypes(game.getSpecification());
+        final TileType[] types = new TileType[width * height];
+        stages.runBands("types", height, (y0, y1, r) -> {
+                for (int y = y0; y < y1; y++) {
+                    final int latitude = map.getLatitude(y);
+                    for (int x = 0; x < width; x++) {
+                        if (imported.test(x, y)) continue;
+                        types[y * width + x] = (landMap.isLand(x, y))
+                            ? getRandomLandTileType(game, latitude, r)
+                            : getRandomOceanTileType(game, latitude, r);
+                    }
+                }
+            });
+
+        // Create the tiles in order, so their identifiers are stable.
         List<Tile> fixRegions = new ArrayList<>();
-        map.populateTiles((x, y) -> {
-                Tile t, otherTile = null;
-                if (importTerrain
-                    && importMap.isValid(x, y)
-                    && (otherTile = importMap.getTile(x, y)) != null
-                    && otherTile.isLand() == landMap.isLand(x, y)) {
+        stages.runSerial("tiles", () -> map.populateTiles((x, y) -> {
+                Tile t;
+                if (imported.test(x, y)) {
+                    Tile otherTile = importMap.getTile(x, y);
                     t = map.importTile(otherTile, x, y, layer);
                     Region r = otherTile.getRegion();
                     if (r == null) {
@@ -871,32 +961,34 @@ public class TerrainGenerator {
                         }
                     }
                 } else {
-                    final int latitude = map.getLatitude(y);
-                    TileType tt = (landMap.isLand(x, y))
-                        ? getRandomLandTileType(game, latitude)
-                        : getRandomOceanTileType(game, latitude);
-                    t = new Tile(game, tt, x, y);
+                    t = new Tile(game, types[y * width + x], x, y);
                 }
                 return t;
-            });
+            }));
 
         // Build the regions.
         List<ServerRegion> fixed = ServerRegion.requireFixedRegions(map, lb);
         List<ServerRegion> newRegions = new ArrayList<>();
         if (importTerrain) {
             if (!fixRegions.isEmpty()) { // Fix the tiles missing regions.
-                newRegions.addAll(createLakeRegions(map, lb));
-                newRegions.addAll(createLandRegions(map, lb));
+                newRegions.addAll(stages.computeSerial("lakes",
+                        () -> createLakeRegions(map, lb)));
+                newRegions.addAll(stages.computeSerial("land-regions",
+                        () -> createLandRegions(map, lb)));
             }
         } else {
-            map.resetHighSeas(
+            stages.runSerial("high-seas", () -> map.resetHighSeas(
                 mapOptions.getInteger(MapGeneratorOptions.DISTANCE_TO_HIGH_SEA),
-                mapOptions.getInteger(MapGeneratorOptions.MAXIMUM_DISTANCE_TO_EDGE));
+                mapOptions.getInteger(MapGeneratorOptions.MAXIMUM_DISTANCE_TO_EDGE)));
             if (landMap.hasLand()) {
-                newRegions.addAll(createMountains(map, lb));
-                newRegions.addAll(createRivers(map, lb));
-                newRegions.addAll(createLakeRegions(map, lb));
-                newRegions.addAll(createLandRegions(map, lb));
+                newRegions.addAll(stages.computeSerial("mountains",
+                        () -> createMountains(map, lb)));
+                newRegions.addAll(stages.computeSerial("rivers",
+                        () -> createRivers(map, lb)));
+                newRegions.addAll(stages.computeSerial("lakes",
+                        () -> createLakeRegions(map, lb)));
+                newRegions.addAll(stages.computeSerial("land-regions",
+                        () -> createLandRegions(map, lb)));
             }
         }
         lb.shrink("\n");
@@ -921,14 +1013,31 @@ public class TerrainGenerator {
         // Add the bonuses only after the map is completed.
         // Otherwise we risk creating resources on fields where they
         // do not belong (like sugar in large rivers or tobacco on hills).
-        map.forEachTile(t -> {
-                perhapsAddBonus(t, !importBonuses);
-                if (!t.isLand()) encodeStyle(t);
+        // The bonuses are planned band by band, along with the water
+        // styles which only depend on the neighbouring terrain, then
+        // added in tile order so their identifiers are stable.
+        final int[] landDistance = map.getLandDistance();
+        final Bonus[] bonuses = new Bonus[width * height];
+        stages.runBands("bonuses", height, (y0, y1, r) -> {
+                for (int y = y0; y < y1; y++) {
+                    for (int x = 0; x < width; x++) {
+                        final Tile t = map.getTile(x, y);
+                        bonuses[y * width + x] = planBonus(map, landDistance,
+                            t, !importBonuses, r);
+                        if (!t.isLand()) encodeStyle(t);
+                    }
+                }
             });
+        stages.runSerial("add-bonuses", () -> map.forEachTile(t -> {
+                    final Bonus b = bonuses[map.getTileIndex(t)];
+                    if (b != null) addBonus(t, b);
+                }));
 
         // Final cleanups
-        map.resetContiguity();
-        map.resetHighSeasCount();
+        stages.runSerial("cleanup", () -> {
+                map.resetContiguity();
+                map.resetHighSeasCount();
+            });
         return map;
     }
 }
@@ -657,6 +657,51 @@ public class ServerColony extends Colony implements TurnTaker {
 
     // Implement TurnTaker
 
+    /**
+     * Export goods from this colony through its custom house.
+     *
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     */
+    public void csExportGoods(Random random, LogBuilder lb, ChangeSet cs) {
+        final ServerPlayer owner = (ServerPlayer)getOwner();
+        final GoodsContainer container = getGoodsContainer();
+        LogBuilder lb2 = new LogBuilder(64);
+        lb2.add(" ");
+        lb2.mark();
+        for (Goods goods : getCompactGoodsList()) {
+            GoodsType type = goods.getType();
+            ExportData data = getExportData(type);
+            if (!data.getExported()
+                || !owner.canTrade(goods.getType(), Market.Access.CUSTOM_HOUSE)) continue;
+            int amount = goods.getAmount() - data.getExportLevel();
+            if (amount <= 0) continue;
+            int oldGold = owner.getGold();
+            int marketAmount = owner.sellInEurope(random, container,
+                                                  type, amount);
+            if (marketAmount > 0) {
+                owner.addExtraTrade(new AbstractGoods(type, marketAmount));
+            }
+            StringTemplate st = StringTemplate.template("model.colony.customs.saleData")
+                .addAmount("%amount%", amount)
+                .addNamed("%goods%", type)
+                .addAmount("%gold%", (owner.getGold() - oldGold));
+            lb2.add(Messages.message(st), ", ");
+        }
+        if (lb2.grew()) {
+            lb2.shrink(", ");
+            cs.addMessage(owner,
+                new ModelMessage(MessageType.GOODS_MOVEMENT,
+                                 "model.colony.customs.sale", this)
+                    .addName("%colony%", getName())
+                    .addName("%data%", lb2.toString()));
+            cs.addPartial(See.only(owner), owner,
+                "gold", String.valueOf(owner.getGold()));
+            lb.add(lb2.toString());
+        }
+    }
+
     /**
      * New turn for this colony.
      * Try to find out if the colony is going to survive (last colonist does
@@ -680,7 +725,9 @@ public class ServerColony extends Colony implements TurnTaker {
         // nonsensical 0-unit colony.
         if (getUnitCount() <= 0) {
             lb.add(" 0-unit DISPOSING, ");
-            owner.csDisposeSettlement(this, cs);
+            if (!owner.deferDisposal(this)) {
+                owner.csDisposeSettlement(this, cs);
+            }
             return;
         }
 
@@ -785,7 +832,9 @@ public class ServerColony extends Colony implements TurnTaker {
                                              "model.colony.colonyStarved",
                                              this)
                                 .addName("%colony%", getName()));
-                        owner.csDisposeSettlement(this, cs);
+                        if (!owner.deferDisposal(this)) {
+                            owner.csDisposeSettlement(this, cs);
+                        }
                         return;
                     }
                 } else if (net < 0) {
@@ -835,40 +884,8 @@ public class ServerColony extends Colony implements TurnTaker {
         // Export goods if custom house is built.
         // Do not flush price changes yet, as any price change may change
         // yet again in csYearlyGoodsAdjust.
-        if (hasAbility(Ability.EXPORT)) {
-            LogBuilder lb2 = new LogBuilder(64);
-            lb2.add(" ");
-            lb2.mark();
-            for (Goods goods : getCompactGoodsList()) {
-                GoodsType type = goods.getType();
-                ExportData data = getExportData(type);
-                if (!data.getExported()
-                    || !owner.canTrade(goods.getType(), Market.Access.CUSTOM_HOUSE)) continue;
-                int amount = goods.getAmount() - data.getExportLevel();
-                if (amount <= 0) continue;
-                int oldGold = owner.getGold();
-                int marketAmount = owner.sellInEurope(random, container,
-                                                      type, amount);
-                if (marketAmount > 0) {
-                    owner.addExtraTrade(new AbstractGoods(type, marketAmount));
-                }
-                StringTemplate st = StringTemplate.template("model.colony.customs.saleData")
-                    .addAmount("%amount%", amount)
-                    .addNamed("%goods%", type)
-                    .addAmount("%gold%", (owner.getGold() - oldGold));
-                lb2.add(Messages.message(st), ", ");
-            }
-            if (lb2.grew()) {
-                lb2.shrink(", ");
-                cs.addMessage(owner,
-                    new ModelMessage(MessageType.GOODS_MOVEMENT,
-                                     "model.colony.customs.sale", this)
-                        .addName("%colony%", getName())
-                        .addName("%data%", lb2.toString()));
-                cs.addPartial(See.only(owner), owner,
-                    "gold", String.valueOf(owner.getGold()));
-                lb.add(lb2.toString());
-            }
+        if (hasAbility(Ability.EXPORT) && !owner.deferExport(this)) {
+            csExportGoods(random, lb, cs);
         }
 
         // Check for free buildings
@@ -21,10 +21,13 @@ package net.sf.freecol.server.model;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -39,6 +42,9 @@ import java.util.logging.Logger;
 
 import javax.xml.stream.XMLStreamException;
 
+import net.sf.freecol.FreeCol;
+import net.sf.freecol.common.debug.FreeColDebugger;
+import net.sf.freecol.common.debug.TurnProfiler;
 import net.sf.freecol.common.i18n.NameCache;
 import net.sf.freecol.common.io.FreeColXMLReader;
 import net.sf.freecol.common.model.Colony;
@@ -87,9 +93,93 @@ public class ServerGame extends Game implements TurnTaker {
 
     private static final Logger logger = Logger.getLogger(ServerGame.class.getName());
 
+    /**
+     * The number of identifiers reserved for each player at a time
+     * during the parallel new turn.
+     */
+    private static final int ID_BLOCK_SIZE = 1024;
+
+    /**
+     * The identifiers reserved for one player during the parallel new
+     * turn.
+     *
+     * The blocks of all the players are laid out in rounds from a
+     * common base.  A player that uses up its block moves on to its
+     * block in the next round, so the identifiers each player gets do
+     * not depend on how the players are scheduled.
+     */
+    private static final class IdBlock {
+
+        /** The base identifier, the number of players and the index. */
+        private final int base, players, index;
+
+        /** The current round. */
+        private int round = -1;
+
+        /** The next identifier and the end of the current block. */
+        private int next = 0, end = 0;
+
+
+        /**
+         * Create a new identifier block.
+         *
+         * @param base The first identifier reserved.
+         * @param players The number of players sharing the rounds.
+         * @param index The index of the player.
+         */
+        public IdBlock(int base, int players, int index) {
+            this.base = base;
+            this.players = players;
+            this.index = index;
+        }
+
+        /**
+         * Get the next identifier, moving on a round if needed.
+         *
+         * @return The next identifier.
+         */
+        public int next() {
+            if (this.next >= this.end) {
+                this.round++;
+                this.next = this.base
+                    + (this.round * this.players + this.index) * ID_BLOCK_SIZE;
+                this.end = this.next + ID_BLOCK_SIZE;
+            }
+            return this.next++;
+        }
+
+        /**
+         * Get the number of rounds used.
+         *
+         * @return The number of rounds this block has reached.
+         */
+        public int getRounds() {
+            return this.round + 1;
+        }
+    }
+
     /** Timestamp of last move, if any.  Do not serialize. */
     private long lastTime = -1L;
 
+    /**
+     * The number of threads to run the new turn in, or zero for the
+     * classic serial new turn.  Initially set from the command line.
+     * Do not serialize.
+     */
+    private int newTurnThreads = FreeCol.getNewTurnThreads();
+
+    /** The pool for the parallel new turn, created on demand. */
+    private ForkJoinPool newTurnPool = null;
+
+    /** Lock for identifier allocation. */
+    private final Object idLock = new Object();
+
+    /**
+     * The identifier block of the current thread, if the thread is
+     * running the local phase of a player's new turn.
+     */
+    private final ThreadLocal<IdBlock> idBlock = new ThreadLocal<>();
+
 
     /**
      * Creates a new game model.
@@ -142,9 +232,66 @@ public class ServerGame extends Game implements TurnTaker {
      */
     @Override
     public int getNextId() {
-        int ret = this.nextId;
-        this.nextId++;
-        return ret;
+        final IdBlock block = this.idBlock.get();
+        if (block != null) return block.next();
+        synchronized (this.idLock) {
+            int ret = this.nextId;
+            this.nextId++;
+            return ret;
+        }
+    }
+
+    /**
+     * Get the number of threads the new turn runs in.
+     *
+     * @return The number of threads, zero for the classic serial
+     *     new turn.
+     */
+    public int getNewTurnThreads() {
+        return this.newTurnThreads;
+    }
+
+    /**
+     * Set the number of threads the new turn runs in.
+     *
+     * With one or more threads the new turn of each player is split
+     * into a local and a shared phase, see {@link #csNewTurn}, and
+     * with more than one the local phases run in parallel.  The
+     * result for a given seed is the same for any number of threads.
+     *
+     * @param threads The number of threads, zero for the classic
+     *     serial new turn.
+     */
+    public synchronized void setNewTurnThreads(int threads) {
+        this.newTurnThreads = Math.max(0, threads);
+        if (this.newTurnPool != null
+            && this.newTurnPool.getParallelism() != this.newTurnThreads) {
+            this.newTurnPool.shutdown();
+            this.newTurnPool = null;
+        }
+    }
+
+    /**
+     * Get the pool to run the parallel new turn in.
+     *
+     * @return The {@code ForkJoinPool}.
+     */
+    private synchronized ForkJoinPool getNewTurnPool() {
+        if (this.newTurnPool == null) {
+            this.newTurnPool = new ForkJoinPool(this.newTurnThreads);
+        }
+        return this.newTurnPool;
+    }
+
+    /**
+     * Shut down the pool of the parallel new turn, as the game is
+     * being torn down.  A later parallel new turn makes a new pool.
+     */
+    public synchronized void shutdownNewTurnPool() {
+        if (this.newTurnPool != null) {
+            this.newTurnPool.shutdown();
+            this.newTurnPool = null;
+        }
     }
 
     /**
@@ -191,7 +338,38 @@ public class ServerGame extends Game implements TurnTaker {
      * @param cs The {@code ChangeSet} to send.
      */
     public void sendToList(List<Player> players, ChangeSet cs) {
-        for (Player p : players) sendTo(p, cs);
+        // Only build for the players that can actually receive.
+        players = transform(players, Player::isConnected);
+        if (players.size() <= 1) {
+            for (Player p : players) sendTo(p, cs);
+            return;
+        }
+        // Build the messages for all the players at once, so that
+        // the parts they share are only built once.
+        final java.util.Map<Player, Message> messages;
+        final TurnProfiler.Sample bs = FreeColDebugger
+            .profile("ChangeSet.build", "shared");
+        try {
+            messages = cs.build(players);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "build(" + cs + ") failed", e);
+            for (Player p : players) sendTo(p, cs);
+            return;
+        } finally {
+            bs.end();
+        }
+        for (Player p : players) {
+            final TurnProfiler.Sample s = FreeColDebugger
+                .profile("send", p.getSuffix());
+            try {
+                ((ServerPlayer)p).send(messages.get(p));
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "sendTo(" + p.getId()
+                    + "," + cs + ") failed", e);
+            } finally {
+                s.end();
+            }
+        }
     }
 
     /**
@@ -202,6 +380,8 @@ public class ServerGame extends Game implements TurnTaker {
      * @return True if the change was sent.
      */
     public boolean sendTo(Player player, ChangeSet cs) {
+        final TurnProfiler.Sample s = FreeColDebugger
+            .profile("send", player.getSuffix());
         try {
             return player.send(cs);
         } catch (Exception e) {
@@ -211,6 +391,8 @@ public class ServerGame extends Game implements TurnTaker {
             // exercised here, so it is a good place to find new fails.
             logger.log(Level.WARNING, "sendTo(" + player.getId()
                 + "," + cs + ") failed", e);
+        } finally {
+            s.end();
         }
         return false;
     }
@@ -689,6 +871,85 @@ public class ServerGame extends Game implements TurnTaker {
     }
 
 
+    /**
+     * Run the new turn for the players with their local phases in
+     * parallel.
+     *
+     * Each player gets its own random stream, drawn in player order
+     * from the server random, its own change set, and its own blocks
+     * of object identifiers, so the result for a given seed does not
+     * depend on the number of threads or how they are scheduled.  The
+     * identifier counter is held while the local phases run, so other
+     * threads wait rather than take identifiers from the blocks.  The
+     * local phases, which only touch each player's colonies and units
+     * in colonies or Europe, run in the pool, or in turn on this
+     * thread if there is only one.  The shared phases, which touch the
+     * map, the markets and other players, then run serially in player
+     * order, merging the local changes first.
+     *
+     * @param players The live {@code Player}s.
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     */
+    private void csParallelNewTurn(List<Player> players, Random random,
+                                   LogBuilder lb, ChangeSet cs) {
+        final int n = players.size();
+        final Random[] randoms = new Random[n];
+        final ChangeSet[] changes = new ChangeSet[n];
+        final LogBuilder[] logs = new LogBuilder[n];
+        synchronized (this.idLock) {
+            final int base = this.nextId;
+            final IdBlock[] blocks = new IdBlock[n];
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                final ServerPlayer sp = (ServerPlayer)players.get(i);
+                final IdBlock block = blocks[i] = new IdBlock(base, n, i);
+                final Random r = randoms[i] = new Random(random.nextLong());
+                final ChangeSet c = changes[i] = new ChangeSet();
+                final LogBuilder l = logs[i] = new LogBuilder(256);
+                sp.deferSharedChanges();
+                tasks.add(ForkJoinTask.adapt(() -> {
+                            this.idBlock.set(block);
+                            final TurnProfiler.Sample s = FreeColDebugger
+                                .profile("newTurnLocal", sp.getSuffix());
+                            try {
+                                sp.csNewTurnLocal(r, l, c);
+                            } finally {
+                                s.end();
+                                this.idBlock.remove();
+                            }
+                        }));
+            }
+            try {
+                if (this.newTurnThreads > 1) {
+                    getNewTurnPool().invoke(ForkJoinTask.adapt(() -> {
+                                ForkJoinTask.invokeAll(tasks);
+                            }));
+                } else {
+                    for (ForkJoinTask<?> t : tasks) t.invoke();
+                }
+            } finally {
+                this.nextId = base + ID_BLOCK_SIZE * n
+                    * max(Arrays.asList(blocks), IdBlock::getRounds);
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            final ServerPlayer sp = (ServerPlayer)players.get(i);
+            lb.add(logs[i].toString());
+            cs.merge(changes[i]);
+            final TurnProfiler.Sample s = FreeColDebugger
+                .profile("newTurnShared", sp.getSuffix());
+            try {
+                sp.csNewTurnShared(randoms[i], lb, cs);
+            } finally {
+                s.end();
+            }
+        }
+    }
+
+
     // Implement TurnTaker
 
     /**
@@ -701,8 +962,19 @@ public class ServerGame extends Game implements TurnTaker {
     @Override
     public void csNewTurn(Random random, LogBuilder lb, ChangeSet cs) {
         lb.add("GAME ", getId(), ", ");
-        for (Player player : getLivePlayerList()) {
-            ((ServerPlayer)player).csNewTurn(random, lb, cs);
+        final List<Player> players = getLivePlayerList();
+        if (this.newTurnThreads > 0) {
+            csParallelNewTurn(players, random, lb, cs);
+        } else {
+            for (Player player : players) {
+                final TurnProfiler.Sample s = FreeColDebugger
+                    .profile("newTurn", player.getSuffix());
+                try {
+                    ((ServerPlayer)player).csNewTurn(random, lb, cs);
+                } finally {
+                    s.end();
+                }
+            }
         }
 
         final Specification spec = getSpecification();
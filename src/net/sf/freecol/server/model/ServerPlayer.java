@@ -43,6 +43,7 @@ import javax.xml.stream.XMLStreamException;
 import net.sf.freecol.FreeCol;
 import net.sf.freecol.common.FreeColException;
 import net.sf.freecol.common.debug.FreeColDebugger;
+import net.sf.freecol.common.debug.TurnProfiler;
 import net.sf.freecol.common.i18n.Messages;
 import net.sf.freecol.common.i18n.NameCache;
 import net.sf.freecol.common.model.Ability;
@@ -72,6 +73,7 @@ import net.sf.freecol.common.model.GoodsType;
 import net.sf.freecol.common.model.HistoryEvent;
 import net.sf.freecol.common.model.IndianSettlement;
 import net.sf.freecol.common.model.Location;
+import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.Market;
 import net.sf.freecol.common.model.ModelMessage;
 import net.sf.freecol.common.model.ModelMessage.MessageType;
@@ -87,6 +89,7 @@ import net.sf.freecol.common.model.StanceTradeItem;
 import net.sf.freecol.common.model.StringTemplate;
 import net.sf.freecol.common.model.Tension;
 import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.TileSet;
 import net.sf.freecol.common.model.TradeRoute;
 import net.sf.freecol.common.model.Turn;
 import net.sf.freecol.common.model.Unit;
@@ -169,6 +172,30 @@ public class ServerPlayer extends Player implements TurnTaker {
     /** Accumulate extra trades here. */
     private final List<AbstractGoods> extraTrades = new ArrayList<>();
 
+    /**
+     * Colonies whose exports wait for the shared new turn phase, or
+     * null if exports are not being deferred.
+     */
+    private List<ServerColony> deferredExports = null;
+
+    /**
+     * Colonies whose disposal waits for the shared new turn phase, or
+     * null if disposals are not being deferred.
+     */
+    private List<ServerColony> deferredDisposals = null;
+
+    /**
+     * The settlements and units whose new turn ran in the local
+     * phase, or null if the new turn is not split into phases.
+     */
+    private Set<FreeColGameObject> newTurnDone = null;
+
+    /** Immigration and liberty at the start of the new turn. */
+    private int newTurnOldImmigration = 0, newTurnOldLiberty = 0;
+
+    /** Immigration and liberty gained by the settlements this turn. */
+    private int newTurnImmigration = 0, newTurnLiberty = 0;
+
 
     /**
      * Trivial constructor for Game.newInstance.
@@ -295,9 +322,30 @@ public class ServerPlayer extends Player implements TurnTaker {
      */
     @Override
     public boolean send(ChangeSet cs) {
+        if (!isConnected()) return false;
+        final Message message;
+        final TurnProfiler.Sample s = FreeColDebugger
+            .profile("ChangeSet.build", getSuffix());
+        try {
+            message = cs.build(this);
+        } finally {
+            s.end();
+        }
+        return send(message);
+    }
+
+    /**
+     * Send a message already built from a change set across the
+     * connection.
+     *
+     * @param message The {@code Message} to send, null if there is
+     *     nothing to report.
+     * @return True if the message was sent.
+     */
+    public boolean send(Message message) {
         if (!isConnected()) return false;
         try {
-            this.connection.request(cs.build(this));
+            this.connection.request(message);
         } catch (FreeColException|IOException|XMLStreamException ex) {
             logger.log(Level.WARNING, "send fail", ex);
             return false;
@@ -888,9 +936,12 @@ public class ServerPlayer extends Player implements TurnTaker {
      * @return A list of newly explored {@code Tile}s.
      * @see #hasExplored
      */
-    public Set<Tile> exploreTiles(Collection<? extends Tile> tiles) {
-        return transform(tiles, t -> exploreTile(t), Function.<Tile>identity(),
-                         Collectors.toSet());
+    public TileSet exploreTiles(Collection<? extends Tile> tiles) {
+        final TileSet ret = new TileSet(getGame().getMap());
+        for (Tile t : tiles) {
+            if (exploreTile(t)) ret.add(t);
+        }
+        return ret;
     }
 
     /**
@@ -902,8 +953,9 @@ public class ServerPlayer extends Player implements TurnTaker {
      * @param settlement The {@code Settlement} that is exploring.
      * @return A list of newly explored {@code Tile}s.
      */
-    public Set<Tile> exploreForSettlement(Settlement settlement) {
-        Set<Tile> tiles = new HashSet<>(settlement.getOwnedTiles());
+    public TileSet exploreForSettlement(Settlement settlement) {
+        final TileSet tiles = new TileSet(getGame().getMap(),
+                                          settlement.getOwnedTiles());
         tiles.addAll(settlement.getVisibleTileSet());
         tiles.remove(settlement.getTile());
         return exploreTiles(tiles);
@@ -930,9 +982,10 @@ public class ServerPlayer extends Player implements TurnTaker {
      * @param reveal If true, reveal the map, if false, hide it.
      * @return A list of tiles whose visibility changed.
      */
-    public Set<Tile> exploreMap(final boolean reveal) {
-        Set<Tile> tiles = getGame().getMap()
-            .getTileSet(t -> this.hasExplored(t) != reveal);
+    public TileSet exploreMap(final boolean reveal) {
+        final Map map = getGame().getMap();
+        final TileSet tiles = new TileSet(map);
+        map.forEachTile(t -> this.hasExplored(t) != reveal, t -> tiles.add(t));
         for (Tile t : tiles) {
             t.setExplored(this, reveal);//-vis(this)
         }
@@ -952,8 +1005,14 @@ public class ServerPlayer extends Player implements TurnTaker {
      * @param radius A radius to explore to.
      * @return A set of newly explored or currently invisible {@code Tile}s.
      */
-    public Set<Tile> collectNewTiles(Tile center, int radius) {
-        return collectNewTiles(center.getSurroundingTiles(0, radius));
+    public TileSet collectNewTiles(Tile center, int radius) {
+        final Map map = getGame().getMap();
+        final TileSet ret = new TileSet(map);
+        map.forEachInDisk(center, 0, radius, i -> {
+                final Tile t = map.getTile(i);
+                if (exploreTile(t) || !canSee(t)) ret.addIndex(i);
+            });
+        return ret;
     }
 
     /**
@@ -963,8 +1022,8 @@ public class ServerPlayer extends Player implements TurnTaker {
      * @param collection A {@code Collection} of tiles to check.
      * @return A set of newly explored or currently invisible {@code Tile}s.
      */
-    public Set<Tile> collectNewTiles(Collection<Tile> collection) {
-        return (collection == null) ? Collections.<Tile>emptySet()
+    public TileSet collectNewTiles(Collection<Tile> collection) {
+        return (collection == null) ? new TileSet(getGame().getMap())
             : collectNewTiles(collection.stream());
     }
 
@@ -975,9 +1034,11 @@ public class ServerPlayer extends Player implements TurnTaker {
      * @param tiles A stream of {@code Tile}s to check.
      * @return A set of newly explored or currently invisible {@code Tile}s.
      */
-    public Set<Tile> collectNewTiles(Stream<Tile> tiles) {
+    public TileSet collectNewTiles(Stream<Tile> tiles) {
+        final Map map = getGame().getMap();
         return transform(tiles, t -> exploreTile(t) || !canSee(t),
-                         Function.<Tile>identity(), Collectors.toSet());
+                         Function.<Tile>identity(),
+                         Collectors.toCollection(() -> new TileSet(map)));
     }
         
     /**
@@ -3130,8 +3191,12 @@ outer:  for (Effect effect : effects) {
                 + ((uc == null) ? "null" : "same type: " + uc.to));
             return;
         }
+        final Tile sight = (loser.isOnTile()) ? loser.getTile() : null;
+        final long epoch = loserPlayer.getCanSeeEpoch();
+        final int oldRadius = loser.getLineOfSight();
         loser.changeType(uc.to);//-vis(loserPlayer)
-        loserPlayer.invalidateCanSeeTiles();//+vis(loserPlayer)
+        loserPlayer.updateSight(epoch, sight, oldRadius,
+            sight, loser.getLineOfSight());//+vis(loserPlayer)
 
         String key = "combat.unitDemoted.enemy." + suffix;
         cs.addMessage(winnerPlayer,
@@ -3313,6 +3378,8 @@ outer:  for (Effect effect : effects) {
         }
             
         // Get it off the map and off the owners list.
+        final long epoch = owner.getCanSeeEpoch();
+        final int lineOfSight = settlement.getLineOfSight();
         settlement.exciseSettlement();//-vis(owner),-til
         owner.removeSettlement(settlement);
         if (owner.hasSettlement(settlement)) {
@@ -3328,7 +3395,8 @@ outer:  for (Effect effect : effects) {
         cs.add(vis, owned);
         cs.addRemove(vis, centerTile, settlement);//-vis(owner)
         settlement.dispose();
-        owner.invalidateCanSeeTiles();//+vis(owner)
+        owner.updateSight(epoch, centerTile, lineOfSight,
+                          null, 0);//+vis(owner)
 
         // Former missionary owner knows that the settlement fell.
         if (missionaryOwner != null) {
@@ -3718,8 +3786,12 @@ outer:  for (Effect effect : effects) {
                 + ((uc == null) ? "null" : "same type: " + uc.to));
             return;
         }
+        final Tile sight = (winner.isOnTile()) ? winner.getTile() : null;
+        final long epoch = winnerPlayer.getCanSeeEpoch();
+        final int oldRadius = winner.getLineOfSight();
         winner.changeType(uc.to);//-vis(winnerPlayer)
-        winnerPlayer.invalidateCanSeeTiles();//+vis(winnerPlayer)
+        winnerPlayer.updateSight(epoch, sight, oldRadius,
+            sight, winner.getLineOfSight());//+vis(winnerPlayer)
 
         cs.addMessage(winnerPlayer,
             new ModelMessage(ModelMessage.MessageType.COMBAT_RESULT,
@@ -4380,19 +4452,188 @@ outer:  for (Effect effect : effects) {
      */
     @Override
     public void csNewTurn(Random random, LogBuilder lb, ChangeSet cs) {
+        csNewTurnStart(lb);
+        csNewTurnSettlements(random, lb, cs, alwaysTrue());
+        csNewTurnSoL(cs);
+        csNewTurnUnits(random, lb, cs, alwaysTrue());
+        csNewTurnPlayer(random, lb, cs);
+    }
+
+    /**
+     * Start deferring the colony changes that reach beyond this
+     * player to the shared new turn phase.
+     *
+     * Exports propagate to the markets of the other players, and
+     * disposing of a colony changes the map, so when the local phases
+     * of the players run in parallel they must wait.
+     */
+    public void deferSharedChanges() {
+        this.deferredExports = new ArrayList<>();
+        this.deferredDisposals = new ArrayList<>();
+    }
+
+    /**
+     * Defer the exports of a colony if exports are being deferred.
+     *
+     * @param colony The {@code ServerColony} to export from.
+     * @return True if the exports were deferred.
+     */
+    public boolean deferExport(ServerColony colony) {
+        if (this.deferredExports == null) return false;
+        this.deferredExports.add(colony);
+        return true;
+    }
+
+    /**
+     * Defer the disposal of a colony if disposals are being deferred.
+     *
+     * @param colony The {@code ServerColony} to dispose of.
+     * @return True if the disposal was deferred.
+     */
+    public boolean deferDisposal(ServerColony colony) {
+        if (this.deferredDisposals == null) return false;
+        this.deferredDisposals.add(colony);
+        return true;
+    }
+
+    /**
+     * Can the new turn of a settlement run in the local phase?
+     *
+     * Colonies only change their owner, their own units and their
+     * own tiles, with their exports and disposal deferred.  Native
+     * settlements may change other players and the map.
+     *
+     * @param settlement The {@code Settlement} to check.
+     * @return True if the settlement can be turned locally.
+     */
+    private static boolean isLocalNewTurn(Settlement settlement) {
+        return settlement instanceof ServerColony;
+    }
+
+    /**
+     * Can the new turn of a unit run in the local phase?
+     *
+     * Units working in a colony or waiting in Europe only change
+     * themselves.  Units elsewhere may die, move, complete roads or
+     * update native settlement views.
+     *
+     * @param unit The {@code Unit} to check.
+     * @return True if the unit can be turned locally.
+     */
+    private static boolean isLocalNewTurn(Unit unit) {
+        final Location loc = unit.getLocation();
+        return loc instanceof WorkLocation || loc instanceof Europe;
+    }
+
+    /**
+     * The local part of the new turn for this player, which only
+     * changes the player itself, its colonies and its units in
+     * colonies or Europe.
+     *
+     * For the parallel new turn, the local phases of several players
+     * may run at once, each with its own random stream and change
+     * set.  Everything else waits for {@link #csNewTurnShared}.
+     *
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     */
+    public void csNewTurnLocal(Random random, LogBuilder lb, ChangeSet cs) {
+        final Set<FreeColGameObject> done = new HashSet<>();
+        csNewTurnStart(lb);
+        for (Settlement settlement : getSettlementList()) {
+            if (!isLocalNewTurn(settlement)) continue;
+            ((TurnTaker)settlement).csNewTurn(random, lb, cs);
+            done.add(settlement);
+        }
+        for (Unit unit : getUnitSet()) {
+            if (!isLocalNewTurn(unit)) continue;
+            csNewTurnUnit(unit, random, lb, cs);
+            done.add(unit);
+        }
+        this.newTurnDone = done;
+    }
+
+    /**
+     * The shared part of the new turn for this player, which may
+     * change the map, the markets, the other players and their
+     * relations.
+     *
+     * Always run serially, after {@link #csNewTurnLocal}.  The
+     * deferred colony changes are made first, then the new turn of
+     * the remaining settlements and units.
+     *
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     */
+    public void csNewTurnShared(Random random, LogBuilder lb, ChangeSet cs) {
+        final Set<FreeColGameObject> done = (this.newTurnDone == null)
+            ? Collections.<FreeColGameObject>emptySet() : this.newTurnDone;
+        this.newTurnDone = null;
+
+        // Deferred colony disposals.
+        if (deferredDisposals != null) {
+            final List<ServerColony> disposals = deferredDisposals;
+            deferredDisposals = null;
+            for (ServerColony colony : disposals) {
+                if (!colony.isDisposed()) csDisposeSettlement(colony, cs);
+            }
+        }
+
+        // Deferred colony exports.
+        if (deferredExports != null) {
+            final List<ServerColony> exports = deferredExports;
+            deferredExports = null;
+            for (ServerColony colony : exports) {
+                if (colony.isDisposed()) continue;
+                colony.csExportGoods(random, lb, cs);
+                cs.add(See.only(this), colony);
+            }
+        }
+
+        csNewTurnSettlements(random, lb, cs, s -> !done.contains(s));
+        csNewTurnSoL(cs);
+        csNewTurnUnits(random, lb, cs, u -> !done.contains(u));
+        csNewTurnPlayer(random, lb, cs);
+    }
+
+    /**
+     * Start the new turn for this player.
+     *
+     * @param lb A {@code LogBuilder} to log to.
+     */
+    private void csNewTurnStart(LogBuilder lb) {
         lb.add("PLAYER ", getName(), ": ");
-        final Game game = getGame();
-        final Specification spec = getSpecification();
-        int oldImmigration = getImmigration(), oldLiberty = getLiberty(),
-            newSoL = 0, newImmigration = 0, newLiberty = 0;
+        newTurnOldImmigration = getImmigration();
+        newTurnOldLiberty = getLiberty();
+    }
 
-        // Settlements
-        List<Settlement> settlements = getSettlementList();
-        for (Settlement settlement : settlements) {
+    /**
+     * New turn for some of the settlements of this player.
+     *
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     * @param pred A {@code Predicate} to select the settlements.
+     */
+    private void csNewTurnSettlements(Random random, LogBuilder lb,
+                                      ChangeSet cs,
+                                      Predicate<Settlement> pred) {
+        for (Settlement settlement : transform(getSettlementList(), pred)) {
             ((TurnTaker)settlement).csNewTurn(random, lb, cs);
-            newSoL += settlement.getSoL();
         }
+    }
 
+    /**
+     * Check the SoL of this player once its settlements have turned,
+     * and collect the immigration and liberty they produced.
+     *
+     * @param cs A {@code ChangeSet} to update.
+     */
+    private void csNewTurnSoL(ChangeSet cs) {
+        final List<Settlement> settlements = getSettlementList();
+        int newSoL = sum(settlements, Settlement::getSoL);
         int numberOfSettlements = settlements.size();
         if (numberOfSettlements > 0) {
             newSoL = newSoL / numberOfSettlements;
@@ -4407,24 +4648,62 @@ outer:  for (Effect effect : effects) {
             }
             oldSoL = newSoL; // Remember SoL for check changes at next turn.
         }
-        newImmigration = getImmigration() - oldImmigration;
-        newLiberty = getLiberty() - oldLiberty;
-        
-        // Units.
-        for (Unit unit : getUnitSet()) {
-            try {
-                ((TurnTaker)unit).csNewTurn(random, lb, cs);
-            } catch (ClassCastException cce) {
-                logger.log(Level.SEVERE, "Not a ServerUnit: " + unit.getId(),
-                           cce);
-            }
+        newTurnImmigration = getImmigration() - newTurnOldImmigration;
+        newTurnLiberty = getLiberty() - newTurnOldLiberty;
+    }
+
+    /**
+     * New turn for some of the units of this player.
+     *
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     * @param pred A {@code Predicate} to select the units.
+     */
+    private void csNewTurnUnits(Random random, LogBuilder lb, ChangeSet cs,
+                                Predicate<Unit> pred) {
+        for (Unit unit : transform(getUnitSet(), pred)) {
+            csNewTurnUnit(unit, random, lb, cs);
         }
+    }
+
+    /**
+     * New turn for a unit of this player.
+     *
+     * @param unit The {@code Unit} to turn.
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     */
+    private void csNewTurnUnit(Unit unit, Random random, LogBuilder lb,
+                               ChangeSet cs) {
+        try {
+            ((TurnTaker)unit).csNewTurn(random, lb, cs);
+        } catch (ClassCastException cce) {
+            logger.log(Level.SEVERE, "Not a ServerUnit: " + unit.getId(),
+                       cce);
+        }
+    }
+
+    /**
+     * The rest of the new turn for this player, once its settlements
+     * and units have turned.
+     *
+     * @param random A {@code Random} number source.
+     * @param lb A {@code LogBuilder} to log to.
+     * @param cs A {@code ChangeSet} to update.
+     */
+    private void csNewTurnPlayer(Random random, LogBuilder lb, ChangeSet cs) {
+        final Game game = getGame();
+        final Specification spec = getSpecification();
+        int newImmigration = newTurnImmigration;
+        final int newLiberty = newTurnLiberty;
 
         // Europe.
         if (europe != null) {
             ((TurnTaker)europe).csNewTurn(random, lb, cs);
             modifyImmigration(europe.getImmigration(newImmigration));
-            newImmigration = getImmigration() - oldImmigration;
+            newImmigration = getImmigration() - newTurnOldImmigration;
         }
 
         if (isEuropean()) {
@@ -4446,17 +4725,18 @@ outer:  for (Effect effect : effects) {
                               "liberty", String.valueOf(getLiberty()));
             }
 
-            if (spec.getBoolean(GameOptions.ENABLE_UPKEEP)) {
+            if (spec.getEnableUpkeepHandle().getValue()) {
                 csPayUpkeep(random, cs);
             }
 
-            int disaster = spec.getPercentage(GameOptions.NATURAL_DISASTERS);
+            int disaster = spec.getNaturalDisastersHandle().getValue();
             if (disaster > 0) {
                 csNaturalDisasters(random, cs, disaster);
             }
 
             if (isRebel()
-                && interventionBells >= spec.getInteger(GameOptions.INTERVENTION_BELLS)) {
+                && interventionBells
+                >= spec.getInterventionBellsHandle().getValue()) {
                 interventionBells = Integer.MIN_VALUE;
                 
                 // Enter near a port.
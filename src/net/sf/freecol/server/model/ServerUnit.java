@@ -312,6 +312,8 @@ public class ServerUnit extends Unit implements TurnTaker {
         Colony colony = (oldLocation instanceof WorkLocation) ? getColony()
             : null;
         if (colony != null) oldLocation.getTile().cacheUnseen();//+til
+        final long epoch = owner.getCanSeeEpoch();
+        final int oldRadius = getLineOfSight();
         setLocation(carrier);//-vis: only if on a different tile
                              //-til if moving from colony
         setMovesLeft(0);
@@ -324,7 +326,9 @@ public class ServerUnit extends Unit implements TurnTaker {
             Tile tile = carrier.getTile();
             if (tile != oldLocation) {
                 cs.addMove(See.only(owner), this, oldLocation, tile);
-                owner.invalidateCanSeeTiles();//+vis(owner)
+                // Units aboard a carrier do not contribute sight.
+                owner.updateSight(epoch, (Tile)oldLocation, oldRadius,
+                                  null, 0);//+vis(owner)
             }
             cs.addDisappear(owner, (Tile)oldLocation, this);
         }
@@ -786,15 +790,24 @@ public class ServerUnit extends Unit implements TurnTaker {
         if (oldLocation instanceof WorkLocation) {
             oldLocation.getTile().cacheUnseen();//+til
         }
+        final long epoch = owner.getCanSeeEpoch();
+        final Tile oldSight = (oldLocation instanceof Tile)
+            ? (Tile)oldLocation : null;
+        final int oldRadius = getLineOfSight();
         setLocation(newTile);//-vis(serverPlayer),-til if in colony
-        if (newTile.hasLostCityRumour() && owner.isEuropean()
-            && !csExploreLostCityRumour(random, cs)) {
-            this.csRemove(See.perhaps().always(owner),
-                oldLocation, cs);//-vis(serverPlayer)
+        if (newTile.hasLostCityRumour() && owner.isEuropean()) {
+            if (!csExploreLostCityRumour(random, cs)) {
+                this.csRemove(See.perhaps().always(owner),
+                    oldLocation, cs);//-vis(serverPlayer)
+            }
+            owner.invalidateCanSeeTiles();//+vis(serverPlayer)
+        } else {
+            owner.updateSight(epoch, oldSight, oldRadius,
+                              newTile, getLineOfSight());//+vis(serverPlayer)
         }
-        owner.invalidateCanSeeTiles();//+vis(serverPlayer)
 
         // Update tiles that are now invisible.
+        oldTiles.removeAll(getVisibleTileSet());
         removeInPlace(oldTiles, t -> owner.canSee(t));
         if (!oldTiles.isEmpty()) cs.add(See.only(owner), oldTiles);
 
@@ -0,0 +1,148 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.debug;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import net.sf.freecol.common.debug.TurnProfiler.Stat;
+import net.sf.freecol.common.debug.TurnProfiler.TurnProfile;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class TurnProfilerTest extends FreeColTestCase {
+
+    /**
+     * Record an empty sample.
+     *
+     * @param tp The {@code TurnProfiler} to record to.
+     * @param phase The phase name.
+     * @param key The key within the phase.
+     */
+    private static void sample(TurnProfiler tp, String phase, String key) {
+        tp.start(phase, key).end();
+    }
+
+    public void testRollover() {
+        TurnProfiler tp = new TurnProfiler(5);
+        tp.beginTurn(1);
+        sample(tp, "a", "x");
+        sample(tp, "a", "x");
+        sample(tp, "b", "y");
+        assertTrue("Current turn not in history", tp.getHistory().isEmpty());
+
+        tp.beginTurn(2);
+        List<TurnProfile> history = tp.getHistory();
+        assertEquals(1, history.size());
+        assertEquals(1, history.get(0).turn);
+        List<Stat> stats = history.get(0).getStats();
+        assertEquals(2, stats.size());
+        assertEquals("a", stats.get(0).phase);
+        assertEquals("x", stats.get(0).key);
+        assertEquals(2, stats.get(0).getCount());
+        assertEquals("b", stats.get(1).phase);
+        assertEquals(1, stats.get(1).getCount());
+        assertTrue(stats.get(0).getWallTime() >= 0L);
+
+        // A turn with no samples is not kept
+        tp.beginTurn(3);
+        sample(tp, "a", "x");
+        tp.beginTurn(4);
+        tp.beginTurn(5);
+        history = tp.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(3, history.get(1).turn);
+        assertEquals(1, history.get(1).getStats().get(0).getCount());
+
+        // The inactive sample records nothing
+        TurnProfiler.NO_SAMPLE.end();
+        tp.beginTurn(6);
+        assertEquals(2, tp.getHistory().size());
+    }
+
+    public void testHistoryCap() {
+        TurnProfiler tp = new TurnProfiler(3);
+        for (int turn = 1; turn <= 10; turn++) {
+            tp.beginTurn(turn);
+            sample(tp, "turn", Integer.toString(turn));
+        }
+        tp.beginTurn(11);
+        List<TurnProfile> history = tp.getHistory();
+        assertEquals(3, history.size());
+        assertEquals(8, history.get(0).turn);
+        assertEquals(9, history.get(1).turn);
+        assertEquals(10, history.get(2).turn);
+        assertEquals("10", history.get(2).getStats().get(0).key);
+
+        // Non-positive histories still keep one turn
+        tp = new TurnProfiler(0);
+        tp.beginTurn(1);
+        sample(tp, "a", "x");
+        tp.beginTurn(2);
+        sample(tp, "a", "x");
+        tp.beginTurn(3);
+        assertEquals(1, tp.getHistory().size());
+        assertEquals(2, tp.getHistory().get(0).turn);
+    }
+
+    public void testOutput() throws Exception {
+        TurnProfiler tp = new TurnProfiler(2);
+        tp.beginTurn(7);
+        sample(tp, "send", "a,b");
+        sample(tp, "mission", "q\"k");
+        tp.beginTurn(8);
+
+        final String csv = tp.toCSV();
+        String[] lines = csv.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("turn,phase,key,count,wallNanos,cpuNanos,allocBytes",
+                     lines[0]);
+        assertTrue(lines[1], lines[1].startsWith("7,mission,\"q\"\"k\",1,"));
+        assertTrue(lines[2], lines[2].startsWith("7,send,\"a,b\",1,"));
+        assertEquals(7, lines[1].split(",").length);
+
+        final String json = tp.toJSON();
+        assertTrue(json, json.startsWith("{\"turns\":["));
+        assertTrue(json, json.contains("{\"turn\":7,\"phases\":["));
+        assertTrue(json, json.contains("{\"phase\":\"mission\","
+                + "\"key\":\"q\\\"k\",\"count\":1,"));
+        assertTrue(json, json.contains("{\"phase\":\"send\","
+                + "\"key\":\"a,b\",\"count\":1,"));
+        assertTrue(json, json.trim().endsWith("]}"));
+
+        Path dir = Files.createTempDirectory("turnprofile");
+        try {
+            Path base = dir.resolve("test-turns");
+            tp.write(base);
+            Path c = dir.resolve("test-turns.csv");
+            Path j = dir.resolve("test-turns.json");
+            assertEquals(csv,
+                new String(Files.readAllBytes(c), StandardCharsets.UTF_8));
+            assertEquals(json,
+                new String(Files.readAllBytes(j), StandardCharsets.UTF_8));
+            Files.delete(c);
+            Files.delete(j);
+        } finally {
+            Files.delete(dir);
+        }
+    }
+}
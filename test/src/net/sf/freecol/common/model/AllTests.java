@@ -31,6 +31,7 @@ public class AllTests {
         //$JUnit-BEGIN$
         suite.addTestSuite(BaseCostDeciderTest.class);
         suite.addTestSuite(BuildingTest.class);
+        suite.addTestSuite(ClusterGraphTest.class);
         suite.addTestSuite(ColonyTest.class);
         suite.addTestSuite(ColonyProductionTest.class);
         suite.addTestSuite(CombatTest.class);
@@ -59,9 +60,13 @@ public class AllTests {
         suite.addTestSuite(SerializationTest.class);
         suite.addTestSuite(SettlementTest.class);
         suite.addTestSuite(SoLTest.class);
+        suite.addTestSuite(SpatialIndexTest.class);
+        suite.addTestSuite(SpecTypeMapTest.class);
         suite.addTestSuite(TileImprovementTest.class);
         suite.addTestSuite(TileItemContainerTest.class);
+        suite.addTestSuite(TileSetTest.class);
         suite.addTestSuite(TileTest.class);
+        suite.addTestSuite(TileViewTableTest.class);
         suite.addTestSuite(TradeRouteTest.class);
         suite.addTestSuite(UnitTest.class);
         suite.addTestSuite(UnitChangeTypeTest.class);
@@ -0,0 +1,132 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.freecol.common.model;
+
+import net.sf.freecol.common.model.pathfinding.ClusterGraph;
+import net.sf.freecol.common.model.pathfinding.MovementClass;
+import net.sf.freecol.server.model.ServerUnit;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class ClusterGraphTest extends FreeColTestCase {
+
+    private static final TileType ocean
+        = spec().getTileType("model.tile.ocean");
+    private static final TileType plains
+        = spec().getTileType("model.tile.plains");
+
+    private static final UnitType freeColonist
+        = spec().getUnitType("model.unit.freeColonist");
+
+
+    /**
+     * Make a plains map spanning several clusters.
+     *
+     * @param game The {@code Game} to make the map for.
+     * @return The new {@code Map}.
+     */
+    private static Map getWideMap(Game game) {
+        Map map = new MapBuilder(game).setDimensions(48, 80)
+            .setBaseTileType(plains).setExploredByAll(true).build();
+        game.changeMap(map);
+        return map;
+    }
+
+    public void testRoute() {
+        Game game = getStandardGame();
+        Map map = getWideMap(game);
+        ClusterGraph graph = map.getClusterGraph(MovementClass.LAND);
+        Tile start = map.getTile(1, 1), end = map.getTile(45, 77);
+
+        ClusterGraph.Route route = graph.findRoute(start, end);
+        assertNotNull(route);
+        assertEquals(map.getTileIndex(end),
+                     route.getWaypoint(route.size() - 1));
+        for (int i = 1; i < route.size(); i++) {
+            assertTrue(route.getCostTo(i-1) <= route.getCostTo(i));
+        }
+        int step = MovementClass.LAND.getMoveCost(start, map.getTile(2, 1));
+        assertTrue(route.getCost() >= step * map.getDistance(start, end));
+
+        // Routes are cached
+        assertSame(route, graph.findRoute(start, end));
+
+        // Land routes do not go onto the water
+        Tile water = map.getTile(30, 30);
+        water.setType(ocean);
+        assertNull(graph.findRoute(start, water));
+        assertNull(map.getClusterGraph(MovementClass.NAVAL)
+            .findRoute(start, end));
+    }
+
+    public void testInvalidation() {
+        Game game = getStandardGame();
+        Map map = getWideMap(game);
+        ClusterGraph graph = map.getClusterGraph(MovementClass.LAND);
+        Tile start = map.getTile(1, 1), end = map.getTile(45, 77);
+        assertNotNull(graph.findRoute(start, end));
+
+        // Cut the map in two with a band of water
+        for (int x = 0; x < map.getWidth(); x++) {
+            map.getTile(x, 40).setType(ocean);
+            map.getTile(x, 41).setType(ocean);
+        }
+        assertNull("Cached route should be dropped",
+                   graph.findRoute(start, end));
+
+        // Reopen a crossing
+        map.getTile(20, 40).setType(plains);
+        map.getTile(20, 41).setType(plains);
+        ClusterGraph.Route route = graph.findRoute(start, end);
+        assertNotNull(route);
+        assertTrue("Route should detour through the crossing",
+            route.getCost()
+            >= MovementClass.LAND.getMoveCost(start, map.getTile(2, 1))
+            * (map.getDistance(start, map.getTile(20, 40))
+                + map.getDistance(map.getTile(20, 41), end)));
+    }
+
+    public void testLongRangePath() {
+        Game game = getStandardGame();
+        Map map = getWideMap(game);
+        Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        Tile start = map.getTile(1, 1), end = map.getTile(45, 77);
+        Unit unit = new ServerUnit(game, start, dutch, freeColonist);
+
+        PathNode path = map.findLongRangePath(unit, start, end, null, null);
+        assertNotNull(path);
+        assertEquals(start, path.getTile());
+        PathNode last = path.getLastNode();
+        assertEquals(end, last.getTile());
+
+        // The refined part is a real path covering at least a turn
+        int turns = 0;
+        for (PathNode p = path.next; p != last; p = p.next) {
+            assertNotNull(p.getDirection());
+            turns = p.getTurns();
+        }
+        assertTrue(turns >= 1 || last.getDirection() != null);
+
+        // The estimate is close to the real path
+        PathNode full = map.findPath(unit, start, end, null, null, null);
+        assertNotNull(full);
+        int fullTurns = full.getLastNode().getTurns();
+        assertTrue(Math.abs(last.getTurns() - fullTurns) <= fullTurns / 4 + 1);
+    }
+}
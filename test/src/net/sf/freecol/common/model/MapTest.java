@@ -162,6 +162,138 @@ public class MapTest extends FreeColTestCase {
         assertEquals(150 - 1, surroundingTiles.size());
     }
 
+    public void testRingAndDiskIteration() {
+        Game game = getStandardGame();
+        MapBuilder builder = new MapBuilder(game);
+        Map map = builder.setDimensions(10, 15).build();
+        game.changeMap(map);
+
+        for (Tile center : new Tile[] { map.getTile(4, 8), map.getTile(0, 0),
+                                        map.getTile(9, 13) }) {
+            for (int r = 1; r <= 4; r++) {
+                // Rings agree with the circle iterator, in order
+                final List<Tile> ring = new ArrayList<>();
+                map.forEachInRing(center, r, i -> ring.add(map.getTile(i)));
+                final List<Tile> expect = new ArrayList<>();
+                for (Tile t : map.getCircleTiles(center, false, r)) {
+                    expect.add(t);
+                }
+                assertEquals(expect, ring);
+                for (Tile t : ring) {
+                    assertEquals(r, map.getDistance(center, t));
+                }
+
+                // Disks cover exactly the tiles in range
+                final List<Tile> disk = new ArrayList<>();
+                map.forEachInDisk(center, 0, r, i -> disk.add(map.getTile(i)));
+                assertEquals(center, disk.get(0));
+                final int rr = r;
+                assertEquals(map.getTileList(t ->
+                        map.getDistance(center, t) <= rr).size(),
+                    disk.size());
+                assertEquals(disk.subList(1, disk.size()),
+                             center.getSurroundingTiles(1, r));
+            }
+        }
+    }
+
+    public void testContiguity() {
+        Game game = getStandardGame();
+        MapBuilder builder = new MapBuilder(game);
+        Map map = builder.setDimensions(10, 15).setBaseTileType(plainsType)
+            .build();
+        game.changeMap(map);
+
+        // A column of water splits the land in two
+        for (int y = 0; y < map.getHeight(); y++) {
+            map.getTile(5, y).setType(oceanType);
+        }
+        map.resetContiguity();
+        final Tile left = map.getTile(1, 1), right = map.getTile(8, 1);
+        final Tile gap = map.getTile(5, 7);
+        assertEquals(0, left.getContiguity());
+        assertEquals(1, right.getContiguity());
+        assertEquals(0, gap.getContiguity());
+
+        // Bridging the gap joins the land
+        gap.changeType(plainsType);
+        assertEquals(left.getContiguity(), right.getContiguity());
+        assertEquals(left.getContiguity(), gap.getContiguity());
+
+        // Removing it splits the land again
+        gap.changeType(oceanType);
+        assertFalse(left.getContiguity() == right.getContiguity());
+        assertEquals(map.getTile(5, 1).getContiguity(),
+                     map.getTile(5, 13).getContiguity());
+        assertEquals(map.getTile(5, 1).getContiguity(), gap.getContiguity());
+    }
+
+    public void testContiguityUpdates() {
+        Game game = getStandardGame();
+        MapBuilder builder = new MapBuilder(game);
+        Map map = builder.setDimensions(12, 16).setBaseTileType(plainsType)
+            .build();
+        game.changeMap(map);
+        map.resetContiguity();
+
+        // Flip tiles at random, and check that the regions always
+        // match the connected components, one number per region.
+        final Random random = new Random(1);
+        for (int n = 0; n < 300; n++) {
+            final Tile tile = map.getTile(random.nextInt(map.getWidth()),
+                                          random.nextInt(map.getHeight()));
+            tile.changeType((tile.isLand()) ? oceanType : plainsType);
+            java.util.Map<Tile, Integer> region = new java.util.HashMap<>();
+            java.util.Map<String, Tile> first = new java.util.HashMap<>();
+            int count = 0;
+            for (int i = 0; i < map.getTileCount(); i++) {
+                final Tile t = map.getTile(i);
+                if (region.containsKey(t)) continue;
+                final String key = t.isLand() + ":" + t.getContiguity();
+                assertNull("Region number reused at " + n + " by " + t,
+                           first.put(key, t));
+                List<Tile> todo = new ArrayList<>();
+                todo.add(t);
+                region.put(t, count);
+                while (!todo.isEmpty()) {
+                    Tile c = todo.remove(todo.size() - 1);
+                    assertEquals("Split region at " + n + " by " + c,
+                                 t.getContiguity(), c.getContiguity());
+                    for (Tile a : c.getSurroundingTiles(1)) {
+                        if (a.isLand() == t.isLand()
+                            && !region.containsKey(a)) {
+                            region.put(a, count);
+                            todo.add(a);
+                        }
+                    }
+                }
+                count++;
+            }
+        }
+    }
+
+    public void testLandDistance() {
+        Game game = getStandardGame();
+        MapBuilder builder = new MapBuilder(game);
+        Map map = builder.setDimensions(10, 15).setBaseTileType(oceanType)
+            .build();
+        game.changeMap(map);
+
+        assertEquals(INFINITY, map.getLandDistance(map.getTile(5, 7)));
+        final Tile land = map.getTile(5, 7);
+        land.setType(plainsType);
+        map.forEachTile(t -> assertEquals(map.getDistance(land, t),
+                                          map.getLandDistance(t)));
+
+        // Only land changes drop the distances
+        final int[] ld = map.getLandDistance();
+        map.getTile(1, 1).setType(lakeType);
+        assertSame(ld, map.getLandDistance());
+        land.setType(oceanType);
+        assertNotSame(ld, map.getLandDistance());
+        assertEquals(INFINITY, map.getLandDistance(land));
+    }
+
     public void testGetReverseDirection() {
         assertEquals(Direction.S, Direction.N.getReverseDirection());
         assertEquals(Direction.N, Direction.S.getReverseDirection());
@@ -600,4 +732,78 @@ public class MapTest extends FreeColTestCase {
         assertFalse(otherColony == colony);
         assertEquals(otherColony.getId(), colony.getId());
     }
+
+    public void testTerrainStore() {
+        Game game = getStandardGame();
+        Map map = getSingleLandPathMap(game);
+        game.changeMap(map);
+        final TerrainStore ts = map.getTerrain();
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        final TileImprovementType road
+            = spec().getTileImprovementType("model.improvement.road");
+
+        // The store agrees with the tiles as built
+        map.resetContiguity();
+        map.forEachTile(t -> {
+                final int i = map.getTileIndex(t);
+                assertEquals(t.isLand(), ts.isLand(i));
+                assertEquals(t.getType().getIndex(), ts.getTypeIndex(i));
+                assertEquals(t.getContiguity(), ts.getContiguity(i));
+                assertEquals(-1, ts.getOwnerIndex(i));
+            });
+
+        // ...and follows changes made through the tiles
+        final Tile tile = map.getTile(2, 10);
+        final int i = map.getTileIndex(tile);
+        tile.setOwner(dutch);
+        assertEquals(dutch, ts.getOwner(i));
+        tile.setHighSeasCount(3);
+        assertEquals(3, ts.getHighSeasCount(i));
+        tile.setStyle(5);
+        assertEquals(5, ts.getStyle(i));
+        assertFalse(ts.hasImprovement(i, road));
+        TileImprovement ti = new TileImprovement(game, tile, road, null);
+        ti.setTurnsToComplete(2);
+        tile.add(ti);
+        assertFalse(ts.hasImprovement(i, road));
+        ti.setTurnsToComplete(0);
+        assertTrue(ts.hasImprovement(i, road));
+        tile.changeType(oceanType);
+        assertFalse(ts.isLand(i));
+        assertEquals(oceanType.getIndex(), ts.getTypeIndex(i));
+    }
+
+    public void testTerrainSweeps() {
+        Game game = getStandardGame();
+        MapBuilder builder = new MapBuilder(game);
+        Map map = builder.setDimensions(10, 15).setBaseTileType(oceanType)
+            .build();
+        game.changeMap(map);
+        final TerrainStore ts = map.getTerrain();
+        map.getTile(2, 3).setType(plainsType);
+        map.getTile(7, 4).setType(plainsType);
+        map.getTile(4, 12).setType(plainsType);
+
+        // The store sweep visits the matching tiles in index order
+        List<Tile> land = new ArrayList<>();
+        map.forEachTerrainTile(i -> ts.isLand(i), t -> land.add(t));
+        assertEquals(map.getTileList(Tile::isLand), land);
+        List<Tile> all = new ArrayList<>();
+        map.forEachTile(t -> all.add(t));
+        assertEquals(map.getTileCount(), all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i, map.getTileIndex(all.get(i)));
+        }
+
+        // Rivers are found in the store when resetting the layers
+        map.resetLayers();
+        assertFalse(map.getLayer() == Map.Layer.RIVERS);
+        final Tile tile = map.getTile(7, 4);
+        tile.add(new TileImprovement(game, tile, spec()
+                .getTileImprovementType("model.improvement.river"), null));
+        assertTrue(ts.hasImprovement(map.getTileIndex(tile), spec()
+                .getTileImprovementType("model.improvement.river")));
+        map.resetLayers();
+        assertEquals(Map.Layer.RIVERS, map.getLayer());
+    }
 }
@@ -20,6 +20,7 @@
 package net.sf.freecol.common.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -349,4 +350,54 @@ public class ModifierTest extends FreeColTestCase {
         assertEquals(Modifier.UNKNOWN, FeatureContainer.applyModifiers(1, turn,
                 featureContainer.getModifiers("test", null, turn)));
     }
+
+    public void testResolvedCache() {
+        Modifier modifier1 = new Modifier("test", 3,
+                                          ModifierType.ADDITIVE);
+        Modifier modifier2 = new Modifier("test", 2,
+                                          ModifierType.MULTIPLICATIVE);
+        Modifier modifier3 = new Modifier("test", 50,
+                                          ModifierType.PERCENTAGE);
+        modifier3.setFirstTurn(new Turn(10));
+
+        FeatureContainer fc1 = new FeatureContainer();
+        FeatureContainer fc2 = new FeatureContainer();
+        fc1.addModifier(modifier1);
+        Turn turn = new Turn(5);
+        assertEquals(4f, FeatureContainer.applySortedModifiers(1, turn,
+                fc1.getSortedModifiers("test", frigate, turn)));
+
+        // Changes invalidate the resolved modifiers.
+        fc1.addModifier(modifier2);
+        assertEquals(8f, FeatureContainer.applySortedModifiers(1, turn,
+                fc1.getSortedModifiers("test", frigate, turn)));
+        fc1.removeModifier(modifier1);
+        assertEquals(2f, FeatureContainer.applySortedModifiers(1, turn,
+                fc1.getSortedModifiers("test", frigate, turn)));
+
+        // Chains combine, and follow changes in any member.
+        fc2.addModifier(modifier1);
+        assertEquals(8f, FeatureContainer.applySortedModifiers(1, turn,
+                FeatureContainer.getChainModifiers("test", frigate, turn,
+                                                   fc1, fc2)));
+        fc2.addModifier(modifier3);
+        Modifier[] mods = FeatureContainer.getChainModifiers("test", frigate,
+            turn, fc1, fc2);
+        assertEquals(2, mods.length);
+        Turn later = new Turn(15);
+        mods = FeatureContainer.getChainModifiers("test", frigate, later,
+                                                  fc1, fc2);
+        assertEquals(3, mods.length);
+        assertEquals(FeatureContainer.applyModifiers(1, later,
+                Arrays.asList(modifier1, modifier2, modifier3)),
+            FeatureContainer.applySortedModifiers(1, later, mods));
+
+        // Abilities are resolved the same way.
+        Ability ability = new Ability("model.ability.test", true);
+        assertFalse(fc1.hasAbility("model.ability.test", null, null));
+        fc1.addAbility(ability);
+        assertTrue(fc1.hasAbility("model.ability.test", null, null));
+        fc1.removeAbility(ability);
+        assertFalse(fc1.hasAbility("model.ability.test", null, null));
+    }
 }
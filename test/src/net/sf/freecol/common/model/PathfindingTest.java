@@ -19,13 +19,25 @@
 
 package net.sf.freecol.common.model;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 import net.sf.freecol.common.model.Colony;
 import net.sf.freecol.common.model.IndianSettlement;
 import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.pathfinding.CostDecider;
+import net.sf.freecol.common.model.pathfinding.CostDeciders;
+import net.sf.freecol.common.model.pathfinding.DistanceField;
 import net.sf.freecol.common.model.pathfinding.GoalDecider;
 import net.sf.freecol.common.model.pathfinding.GoalDeciders;
+import net.sf.freecol.common.model.pathfinding.LandmarkTable;
+import net.sf.freecol.common.model.pathfinding.MovementClass;
+import net.sf.freecol.common.model.pathfinding.PathCache;
+import net.sf.freecol.common.model.pathfinding.PathPlan;
+import net.sf.freecol.common.model.pathfinding.PathQuery;
 import net.sf.freecol.server.model.ServerUnit;
 
 import net.sf.freecol.util.test.FreeColTestCase;
@@ -41,6 +53,9 @@ public class PathfindingTest extends FreeColTestCase {
     private final UnitType colonistType
         = spec().getUnitType("model.unit.freeColonist");
 
+    private final TileType lakeType
+        = spec().getTileType("model.tile.lake");
+
 
 
     public void testComposedGoalDeciders() {
@@ -143,4 +158,285 @@ public class PathfindingTest extends FreeColTestCase {
         assertEquals("Composed-OR GoalDecider should find colony", colonyTile,
                      path.getLastNode().getTile());
     }
+
+    public void testPathCache() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType);
+        game.changeMap(map);
+
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        final Player french = game.getPlayerByNationId("model.nation.french");
+        final PathCache cache = map.getPathCache();
+        final Tile start = map.getTile(5, 5);
+        final Tile end = map.getTile(5, 9);
+        Unit unit1 = new ServerUnit(game, start, dutch, colonistType);
+        Unit unit2 = new ServerUnit(game, start, dutch, colonistType);
+
+        int turns = unit1.getTurnsToReach(end);
+        int misses = cache.getMisses();
+        assertEquals("Same type should share result", turns,
+                     unit2.getTurnsToReach(end));
+        assertEquals(misses, cache.getMisses());
+        assertTrue(cache.getHits() > 0);
+
+        // A unit moving far from the path does not invalidate it
+        Unit other = new ServerUnit(game, map.getTile(15, 13), french,
+                                    colonistType);
+        unit2.getTurnsToReach(end);
+        assertEquals(misses, cache.getMisses());
+
+        // ...but moving next to it does
+        other.setLocation(map.getTile(5, 7));
+        unit2.getTurnsToReach(end);
+        assertEquals(misses + 1, cache.getMisses());
+
+        // ...as does a change of ownership next to it
+        misses = cache.getMisses();
+        map.getTile(6, 8).setOwner(french);
+        unit2.getTurnsToReach(end);
+        assertEquals(misses + 1, cache.getMisses());
+
+        // Goal driven searches are redone after any change, as the
+        // best goal may be away from the path
+        PathQuery query = PathQuery.search(unit1, start,
+            GoalDeciders.getLocationGoalDecider(end), null, 10, null)
+            .cached("testPathCache");
+        assertNotNull(query.run());
+        misses = cache.getMisses();
+        assertNotNull(query.run());
+        assertEquals(misses, cache.getMisses());
+        map.getTile(15, 1).setOwner(french);
+        assertNotNull(query.run());
+        assertEquals(misses + 1, cache.getMisses());
+
+        // Results are dropped on a new turn
+        game.setTurn(new Turn(game.getTurn().getNumber() + 1));
+        unit2.getTurnsToReach(end);
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    public void testDistanceField() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType, true);
+        game.changeMap(map);
+
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        final Tile target = map.getTile(5, 11);
+        final Unit unit = new ServerUnit(game, map.getTile(5, 3), dutch,
+                                         colonistType);
+        DistanceField df = map.getDistanceField(target, unit);
+        assertEquals("Field should agree with search on uniform terrain",
+                     unit.getTurnsToReach(target), df.getTurns(unit.getTile()));
+        assertEquals(0, df.getTurns(target));
+        assertSame("Field should be reused", df,
+                   map.getDistanceField(target, unit));
+
+        // Dropped when a tile changes
+        map.getTile(10, 10).setType(plainsType);
+        assertNotSame(df, map.getDistanceField(target, unit));
+    }
+
+    public void testSearchAll() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType, true);
+        game.changeMap(map);
+
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        List<PathQuery> queries = new ArrayList<>();
+        List<Integer> expect = new ArrayList<>();
+        for (int y = 2; y < 14; y += 2) {
+            Unit unit = new ServerUnit(game, map.getTile(2, y), dutch,
+                                       colonistType);
+            Tile end = map.getTile(17, 14 - y);
+            queries.add(PathQuery.path(unit, unit.getTile(), end, null, null));
+            expect.add(unit.findPath(end).getTotalTurns());
+        }
+        List<PathNode> paths = map.searchAll(queries);
+        assertEquals(queries.size(), paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            assertNotNull(paths.get(i));
+            assertEquals("Result " + i + " out of order", (int)expect.get(i),
+                         paths.get(i).getTotalTurns());
+        }
+    }
+
+    /**
+     * Describe the steps of a path.
+     *
+     * @param path The {@code PathNode} to describe.
+     * @return A description of each node.
+     */
+    private static String describe(PathNode path) {
+        StringBuilder sb = new StringBuilder();
+        for (PathNode p = path; p != null; p = p.next) {
+            sb.append(p.getTile().getId()).append('/').append(p.getTurns())
+                .append('/').append(p.getMovesLeft()).append(' ');
+        }
+        return sb.toString();
+    }
+
+    public void testSearchAllCostDecider() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType, true);
+        game.changeMap(map);
+        final TileType hillsType = spec().getTileType("model.tile.hills");
+        for (int x = 5; x < 16; x += 3) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                if (y % 4 != 1) map.getTile(x, y).setType(hillsType);
+            }
+        }
+
+        // All the queries share one cost decider supplier, and must
+        // agree with serial searches using the same cost decider.
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        final Supplier<CostDecider> cd = CostDeciders::avoidIllegal;
+        List<PathQuery> queries = new ArrayList<>();
+        List<String> expect = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            Tile from = map.getTile(1 + i % 3, i % map.getHeight());
+            Tile to = map.getTile(18 - i % 2, (i * 7) % map.getHeight());
+            Unit unit = new ServerUnit(game, from, dutch, colonistType);
+            queries.add(PathQuery.path(unit, from, to, null, cd));
+            expect.add(describe(unit.findPath(from, to, null,
+                        CostDeciders.avoidIllegal(), null)));
+        }
+        List<PathNode> paths = map.searchAll(queries);
+        assertEquals(queries.size(), paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals("Result " + i, expect.get(i),
+                         describe(paths.get(i)));
+        }
+    }
+
+    public void testLandmarkHeuristic() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType, true);
+        game.changeMap(map);
+
+        // A lake wall with a gap at the bottom, so the direct route
+        // is blocked and the Manhatten heuristic leads into a dead end.
+        for (int y = 0; y < map.getHeight() - 2; y++) {
+            map.getTile(10, y).setType(lakeType);
+        }
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        final Unit unit = new ServerUnit(game, map.getTile(6, 1), dutch,
+                                         colonistType);
+        final Tile end = map.getTile(14, 1);
+
+        map.setLandmarkHeuristic(false);
+        long n0 = map.getNodesExpanded();
+        PathNode plain = unit.findPath(end);
+        final long plainNodes = map.getNodesExpanded() - n0;
+
+        map.setLandmarkHeuristic(true);
+        unit.findPath(end); // Build the tables
+        n0 = map.getNodesExpanded();
+        PathNode guided = unit.findPath(end);
+        final long guidedNodes = map.getNodesExpanded() - n0;
+
+        assertNotNull(plain);
+        assertNotNull(guided);
+        assertEquals("Landmarks must not change the path cost",
+                     plain.getLastNode().getCost(),
+                     guided.getLastNode().getCost());
+        assertTrue("Landmarks should expand fewer nodes (" + guidedNodes
+            + " vs " + plainNodes + ")", guidedNodes < plainNodes);
+    }
+
+    public void testLandmarkPlacement() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType, true);
+        game.changeMap(map);
+
+        // A band of land with a bump in the middle of its top edge.
+        // The bump is the first tile of the region in scan order, but
+        // the first landmark must be a tile farthest from it, at one
+        // end of the band.
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWidth(); x++) {
+                if (y < 5 || y > 9) map.getTile(x, y).setType(lakeType);
+            }
+        }
+        final Tile bump = map.getTile(10, 4);
+        bump.setType(plainsType);
+
+        LandmarkTable table = new LandmarkTable(map, MovementClass.LAND);
+        List<Tile> landmarks = table.getLandmarks(bump);
+        assertFalse(landmarks.isEmpty());
+        final Tile first = landmarks.get(0);
+        final java.util.Map<Tile, Integer> steps = landSteps(bump);
+        int farthest = 0;
+        for (int d : steps.values()) farthest = Math.max(farthest, d);
+        assertNotSame(bump, first);
+        assertEquals(farthest, (int)steps.get(first));
+
+        // The next landmark is farthest from the first
+        assertTrue(landmarks.size() > 1);
+        final java.util.Map<Tile, Integer> fromFirst = landSteps(first);
+        int next = 0;
+        for (int d : fromFirst.values()) next = Math.max(next, d);
+        assertEquals(next, (int)fromFirst.get(landmarks.get(1)));
+    }
+
+    /**
+     * Find the step distances over land from a tile.
+     *
+     * @param start The {@code Tile} to start from.
+     * @return The step distance to each reachable land tile.
+     */
+    private static java.util.Map<Tile, Integer> landSteps(Tile start) {
+        java.util.Map<Tile, Integer> steps = new java.util.HashMap<>();
+        List<Tile> queue = new ArrayList<>();
+        steps.put(start, 0);
+        queue.add(start);
+        for (int i = 0; i < queue.size(); i++) {
+            final Tile t = queue.get(i);
+            for (Tile n : t.getSurroundingTiles(1)) {
+                if (n.isLand() && !steps.containsKey(n)) {
+                    steps.put(n, steps.get(t) + 1);
+                    queue.add(n);
+                }
+            }
+        }
+        return steps;
+    }
+
+    public void testPathPlan() {
+        final Game game = getStandardGame();
+        final Map map = getTestMap(plainsType, true);
+        game.changeMap(map);
+
+        final Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        final Unit unit = new ServerUnit(game, map.getTile(2, 6), dutch,
+                                         colonistType);
+        final Tile end = map.getTile(16, 6);
+        final PathPlan plan = new PathPlan(unit);
+        PathNode path = plan.getPath(end);
+        assertNotNull(path);
+        assertEquals(1, plan.getReplanned());
+
+        // Step along the path, nothing else changes
+        unit.setLocation(path.next.getTile());
+        path = plan.getPath(end);
+        assertEquals(1, plan.getReused());
+        assertEquals(unit.getTile(), path.getTile());
+
+        // Block a tile in the middle of the path
+        final Tile blocked = path.getLastNode().previous.previous.previous
+            .getTile();
+        blocked.setType(lakeType);
+        path = plan.getPath(end);
+        assertEquals(1, plan.getRepaired());
+        assertEquals(1, plan.getReplanned());
+        assertEquals(end, path.getLastNode().getTile());
+        for (PathNode p = path; p != null; p = p.next) {
+            assertNotSame("Repaired path avoids " + blocked, blocked,
+                          p.getTile());
+        }
+
+        // A new destination is planned afresh
+        plan.getPath(map.getTile(2, 12));
+        assertEquals(2, plan.getReplanned());
+    }
 }
@@ -0,0 +1,113 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static net.sf.freecol.common.model.Constants.*;
+import net.sf.freecol.server.model.ServerUnit;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class SpatialIndexTest extends FreeColTestCase {
+
+    private static final UnitType freeColonist
+        = spec().getUnitType("model.unit.freeColonist");
+
+
+    /**
+     * Find the units in range of a tile the slow way.
+     *
+     * @param map The {@code Map} to search.
+     * @param center The {@code Tile} to search from.
+     * @param radius The maximum distance.
+     * @param owner The owner to select.
+     * @return The units found, nearest first.
+     */
+    private static List<Unit> scanUnits(Map map, Tile center, int radius,
+                                        Player owner) {
+        List<Tile> tiles = new ArrayList<>();
+        map.forEachTile(t -> map.getDistance(center, t) <= radius,
+                        t -> tiles.add(t));
+        tiles.sort(Comparator.<Tile>comparingInt(t -> map.getDistance(center, t))
+            .thenComparingInt(map::getTileIndex));
+        List<Unit> ret = new ArrayList<>();
+        for (Tile t : tiles) {
+            for (Unit u : t.getUnitList()) if (u.getOwner() == owner) ret.add(u);
+        }
+        return ret;
+    }
+
+    public void testUnitQueries() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.changeMap(map);
+
+        Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        Player french = game.getPlayerByNationId("model.nation.french");
+        final SpatialIndex index = map.getSpatialIndex();
+        final int w = map.getWidth(), h = map.getHeight();
+        for (int i = 0; i < 12; i++) {
+            Tile t = map.getTile((i * 7) % w, (i * 13) % h);
+            new ServerUnit(game, t, (i % 3 == 0) ? french : dutch,
+                           freeColonist);
+        }
+
+        Tile center = map.getTile(w / 2, h / 2);
+        for (int radius : new int[] { 1, 5, 12, 40 }) {
+            assertEquals(scanUnits(map, center, radius, dutch),
+                index.getUnitsInRange(center, radius,
+                                      u -> u.getOwner() == dutch));
+        }
+        List<Unit> all = scanUnits(map, center, INFINITY, french);
+        assertEquals(all.subList(0, 2),
+            index.getNearestUnits(center, 0, 2, u -> u.getOwner() == french));
+
+        // Moves are followed
+        Unit unit = all.get(0);
+        unit.setLocation(map.getTile(0, 0));
+        assertEquals(scanUnits(map, center, INFINITY, french),
+            index.getUnitsInRange(center, 0, u -> u.getOwner() == french));
+        unit.setLocation(center);
+        assertEquals(unit, index.getNearestUnits(center, 0, 1,
+                u -> u.getOwner() == french).get(0));
+    }
+
+    public void testSettlementQueries() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.changeMap(map);
+
+        Colony near = getStandardColony(1, 5, 8);
+        Colony far = getStandardColony(1, 15, 12);
+        final SpatialIndex index = map.getSpatialIndex();
+        Tile tile = map.getTile(6, 10);
+
+        assertEquals(near, index.getNearestSettlement(tile, 0, s -> true));
+        assertEquals(far, index.getNearestSettlement(tile, 0,
+                                                     s -> s != near));
+        assertNull(index.getNearestSettlement(tile, 3, s -> s != near));
+        assertEquals(2, index.getSettlementsInRange(tile, 0,
+                                                    s -> true).size());
+        assertEquals(near, tile.getNearestSettlement(null, 0, false));
+    }
+}
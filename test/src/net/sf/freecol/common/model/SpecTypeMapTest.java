@@ -0,0 +1,122 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.freecol.common.model;
+
+import java.util.List;
+
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class SpecTypeMapTest extends FreeColTestCase {
+
+    public void testDenseIndices() {
+        final List<GoodsType> goodsTypes = spec().getGoodsTypeList();
+        for (int i = 0; i < goodsTypes.size(); i++) {
+            assertEquals(goodsTypes.get(i).getId(), i,
+                         goodsTypes.get(i).getIndex());
+        }
+        final List<UnitType> unitTypes = spec().getUnitTypeList();
+        for (int i = 0; i < unitTypes.size(); i++) {
+            assertEquals(unitTypes.get(i).getId(), i,
+                         unitTypes.get(i).getIndex());
+        }
+    }
+
+    public void testSpecIntMap() {
+        final GoodsType food = spec().getPrimaryFoodType();
+        final GoodsType furs = spec().getGoodsType("model.goods.furs");
+        final GoodsType bells = spec().getGoodsType("model.goods.bells");
+
+        SpecIntMap<GoodsType> map = new SpecIntMap<>();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.get(food));
+
+        map.put(furs, 10);
+        map.put(food, 5);
+        assertEquals(2, map.size());
+        assertEquals(10, map.get(furs));
+        assertFalse(map.containsKey(bells));
+        assertEquals(15, map.sum());
+
+        // Keys come back in specification order
+        List<GoodsType> keys = map.keys();
+        assertEquals(food, keys.get(0));
+        assertEquals(furs, keys.get(1));
+
+        assertEquals(-5, map.add(food, -10));
+        assertEquals(0, map.add(food, 5));
+        assertFalse(map.containsKey(food));
+        assertEquals(1, map.size());
+
+        // Types without an index still work
+        GoodsType odd = new GoodsType("model.goods.odd", spec());
+        assertEquals(-1, odd.getIndex());
+        map.put(odd, 3);
+        assertEquals(3, map.get(odd));
+        assertEquals(2, map.size());
+        assertEquals(3, map.remove(odd));
+        assertEquals(1, map.size());
+
+        SpecIntMap<GoodsType> copy = new SpecIntMap<>(map);
+        assertEquals(10, copy.get(furs));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(10, copy.get(furs));
+    }
+
+    public void testSpecTypeMap() {
+        final UnitType colonist = spec().getDefaultUnitType();
+        final UnitType soldier
+            = spec().getUnitType("model.unit.veteranSoldier");
+
+        SpecTypeMap<UnitType, String> map = new SpecTypeMap<>();
+        assertNull(map.get(colonist));
+        assertNull(map.put(soldier, "b"));
+        assertNull(map.put(colonist, "a"));
+        assertEquals("b", map.put(soldier, "c"));
+        assertEquals(2, map.size());
+        assertEquals("a", map.get(colonist));
+        assertEquals("c", map.remove(soldier));
+        assertFalse(map.containsKey(soldier));
+        assertEquals(1, map.values().size());
+        try {
+            map.put(soldier, null);
+            fail("Null values are not permitted");
+        } catch (NullPointerException npe) {}
+    }
+
+    public void testTypeCountMap() {
+        final GoodsType food = spec().getPrimaryFoodType();
+        final GoodsType furs = spec().getGoodsType("model.goods.furs");
+
+        TypeCountMap<GoodsType> map = new TypeCountMap<>();
+        assertNull(map.incrementCount(furs, 4));
+        assertEquals(Integer.valueOf(4), map.incrementCount(furs, 2));
+        assertEquals(6, map.getCount(furs));
+        assertNull(map.incrementCount(furs, -6));
+        assertFalse(map.containsKey(furs));
+
+        TypeCountMap<GoodsType> other = new TypeCountMap<>();
+        other.incrementCount(food, 3);
+        map.add(other);
+        map.add(other);
+        assertEquals(6, map.getCount(food));
+        assertEquals(1, map.keySet().size());
+    }
+}
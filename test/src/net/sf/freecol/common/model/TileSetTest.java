@@ -0,0 +1,101 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class TileSetTest extends FreeColTestCase {
+
+    public void testSetOperations() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.changeMap(map);
+
+        TileSet a = new TileSet(map);
+        assertTrue(a.isEmpty());
+        assertTrue(a.add(map.getTile(0, 0)));
+        assertFalse(a.add(map.getTile(0, 0)));
+        assertTrue(a.add(map.getTile(5, 7)));
+        assertTrue(a.add(map.getTile(map.getWidth() - 1,
+                                     map.getHeight() - 1)));
+        assertEquals(3, a.size());
+        assertTrue(a.contains(map.getTile(5, 7)));
+        assertFalse(a.contains(map.getTile(7, 5)));
+        assertFalse(a.contains(null));
+
+        TileSet b = new TileSet(map);
+        map.forEachInDisk(map.getTile(5, 7), 0, 1, b::addIndex);
+        assertEquals(9, b.size());
+
+        Set<Tile> expected = new HashSet<>(a);
+        expected.addAll(new HashSet<>(b));
+        TileSet union = new TileSet(map, a);
+        assertTrue(union.addAll(b));
+        assertEquals(expected, union);
+        assertEquals(11, union.size());
+
+        TileSet difference = new TileSet(map, union);
+        assertTrue(difference.removeAll(b));
+        assertEquals(2, difference.size());
+        assertFalse(difference.contains(map.getTile(5, 7)));
+
+        TileSet intersection = new TileSet(map, a);
+        assertTrue(intersection.retainAll(b));
+        assertEquals(1, intersection.size());
+        assertTrue(intersection.containsAll(new HashSet<>(intersection)));
+
+        // Iteration is in index order and supports removal
+        int last = -1;
+        for (Iterator<Tile> it = union.iterator(); it.hasNext();) {
+            Tile t = it.next();
+            assertTrue(map.getTileIndex(t) > last);
+            last = map.getTileIndex(t);
+            if (b.contains(t)) it.remove();
+        }
+        assertEquals(difference, union);
+    }
+
+    public void testEncoding() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.changeMap(map);
+
+        TileSet tiles = new TileSet(map);
+        map.forEachInDisk(map.getTile(4, 4), 0, 2, tiles::addIndex);
+        tiles.add(map.getTile(map.getWidth() - 1, map.getHeight() - 1));
+        TileSet copy = TileSet.decode(map, tiles.encode());
+        assertEquals(tiles, copy);
+        assertEquals(tiles.size(), copy.size());
+
+        assertEquals(new TileSet(map),
+                     TileSet.decode(map, new TileSet(map).encode()));
+        try {
+            TileSet.decode(map, "AAAA");
+            fail("Decoded a truncated tile set");
+        } catch (IllegalArgumentException iae) {
+            ; // Expected
+        }
+    }
+}
@@ -776,6 +776,47 @@ public class TileTest extends FreeColTestCase {
         // work locations from contributing their units.
     }
 
+    /**
+     * Get the view of a tile a player gets from a cached copy.
+     *
+     * @param tile The {@code Tile} to view.
+     * @param player The {@code Player} viewing the tile.
+     * @param copy The cached copy of the tile.
+     * @return The serialized tile as seen by the player.
+     */
+    private static String cachedView(Tile tile, Player player, Tile copy)
+        throws Exception {
+        tile.seeTile(player);
+        tile.cacheUnseen(copy);
+        return tile.serialize(player);
+    }
+
+    public void testTileToCache() throws Exception {
+        Game game = getStandardGame();
+        game.changeMap(getTestMap(plains));
+
+        Colony colony = getStandardColony(3);
+        Player french = game.getPlayerByNationId("model.nation.french");
+        Tile center = colony.getTile();
+        Tile owned = center.getNeighbourOrNull(Direction.N);
+        owned.add(new TileImprovement(game, owned, road, null));
+        assertFalse(french.canSee(center));
+
+        for (Tile tile : new Tile[] { center, owned }) {
+            Tile copy = tile.copy(game);
+            copy.clearUnitList();
+            if (copy.getColony() != null) {
+                copy.getColony().setDisplayUnitCount(1);
+            }
+            String expected = cachedView(tile, french, copy);
+
+            Tile cached = tile.getTileToCache();
+            assertFalse(cached == tile);
+            assertEquals(tile.getId(), cached.getId());
+            assertEquals(expected, cachedView(tile, french, cached));
+        }
+    }
+
     public void testGetBestDisembarkTile() {
         Game game = getStandardGame();
         Map map = getCoastTestMap(plains, true);
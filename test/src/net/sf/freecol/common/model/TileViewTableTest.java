@@ -0,0 +1,101 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.common.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class TileViewTableTest extends FreeColTestCase {
+
+    private static final GoodsType furs
+        = spec().getGoodsType("model.goods.furs");
+    private static final GoodsType sugar
+        = spec().getGoodsType("model.goods.sugar");
+    private static final UnitType expertFarmer
+        = spec().getUnitType("model.unit.expertFarmer");
+
+
+    public void testInterning() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.changeMap(map);
+
+        Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        Player french = game.getPlayerByNationId("model.nation.french");
+        TileViewTable views = new TileViewTable(map.getTileCount());
+        assertNull(views.get(dutch, 3));
+
+        // Equal views of the same tile are shared
+        Tile copy = map.getTile(3, 0).getTileToCache();
+        List<GoodsType> wanted = Arrays.asList(furs, sugar);
+        views.set(dutch, 3, TileView.of(copy, expertFarmer, wanted));
+        views.set(french, 3, TileView.of(copy, expertFarmer, wanted));
+        assertSame(views.get(dutch, 3), views.get(french, 3));
+        assertSame(copy, views.get(french, 3).getTile(map.getTile(3, 0)));
+        assertEquals(wanted, views.get(french, 3).getWantedGoods());
+
+        // ...but not different copies or internals
+        views.set(french, 3, TileView.of(copy, null, wanted));
+        assertNotSame(views.get(dutch, 3), views.get(french, 3));
+        views.set(french, 3, TileView.of(map.getTile(3, 0).getTileToCache(),
+                                         expertFarmer, wanted));
+        assertNotSame(views.get(dutch, 3), views.get(french, 3));
+
+        // Live views without internals are all the one view
+        assertSame(TileView.LIVE, TileView.of(null, null, null));
+        views.set(dutch, 4, TileView.LIVE);
+        assertTrue(views.get(dutch, 4).isLive());
+        views.set(dutch, 4, null);
+        assertNull(views.get(dutch, 4));
+    }
+
+    public void testFootprint() {
+        Game game = getStandardGame();
+        Map map = getTestMap();
+        game.changeMap(map);
+
+        final TileViewTable views = map.getTileViews();
+        final List<Player> players = game.getLiveEuropeanPlayerList();
+        final int n = map.getTileCount();
+        assertTrue(players.size() > 1);
+
+        // Every player sees every tile, sharing one view
+        map.forEachTile(t -> {
+                for (Player p : players) t.seeTile(p);
+            });
+        assertEquals(n * players.size(), views.countEntries());
+        assertEquals(1, views.countDistinctViews());
+
+        // Every player caches the same stale state of every tile,
+        // needing only one view per tile
+        map.forEachTile(t -> {
+                Tile copy = t.getTileToCache();
+                for (Player p : players) t.setCachedTile(p, copy);
+            });
+        assertEquals(n * players.size(), views.countEntries());
+        assertEquals(n, views.countDistinctViews());
+        map.forEachTile(t -> {
+                for (Player p : players) assertTrue(t.isExploredBy(p));
+            });
+    }
+}
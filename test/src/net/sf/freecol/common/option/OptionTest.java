@@ -107,5 +107,27 @@ public class OptionTest extends FreeColTestCase {
 
     }
 
+    public void testOptionHandles() {
+        final Specification spec = spec();
+        BooleanOptionHandle fog = spec.getFogOfWarHandle();
+        assertSame(fog, spec.getBooleanHandle(GameOptions.FOG_OF_WAR));
+
+        final boolean old = spec.getBoolean(GameOptions.FOG_OF_WAR);
+        assertEquals(old, fog.getValue());
+        try {
+            spec.setBoolean(GameOptions.FOG_OF_WAR, !old);
+            assertEquals(!old, fog.getValue());
+        } finally {
+            spec.setBoolean(GameOptions.FOG_OF_WAR, old);
+        }
+        assertEquals(old, fog.getValue());
+
+        IntegerOptionHandle money
+            = spec.getIntegerHandle(GameOptions.STARTING_MONEY);
+        assertEquals(spec.getInteger(GameOptions.STARTING_MONEY),
+                     money.getValue());
 
+        assertSame(spec.getOption(GameOptions.FOG_OF_WAR, BooleanOption.class),
+                   fog.getOption());
+    }
 }
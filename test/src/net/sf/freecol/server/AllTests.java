@@ -28,7 +28,9 @@ public class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("Test for net.sf.freecol.server");
         //$JUnit-BEGIN$
+        suite.addTestSuite(CommandReplayTest.class);
         suite.addTestSuite(SaveLoadTest.class);
+        suite.addTestSuite(SimulationTest.class);
         //$JUnit-END$
         suite.addTest(net.sf.freecol.server.ai.AllTests.suite());
         suite.addTest(net.sf.freecol.server.control.AllTests.suite());
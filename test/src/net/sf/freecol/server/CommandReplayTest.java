@@ -0,0 +1,68 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server;
+
+import java.io.File;
+
+import net.sf.freecol.common.util.LogBuilder;
+import net.sf.freecol.server.control.CommandJournal;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class CommandReplayTest extends FreeColTestCase {
+
+    @Override
+    public void tearDown() throws Exception {
+        ServerTestHelper.stopServer();
+        super.tearDown();
+    }
+
+    public void testReplaySimulation() throws Exception {
+        File journal = File.createTempFile("simulation", ".journal");
+        File save = CommandJournal.getSavegameFile(journal);
+        FreeColServer server = ServerTestHelper.startServer(false, false);
+        server.setJournalFile(journal);
+        Simulation simulation = new Simulation(1);
+        assertTrue(simulation.run(server, null, 120000L));
+        final CommandJournal recorded = server.getJournal();
+        assertNotNull(recorded);
+        final int count = recorded.getCount();
+        assertTrue(count > 0);
+        ServerTestHelper.stopServer();
+        assertNull(server.getJournal());
+        assertTrue(save.exists());
+
+        try (CommandJournal.Playback playback
+                = new CommandJournal.Playback(journal)) {
+            FreeColServer replayServer = CommandReplay.load(playback);
+            ServerTestHelper.setServer(replayServer);
+            CommandReplay replay = new CommandReplay(replayServer);
+            replay.prepare(playback);
+            assertTrue(replay.run(playback));
+            assertEquals(count, replay.getCommands());
+            assertEquals(0, replay.getDivergences());
+            LogBuilder lb = new LogBuilder(256);
+            replay.report(lb);
+            assertTrue(lb.toString().contains("endTurn"));
+        }
+        journal.delete();
+        save.delete();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server;
+
+import java.io.File;
+
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class SimulationTest extends FreeColTestCase {
+
+    @Override
+    public void tearDown() throws Exception {
+        ServerTestHelper.stopServer();
+        super.tearDown();
+    }
+
+    public void testPercentile() {
+        long[] none = {};
+        assertEquals(0L, Simulation.percentile(none, 50));
+
+        long[] values = { 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L };
+        assertEquals(5L, Simulation.percentile(values, 50));
+        assertEquals(9L, Simulation.percentile(values, 90));
+        assertEquals(10L, Simulation.percentile(values, 99));
+        assertEquals(10L, Simulation.percentile(values, 100));
+        assertEquals(1L, Simulation.percentile(values, 0));
+    }
+
+    public void testTurnLimit() {
+        Simulation simulation = new Simulation(2);
+        simulation.begin();
+        assertTrue(simulation.turnCompleted());
+        assertFalse(simulation.turnCompleted());
+        assertEquals(2, simulation.getCompletedTurns());
+        assertFalse(simulation.isOver());
+        simulation.finish(null);
+        assertTrue(simulation.isOver());
+        assertFalse(simulation.turnCompleted());
+    }
+
+    public void testRun() throws Exception {
+        FreeColServer server = ServerTestHelper.startServer(false, false);
+        File file = File.createTempFile("simulation", ".fsg");
+        Simulation simulation = new Simulation(2);
+        assertTrue(simulation.run(server, file, 120000L));
+        assertTrue(simulation.isOver());
+        assertTrue(simulation.getWinner() != null
+            || simulation.getCompletedTurns() == 2);
+        assertNull(server.getGame().getCurrentPlayer());
+        assertTrue(file.length() > 0);
+        file.delete();
+    }
+}
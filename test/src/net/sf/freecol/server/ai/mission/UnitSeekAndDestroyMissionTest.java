@@ -21,10 +21,12 @@ package net.sf.freecol.server.ai.mission;
 
 import net.sf.freecol.common.model.Game;
 import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.PathNode;
 import net.sf.freecol.common.model.Stance;
 import net.sf.freecol.common.model.Role;
 import net.sf.freecol.common.model.Tile;
 import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.Unit.MoveType;
 import net.sf.freecol.common.model.UnitType;
 import net.sf.freecol.common.util.LogBuilder;
 import net.sf.freecol.server.ServerTestHelper;
@@ -123,4 +125,34 @@ public class UnitSeekAndDestroyMissionTest extends FreeColTestCase {
         assertFalse("UnitSeekAndDestroyMission should NOT be valid anymore, defender in colony",
                     aiUnit.getMission().isValid());
     }
+
+    public void testStopAtLongRangeEstimate() {
+        Game game = ServerTestHelper.startServerGame(getTestMap());
+        Map map = game.getMap();
+        AIMain aiMain = ServerTestHelper.getServer().getAIMain();
+
+        ServerPlayer player1 = getServerPlayer(game, "model.nation.dutch");
+        Tile tile1 = map.getTile(2, 2);
+        Unit attacker = new ServerUnit(game, tile1, player1, veteranType);
+        AIUnit aiUnit = aiMain.getAIUnit(attacker);
+        ServerPlayer player2 = getServerPlayer(game, "model.nation.french");
+        Tile tile2 = map.getTile(12, 10);
+        Unit defender = new ServerUnit(game, tile2, player2, veteranType);
+        player1.setStance(player2, Stance.WAR);
+        player2.setStance(player1, Stance.WAR);
+        UnitSeekAndDestroyMission mission
+            = new UnitSeekAndDestroyMission(aiMain, aiUnit, defender);
+
+        // A long range path whose refined part is used up ends with
+        // an estimated node that is not adjacent.  The unit must stop
+        // there for the turn rather than try to move.
+        final int moves = attacker.getMovesLeft();
+        PathNode start = new PathNode(tile1, moves, 0, false, null, null);
+        start.next = new PathNode(tile2, 0, 3, false, start, null);
+        assertNull(start.next.getDirection());
+        assertEquals(MoveType.MOVE_NO_MOVES,
+                     mission.followMapPath(start.next, lb));
+        assertEquals(tile1, attacker.getTile());
+        assertEquals(moves, attacker.getMovesLeft());
+    }
 }
@@ -28,6 +28,7 @@ public class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("Test for net.sf.freecol.server.control");
         //$JUnit-BEGIN$
+        suite.addTestSuite(CommandJournalTest.class);
         suite.addTestSuite(InGameControllerTest.class);
         //$JUnit-END$
         return suite;
@@ -0,0 +1,84 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.control;
+
+import java.io.File;
+import java.util.Collections;
+
+import net.sf.freecol.common.model.Game;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.networking.EndTurnMessage;
+import net.sf.freecol.common.networking.RenameMessage;
+import net.sf.freecol.util.test.FreeColTestCase;
+
+
+public class CommandJournalTest extends FreeColTestCase {
+
+    public void testSavegameFile() {
+        File journal = new File("/tmp/run.journal");
+        assertEquals("run.fsg",
+            CommandJournal.getSavegameFile(journal).getName());
+        assertEquals(journal.getAbsoluteFile().getParentFile(),
+            CommandJournal.getSavegameFile(journal).getParentFile());
+    }
+
+    public void testRoundTrip() throws Exception {
+        Game game = getStandardGame();
+        Player dutch = game.getPlayerByNationId("model.nation.dutch");
+        Player french = game.getPlayerByNationId("model.nation.french");
+        game.setCurrentPlayer(dutch);
+
+        File file = File.createTempFile("commands", ".journal");
+        File save = CommandJournal.getSavegameFile(file);
+        RenameMessage rename = new RenameMessage(french, "Gaul");
+        try (CommandJournal journal = new CommandJournal(file, save,
+                "0123", Collections.singletonList(dutch), 5)) {
+            journal.record(game, dutch, new EndTurnMessage());
+            journal.record(game, french, rename);
+            assertEquals(2, journal.getCount());
+        }
+
+        try (CommandJournal.Playback playback
+                = new CommandJournal.Playback(file)) {
+            assertEquals(save, playback.getSavegameFile());
+            assertEquals("0123", playback.getRandomState());
+            assertEquals(Collections.singletonList(dutch.getId()),
+                         playback.getConnected());
+            assertEquals(5, playback.getSimulate());
+
+            CommandJournal.Entry e = playback.next(game);
+            assertNotNull(e);
+            assertEquals(0, e.sequence);
+            assertEquals(game.getTurn().getNumber(), e.turn);
+            assertEquals(dutch.getId(), e.playerId);
+            assertEquals(dutch.getId(), e.currentId);
+            assertEquals(EndTurnMessage.TAG, e.message.getType());
+
+            e = playback.next(game);
+            assertNotNull(e);
+            assertEquals(1, e.sequence);
+            assertEquals(french.getId(), e.playerId);
+            assertEquals(rename.toString(), e.message.toString());
+
+            assertNull(playback.next(game));
+        }
+        file.delete();
+    }
+}
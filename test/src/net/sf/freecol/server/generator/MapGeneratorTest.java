@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -33,6 +34,7 @@ import net.sf.freecol.common.io.FreeColSavegameFile;
 import net.sf.freecol.common.model.FreeColObject;
 import net.sf.freecol.common.model.Game;
 import net.sf.freecol.common.model.IndianSettlement;
+import net.sf.freecol.common.model.LandMap;
 import net.sf.freecol.common.model.Map;
 import net.sf.freecol.common.model.Nation;
 import net.sf.freecol.common.model.NationOptions;
@@ -40,9 +42,11 @@ import net.sf.freecol.common.model.Player;
 import net.sf.freecol.common.model.Region;
 import net.sf.freecol.common.model.Specification;
 import net.sf.freecol.common.model.Tile;
+import net.sf.freecol.common.model.TileImprovement;
 import net.sf.freecol.common.model.Turn;
 import net.sf.freecol.common.option.MapGeneratorOptions;
 import net.sf.freecol.common.util.LogBuilder;
+import net.sf.freecol.common.util.RandomUtils.RandomIntCache;
 import net.sf.freecol.server.FreeColServer;
 import net.sf.freecol.server.model.ServerGame;
 import net.sf.freecol.server.model.ServerPlayer;
@@ -266,4 +270,49 @@ public class MapGeneratorTest extends FreeColTestCase {
         assertFalse(northAtlantic.getDiscoverable());
         assertNull(northAtlantic.getDiscoverableRegion());
     }
+
+    /**
+     * Generate terrain from a fixed seed with a given parallelism, and
+     * describe each tile.
+     */
+    private List<String> generateTerrain(Game game, int parallelism) {
+        final Random random = new Random(17);
+        final LandMap landMap = new LandMap(game.getMapGeneratorOptions(),
+            new RandomIntCache(null, "test", random, 1 << 16, 512));
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        final Map map;
+        try {
+            map = new TerrainGenerator(random,
+                new GenerationStages(random.nextLong(), pool))
+                .generateMap(game, null, landMap, new LogBuilder(0));
+        } finally {
+            pool.shutdown();
+        }
+        List<String> ret = new ArrayList<>();
+        map.forEachTile(t -> {
+                StringBuilder sb = new StringBuilder(t.getType().getId());
+                sb.append('/').append(t.getStyle());
+                if (t.getResource() != null) {
+                    sb.append('/').append(t.getResource().getType().getId())
+                        .append('=').append(t.getResource().getQuantity());
+                }
+                for (TileImprovement ti : t.getTileImprovements()) {
+                    sb.append('/').append(ti.getType().getId());
+                }
+                ret.add(sb.toString());
+            });
+        return ret;
+    }
+
+    public void testParallelGeneration() {
+        spec().setFile(MapGeneratorOptions.IMPORT_FILE, null);
+        Game game = getStandardGame();
+
+        List<String> serial = generateTerrain(game, 1);
+        List<String> parallel = generateTerrain(game, 4);
+        assertEquals("Map size", serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals("Tile " + i, serial.get(i), parallel.get(i));
+        }
+    }
 }
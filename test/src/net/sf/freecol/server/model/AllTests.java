@@ -30,6 +30,7 @@ public class AllTests {
         //$JUnit-BEGIN$
         suite.addTestSuite(ServerBuildingTest.class);
         suite.addTestSuite(ServerColonyTest.class);
+        suite.addTestSuite(ServerGameTest.class);
         suite.addTestSuite(ServerIndianSettlementTest.class);
         suite.addTestSuite(ServerPlayerTest.class);
         suite.addTestSuite(ServerUnitTest.class);
@@ -0,0 +1,221 @@
+/**
+ *  Copyright (C) 2002-2020  The FreeCol Team
+ *
+ *  This file is part of FreeCol.
+ *
+ *  FreeCol is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FreeCol is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FreeCol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.sf.freecol.server.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.sf.freecol.common.model.Map;
+import net.sf.freecol.common.model.Player;
+import net.sf.freecol.common.model.Role;
+import net.sf.freecol.common.model.Settlement;
+import net.sf.freecol.common.model.Stance;
+import net.sf.freecol.common.model.TileType;
+import net.sf.freecol.common.model.Unit;
+import net.sf.freecol.common.model.UnitType;
+import net.sf.freecol.common.networking.ChangeSet;
+import net.sf.freecol.common.networking.ChangeSet.See;
+import net.sf.freecol.common.networking.ErrorMessage;
+import net.sf.freecol.common.networking.Message;
+import net.sf.freecol.common.option.GameOptions;
+import net.sf.freecol.common.util.LogBuilder;
+import static net.sf.freecol.common.util.CollectionUtils.*;
+import net.sf.freecol.server.ServerTestHelper;
+import net.sf.freecol.util.test.FreeColTestCase;
+import net.sf.freecol.util.test.FreeColTestUtils;
+
+
+public class ServerGameTest extends FreeColTestCase {
+
+    private static final Role missionaryRole
+        = spec().getRole("model.role.missionary");
+    private static final TileType plains
+        = spec().getTileType("model.tile.plains");
+    private static final UnitType colonistType
+        = spec().getUnitType("model.unit.freeColonist");
+    private static final UnitType expertFarmerType
+        = spec().getUnitType("model.unit.expertFarmer");
+    private static final UnitType jesuitMissionaryType
+        = spec().getUnitType("model.unit.jesuitMissionary");
+
+
+    @Override
+    public void tearDown() throws Exception {
+        ServerTestHelper.stopServerGame();
+        super.tearDown();
+    }
+
+    /**
+     * Run some new turns with two colonies from a fixed seed.
+     *
+     * @param threads The number of new turn threads.
+     * @param natives If true, add a native settlement with a
+     *     missionary, and units on the map and in Europe.
+     * @return A summary of the resulting game state.
+     */
+    private String runTurns(int threads, boolean natives) {
+        Map map = getTestMap(plains);
+        ServerGame game = ServerTestHelper.startServerGame(map);
+        game.setNewTurnThreads(threads);
+        ServerPlayer dutch = getServerPlayer(game, "model.nation.dutch");
+        ServerPlayer french = getServerPlayer(game, "model.nation.french");
+        FreeColTestUtils.getColonyBuilder().player(dutch).colonyName("Dutch")
+            .colonyTile(map.getTile(5, 8)).initialColonists(3).build();
+        FreeColTestUtils.getColonyBuilder().player(french).colonyName("French")
+            .colonyTile(map.getTile(10, 12)).initialColonists(4).build();
+        if (natives) {
+            Unit missionary = new ServerUnit(game, null, dutch,
+                jesuitMissionaryType, missionaryRole);
+            new FreeColTestCase.IndianSettlementBuilder(game)
+                .settlementTile(map.getTile(15, 4)).initialBravesInCamp(4)
+                .missionary(missionary).build();
+            new ServerUnit(game, map.getTile(3, 3), dutch, colonistType);
+            new ServerUnit(game, map.getTile(12, 5), french, colonistType);
+            new ServerUnit(game, dutch.getEurope(), dutch, colonistType);
+        }
+
+        Random random = new Random(17);
+        for (int turn = 0; turn < 5; turn++) {
+            game.csNewTurn(random, new LogBuilder(0), new ChangeSet());
+        }
+
+        return summarize(game, true);
+    }
+
+    /**
+     * Summarize the state of a game after some new turns.
+     *
+     * @param game The {@code ServerGame} to summarize.
+     * @param ids If true, include the unit identifiers.
+     * @return A summary of the game state.
+     */
+    private static String summarize(ServerGame game, boolean ids) {
+        StringBuilder sb = new StringBuilder();
+        for (Player p : game.getLivePlayerList()) {
+            sb.append(p.getId()).append(" gold=").append(p.getGold())
+                .append(" immigration=").append(p.getImmigration())
+                .append(" liberty=").append(p.getLiberty()).append('\n');
+            for (Settlement st : sort(p.getSettlementList())) {
+                sb.append(' ').append(st.getId())
+                    .append(" units=").append(st.getUnitCount())
+                    .append(" goods=").append(st.getCompactGoodsList())
+                    .append('\n');
+            }
+            List<String> units = new ArrayList<>();
+            for (Unit u : sort(p.getUnitSet())) {
+                units.add(' ' + ((ids) ? u.getId() + ' ' : "")
+                    + u.getType().getSuffix() + ' '
+                    + ((u.getLocation() == null) ? null
+                        : u.getLocation().getId()) + ' '
+                    + u.getMovesLeft() + '\n');
+            }
+            Collections.sort(units);
+            for (String u : units) sb.append(u);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Run a few new turns on expert-only colonies with natural
+     * disasters disabled, so that the outcome does not depend on how
+     * the new turn consumes randomness or allocates identifiers.
+     *
+     * @param threads The number of new turn threads.
+     * @return A summary of the resulting game state, without unit
+     *     identifiers.
+     */
+    private String runExpertTurns(int threads) {
+        Map map = getTestMap(plains);
+        ServerGame game = ServerTestHelper.startServerGame(map);
+        game.setNewTurnThreads(threads);
+        ServerPlayer dutch = getServerPlayer(game, "model.nation.dutch");
+        ServerPlayer french = getServerPlayer(game, "model.nation.french");
+        FreeColTestUtils.getColonyBuilder().player(dutch).colonyName("Dutch")
+            .colonyTile(map.getTile(5, 8)).addColonist(expertFarmerType)
+            .addColonist(expertFarmerType).build();
+        FreeColTestUtils.getColonyBuilder().player(french).colonyName("French")
+            .colonyTile(map.getTile(10, 12)).addColonist(expertFarmerType)
+            .addColonist(expertFarmerType).addColonist(expertFarmerType)
+            .build();
+        new ServerUnit(game, map.getTile(3, 3), dutch, expertFarmerType);
+        new ServerUnit(game, dutch.getEurope(), dutch, expertFarmerType);
+
+        Random random = new Random(17);
+        for (int turn = 0; turn < 3; turn++) {
+            game.csNewTurn(random, new LogBuilder(0), new ChangeSet());
+        }
+        return summarize(game, false);
+    }
+
+    public void testParallelNewTurnReproducible() {
+        final String serial = runTurns(1, false);
+        assertEquals(serial, runTurns(2, false));
+        assertEquals(serial, runTurns(2, false));
+        assertEquals(serial, runTurns(4, false));
+    }
+
+    public void testParallelNewTurnWithNatives() {
+        final String serial = runTurns(1, true);
+        assertTrue(serial, serial.contains("brave"));
+        assertEquals(serial, runTurns(2, true));
+        assertEquals(serial, runTurns(4, true));
+    }
+
+    public void testSplitNewTurnMatchesClassic() {
+        final int disasters = spec().getInteger(GameOptions.NATURAL_DISASTERS);
+        spec().setInteger(GameOptions.NATURAL_DISASTERS, 0);
+        try {
+            final String classic = runExpertTurns(0);
+            assertTrue(classic, classic.contains("expertFarmer"));
+            assertEquals(classic, runExpertTurns(1));
+        } finally {
+            spec().setInteger(GameOptions.NATURAL_DISASTERS, disasters);
+        }
+    }
+
+    public void testBuildForPlayers() {
+        Map map = getTestMap(plains);
+        ServerGame game = ServerTestHelper.startServerGame(map);
+        ServerPlayer dutch = getServerPlayer(game, "model.nation.dutch");
+        ServerPlayer french = getServerPlayer(game, "model.nation.french");
+        List<Player> players = game.getLivePlayerList();
+
+        // Mixed changes build the same messages as for each player alone
+        ChangeSet cs = new ChangeSet();
+        cs.addAttribute(See.all(), "key", "value");
+        cs.addStance(See.all(), dutch, Stance.PEACE, french);
+        cs.add(See.only(dutch), dutch);
+        cs.add(See.all().except(french), new ErrorMessage("error"));
+        java.util.Map<Player, Message> built = cs.build(players);
+        for (Player p : players) {
+            assertEquals(p.getId(), String.valueOf(cs.build(p)),
+                         String.valueOf(built.get(p)));
+        }
+
+        // Players of one visibility class share the shared messages
+        cs = new ChangeSet().addStance(See.all(), dutch, Stance.PEACE,
+                                       french);
+        built = cs.build(players);
+        assertNotNull(built.get(dutch));
+        assertSame(built.get(dutch), built.get(french));
+    }
+}
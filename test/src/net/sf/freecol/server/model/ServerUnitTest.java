@@ -21,6 +21,8 @@ package net.sf.freecol.server.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import net.sf.freecol.common.model.BuildingType;
 import net.sf.freecol.common.model.Colony;
@@ -40,6 +42,7 @@ import net.sf.freecol.common.model.Unit;
 import net.sf.freecol.common.model.UnitChangeType;
 import net.sf.freecol.common.model.UnitType;
 import net.sf.freecol.common.model.WorkLocation;
+import net.sf.freecol.common.networking.ChangeSet;
 import net.sf.freecol.common.option.GameOptions;
 import static net.sf.freecol.common.util.CollectionUtils.*;
 import net.sf.freecol.server.ServerTestHelper;
@@ -520,4 +523,37 @@ public class ServerUnitTest extends FreeColTestCase {
         assertEquals("Lumber delivered with hardy pioneer and mill",
                      20 * 2 * 3, colony.getGoodsCount(lumberType));
     }
+
+    /**
+     * Check that incremental visibility updates agree with a rebuild.
+     */
+    public void testIncrementalVisibility() {
+        Game game = ServerTestHelper.startServerGame(getTestMap(plains));
+        Map map = game.getMap();
+
+        ServerPlayer dutch
+            = (ServerPlayer)game.getPlayerByNationId("model.nation.dutch");
+        ServerUnit scout = new ServerUnit(game, map.getTile(5, 8), dutch,
+                                          colonistType);
+        new ServerUnit(game, map.getTile(6, 9), dutch, colonistType);
+        dutch.exploreForUnit(scout);
+        assertTrue(dutch.canSee(map.getTile(5, 8)));
+
+        Random random = new Random(1);
+        Tile tile = scout.getTile();
+        for (Direction d : new Direction[] {
+                Direction.E, Direction.E, Direction.SE, Direction.S,
+                Direction.W, Direction.NW, Direction.N }) {
+            tile = tile.getNeighbourOrNull(d);
+            scout.setMovesLeft(scout.getInitialMovesLeft());
+            scout.csMove(tile, random, new ChangeSet());
+            assertEquals(tile, scout.getTile());
+
+            Set<Tile> visible = dutch.getVisibleTileSet();
+            for (Tile t : map.getTileSet(t -> true)) {
+                assertEquals("Visibility of " + t + " after move to " + tile,
+                             visible.contains(t), dutch.canSee(t));
+            }
+        }
+    }
 }